@@ -117,6 +117,8 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
   private final int _defaultHllLog2m;
   private final boolean _enableQueryLimitOverride;
   private final boolean _enableDistinctCountBitmapOverride;
+  // Result cache is only enabled when the max number of entries is configured
+  private final BrokerResultCache _resultCache;
 
   public BaseBrokerRequestHandler(PinotConfiguration config, RoutingManager routingManager,
       AccessControlFactory accessControlFactory, QueryQuotaManager queryQuotaManager, TableCache tableCache,
@@ -144,10 +146,14 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
         Broker.DEFAULT_BROKER_QUERY_LOG_MAX_RATE_PER_SECOND));
     _numDroppedLog = new AtomicInteger(0);
     _numDroppedLogRateLimiter = RateLimiter.create(1.0);
-
-    LOGGER
-        .info("Broker Id: {}, timeout: {}ms, query response limit: {}, query log length: {}, query log max rate: {}qps",
-            _brokerId, _brokerTimeoutMs, _queryResponseLimit, _queryLogLength, _queryLogRateLimiter.getRate());
+    int resultCacheMaxNumEntries = config.getProperty(Broker.CONFIG_OF_BROKER_RESULT_CACHE_MAX_NUM_ENTRIES,
+        Broker.DEFAULT_BROKER_RESULT_CACHE_MAX_NUM_ENTRIES);
+    _resultCache = resultCacheMaxNumEntries > 0 ? new BrokerResultCache(resultCacheMaxNumEntries) : null;
+
+    LOGGER.info(
+        "Broker Id: {}, timeout: {}ms, query response limit: {}, query log length: {}, query log max rate: {}qps, "
+            + "result cache max entries: {}", _brokerId, _brokerTimeoutMs, _queryResponseLimit, _queryLogLength,
+        _queryLogRateLimiter.getRate(), resultCacheMaxNumEntries);
   }
 
   private String getDefaultBrokerId() {
@@ -309,6 +315,29 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       requestStatistics.setFanoutType(RequestStatistics.FanoutType.REALTIME);
     }
 
+    // Serve the query from the result cache if possible
+    // NOTE: Only cache the queries on the offline tables because the real-time tables keep consuming new data. The
+    //       cached responses are invalidated when the routing (including the time boundary) of the table changes.
+    BrokerRequest resultCacheKey = null;
+    long routingVersion = -1;
+    if (_resultCache != null && realtimeBrokerRequest == null && !offlineBrokerRequest.isEnableTrace()
+        && !QueryOptions.isSkipResultCache(offlineBrokerRequest.getQueryOptions())) {
+      routingVersion = _routingManager.getRoutingVersion(offlineTableName);
+      BrokerResponseNative cachedResponse = _resultCache.get(offlineBrokerRequest, routingVersion);
+      if (cachedResponse != null) {
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_HITS, 1);
+        long totalTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - compilationStartTimeNs);
+        cachedResponse.setTimeUsedMs(totalTimeMs);
+        requestStatistics.setQueryProcessingTime(totalTimeMs);
+        requestStatistics.setStatistics(cachedResponse);
+        LOGGER.debug("Served request {} from result cache: {}", requestId, query);
+        return cachedResponse;
+      }
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_MISSES, 1);
+      // Make a copy of the request as the cache key because the query options will be modified (e.g. timeout)
+      resultCacheKey = offlineBrokerRequest.deepCopy();
+    }
+
     // Calculate routing table for the query
     long routingStartTimeNs = System.nanoTime();
     Map<ServerInstance, List<String>> offlineRoutingTable = null;
@@ -387,6 +416,11 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     _brokerMetrics
         .addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_EXECUTION, executionEndTimeNs - routingEndTimeNs);
 
+    // Do not cache the response if some segments are unavailable
+    if (resultCacheKey != null && numUnavailableSegments == 0) {
+      _resultCache.put(resultCacheKey, routingVersion, brokerResponse);
+    }
+
     // Track number of queries with number of groups limit reached
     if (brokerResponse.isNumGroupsLimitReached()) {
       _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_NUM_GROUPS_LIMIT_REACHED, 1);
@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import com.google.common.base.Preconditions;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.BrokerResponse;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Bounded LRU cache of the broker responses keyed by the broker request sent to the servers.
+ * <p>The key is the broker request after all the broker side rewrites and optimizations (normalized), so that the
+ * equivalent queries share the same cache entry. Each entry records the routing version of the queried table when the
+ * response is computed (see {@code RoutingManager.getRoutingVersion()}), and is treated as stale once the routing
+ * version changes, e.g. on external view/ideal state change, segment refresh or time boundary change.
+ * <p>The responses are stored as JSON strings so that each hit gets its own copy of the response which can be modified
+ * (e.g. setting the time used) without affecting the other queries.
+ */
+@ThreadSafe
+public class BrokerResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerResultCache.class);
+
+  private final Map<BrokerRequest, CachedResponse> _cache;
+
+  public BrokerResultCache(int maxNumEntries) {
+    Preconditions.checkArgument(maxNumEntries > 0, "Max number of entries must be positive, got: %s", maxNumEntries);
+    _cache = new LinkedHashMap<BrokerRequest, CachedResponse>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<BrokerRequest, CachedResponse> eldest) {
+        return size() > maxNumEntries;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached response for the given broker request if it is computed with the given routing version, or
+   * {@code null} otherwise.
+   */
+  @Nullable
+  public BrokerResponseNative get(BrokerRequest brokerRequest, long routingVersion) {
+    CachedResponse cachedResponse;
+    synchronized (this) {
+      cachedResponse = _cache.get(brokerRequest);
+      if (cachedResponse == null) {
+        return null;
+      }
+      if (cachedResponse._routingVersion != routingVersion) {
+        // Remove the stale entry
+        _cache.remove(brokerRequest);
+        return null;
+      }
+    }
+    try {
+      return BrokerResponseNative.fromJsonString(cachedResponse._responseJsonString);
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while deserializing the cached response", e);
+      return null;
+    }
+  }
+
+  /**
+   * Caches the response for the given broker request computed with the given routing version. Only complete responses
+   * (without exceptions, and all the queried servers responded) are cached.
+   * <p>NOTE: The broker request should not be modified after being cached.
+   */
+  public void put(BrokerRequest brokerRequest, long routingVersion, BrokerResponse brokerResponse) {
+    if (!(brokerResponse instanceof BrokerResponseNative) || brokerResponse.getExceptionsSize() > 0
+        || brokerResponse.getNumServersResponded() < brokerResponse.getNumServersQueried()) {
+      return;
+    }
+    String responseJsonString;
+    try {
+      responseJsonString = brokerResponse.toJsonString();
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while serializing the response, skipping caching it", e);
+      return;
+    }
+    CachedResponse cachedResponse = new CachedResponse(routingVersion, responseJsonString);
+    synchronized (this) {
+      _cache.put(brokerRequest, cachedResponse);
+    }
+  }
+
+  public synchronized int size() {
+    return _cache.size();
+  }
+
+  private static class CachedResponse {
+    final long _routingVersion;
+    final String _responseJsonString;
+
+    CachedResponse(long routingVersion, String responseJsonString) {
+      _routingVersion = routingVersion;
+      _responseJsonString = responseJsonString;
+    }
+  }
+}
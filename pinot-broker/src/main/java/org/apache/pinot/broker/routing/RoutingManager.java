@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import org.apache.helix.AccessOption;
 import org.apache.helix.BaseDataAccessor;
@@ -76,6 +77,7 @@ import org.slf4j.LoggerFactory;
  *   <li>{@link #getRoutingTable(BrokerRequest)}: Returns the routing table for a query</li>
  *   <li>{@link #getTimeBoundaryInfo(String)}: Returns the time boundary info for a table</li>
  *   <li>{@link #getQueryTimeoutMs(String)}: Returns the table-level query timeout in milliseconds for a table</li>
+ *   <li>{@link #getRoutingVersion(String)}: Returns the version of the routing for a table</li>
  * </ul>
  *
  * TODO: Expose RoutingEntry class to get a consistent view in the broker request handler and save the redundant map
@@ -83,6 +85,9 @@ import org.slf4j.LoggerFactory;
  */
 public class RoutingManager implements ClusterChangeHandler {
   private static final Logger LOGGER = LoggerFactory.getLogger(RoutingManager.class);
+  // Generates the routing versions, which are unique across all the tables so that a rebuilt routing never reuses the
+  // version of the previous one
+  private static final AtomicLong ROUTING_VERSION_GENERATOR = new AtomicLong();
 
   private final BrokerMetrics _brokerMetrics;
   private final Map<String, RoutingEntry> _routingEntryMap = new ConcurrentHashMap<>();
@@ -474,6 +479,16 @@ public class RoutingManager implements ClusterChangeHandler {
     return routingEntry != null ? routingEntry.getQueryTimeoutMs() : null;
   }
 
+  /**
+   * Returns the version of the routing for the given table, or {@code -1} if the routing does not exist. The version
+   * changes whenever the routing or the time boundary of the table is updated (e.g. on external view change, instance
+   * change or segment refresh), and can be used to detect whether the cached query results are stale.
+   */
+  public long getRoutingVersion(String tableNameWithType) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    return routingEntry != null ? routingEntry.getRoutingVersion() : -1;
+  }
+
   private static class RoutingEntry {
     final String _tableNameWithType;
     final SegmentPreSelector _segmentPreSelector;
@@ -486,6 +501,8 @@ public class RoutingManager implements ClusterChangeHandler {
     transient int _lastUpdateExternalViewVersion;
     // Time boundary manager is only available for the offline part of the hybrid table
     transient TimeBoundaryManager _timeBoundaryManager;
+    // Version of the routing, updated on each change of the routing
+    transient volatile long _routingVersion = ROUTING_VERSION_GENERATOR.incrementAndGet();
 
     RoutingEntry(String tableNameWithType, SegmentPreSelector segmentPreSelector, SegmentSelector segmentSelector,
         List<SegmentPruner> segmentPruners, InstanceSelector instanceSelector, int lastUpdateExternalViewVersion,
@@ -510,6 +527,7 @@ public class RoutingManager implements ClusterChangeHandler {
 
     void setTimeBoundaryManager(@Nullable TimeBoundaryManager timeBoundaryManager) {
       _timeBoundaryManager = timeBoundaryManager;
+      updateRoutingVersion();
     }
 
     @Nullable
@@ -521,6 +539,14 @@ public class RoutingManager implements ClusterChangeHandler {
       return _queryTimeoutMs;
     }
 
+    long getRoutingVersion() {
+      return _routingVersion;
+    }
+
+    void updateRoutingVersion() {
+      _routingVersion = ROUTING_VERSION_GENERATOR.incrementAndGet();
+    }
+
     // NOTE: The change gets applied in sequence, and before change applied to all components, there could be some
     // inconsistency between components, which is fine because the inconsistency only exists for the newly changed
     // segments and only lasts for a very short time.
@@ -535,10 +561,12 @@ public class RoutingManager implements ClusterChangeHandler {
         _timeBoundaryManager.onExternalViewChange(externalView, preSelectedOnlineSegments);
       }
       _lastUpdateExternalViewVersion = externalView.getStat().getVersion();
+      updateRoutingVersion();
     }
 
     void onInstancesChange(Set<String> enabledInstances, List<String> changedInstances) {
       _instanceSelector.onInstancesChange(enabledInstances, changedInstances);
+      updateRoutingVersion();
     }
 
     void refreshSegment(String segment) {
@@ -548,6 +576,7 @@ public class RoutingManager implements ClusterChangeHandler {
       if (_timeBoundaryManager != null) {
         _timeBoundaryManager.refreshSegment(segment);
       }
+      updateRoutingVersion();
     }
 
     InstanceSelector.SelectionResult calculateRouting(BrokerRequest brokerRequest) {
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.QueryProcessingException;
+import org.apache.pinot.core.requesthandler.PinotQueryParserFactory;
+import org.apache.pinot.parsers.AbstractCompiler;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+
+
+public class BrokerResultCacheTest {
+  private static final AbstractCompiler COMPILER = PinotQueryParserFactory.get("SQL");
+
+  @Test
+  public void testGetAndPut() {
+    BrokerResultCache resultCache = new BrokerResultCache(10);
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable WHERE a = 1");
+    assertNull(resultCache.get(brokerRequest, 1));
+
+    resultCache.put(brokerRequest, 1, getBrokerResponse(100));
+    // Equivalent request should hit the cache
+    BrokerResponseNative cachedResponse =
+        resultCache.get(COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable WHERE a = 1"), 1);
+    assertNotNull(cachedResponse);
+    assertEquals(cachedResponse.getNumDocsScanned(), 100);
+    // Each hit should get its own copy of the response
+    assertNotSame(resultCache.get(brokerRequest, 1), cachedResponse);
+
+    // Different request should not hit the cache
+    assertNull(resultCache.get(COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable WHERE a = 2"), 1));
+
+    // Stale entry should be removed once the routing version changes
+    assertNull(resultCache.get(brokerRequest, 2));
+    assertEquals(resultCache.size(), 0);
+    assertNull(resultCache.get(brokerRequest, 1));
+  }
+
+  @Test
+  public void testSkipIncompleteResponse() {
+    BrokerResultCache resultCache = new BrokerResultCache(10);
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable");
+
+    BrokerResponseNative brokerResponse = getBrokerResponse(100);
+    brokerResponse.addToExceptions(new QueryProcessingException(QueryException.EXECUTION_TIMEOUT_ERROR_CODE, ""));
+    resultCache.put(brokerRequest, 1, brokerResponse);
+    assertEquals(resultCache.size(), 0);
+
+    brokerResponse = getBrokerResponse(100);
+    brokerResponse.setNumServersResponded(1);
+    resultCache.put(brokerRequest, 1, brokerResponse);
+    assertEquals(resultCache.size(), 0);
+  }
+
+  @Test
+  public void testEviction() {
+    BrokerResultCache resultCache = new BrokerResultCache(2);
+    BrokerRequest brokerRequest1 = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable WHERE a = 1");
+    BrokerRequest brokerRequest2 = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable WHERE a = 2");
+    BrokerRequest brokerRequest3 = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable WHERE a = 3");
+    resultCache.put(brokerRequest1, 1, getBrokerResponse(1));
+    resultCache.put(brokerRequest2, 1, getBrokerResponse(2));
+
+    // Access the first entry so that the second entry is the least recently used one
+    assertNotNull(resultCache.get(brokerRequest1, 1));
+    resultCache.put(brokerRequest3, 1, getBrokerResponse(3));
+    assertEquals(resultCache.size(), 2);
+    assertNotNull(resultCache.get(brokerRequest1, 1));
+    assertNull(resultCache.get(brokerRequest2, 1));
+    assertNotNull(resultCache.get(brokerRequest3, 1));
+  }
+
+  private static BrokerResponseNative getBrokerResponse(long numDocsScanned) {
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    brokerResponse.setNumDocsScanned(numDocsScanned);
+    brokerResponse.setNumServersQueried(2);
+    brokerResponse.setNumServersResponded(2);
+    return brokerResponse;
+  }
+}
@@ -94,6 +94,10 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   // Track the case where selected server is missing in RoutingManager
   SERVER_MISSING_FOR_ROUTING("badResponses", false),
 
+  // Result cache metrics
+  RESULT_CACHE_HITS("queries", false),
+  RESULT_CACHE_MISSES("queries", false),
+
   // Netty connection metrics
   NETTY_CONNECTION_REQUESTS_SENT("nettyConnection", true),
   NETTY_CONNECTION_BYTES_SENT("nettyConnection", true),
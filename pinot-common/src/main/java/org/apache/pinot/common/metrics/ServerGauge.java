@@ -40,6 +40,18 @@ public enum ServerGauge implements AbstractMetrics.Gauge {
   LAST_REALTIME_SEGMENT_COMPLETION_DURATION_SECONDS("seconds", false),
   REALTIME_OFFHEAP_MEMORY_USED("bytes", false),
   REALTIME_SEGMENT_NUM_PARTITIONS("realtimeSegmentNumPartitions", false),
+  // Time between the ingestion of the latest consumed message into the stream and its consumption
+  LLC_PARTITION_INGESTION_DELAY_MS("milliseconds", false),
+  // Cumulative time spent in each stage of the realtime consumption (fetch, decode and transform, index)
+  LLC_PARTITION_FETCH_TIME_MS("milliseconds", false),
+  LLC_PARTITION_DECODE_TIME_MS("milliseconds", false),
+  LLC_PARTITION_INDEX_TIME_MS("milliseconds", false),
+  // Number of documents not searchable in the text index of the consuming segment when the reader is refreshed
+  REALTIME_TEXT_INDEX_DOCS_BEHIND("documents", false),
+  FILTER_RESULT_CACHE_SIZE_IN_BYTES("bytes", true),
+  CHUNK_CACHE_SIZE_IN_BYTES("bytes", true),
+  // Memory allocated by all the consuming segments on the server, reported when the realtime memory governor is enabled
+  REALTIME_CONSUMING_MEMORY_USED("bytes", true),
   LLC_SIMULTANEOUS_SEGMENT_BUILDS("llcSimultaneousSegmentBuilds", true);
 
   private final String gaugeName;
@@ -39,6 +39,8 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   REALTIME_CONSUMPTION_EXCEPTIONS("exceptions", true),
   REALTIME_OFFSET_COMMITS("commits", true),
   REALTIME_OFFSET_COMMIT_EXCEPTIONS("exceptions", false),
+  // Consuming segments requested to commit early by the realtime memory governor
+  REALTIME_MEMORY_PRESSURE_COMMITS("segments", true),
   ROWS_WITH_ERRORS("rows", false),
   LLC_CONTROLLER_RESPONSE_NOT_SENT("messages", true),
   LLC_CONTROLLER_RESPONSE_COMMIT("messages", true),
@@ -64,6 +66,22 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   UNTAR_FAILURES("segments", false),
   SEGMENT_DOWNLOAD_FAILURES("segments", false),
 
+  // Filter result cache metrics
+  FILTER_RESULT_CACHE_HITS("filterResults", true),
+  FILTER_RESULT_CACHE_MISSES("filterResults", true),
+
+  // Block size chosen for each segment plan based on the projected columns: the number of segment plans, the sum of
+  // the chosen block sizes (divide by the number of segment plans for the average), and the number of segment plans
+  // that chose a block size smaller than the max
+  QUERY_BLOCK_SIZE_SEGMENT_PLANS("segments", true),
+  QUERY_BLOCK_SIZE_DOCS("documents", true),
+  QUERY_BLOCK_SIZE_REDUCED_SEGMENT_PLANS("segments", true),
+
+  // Chunk cache metrics
+  CHUNK_CACHE_HITS("chunks", true),
+  CHUNK_CACHE_MISSES("chunks", true),
+  CHUNK_CACHE_EVICTIONS("chunks", true),
+
   // Netty connection metrics
   NETTY_CONNECTION_BYTES_RECEIVED("nettyConnection", true),
   NETTY_CONNECTION_RESPONSES_SENT("nettyConnection", true),
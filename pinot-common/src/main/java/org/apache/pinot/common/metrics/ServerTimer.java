@@ -29,6 +29,9 @@ public enum ServerTimer implements AbstractMetrics.Timer {
   // metric tracking the freshness lag for consuming segments
   FRESHNESS_LAG_MS("freshnessLagMs", false),
 
+  // Latency of refreshing the text index reader for consuming segments
+  REALTIME_TEXT_INDEX_REFRESH_TIME("milliseconds", false),
+
   NETTY_CONNECTION_SEND_RESPONSE_LATENCY("nettyConnection", true);
 
   private final String timerName;
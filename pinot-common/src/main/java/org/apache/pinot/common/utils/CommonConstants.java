@@ -159,6 +159,10 @@ public class CommonConstants {
         "pinot.broker.startup.minResourcePercent";
     public static final double DEFAULT_BROKER_MIN_RESOURCE_PERCENT_FOR_START = 100.0;
     public static final String CONFIG_OF_ENABLE_QUERY_LIMIT_OVERRIDE = "pinot.broker.enable.query.limit.override";
+    // Max number of entries in the broker result cache, result cache is disabled if not positive
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_MAX_NUM_ENTRIES =
+        "pinot.broker.result.cache.maxNumEntries";
+    public static final int DEFAULT_BROKER_RESULT_CACHE_MAX_NUM_ENTRIES = 0;
 
     public static class Request {
       public static final String PQL = "pql";
@@ -172,6 +176,10 @@ public class CommonConstants {
         public static final String PRESERVE_TYPE = "preserveType";
         public static final String RESPONSE_FORMAT = "responseFormat";
         public static final String GROUP_BY_MODE = "groupByMode";
+        public static final String ENABLE_WORK_STEALING = "enableWorkStealing";
+        public static final String ENABLE_PARTITIONED_GROUP_BY_COMBINE = "enablePartitionedGroupByCombine";
+        public static final String ENABLE_COST_BASED_FILTER_REORDERING = "enableCostBasedFilterReordering";
+        public static final String SKIP_RESULT_CACHE = "skipResultCache";
       }
     }
   }
@@ -199,6 +207,27 @@ public class CommonConstants {
     public static final String CONFIG_OF_REALTIME_OFFHEAP_ALLOCATION = "pinot.server.instance.realtime.alloc.offheap";
     public static final String CONFIG_OF_REALTIME_OFFHEAP_DIRECT_ALLOCATION =
         "pinot.server.instance.realtime.alloc.offheap.direct";
+    // RAM budget shared by the text index writers of all the consuming segments on the server, non-positive value to
+    // use the default RAM buffer size for each index writer
+    public static final String CONFIG_OF_REALTIME_TEXT_INDEX_RAM_BUDGET_MB =
+        "pinot.server.instance.realtime.textIndex.ramBudgetMB";
+    public static final double DEFAULT_REALTIME_TEXT_INDEX_RAM_BUDGET_MB = 0;
+    // Memory budget (e.g. '16G') shared by all the consuming segments on the server. When the memory used reaches the
+    // high watermark of the budget, the largest consuming segments are committed early until the memory used drops
+    // below the low watermark. Non-positive budget disables the realtime memory governor.
+    public static final String CONFIG_OF_REALTIME_MEMORY_BUDGET = "pinot.server.instance.realtime.memoryBudget";
+    public static final String DEFAULT_REALTIME_MEMORY_BUDGET = "0";
+    public static final String CONFIG_OF_REALTIME_MEMORY_HIGH_WATERMARK_RATIO =
+        "pinot.server.instance.realtime.memoryBudget.highWatermarkRatio";
+    public static final double DEFAULT_REALTIME_MEMORY_HIGH_WATERMARK_RATIO = 0.9;
+    public static final String CONFIG_OF_REALTIME_MEMORY_LOW_WATERMARK_RATIO =
+        "pinot.server.instance.realtime.memoryBudget.lowWatermarkRatio";
+    public static final double DEFAULT_REALTIME_MEMORY_LOW_WATERMARK_RATIO = 0.75;
+    // Number of consumer threads shared by all the consuming segments on the server, non-positive value to start one
+    // dedicated consumer thread per consuming segment
+    public static final String CONFIG_OF_REALTIME_CONSUMPTION_NUM_THREADS =
+        "pinot.server.instance.realtime.consumption.numThreads";
+    public static final int DEFAULT_REALTIME_CONSUMPTION_NUM_THREADS = 0;
     public static final String PREFIX_OF_CONFIG_OF_PINOT_FS_FACTORY = "pinot.server.storage.factory";
     public static final String PREFIX_OF_CONFIG_OF_PINOT_CRYPTER = "pinot.server.crypter";
     // Configuration to consider the server ServiceStatus as being STARTED if the percent of resources (tables) that
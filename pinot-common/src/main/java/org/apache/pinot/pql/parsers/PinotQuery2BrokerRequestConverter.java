@@ -270,6 +270,7 @@ public class PinotQuery2BrokerRequestConverter {
           case NOT_IN:
           case IN:
           case TEXT_MATCH:
+          case JSON_MATCH:
           case RANGE:
             //first operand is the always the column
             filterQuery.setColumn(ParserUtils.standardizeExpression(operands.get(0), false));
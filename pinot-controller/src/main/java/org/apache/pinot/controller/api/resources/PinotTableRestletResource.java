@@ -114,7 +114,7 @@ public class PinotTableRestletResource {
     try {
       tableConfig = JsonUtils.stringToObject(tableConfigStr, TableConfig.class);
       // TableConfigUtils.validate(...) is used across table create/update.
-      TableConfigUtils.validate(tableConfig);
+      TableConfigUtils.validate(tableConfig, _pinotHelixResourceManager.getTableSchema(tableConfig.getTableName()));
       // TableConfigUtils.validateTableName(...) checks table name rules.
       // So it won't effect already created tables.
       TableConfigUtils.validateTableName(tableConfig);
@@ -325,7 +325,7 @@ public class PinotTableRestletResource {
     TableConfig tableConfig;
     try {
       tableConfig = JsonUtils.stringToObject(tableConfigString, TableConfig.class);
-      TableConfigUtils.validate(tableConfig);
+      TableConfigUtils.validate(tableConfig, _pinotHelixResourceManager.getTableSchema(tableConfig.getTableName()));
     } catch (Exception e) {
       throw new ControllerApplicationException(LOGGER, "Invalid table config", Response.Status.BAD_REQUEST, e);
     }
@@ -368,7 +368,7 @@ public class PinotTableRestletResource {
   public String checkTableConfig(String tableConfigStr) {
     try {
       TableConfig tableConfig = JsonUtils.stringToObject(tableConfigStr, TableConfig.class);
-      TableConfigUtils.validate(tableConfig);
+      TableConfigUtils.validate(tableConfig, _pinotHelixResourceManager.getTableSchema(tableConfig.getTableName()));
       ObjectNode tableConfigValidateStr = JsonUtils.newObjectNode();
       if (tableConfig.getTableType() == TableType.OFFLINE) {
         tableConfigValidateStr.set(TableType.OFFLINE.name(), tableConfig.toJsonNode());
@@ -285,9 +285,7 @@ public class DataFetcher {
       } else {
         switch (_reader.getValueType()) {
           case INT:
-            for (int i = 0; i < length; i++) {
-              valueBuffer[i] = _reader.getInt(docIds[i], readerContext);
-            }
+            _reader.readValuesSV(docIds, length, valueBuffer, readerContext);
             break;
           case LONG:
             for (int i = 0; i < length; i++) {
@@ -329,9 +327,7 @@ public class DataFetcher {
             }
             break;
           case LONG:
-            for (int i = 0; i < length; i++) {
-              valueBuffer[i] = _reader.getLong(docIds[i], readerContext);
-            }
+            _reader.readValuesSV(docIds, length, valueBuffer, readerContext);
             break;
           case FLOAT:
             for (int i = 0; i < length; i++) {
@@ -19,10 +19,13 @@
 package org.apache.pinot.core.common;
 
 import javax.annotation.Nullable;
+import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeSortedRunIndex;
 import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.FSTIndexReader;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
 
 
@@ -78,4 +81,23 @@ public interface DataSource {
    */
   @Nullable
   NullValueVectorReader getNullValueVector();
+
+  /**
+   * Returns the sorted run index for the sorted column of the consuming segment if exists, or {@code null} if not.
+   */
+  @Nullable
+  RealtimeSortedRunIndex getSortedRunIndex();
+
+  /**
+   * Returns the FST index for the dictionary-encoded STRING column of the immutable segment if exists, or
+   * {@code null} if not.
+   */
+  @Nullable
+  FSTIndexReader getFSTIndex();
+
+  /**
+   * Returns the JSON index for the column if exists, or {@code null} if not.
+   */
+  @Nullable
+  JsonIndexReader getJsonIndex();
 }
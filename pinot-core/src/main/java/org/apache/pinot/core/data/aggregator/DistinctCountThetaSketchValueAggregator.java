@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.aggregator;
+
+import org.apache.datasketches.Util;
+import org.apache.datasketches.theta.SetOperation;
+import org.apache.datasketches.theta.Sketch;
+import org.apache.datasketches.theta.Union;
+import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Value aggregator for DISTINCTCOUNTTHETASKETCH, which unions the raw values (or the serialized sketches for BYTES
+ * column) into a theta sketch.
+ * <p>The star-tree is always built with the {@link #DEFAULT_NOMINAL_ENTRIES}, and only serves the queries with the
+ * same nominal entries (see {@link #canServe(int)}), so that the query result does not depend on whether star-tree is
+ * used.
+ */
+public class DistinctCountThetaSketchValueAggregator implements ValueAggregator<Object, Union> {
+  public static final DataType AGGREGATED_VALUE_TYPE = DataType.BYTES;
+  // Same as the default nominal entries of the theta sketch set operations (used by the aggregation function without
+  // the nominalEntries parameter)
+  public static final int DEFAULT_NOMINAL_ENTRIES = Util.DEFAULT_NOMINAL_ENTRIES;
+
+  private final int _nominalEntries;
+  // The union result never retains more than the nominal entries, so the byte size is bounded
+  private final int _maxByteSize;
+
+  public DistinctCountThetaSketchValueAggregator() {
+    this(DEFAULT_NOMINAL_ENTRIES);
+  }
+
+  public DistinctCountThetaSketchValueAggregator(int nominalEntries) {
+    _nominalEntries = nominalEntries;
+    _maxByteSize = Sketch.getMaxCompactSketchBytes(nominalEntries);
+  }
+
+  /**
+   * Returns {@code true} if the sketches pre-aggregated by the star-tree can serve the query with the given nominal
+   * entries, {@code false} otherwise.
+   */
+  public static boolean canServe(int nominalEntries) {
+    return nominalEntries == DEFAULT_NOMINAL_ENTRIES;
+  }
+
+  @Override
+  public AggregationFunctionType getAggregationType() {
+    return AggregationFunctionType.DISTINCTCOUNTTHETASKETCH;
+  }
+
+  @Override
+  public DataType getAggregatedValueType() {
+    return AGGREGATED_VALUE_TYPE;
+  }
+
+  @Override
+  public Union getInitialAggregatedValue(Object rawValue) {
+    return applyRawValue(buildUnion(), rawValue);
+  }
+
+  @Override
+  public Union applyRawValue(Union value, Object rawValue) {
+    if (rawValue instanceof byte[]) {
+      value.update(ObjectSerDeUtils.DATA_SKETCH_SER_DE.deserialize((byte[]) rawValue));
+    } else if (rawValue instanceof Integer || rawValue instanceof Long) {
+      value.update(((Number) rawValue).longValue());
+    } else if (rawValue instanceof Number) {
+      value.update(((Number) rawValue).doubleValue());
+    } else {
+      value.update(rawValue.toString());
+    }
+    return value;
+  }
+
+  @Override
+  public Union applyAggregatedValue(Union value, Union aggregatedValue) {
+    value.update(aggregatedValue.getResult());
+    return value;
+  }
+
+  @Override
+  public Union cloneAggregatedValue(Union value) {
+    Union clonedValue = buildUnion();
+    clonedValue.update(value.getResult());
+    return clonedValue;
+  }
+
+  @Override
+  public int getMaxAggregatedValueByteSize() {
+    return _maxByteSize;
+  }
+
+  @Override
+  public byte[] serializeAggregatedValue(Union value) {
+    return ObjectSerDeUtils.DATA_SKETCH_SER_DE.serialize(value.getResult());
+  }
+
+  @Override
+  public Union deserializeAggregatedValue(byte[] bytes) {
+    Union value = buildUnion();
+    value.update(ObjectSerDeUtils.DATA_SKETCH_SER_DE.deserialize(bytes));
+    return value;
+  }
+
+  private Union buildUnion() {
+    return SetOperation.builder().setNominalEntries(_nominalEntries).buildUnion();
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.pinot.core.data.manager.offline;
 
 import org.apache.pinot.core.data.manager.SegmentDataManager;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.operator.filter.FilterResultCache;
 
 
 /**
@@ -45,6 +46,10 @@ public class ImmutableSegmentDataManager extends SegmentDataManager {
 
   @Override
   public void destroy() {
+    FilterResultCache filterResultCache = FilterResultCache.getInstance();
+    if (filterResultCache != null) {
+      filterResultCache.invalidate(_immutableSegment);
+    }
     _immutableSegment.destroy();
   }
 
@@ -26,11 +26,17 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -47,6 +53,7 @@ import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.protocols.SegmentCompletionProtocol;
 import org.apache.pinot.common.utils.CommonConstants.Segment.Realtime.CompletionMode;
 import org.apache.pinot.common.utils.LLCSegmentName;
+import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.common.utils.TarGzCompressionUtils;
 import org.apache.pinot.core.data.partition.PartitionFunctionFactory;
 import org.apache.pinot.core.data.recordtransformer.CompositeTransformer;
@@ -60,13 +67,16 @@ import org.apache.pinot.core.realtime.impl.RealtimeSegmentConfig;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
 import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.core.segment.store.SegmentDirectoryPaths;
+import org.apache.pinot.core.upsert.TableUpsertMetadataManager;
 import org.apache.pinot.core.util.IngestionUtils;
 import org.apache.pinot.server.realtime.ServerSegmentCompletionProtocolHandler;
 import org.apache.pinot.spi.config.table.ColumnPartitionConfig;
 import org.apache.pinot.spi.config.table.CompletionConfig;
 import org.apache.pinot.spi.config.table.IndexingConfig;
+import org.apache.pinot.spi.config.table.IngestionConfig;
 import org.apache.pinot.spi.config.table.SegmentPartitionConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.ingestion.RollupConfig;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.stream.MessageBatch;
@@ -200,11 +210,17 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private static final int MSG_COUNT_THRESHOLD_FOR_LOG = 100000;
   private static final int BUILD_TIME_LEASE_SECONDS = 30;
   private static final int MAX_CONSECUTIVE_ERROR_COUNT = 5;
+  private static final long IDLE_PIPE_SLEEP_TIME_MILLIS = 100L;
+  // Max number of messages decoded with one batch call, which bounds the messages decoded but not indexed when the
+  // consumption stops in the middle of a batch (e.g. time limit, stop request)
+  private static final int MAX_DECODE_BATCH_SIZE = 1000;
 
   private final LLCRealtimeSegmentZKMetadata _segmentZKMetadata;
   private final TableConfig _tableConfig;
   private final RealtimeTableDataManager _realtimeTableDataManager;
   private final StreamMessageDecoder _messageDecoder;
+  // Reusable rows to decode the messages into, grown to the max number of messages decoded with one batch call
+  private GenericRow[] _reusableRows = new GenericRow[0];
   private final int _segmentMaxRowCount;
   private final String _resourceDataDir;
   private final IndexLoadingConfig _indexLoadingConfig;
@@ -238,12 +254,16 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private volatile long _consumeEndTime = 0;
   private StreamPartitionMsgOffset _finalOffset; // Used when we want to catch up to this one
   private volatile boolean _shouldStop = false;
+  // Set by the realtime memory governor to commit the segment early when the server is under memory pressure
+  private volatile boolean _earlyCommitRequested = false;
 
   // It takes 30s to locate controller leader, and more if there are multiple controller failures.
   // For now, we let 31s pass for this state transition.
   private static final int MAX_TIME_FOR_CONSUMING_TO_ONLINE_IN_SECONDS = 31;
 
-  private Thread _consumerThread;
+  private volatile Thread _consumerThread;
+  // Consumption task on the shared consumer threads (null if the realtime consumption scheduler is not enabled)
+  private ScheduledPartitionConsumer _scheduledPartitionConsumer;
   private final String _streamTopic;
   private final int _streamPartitionId;
   final String _clientId;
@@ -276,6 +296,25 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private final boolean _nullHandlingEnabled;
   private final SegmentCommitterFactory _segmentCommitterFactory;
 
+  // For pipelined consumption (null if not enabled)
+  private final PipelinedMessageDecoder _pipelinedMessageDecoder;
+  private final ExecutorService _prefetchExecutorService;
+  private Future<MessageBatch> _prefetchFuture;
+  private StreamPartitionMsgOffset _prefetchOffset;
+
+  // Time spent in each stage of the consumption, and the time already reported to the metrics
+  private final AtomicLong _fetchTimeNs = new AtomicLong();
+  private long _decodeTimeNs = 0;
+  private long _indexTimeNs = 0;
+  // Consumption loop states
+  private StreamPartitionMsgOffset _lastUpdatedOffset;
+  private long _consecutiveIdleCount;
+  private long _maxIdleCountBeforeStatUpdate;
+
+  private long _reportedFetchTimeMs = 0;
+  private long _reportedDecodeTimeMs = 0;
+  private long _reportedIndexTimeMs = 0;
+
   // TODO each time this method is called, we print reason for stop. Good to print only once.
   private boolean endCriteriaReached() {
     Preconditions.checkState(_state.shouldConsume(), "Incorrect state %s", _state);
@@ -301,6 +340,12 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
               _numRowsIndexed, _numRowsConsumed, _segmentMaxRowCount);
           _stopReason = SegmentCompletionProtocol.REASON_ROW_LIMIT;
           return true;
+        } else if (_earlyCommitRequested) {
+          segmentLogger.info(
+              "Stopping consumption due to memory limit numRowsConsumed={} numRowsIndexed={} memoryUsedBytes={}",
+              _numRowsConsumed, _numRowsIndexed, _memoryManager.getTotalAllocatedBytes());
+          _stopReason = SegmentCompletionProtocol.REASON_MEMORY_LIMIT;
+          return true;
         }
         return false;
 
@@ -360,67 +405,90 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
 
   protected boolean consumeLoop()
       throws Exception {
+    startConsumeLoop(IDLE_PIPE_SLEEP_TIME_MILLIS, _partitionLevelStreamConfig.getFetchTimeoutMillis());
+    while (!_shouldStop && !endCriteriaReached()) {
+      consumeNextBatch(IDLE_PIPE_SLEEP_TIME_MILLIS, _partitionLevelStreamConfig.getFetchTimeoutMillis());
+    }
+    endConsumeLoop();
+    return true;
+  }
+
+  private void startConsumeLoop(long idlePipeSleepTimeMillis, int fetchTimeoutMillis) {
     _numRowsErrored = 0;
-    final long idlePipeSleepTimeMillis = 100;
-    final long maxIdleCountBeforeStatUpdate = (3 * 60 * 1000) / (idlePipeSleepTimeMillis + _partitionLevelStreamConfig
-        .getFetchTimeoutMillis());  // 3 minute count
-    StreamPartitionMsgOffset lastUpdatedOffset = _streamPartitionMsgOffsetFactory.create(_currentOffset);  // so that we always update the metric when we enter this method.
-    long consecutiveIdleCount = 0;
+    _maxIdleCountBeforeStatUpdate = (3 * 60 * 1000) / (idlePipeSleepTimeMillis + fetchTimeoutMillis);  // 3 minute count
+    // So that we always update the metric when we enter this method
+    _lastUpdatedOffset = _streamPartitionMsgOffsetFactory.create(_currentOffset);
+    _consecutiveIdleCount = 0;
     // At this point, we know that we can potentially move the offset, so the old saved segment file is not valid
     // anymore. Remove the file if it exists.
     removeSegmentFile();
 
     segmentLogger.info("Starting consumption loop start offset {}, finalOffset {}", _currentOffset, _finalOffset);
-    while (!_shouldStop && !endCriteriaReached()) {
-      // Consume for the next readTime ms, or we get to final offset, whichever happens earlier,
-      // Update _currentOffset upon return from this method
-      MessageBatch messageBatch;
-      try {
-        messageBatch = _partitionLevelConsumer
-            .fetchMessages(_currentOffset, null, _partitionLevelStreamConfig.getFetchTimeoutMillis());
-        consecutiveErrorCount = 0;
-      } catch (TimeoutException e) {
-        handleTransientStreamErrors(e);
-        continue;
-      } catch (TransientConsumerException e) {
-        handleTransientStreamErrors(e);
-        continue;
-      } catch (PermanentConsumerException e) {
-        segmentLogger.warn("Permanent exception from stream when fetching messages, stopping consumption", e);
-        throw e;
-      } catch (Exception e) {
-        // Unknown exception from stream. Treat as a transient exception.
-        // One such exception seen so far is java.net.SocketTimeoutException
-        handleTransientStreamErrors(e);
-        continue;
-      }
+  }
 
-      processStreamEvents(messageBatch, idlePipeSleepTimeMillis);
+  /**
+   * Fetches and processes the next batch of messages, returns whether any message is consumed.
+   * <p>When there is no new message, waits for {@code idlePipeSleepTimeMillis} to avoid hammering the stream.
+   */
+  private boolean consumeNextBatch(long idlePipeSleepTimeMillis, int fetchTimeoutMillis)
+      throws Exception {
+    // Consume for the next readTime ms, or we get to final offset, whichever happens earlier,
+    // Update _currentOffset upon return from this method
+    MessageBatch messageBatch;
+    try {
+      messageBatch = fetchMessages(fetchTimeoutMillis);
+      consecutiveErrorCount = 0;
+    } catch (TimeoutException e) {
+      handleTransientStreamErrors(e);
+      return false;
+    } catch (TransientConsumerException e) {
+      handleTransientStreamErrors(e);
+      return false;
+    } catch (PermanentConsumerException e) {
+      segmentLogger.warn("Permanent exception from stream when fetching messages, stopping consumption", e);
+      throw e;
+    } catch (Exception e) {
+      // Unknown exception from stream. Treat as a transient exception.
+      // One such exception seen so far is java.net.SocketTimeoutException
+      handleTransientStreamErrors(e);
+      return false;
+    }
 
-      if (_currentOffset.compareTo(lastUpdatedOffset) != 0) {
-        consecutiveIdleCount = 0;
-        // We consumed something. Update the highest stream offset as well as partition-consuming metric.
-        // TODO Issue 5359 Need to find a way to bump metrics without getting actual offset value.
-//        _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.HIGHEST_KAFKA_OFFSET_CONSUMED, _currentOffset.getOffset());
-//        _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.HIGHEST_STREAM_OFFSET_CONSUMED, _currentOffset.getOffset());
+    if (_pipelinedMessageDecoder != null) {
+      // Prefetch the next batch while processing the current one
+      prefetchMessages(messageBatch, fetchTimeoutMillis);
+      processStreamEventsPipelined(messageBatch, idlePipeSleepTimeMillis);
+    } else {
+      processStreamEvents(messageBatch, idlePipeSleepTimeMillis);
+    }
+    updateConsumptionStageMetrics();
+
+    if (_currentOffset.compareTo(_lastUpdatedOffset) != 0) {
+      _consecutiveIdleCount = 0;
+      // We consumed something. Update the highest stream offset as well as partition-consuming metric.
+      // TODO Issue 5359 Need to find a way to bump metrics without getting actual offset value.
+//      _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.HIGHEST_KAFKA_OFFSET_CONSUMED, _currentOffset.getOffset());
+//      _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.HIGHEST_STREAM_OFFSET_CONSUMED, _currentOffset.getOffset());
+      _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_PARTITION_CONSUMING, 1);
+      _lastUpdatedOffset = _streamPartitionMsgOffsetFactory.create(_currentOffset);
+      return true;
+    } else {
+      // We did not consume any rows. Update the partition-consuming metric only if we have been idling for a long time.
+      // Create a new stream consumer wrapper, in case we are stuck on something.
+      if (++_consecutiveIdleCount > _maxIdleCountBeforeStatUpdate) {
         _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_PARTITION_CONSUMING, 1);
-        lastUpdatedOffset = _streamPartitionMsgOffsetFactory.create(_currentOffset);
-      } else {
-        // We did not consume any rows. Update the partition-consuming metric only if we have been idling for a long time.
-        // Create a new stream consumer wrapper, in case we are stuck on something.
-        if (++consecutiveIdleCount > maxIdleCountBeforeStatUpdate) {
-          _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_PARTITION_CONSUMING, 1);
-          consecutiveIdleCount = 0;
-          makeStreamConsumer("Idle for too long");
-        }
+        _consecutiveIdleCount = 0;
+        makeStreamConsumer("Idle for too long");
       }
+      return false;
     }
+  }
 
+  private void endConsumeLoop() {
     if (_numRowsErrored > 0) {
       _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_ERRORS, _numRowsErrored);
       _serverMetrics.addMeteredTableValue(_tableStreamName, ServerMeter.ROWS_WITH_ERRORS, _numRowsErrored);
     }
-    return true;
   }
 
   private void processStreamEvents(MessageBatch messagesAndOffsets, long idlePipeSleepTimeMillis) {
@@ -430,9 +498,16 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     int indexedMessageCount = 0;
     int streamMessageCount = 0;
     boolean canTakeMore = true;
+    RowMetadata lastRowMetadata = null;
+
+    // Decode the messages in sub-batches so that the decoder can amortize the per-message overhead, where each
+    // sub-batch is capped so that the messages past the end criteria are not decoded
+    int numMessages = messagesAndOffsets.getMessageCount();
+    GenericRow[] decodedRows = null;
+    int decodeStartIndex = 0;
+    int decodeEndIndex = 0;
 
-    GenericRow reuse = new GenericRow();
-    for (int index = 0; index < messagesAndOffsets.getMessageCount(); index++) {
+    for (int index = 0; index < numMessages; index++) {
       if (_shouldStop || endCriteriaReached()) {
         break;
       }
@@ -457,15 +532,20 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
         throw new RuntimeException("Realtime segment full");
       }
 
+      if (index == decodeEndIndex) {
+        decodeStartIndex = index;
+        decodeEndIndex = getDecodeEndIndex(messagesAndOffsets, index);
+        decodedRows = decodeMessages(messagesAndOffsets, decodeStartIndex, decodeEndIndex);
+      }
+
       // Index each message
-      reuse.clear();
+      long messageStartTimeNs = System.nanoTime();
+      long indexTimeNs = _indexTimeNs;
       // retrieve metadata from the message batch if available
       // this can be overridden by the decoder if there is a better indicator in the message payload
       RowMetadata msgMetadata = messagesAndOffsets.getMetadataAtIndex(index);
 
-      GenericRow decodedRow = _messageDecoder
-          .decode(messagesAndOffsets.getMessageAtIndex(index), messagesAndOffsets.getMessageOffsetAtIndex(index),
-              messagesAndOffsets.getMessageLengthAtIndex(index), reuse);
+      GenericRow decodedRow = decodedRows[index - decodeStartIndex];
       if (decodedRow != null) {
         try {
           if (decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY) != null) {
@@ -475,7 +555,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
                 realtimeRowsConsumedMeter = _serverMetrics
                     .addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1, realtimeRowsConsumedMeter);
                 indexedMessageCount++;
-                canTakeMore = _realtimeSegment.index(transformedRow, msgMetadata);
+                canTakeMore = indexRow(transformedRow, msgMetadata);
               } else {
                 realtimeRowsDroppedMeter = _serverMetrics
                     .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
@@ -488,7 +568,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
               realtimeRowsConsumedMeter = _serverMetrics
                   .addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1, realtimeRowsConsumedMeter);
               indexedMessageCount++;
-              canTakeMore = _realtimeSegment.index(transformedRow, msgMetadata);
+              canTakeMore = indexRow(transformedRow, msgMetadata);
             } else {
               realtimeRowsDroppedMeter = _serverMetrics
                   .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
@@ -504,13 +584,85 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
             .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
                 realtimeRowsDroppedMeter);
       }
+      _decodeTimeNs += System.nanoTime() - messageStartTimeNs - (_indexTimeNs - indexTimeNs);
 
       _currentOffset = messagesAndOffsets.getNextStreamParitionMsgOffsetAtIndex(index);
       _numRowsIndexed = _realtimeSegment.getNumDocsIndexed();
       _numRowsConsumed++;
       streamMessageCount++;
+      lastRowMetadata = msgMetadata;
+    }
+    updateCurrentDocumentCountMetrics();
+    updateIngestionDelayMetrics(lastRowMetadata);
+    if (streamMessageCount != 0) {
+      segmentLogger.debug("Indexed {} messages ({} messages read from stream) current offset {}", indexedMessageCount,
+          streamMessageCount, _currentOffset);
+    } else {
+      // If there were no messages to be fetched from stream, wait for a little bit as to avoid hammering the stream
+      Uninterruptibles.sleepUninterruptibly(idlePipeSleepTimeMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Pipelined version of {@link #processStreamEvents(MessageBatch, long)}, where the messages are decoded and
+   * transformed in parallel by the {@link PipelinedMessageDecoder}, and the rows are indexed in order on the consumer
+   * thread.
+   */
+  private void processStreamEventsPipelined(MessageBatch messagesAndOffsets, long idlePipeSleepTimeMillis) {
+    Meter realtimeRowsConsumedMeter = null;
+    Meter realtimeRowsDroppedMeter = null;
+
+    int indexedMessageCount = 0;
+    int streamMessageCount = 0;
+    boolean canTakeMore = true;
+    RowMetadata lastRowMetadata = null;
+
+    try (PipelinedMessageDecoder.DecodedMessageBatch decodedMessageBatch = _pipelinedMessageDecoder
+        .decode(messagesAndOffsets)) {
+      for (int index = 0; index < messagesAndOffsets.getMessageCount(); index++) {
+        if (_shouldStop || endCriteriaReached()) {
+          break;
+        }
+        if (!canTakeMore) {
+          // See processStreamEvents() for the cases where the segment cannot take more rows
+          segmentLogger
+              .error("Buffer full with {} rows consumed (row limit {}, indexed {})", _numRowsConsumed, _numRowsIndexed,
+                  _segmentMaxRowCount);
+          throw new RuntimeException("Realtime segment full");
+        }
+
+        PipelinedMessageDecoder.DecodedMessage decodedMessage = decodedMessageBatch.getDecodedMessage(index);
+        RowMetadata msgMetadata = messagesAndOffsets.getMetadataAtIndex(index);
+        for (GenericRow row : decodedMessage.getRows()) {
+          try {
+            realtimeRowsConsumedMeter = _serverMetrics
+                .addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1, realtimeRowsConsumedMeter);
+            indexedMessageCount++;
+            canTakeMore = indexRow(row, msgMetadata);
+          } catch (Exception e) {
+            segmentLogger.error("Caught exception while indexing the record: {}", row, e);
+            _numRowsErrored++;
+          }
+        }
+        int numRowsDropped = decodedMessage.getNumRowsDropped();
+        if (numRowsDropped > 0) {
+          realtimeRowsDroppedMeter = _serverMetrics
+              .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, numRowsDropped,
+                  realtimeRowsDroppedMeter);
+        }
+        if (decodedMessage.isErrored()) {
+          _numRowsErrored++;
+        }
+
+        _currentOffset = messagesAndOffsets.getNextStreamParitionMsgOffsetAtIndex(index);
+        _numRowsIndexed = _realtimeSegment.getNumDocsIndexed();
+        _numRowsConsumed++;
+        streamMessageCount++;
+        lastRowMetadata = msgMetadata;
+      }
     }
     updateCurrentDocumentCountMetrics();
+    updateIngestionDelayMetrics(lastRowMetadata);
     if (streamMessageCount != 0) {
       segmentLogger.debug("Indexed {} messages ({} messages read from stream) current offset {}", indexedMessageCount,
           streamMessageCount, _currentOffset);
@@ -520,16 +672,168 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     }
   }
 
+  /**
+   * Returns the end index (exclusive) of the messages to decode with one batch call starting from the given index.
+   * <p>The range is capped at {@link #MAX_DECODE_BATCH_SIZE} messages, at the remaining row budget of the segment when
+   * in INITIAL_CONSUMING state (each message is indexed into at least one row unless it is dropped), and at the final
+   * offset when catching up, so that the messages past the end criteria are not decoded.
+   */
+  private int getDecodeEndIndex(MessageBatch messageBatch, int startIndex) {
+    int endIndex = Math.min(messageBatch.getMessageCount(), startIndex + MAX_DECODE_BATCH_SIZE);
+    switch (_state) {
+      case INITIAL_CONSUMING:
+        int numRemainingRows = _segmentMaxRowCount - _numRowsIndexed;
+        return Math.min(endIndex, startIndex + Math.max(numRemainingRows, 1));
+      case CATCHING_UP:
+      case CONSUMING_TO_ONLINE:
+        for (int i = startIndex; i < endIndex; i++) {
+          if (messageBatch.getNextStreamParitionMsgOffsetAtIndex(i).compareTo(_finalOffset) >= 0) {
+            return i + 1;
+          }
+        }
+        return endIndex;
+      default:
+        return endIndex;
+    }
+  }
+
+  /**
+   * Decodes the messages within the index range [startIndex, endIndex) of the given batch into the reusable rows.
+   */
+  private GenericRow[] decodeMessages(MessageBatch messageBatch, int startIndex, int endIndex) {
+    long startTimeNs = System.nanoTime();
+    int numMessages = endIndex - startIndex;
+    if (_reusableRows.length < numMessages) {
+      int numExistingRows = _reusableRows.length;
+      _reusableRows = Arrays.copyOf(_reusableRows, numMessages);
+      for (int i = numExistingRows; i < numMessages; i++) {
+        _reusableRows[i] = new GenericRow();
+      }
+    }
+    for (int i = 0; i < numMessages; i++) {
+      _reusableRows[i].clear();
+    }
+    GenericRow[] decodedRows = _messageDecoder.decodeBatch(messageBatch, startIndex, endIndex, _reusableRows);
+    _decodeTimeNs += System.nanoTime() - startTimeNs;
+    return decodedRows;
+  }
+
+  private boolean indexRow(GenericRow row, RowMetadata rowMetadata) {
+    long startTimeNs = System.nanoTime();
+    boolean canTakeMore = _realtimeSegment.index(row, rowMetadata);
+    _indexTimeNs += System.nanoTime() - startTimeNs;
+    return canTakeMore;
+  }
+
+  /**
+   * Fetches the messages starting from the current offset, uses the prefetched messages if available.
+   */
+  private MessageBatch fetchMessages(int fetchTimeoutMillis)
+      throws Exception {
+    if (_prefetchFuture != null && _prefetchOffset.compareTo(_currentOffset) == 0) {
+      Future<MessageBatch> prefetchFuture = _prefetchFuture;
+      _prefetchFuture = null;
+      _prefetchOffset = null;
+      try {
+        return Uninterruptibles.getUninterruptibly(prefetchFuture);
+      } catch (ExecutionException e) {
+        // Rethrow the exception from the stream so that it is handled the same way as the non-prefetched fetch
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception) {
+          throw (Exception) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+    }
+    // The prefetched messages cannot be used (e.g. the consumption stopped in the middle of the previous batch)
+    waitForPrefetch();
+    return fetchMessages(_currentOffset, fetchTimeoutMillis);
+  }
+
+  private MessageBatch fetchMessages(StreamPartitionMsgOffset startOffset, int fetchTimeoutMillis)
+      throws TimeoutException {
+    long startTimeNs = System.nanoTime();
+    MessageBatch messageBatch = _partitionLevelConsumer.fetchMessages(startOffset, null, fetchTimeoutMillis);
+    _fetchTimeNs.addAndGet(System.nanoTime() - startTimeNs);
+    return messageBatch;
+  }
+
+  /**
+   * Starts fetching the messages following the given message batch in the background.
+   */
+  private void prefetchMessages(MessageBatch messageBatch, int fetchTimeoutMillis) {
+    int messageCount = messageBatch.getMessageCount();
+    if (messageCount == 0) {
+      // Do not prefetch when there is no new message, where we wait for a while before the next fetch
+      return;
+    }
+    StreamPartitionMsgOffset prefetchOffset = messageBatch.getNextStreamParitionMsgOffsetAtIndex(messageCount - 1);
+    _prefetchOffset = prefetchOffset;
+    _prefetchFuture = _prefetchExecutorService.submit(() -> fetchMessages(prefetchOffset, fetchTimeoutMillis));
+  }
+
+  /**
+   * Waits for the pending prefetch (if any) to finish and discards its result. Should be called before creating a new
+   * fetch or closing the stream consumer because the stream consumer is not thread-safe.
+   */
+  private void waitForPrefetch() {
+    if (_prefetchFuture != null) {
+      try {
+        Uninterruptibles.getUninterruptibly(_prefetchFuture);
+      } catch (Exception e) {
+        // Ignored
+      }
+      _prefetchFuture = null;
+      _prefetchOffset = null;
+    }
+  }
+
+  private void updateIngestionDelayMetrics(@Nullable RowMetadata lastRowMetadata) {
+    if (lastRowMetadata != null) {
+      long ingestionTimeMs = lastRowMetadata.getIngestionTimeMs();
+      if (ingestionTimeMs > 0) {
+        _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_PARTITION_INGESTION_DELAY_MS,
+            Math.max(now() - ingestionTimeMs, 0));
+      }
+    }
+  }
+
+  private void updateConsumptionStageMetrics() {
+    _reportedFetchTimeMs =
+        addStageTimeMetrics(ServerGauge.LLC_PARTITION_FETCH_TIME_MS, _fetchTimeNs.get(), _reportedFetchTimeMs);
+    long decodeTimeNs = _decodeTimeNs;
+    if (_pipelinedMessageDecoder != null) {
+      decodeTimeNs += _pipelinedMessageDecoder.getDecodeTimeNs();
+    }
+    _reportedDecodeTimeMs =
+        addStageTimeMetrics(ServerGauge.LLC_PARTITION_DECODE_TIME_MS, decodeTimeNs, _reportedDecodeTimeMs);
+    _reportedIndexTimeMs =
+        addStageTimeMetrics(ServerGauge.LLC_PARTITION_INDEX_TIME_MS, _indexTimeNs, _reportedIndexTimeMs);
+  }
+
+  /**
+   * Adds the stage time not yet reported to the cumulative stage time gauge, returns the reported stage time.
+   */
+  private long addStageTimeMetrics(ServerGauge gauge, long stageTimeNs, long reportedStageTimeMs) {
+    long stageTimeMs = TimeUnit.NANOSECONDS.toMillis(stageTimeNs);
+    if (stageTimeMs > reportedStageTimeMs) {
+      _serverMetrics.addValueToTableGauge(_metricKeyName, gauge, stageTimeMs - reportedStageTimeMs);
+    }
+    return stageTimeMs;
+  }
+
   public class PartitionConsumer implements Runnable {
     public void run() {
       long initialConsumptionEnd = 0L;
       long lastCatchUpStart = 0L;
       long catchUpTimeMillis = 0L;
-      _startTimeMs = now();
+      if (_startTimeMs == 0) {
+        _startTimeMs = now();
+      }
       try {
         while (!_state.isFinal()) {
           if (_state.shouldConsume()) {
-            consumeLoop();  // Consume until we reached the end criteria, or we are stopped.
+            consume();  // Consume until we reached the end criteria, or we are stopped.
           }
           _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_PARTITION_CONSUMING, 0);
           if (_shouldStop) {
@@ -642,6 +946,82 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       }
       _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_PARTITION_CONSUMING, 0);
     }
+
+    protected void consume()
+        throws Exception {
+      consumeLoop();
+    }
+  }
+
+  /**
+   * Partition consumer scheduled on the shared consumer threads of the {@link RealtimeConsumptionScheduler}.
+   * <p>The initial consumption is done in batches on the consumer threads, with short fetch timeout and without
+   * sleeping when there is no new message (the scheduler delays the next batch instead). Once the end criteria is
+   * reached, the rest of the segment completion (including catching up) is done on a completion thread the same way as
+   * the dedicated consumer thread.
+   */
+  private class ScheduledPartitionConsumer extends PartitionConsumer
+      implements RealtimeConsumptionScheduler.ConsumptionTask {
+    private final CountDownLatch _completedLatch = new CountDownLatch(1);
+    private final int _fetchTimeoutMillis = Math.min(_partitionLevelStreamConfig.getFetchTimeoutMillis(),
+        RealtimeConsumptionScheduler.MAX_FETCH_TIMEOUT_MS);
+
+    private boolean _initialConsumptionStarted;
+    private boolean _initialConsumptionDone;
+    private Exception _initialConsumptionException;
+
+    @Override
+    public RealtimeConsumptionScheduler.TaskStatus consumeNextBatch() {
+      try {
+        if (!_initialConsumptionStarted) {
+          _initialConsumptionStarted = true;
+          _startTimeMs = now();
+          startConsumeLoop(RealtimeConsumptionScheduler.IDLE_DELAY_MS, _fetchTimeoutMillis);
+        }
+        if (_shouldStop || endCriteriaReached()) {
+          return RealtimeConsumptionScheduler.TaskStatus.DONE;
+        }
+        return consumeNextBatch(0L, _fetchTimeoutMillis) ? RealtimeConsumptionScheduler.TaskStatus.CONSUMED
+            : RealtimeConsumptionScheduler.TaskStatus.IDLE;
+      } catch (Exception e) {
+        // Handled when completing the task
+        _initialConsumptionException = e;
+        return RealtimeConsumptionScheduler.TaskStatus.DONE;
+      }
+    }
+
+    @Override
+    public void complete() {
+      _consumerThread = Thread.currentThread();
+      try {
+        run();
+      } finally {
+        _completedLatch.countDown();
+      }
+    }
+
+    @Override
+    protected void consume()
+        throws Exception {
+      if (_initialConsumptionDone) {
+        consumeLoop();
+        return;
+      }
+      _initialConsumptionDone = true;
+      if (_initialConsumptionStarted) {
+        if (_initialConsumptionException != null) {
+          throw _initialConsumptionException;
+        }
+        endConsumeLoop();
+      }
+    }
+
+    /**
+     * Waits for the task to be completed, returns {@code false} if timed out.
+     */
+    boolean awaitCompletion(long timeout, TimeUnit unit) {
+      return Uninterruptibles.awaitUninterruptibly(_completedLatch, timeout, unit);
+    }
   }
 
   /**
@@ -874,6 +1254,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   }
 
   private void closePartitionLevelConsumer() {
+    waitForPrefetch();
     try {
       _partitionLevelConsumer.close();
     } catch (Exception e) {
@@ -1042,6 +1423,10 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   }
 
   public void destroy() {
+    RealtimeMemoryGovernor memoryGovernor = RealtimeMemoryGovernor.getInstance();
+    if (memoryGovernor != null) {
+      memoryGovernor.unregister(_segmentNameStr);
+    }
     try {
       stop();
     } catch (InterruptedException e) {
@@ -1049,12 +1434,23 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     }
     _realtimeSegment.destroy();
     closeKafkaConsumers();
+    if (_pipelinedMessageDecoder != null) {
+      _pipelinedMessageDecoder.shutDown();
+      _prefetchExecutorService.shutdownNow();
+    }
   }
 
   protected void start() {
-    _consumerThread = new Thread(new PartitionConsumer(), _segmentNameStr);
-    segmentLogger.info("Created new consumer thread {} for {}", _consumerThread, this.toString());
-    _consumerThread.start();
+    RealtimeConsumptionScheduler consumptionScheduler = RealtimeConsumptionScheduler.getInstance();
+    if (consumptionScheduler != null) {
+      _scheduledPartitionConsumer = new ScheduledPartitionConsumer();
+      segmentLogger.info("Scheduling consumption on the shared consumer threads for {}", this.toString());
+      consumptionScheduler.schedule(_scheduledPartitionConsumer);
+    } else {
+      _consumerThread = new Thread(new PartitionConsumer(), _segmentNameStr);
+      segmentLogger.info("Created new consumer thread {} for {}", _consumerThread, this.toString());
+      _consumerThread.start();
+    }
   }
 
   /**
@@ -1067,6 +1463,12 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     // when we commit a segment and replace the realtime segment with a committed
     // one. In the latter case, we don't want to call join.
     if (Thread.currentThread() != _consumerThread) {
+      if (_scheduledPartitionConsumer != null) {
+        if (!_scheduledPartitionConsumer.awaitCompletion(10, TimeUnit.MINUTES)) {
+          segmentLogger.warn("Failed to stop scheduled consumption within 10 minutes");
+        }
+        return;
+      }
       Uninterruptibles.joinUninterruptibly(_consumerThread, 10, TimeUnit.MINUTES);
 
       if (_consumerThread.isAlive()) {
@@ -1114,8 +1516,14 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
         indexLoadingConfig.isRealtimeOffHeapAllocation(), indexLoadingConfig.isDirectRealtimeOffHeapAllocation(),
         serverMetrics);
 
+    TableUpsertMetadataManager tableUpsertMetadataManager = realtimeTableDataManager.getTableUpsertMetadataManager();
     List<String> sortedColumns = indexLoadingConfig.getSortedColumns();
-    if (sortedColumns.isEmpty()) {
+    if (tableUpsertMetadataManager != null) {
+      // For upsert table, the records must be kept in the stream order so that the latest record of each primary key
+      // can be tracked with the document id
+      segmentLogger.info("Skipping sorted column for segment {} of upsert table", _llcSegmentName);
+      _sortedColumn = null;
+    } else if (sortedColumns.isEmpty()) {
       segmentLogger.info("RealtimeDataResourceZKMetadata contains no information about sorted column for segment {}",
           _llcSegmentName);
       _sortedColumn = null;
@@ -1162,6 +1570,10 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     Set<String> textIndexColumns = indexLoadingConfig.getTextIndexColumns();
     _textIndexColumns = new ArrayList<>(textIndexColumns);
 
+    // Rollup config applied when metrics aggregation is enabled
+    IngestionConfig ingestionConfig = tableConfig.getIngestionConfig();
+    RollupConfig rollupConfig = ingestionConfig != null ? ingestionConfig.getRollupConfig() : null;
+
     // Start new realtime segment
     String consumerDir = realtimeTableDataManager.getConsumerDir();
     RealtimeSegmentConfig.Builder realtimeSegmentConfigBuilder =
@@ -1171,10 +1583,19 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
             .setNoDictionaryColumns(indexLoadingConfig.getNoDictionaryColumns())
             .setVarLengthDictionaryColumns(indexLoadingConfig.getVarLengthDictionaryColumns())
             .setInvertedIndexColumns(invertedIndexColumns).setTextIndexColumns(textIndexColumns)
+            .setJsonIndexColumns(indexLoadingConfig.getJsonIndexColumns())
             .setRealtimeSegmentZKMetadata(segmentZKMetadata).setOffHeap(_isOffHeap).setMemoryManager(_memoryManager)
             .setStatsHistory(realtimeTableDataManager.getStatsHistory())
-            .setAggregateMetrics(indexingConfig.isAggregateMetrics()).setNullHandlingEnabled(_nullHandlingEnabled)
-            .setConsumerDir(consumerDir);
+            .setAggregateMetrics(indexingConfig.isAggregateMetrics()).setRollupConfig(rollupConfig)
+            .setNullHandlingEnabled(_nullHandlingEnabled).setConsumerDir(consumerDir).setSortedColumn(_sortedColumn)
+            .setColumnProperties(indexLoadingConfig.getColumnProperties());
+    if (tableUpsertMetadataManager != null) {
+      Preconditions.checkState(!indexingConfig.isAggregateMetrics(),
+          "Metrics aggregation cannot be enabled for upsert table: %s", _tableNameWithType);
+      realtimeSegmentConfigBuilder.setPartitionUpsertMetadataManager(
+          tableUpsertMetadataManager.getOrCreatePartitionManager(_streamPartitionId))
+          .setPrimaryKeyColumns(tableUpsertMetadataManager.getPrimaryKeyColumns());
+    }
 
     // Create message decoder
     Set<String> fieldsToRead = IngestionUtils.getFieldsForRecordExtractor(_tableConfig.getIngestionConfig(), _schema);
@@ -1184,6 +1605,21 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     // Create record transformer
     _recordTransformer = CompositeTransformer.getDefaultTransformer(tableConfig, schema);
 
+    // Set up pipelined consumption if enabled
+    int consumptionPipelineNumThreads = _partitionLevelStreamConfig.getConsumptionPipelineNumThreads();
+    if (consumptionPipelineNumThreads > 0) {
+      segmentLogger.info("Enabling pipelined consumption with {} decoding threads", consumptionPipelineNumThreads);
+      _pipelinedMessageDecoder = new PipelinedMessageDecoder(consumptionPipelineNumThreads,
+          () -> StreamDecoderProvider.create(_partitionLevelStreamConfig, fieldsToRead),
+          () -> CompositeTransformer.getDefaultTransformer(tableConfig, schema), _segmentNameStr + "-decoder",
+          segmentLogger);
+      _prefetchExecutorService =
+          Executors.newSingleThreadExecutor(new NamedThreadFactory(_segmentNameStr + "-fetcher"));
+    } else {
+      _pipelinedMessageDecoder = null;
+      _prefetchExecutorService = null;
+    }
+
     // Acquire semaphore to create Kafka consumers
     try {
       _partitionConsumerSemaphore.acquire();
@@ -1237,6 +1673,26 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     }
     _state = State.INITIAL_CONSUMING;
 
+    RealtimeMemoryGovernor memoryGovernor = RealtimeMemoryGovernor.getInstance();
+    if (memoryGovernor != null) {
+      memoryGovernor.register(_segmentNameStr, new RealtimeMemoryGovernor.ConsumingSegment() {
+        @Override
+        public long getMemoryUsedBytes() {
+          return _memoryManager.getTotalAllocatedBytes();
+        }
+
+        @Override
+        public boolean requestEarlyCommit() {
+          // Only the segments that have not reported the end of consumption and have consumed some rows can commit
+          if (_state != State.INITIAL_CONSUMING || _numRowsIndexed == 0 || _earlyCommitRequested) {
+            return false;
+          }
+          _earlyCommitRequested = true;
+          return true;
+        }
+      });
+    }
+
     long now = now();
     _consumeStartTime = now;
     long maxConsumeTimeMillis = _partitionLevelStreamConfig.getFlushThresholdTimeMillis();
@@ -0,0 +1,255 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.apache.pinot.common.utils.NamedThreadFactory;
+import org.apache.pinot.core.data.recordtransformer.RecordTransformer;
+import org.apache.pinot.core.util.IngestionUtils;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.StreamMessageDecoder;
+import org.slf4j.Logger;
+
+
+/**
+ * The {@code PipelinedMessageDecoder} decodes and transforms the messages of a {@link MessageBatch} in parallel on a
+ * bounded thread pool for the pipelined realtime consumption.
+ * <p>Each message batch is split into contiguous chunks of messages which are decoded in parallel, and the decoded
+ * messages are returned in order, so that the consumer thread (single writer of the consuming segment) can index the
+ * rows of the first chunks while the following chunks are still being decoded.
+ * <p>Each thread uses its own {@link StreamMessageDecoder} and {@link RecordTransformer} because they are not
+ * thread-safe.
+ */
+public class PipelinedMessageDecoder {
+  // Split each message batch into more chunks than threads so that the indexing can start before the whole batch is
+  // decoded
+  private static final int NUM_CHUNKS_PER_THREAD = 4;
+
+  private final int _numThreads;
+  private final ExecutorService _executorService;
+  private final BlockingQueue<Worker> _workers;
+  private final Logger _logger;
+  private final AtomicLong _decodeTimeNs = new AtomicLong();
+
+  public PipelinedMessageDecoder(int numThreads, Supplier<StreamMessageDecoder> decoderSupplier,
+      Supplier<RecordTransformer> recordTransformerSupplier, String threadNamePrefix, Logger logger) {
+    _numThreads = numThreads;
+    _executorService = Executors.newFixedThreadPool(numThreads, new NamedThreadFactory(threadNamePrefix));
+    _workers = new ArrayBlockingQueue<>(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      _workers.add(new Worker(decoderSupplier.get(), recordTransformerSupplier.get()));
+    }
+    _logger = logger;
+  }
+
+  /**
+   * Submits the messages of the given message batch to be decoded, and returns a {@link DecodedMessageBatch} to
+   * access the decoded messages in order. The returned batch should be closed after use to cancel the pending chunks.
+   */
+  public DecodedMessageBatch decode(MessageBatch messageBatch) {
+    int numMessages = messageBatch.getMessageCount();
+    int numChunks = Math.min(numMessages, _numThreads * NUM_CHUNKS_PER_THREAD);
+    int[] chunkStartIndexes = new int[numChunks + 1];
+    List<Future<DecodedMessage[]>> futures = new ArrayList<>(numChunks);
+    for (int i = 0; i < numChunks; i++) {
+      int startIndex = (int) ((long) numMessages * i / numChunks);
+      int endIndex = (int) ((long) numMessages * (i + 1) / numChunks);
+      chunkStartIndexes[i] = startIndex;
+      futures.add(_executorService.submit(() -> decode(messageBatch, startIndex, endIndex)));
+    }
+    chunkStartIndexes[numChunks] = numMessages;
+    return new DecodedMessageBatch(futures, chunkStartIndexes);
+  }
+
+  /**
+   * Returns the total time (across all threads) spent on decoding and transforming the messages in nanoseconds.
+   */
+  public long getDecodeTimeNs() {
+    return _decodeTimeNs.get();
+  }
+
+  public void shutDown() {
+    _executorService.shutdownNow();
+  }
+
+  private DecodedMessage[] decode(MessageBatch messageBatch, int startIndex, int endIndex) {
+    // There is always an idle worker because the number of workers is the same as the number of threads
+    Worker worker = Uninterruptibles.takeUninterruptibly(_workers);
+    try {
+      long startTimeNs = System.nanoTime();
+      int numMessages = endIndex - startIndex;
+      GenericRow[] destinations = new GenericRow[numMessages];
+      for (int i = 0; i < numMessages; i++) {
+        destinations[i] = new GenericRow();
+      }
+      GenericRow[] decodedRows = worker._decoder.decodeBatch(messageBatch, startIndex, endIndex, destinations);
+      DecodedMessage[] decodedMessages = new DecodedMessage[numMessages];
+      for (int i = 0; i < numMessages; i++) {
+        decodedMessages[i] = worker.toDecodedMessage(decodedRows[i]);
+      }
+      _decodeTimeNs.addAndGet(System.nanoTime() - startTimeNs);
+      return decodedMessages;
+    } finally {
+      _workers.add(worker);
+    }
+  }
+
+  private class Worker {
+    final StreamMessageDecoder _decoder;
+    final RecordTransformer _recordTransformer;
+
+    Worker(StreamMessageDecoder decoder, RecordTransformer recordTransformer) {
+      _decoder = decoder;
+      _recordTransformer = recordTransformer;
+    }
+
+    /**
+     * Transforms the decoded row of a message ({@code null} if the message cannot be decoded) into the rows to be
+     * indexed.
+     */
+    DecodedMessage toDecodedMessage(GenericRow decodedRow) {
+      if (decodedRow == null) {
+        return DecodedMessage.DROPPED;
+      }
+      List<GenericRow> rows = new ArrayList<>(1);
+      int numRowsDropped = 0;
+      try {
+        Collection multipleRecords = (Collection) decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY);
+        if (multipleRecords != null) {
+          for (Object singleRow : multipleRecords) {
+            numRowsDropped += transform((GenericRow) singleRow, rows);
+          }
+        } else {
+          numRowsDropped += transform(decodedRow, rows);
+        }
+      } catch (Exception e) {
+        _logger.error("Caught exception while transforming the record: {}", decodedRow, e);
+        return new DecodedMessage(rows, numRowsDropped, true);
+      }
+      return new DecodedMessage(rows, numRowsDropped, false);
+    }
+
+    /**
+     * Transforms the given row and adds it to the rows to be indexed, returns the number of rows dropped (0 or 1).
+     */
+    int transform(GenericRow row, List<GenericRow> rows) {
+      GenericRow transformedRow = _recordTransformer.transform(row);
+      if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
+        rows.add(transformedRow);
+        return 0;
+      } else {
+        return 1;
+      }
+    }
+  }
+
+  /**
+   * Rows decoded and transformed from a single message.
+   */
+  public static class DecodedMessage {
+    static final DecodedMessage DROPPED = new DecodedMessage(Collections.emptyList(), 1, false);
+
+    private final List<GenericRow> _rows;
+    private final int _numRowsDropped;
+    private final boolean _errored;
+
+    DecodedMessage(List<GenericRow> rows, int numRowsDropped, boolean errored) {
+      _rows = rows;
+      _numRowsDropped = numRowsDropped;
+      _errored = errored;
+    }
+
+    /**
+     * Returns the rows to be indexed.
+     */
+    public List<GenericRow> getRows() {
+      return _rows;
+    }
+
+    /**
+     * Returns the number of rows that failed to be decoded or are filtered out.
+     */
+    public int getNumRowsDropped() {
+      return _numRowsDropped;
+    }
+
+    /**
+     * Returns {@code true} if the message failed to be transformed, in which case the rows transformed before the
+     * failure are still returned.
+     */
+    public boolean isErrored() {
+      return _errored;
+    }
+  }
+
+  /**
+   * Decoded messages of a message batch, which should be accessed in order.
+   */
+  public static class DecodedMessageBatch implements AutoCloseable {
+    private final List<Future<DecodedMessage[]>> _futures;
+    private final int[] _chunkStartIndexes;
+
+    private int _chunkId = -1;
+    private DecodedMessage[] _chunk;
+
+    DecodedMessageBatch(List<Future<DecodedMessage[]>> futures, int[] chunkStartIndexes) {
+      _futures = futures;
+      _chunkStartIndexes = chunkStartIndexes;
+    }
+
+    /**
+     * Returns the decoded message at the given index, waits for the message to be decoded if necessary.
+     * <p>NOTE: The index should be monotonically increasing across the calls.
+     */
+    public DecodedMessage getDecodedMessage(int index) {
+      while (index >= _chunkStartIndexes[_chunkId + 1]) {
+        _chunkId++;
+        try {
+          _chunk = Uninterruptibles.getUninterruptibly(_futures.get(_chunkId));
+        } catch (ExecutionException e) {
+          throw new RuntimeException("Caught exception while decoding messages", e.getCause());
+        }
+      }
+      return _chunk[index - _chunkStartIndexes[_chunkId]];
+    }
+
+    /**
+     * Cancels the chunks not yet started when the consumer stops before reaching the end of the batch.
+     */
+    @Override
+    public void close() {
+      for (Future<DecodedMessage[]> future : _futures) {
+        future.cancel(false);
+      }
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.utils.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Server-wide scheduler that multiplexes the consumption of the consuming segments onto a bounded pool of consumer
+ * threads, instead of starting one dedicated consumer thread per consuming segment.
+ * <p>Each run of a scheduled {@link ConsumptionTask} consumes one batch of messages, after which the task is queued
+ * behind the other tasks, so that the partitions are served in a round-robin fashion and a busy partition cannot starve
+ * the others. A task without new messages is queued again after a short delay instead of blocking a consumer thread.
+ * <p>Once a task reaches its end criteria, it is removed from the consumer threads and completed (segment completion
+ * protocol, segment build and commit) on a separate completion thread. The partition of a committing segment is not
+ * consumed until the consuming segment of the next sequence is scheduled, and the committing segment does not hold a
+ * consumer thread.
+ * <p>The scheduler is disabled by default, and can be enabled on the server via {@link #init(int)}.
+ */
+@ThreadSafe
+public class RealtimeConsumptionScheduler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeConsumptionScheduler.class);
+
+  // Max time to wait for the new messages when fetching, so that the idle partitions do not block the consumer threads
+  public static final int MAX_FETCH_TIMEOUT_MS = 10;
+  // Delay before consuming a partition without new messages again
+  public static final long IDLE_DELAY_MS = 100L;
+
+  private static volatile RealtimeConsumptionScheduler _instance;
+
+  private final ScheduledExecutorService _consumerExecutorService;
+  private final ExecutorService _completionExecutorService;
+
+  public RealtimeConsumptionScheduler(int numConsumerThreads) {
+    Preconditions.checkArgument(numConsumerThreads > 0, "Number of consumer threads must be positive, got: %s",
+        numConsumerThreads);
+    _consumerExecutorService =
+        Executors.newScheduledThreadPool(numConsumerThreads, new NamedThreadFactory("realtime-consumer"));
+    _completionExecutorService = Executors.newCachedThreadPool(new NamedThreadFactory("realtime-segment-completion"));
+  }
+
+  /**
+   * Initializes the scheduler with the given number of consumer threads. Non-positive number of threads disables the
+   * scheduler, where each consuming segment starts its own consumer thread.
+   */
+  public static synchronized void init(int numConsumerThreads) {
+    shutDown();
+    if (numConsumerThreads > 0) {
+      LOGGER.info("Enabling realtime consumption scheduler with {} consumer threads", numConsumerThreads);
+      _instance = new RealtimeConsumptionScheduler(numConsumerThreads);
+    }
+  }
+
+  /**
+   * Stops the scheduler if it is enabled. Should be called after all the consuming segments are stopped.
+   */
+  public static synchronized void shutDown() {
+    if (_instance != null) {
+      _instance.stop();
+      _instance = null;
+    }
+  }
+
+  /**
+   * Returns the scheduler, or {@code null} if it is not enabled.
+   */
+  @Nullable
+  public static RealtimeConsumptionScheduler getInstance() {
+    return _instance;
+  }
+
+  /**
+   * Schedules the given task to be consumed on the consumer threads.
+   */
+  public void schedule(ConsumptionTask task) {
+    _consumerExecutorService.execute(new ScheduledTask(task));
+  }
+
+  private void stop() {
+    _consumerExecutorService.shutdownNow();
+    _completionExecutorService.shutdown();
+  }
+
+  private class ScheduledTask implements Runnable {
+    final ConsumptionTask _task;
+
+    ScheduledTask(ConsumptionTask task) {
+      _task = task;
+    }
+
+    @Override
+    public void run() {
+      TaskStatus status;
+      try {
+        status = _task.consumeNextBatch();
+      } catch (Throwable t) {
+        LOGGER.error("Caught exception while consuming the next batch, completing the task", t);
+        status = TaskStatus.DONE;
+      }
+      try {
+        switch (status) {
+          case CONSUMED:
+            _consumerExecutorService.execute(this);
+            break;
+          case IDLE:
+            _consumerExecutorService.schedule(this, IDLE_DELAY_MS, TimeUnit.MILLISECONDS);
+            break;
+          default:
+            _completionExecutorService.execute(_task::complete);
+            break;
+        }
+      } catch (RejectedExecutionException e) {
+        // The scheduler is shut down, complete the task on the current thread so that it does not hang
+        LOGGER.warn("Realtime consumption scheduler is shut down, completing the task on the current thread");
+        _task.complete();
+      }
+    }
+  }
+
+  /**
+   * Task of consuming a partition scheduled on the consumer threads.
+   */
+  public interface ConsumptionTask {
+
+    /**
+     * Consumes the next batch of messages, and returns the status of the task. The method should not block for long,
+     * and should not throw exception (the exception should be handled when completing the task).
+     */
+    TaskStatus consumeNextBatch();
+
+    /**
+     * Completes the task after it reaches the end criteria or is stopped. Invoked on a completion thread.
+     */
+    void complete();
+  }
+
+  public enum TaskStatus {
+    // Consumed some messages, continue consuming
+    CONSUMED,
+    // No new message, continue consuming after a delay
+    IDLE,
+    // Reached the end criteria or stopped, complete the task
+    DONE
+  }
+}
@@ -0,0 +1,219 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Server-wide governor of the memory used by the consuming segments.
+ * <p>The governor periodically sums up the memory allocated by the consuming segments (tracked by their
+ * {@link org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager}s). When the memory used reaches the high
+ * watermark of the budget, it requests the largest consuming segments to stop consuming and commit early until the
+ * memory used is projected to drop below the low watermark. Segments requested to commit still hold their memory until
+ * they are destroyed, so they are excluded from the projection to avoid committing more segments than needed.
+ * <p>Below the high watermark the governor does not intervene, and the segments are sized by the flush thresholds. The
+ * early committed segments hit neither the row limit nor the time limit, so the size based flush threshold updater on
+ * the controller shrinks the row threshold of the next segments of these partitions, and grows it back once they can
+ * reach the row limit again.
+ * <p>The governor is disabled by default, and can be enabled on the server via
+ * {@link #init(long, double, double, ServerMetrics)}.
+ */
+@ThreadSafe
+public class RealtimeMemoryGovernor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeMemoryGovernor.class);
+  private static final long CHECK_INTERVAL_MS = 1000L;
+
+  private static volatile RealtimeMemoryGovernor _instance;
+
+  private final long _highWatermarkBytes;
+  private final long _lowWatermarkBytes;
+  private final ServerMetrics _serverMetrics;
+  private final Map<String, ConsumingSegment> _consumingSegments = new ConcurrentHashMap<>();
+  // Segments requested to commit early, which still hold their memory until they are unregistered
+  private final Map<String, ConsumingSegment> _committingSegments = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService _executorService;
+
+  public RealtimeMemoryGovernor(long memoryBudgetBytes, double highWatermarkRatio, double lowWatermarkRatio,
+      @Nullable ServerMetrics serverMetrics) {
+    Preconditions.checkArgument(memoryBudgetBytes > 0, "Memory budget must be positive, got: %s", memoryBudgetBytes);
+    Preconditions.checkArgument(lowWatermarkRatio > 0 && lowWatermarkRatio <= highWatermarkRatio
+            && highWatermarkRatio <= 1, "Illegal watermark ratios, low: %s, high: %s", lowWatermarkRatio,
+        highWatermarkRatio);
+    _highWatermarkBytes = (long) (memoryBudgetBytes * highWatermarkRatio);
+    _lowWatermarkBytes = (long) (memoryBudgetBytes * lowWatermarkRatio);
+    _serverMetrics = serverMetrics;
+  }
+
+  /**
+   * Initializes and starts the governor with the given memory budget. Non-positive memory budget disables the governor.
+   */
+  public static synchronized void init(long memoryBudgetBytes, double highWatermarkRatio, double lowWatermarkRatio,
+      @Nullable ServerMetrics serverMetrics) {
+    shutDown();
+    if (memoryBudgetBytes > 0) {
+      LOGGER.info("Enabling realtime memory governor with budget: {} bytes, high watermark ratio: {}, low watermark "
+          + "ratio: {}", memoryBudgetBytes, highWatermarkRatio, lowWatermarkRatio);
+      RealtimeMemoryGovernor governor =
+          new RealtimeMemoryGovernor(memoryBudgetBytes, highWatermarkRatio, lowWatermarkRatio, serverMetrics);
+      governor.start();
+      _instance = governor;
+    }
+  }
+
+  /**
+   * Stops the governor if it is enabled.
+   */
+  public static synchronized void shutDown() {
+    if (_instance != null) {
+      _instance.stop();
+      _instance = null;
+    }
+  }
+
+  /**
+   * Returns the governor, or {@code null} if it is not enabled.
+   */
+  @Nullable
+  public static RealtimeMemoryGovernor getInstance() {
+    return _instance;
+  }
+
+  private void start() {
+    _executorService = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "RealtimeMemoryGovernor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    _executorService.scheduleWithFixedDelay(() -> {
+      try {
+        check();
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while checking the memory used by the consuming segments", e);
+      }
+    }, CHECK_INTERVAL_MS, CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+  }
+
+  private void stop() {
+    _executorService.shutdownNow();
+  }
+
+  public void register(String segmentName, ConsumingSegment consumingSegment) {
+    _consumingSegments.put(segmentName, consumingSegment);
+  }
+
+  public void unregister(String segmentName) {
+    _consumingSegments.remove(segmentName);
+    _committingSegments.remove(segmentName);
+  }
+
+  /**
+   * Checks the memory used by the consuming segments, and requests the largest ones to commit early if the memory used
+   * reaches the high watermark. Returns the number of segments requested to commit.
+   */
+  int check() {
+    List<SegmentMemory> candidates = new ArrayList<>(_consumingSegments.size());
+    long memoryUsedBytes = 0;
+    long committingMemoryUsedBytes = 0;
+    for (Map.Entry<String, ConsumingSegment> entry : _consumingSegments.entrySet()) {
+      String segmentName = entry.getKey();
+      long segmentMemoryUsedBytes = entry.getValue().getMemoryUsedBytes();
+      memoryUsedBytes += segmentMemoryUsedBytes;
+      if (_committingSegments.containsKey(segmentName)) {
+        committingMemoryUsedBytes += segmentMemoryUsedBytes;
+      } else {
+        candidates.add(new SegmentMemory(segmentName, entry.getValue(), segmentMemoryUsedBytes));
+      }
+    }
+    if (_serverMetrics != null) {
+      _serverMetrics.setValueOfGlobalGauge(ServerGauge.REALTIME_CONSUMING_MEMORY_USED, memoryUsedBytes);
+    }
+
+    long projectedMemoryUsedBytes = memoryUsedBytes - committingMemoryUsedBytes;
+    if (projectedMemoryUsedBytes < _highWatermarkBytes) {
+      return 0;
+    }
+    candidates.sort((o1, o2) -> Long.compare(o2._memoryUsedBytes, o1._memoryUsedBytes));
+    int numSegmentsToCommit = 0;
+    for (SegmentMemory candidate : candidates) {
+      if (projectedMemoryUsedBytes < _lowWatermarkBytes) {
+        break;
+      }
+      if (candidate._consumingSegment.requestEarlyCommit()) {
+        LOGGER.info("Requested segment: {} using {} bytes to commit early, memory used by consuming segments: {} bytes",
+            candidate._segmentName, candidate._memoryUsedBytes, memoryUsedBytes);
+        _committingSegments.put(candidate._segmentName, candidate._consumingSegment);
+        projectedMemoryUsedBytes -= candidate._memoryUsedBytes;
+        numSegmentsToCommit++;
+      }
+    }
+    if (numSegmentsToCommit > 0 && _serverMetrics != null) {
+      _serverMetrics.addMeteredGlobalValue(ServerMeter.REALTIME_MEMORY_PRESSURE_COMMITS, numSegmentsToCommit);
+    }
+    if (projectedMemoryUsedBytes >= _highWatermarkBytes) {
+      LOGGER.warn("Memory used by consuming segments: {} bytes is above the high watermark: {} bytes, and no more "
+          + "segment can be committed early", projectedMemoryUsedBytes, _highWatermarkBytes);
+    }
+    return numSegmentsToCommit;
+  }
+
+  /**
+   * Consuming segment tracked by the governor.
+   */
+  public interface ConsumingSegment {
+
+    /**
+     * Returns the memory currently allocated by the consuming segment in bytes.
+     */
+    long getMemoryUsedBytes();
+
+    /**
+     * Requests the consuming segment to stop consuming and commit early. Returns {@code true} if the request is
+     * accepted, {@code false} if the segment cannot commit early (e.g. it is empty or already stopped consuming).
+     */
+    boolean requestEarlyCommit();
+  }
+
+  private static class SegmentMemory {
+    final String _segmentName;
+    final ConsumingSegment _consumingSegment;
+    final long _memoryUsedBytes;
+
+    SegmentMemory(String segmentName, ConsumingSegment consumingSegment, long memoryUsedBytes) {
+      _segmentName = segmentName;
+      _consumingSegment = consumingSegment;
+      _memoryUsedBytes = memoryUsedBytes;
+    }
+  }
+}
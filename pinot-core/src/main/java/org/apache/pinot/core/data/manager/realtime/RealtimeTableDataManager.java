@@ -31,6 +31,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FileUtils;
@@ -48,11 +49,14 @@ import org.apache.pinot.common.utils.TarGzCompressionUtils;
 import org.apache.pinot.common.utils.fetcher.SegmentFetcherFactory;
 import org.apache.pinot.core.data.manager.BaseTableDataManager;
 import org.apache.pinot.core.data.manager.SegmentDataManager;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentImpl;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
 import org.apache.pinot.core.realtime.impl.RealtimeSegmentStatsHistory;
 import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.core.segment.index.loader.LoaderUtils;
 import org.apache.pinot.core.segment.virtualcolumn.VirtualColumnProviderFactory;
+import org.apache.pinot.core.upsert.TableUpsertMetadataManager;
 import org.apache.pinot.core.util.PeerServerSegmentFinder;
 import org.apache.pinot.core.util.SchemaUtils;
 import org.apache.pinot.spi.config.table.IndexingConfig;
@@ -76,6 +80,8 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
   // The semaphores will stay in the hash map even if the consuming partitions move to a different host.
   // We expect that there will be a small number of semaphores, but that may be ok.
   private final Map<Integer, Semaphore> _partitionIdToSemaphoreMap = new ConcurrentHashMap<>();
+  // Created when the first segment of an upsert table is added, null for non-upsert tables
+  private volatile TableUpsertMetadataManager _tableUpsertMetadataManager;
 
   // The old name of the stats file used to be stats.ser which we changed when we moved all packages
   // from com.linkedin to org.apache because of not being able to deserialize the old files using the newer classes
@@ -171,6 +177,14 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     return _segmentBuildSemaphore;
   }
 
+  /**
+   * Returns the upsert metadata manager of the table, or {@code null} if upsert is not enabled.
+   */
+  @Nullable
+  public TableUpsertMetadataManager getTableUpsertMetadataManager() {
+    return _tableUpsertMetadataManager;
+  }
+
   public String getConsumerDir() {
     String consumerDirPath = _tableDataManagerConfig.getConsumerDir();
     File consumerDir;
@@ -222,6 +236,9 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     Preconditions.checkNotNull(realtimeSegmentZKMetadata);
     Schema schema = ZKMetadataProvider.getTableSchema(_propertyStore, _tableNameWithType);
     Preconditions.checkNotNull(schema);
+    if (tableConfig.getUpsertConfig() != null && _tableUpsertMetadataManager == null) {
+      initTableUpsertMetadataManager(tableConfig, schema);
+    }
 
     File indexDir = new File(_indexDir, segmentName);
     // Restart during segment reload might leave segment in inconsistent state (index directory might not exist but
@@ -272,6 +289,27 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     }
   }
 
+  private synchronized void initTableUpsertMetadataManager(TableConfig tableConfig, Schema schema) {
+    if (_tableUpsertMetadataManager == null) {
+      _logger.info("Enabling upsert for table: {}", _tableNameWithType);
+      _tableUpsertMetadataManager =
+          new TableUpsertMetadataManager(_tableNameWithType, tableConfig.getUpsertConfig(), schema);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>For upsert table, the segment is added to the upsert metadata (which computes the valid document ids of the
+   * segment) before it becomes queryable.
+   */
+  @Override
+  public void addSegment(ImmutableSegment immutableSegment) {
+    if (_tableUpsertMetadataManager != null) {
+      _tableUpsertMetadataManager.addSegment((ImmutableSegmentImpl) immutableSegment);
+    }
+    super.addSegment(immutableSegment);
+  }
+
   public void downloadAndReplaceSegment(String segmentName, LLCRealtimeSegmentZKMetadata llcSegmentMetadata,
       IndexLoadingConfig indexLoadingConfig, TableConfig tableConfig) {
     final String uri = llcSegmentMetadata.getDownloadUrl();
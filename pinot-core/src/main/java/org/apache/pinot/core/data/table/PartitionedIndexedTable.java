@@ -0,0 +1,224 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import com.google.common.base.Preconditions;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.HashUtil;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
+
+/**
+ * {@link Table} implementation for aggregating Records based on combination of keys, where the records are partitioned
+ * by the hash of the key.
+ * <p>Each worker thread of the combine operator owns one partitioned table and upserts into it without any
+ * synchronization. Once all the workers are done, the tables are merged partition by partition, where different
+ * partitions can be merged and trimmed concurrently because they never share a key.
+ * <p>To bound the memory usage of the table, the capacity of the table is split across the partitions: each partition
+ * is trimmed once it reaches its share of the max capacity (with a floor so that small capacities are not split into
+ * tiny partitions). Without order-by, the max capacity is tracked across all the partitions, and no more new records
+ * are accepted once the whole table reaches the max capacity.
+ * <p>NOTE: {@link #upsert(Key, Record)} and {@link #finish(boolean)} are not thread safe.
+ * {@link #mergePartition(int, PartitionedIndexedTable)} and {@link #trimPartition(int)} can be called concurrently for
+ * different partitions.
+ */
+@NotThreadSafe
+public class PartitionedIndexedTable extends IndexedTable {
+  // Min number of records to keep in each partition
+  private static final int MIN_PARTITION_CAPACITY = 1000;
+
+  private final int _numPartitions;
+  private final Map<Key, Record>[] _partitionMaps;
+  // The capacity each partition needs to trim to
+  private final int _partitionCapacity;
+  // The capacity of each partition with added buffer, at which the partition is trimmed
+  private final int _partitionMaxCapacity;
+  // Number of records across all the partitions, only tracked without order-by
+  private final AtomicInteger _numRecords = new AtomicInteger();
+
+  private volatile boolean _noMoreNewRecords;
+
+  private Map<Key, Record> _mergedMap;
+  private Iterator<Record> _iterator;
+
+  @SuppressWarnings("unchecked")
+  public PartitionedIndexedTable(DataSchema dataSchema, QueryContext queryContext, int capacity, int numPartitions) {
+    super(dataSchema, queryContext, capacity);
+
+    Preconditions.checkArgument(numPartitions > 0, "Number of partitions must be positive, got: %s", numPartitions);
+    _numPartitions = numPartitions;
+    _partitionMaps = new Map[numPartitions];
+    for (int i = 0; i < numPartitions; i++) {
+      _partitionMaps[i] = new HashMap<>();
+    }
+    // NOTE: All the records to return can fall into the same partition, so never trim a partition below the number
+    //       of records to return.
+    int partitionCapacityFloor = Math.min(_capacity,
+        Math.max(MIN_PARTITION_CAPACITY, queryContext.getLimit() + queryContext.getOffset()));
+    _partitionCapacity = Math.max(_capacity / numPartitions, partitionCapacityFloor);
+    _partitionMaxCapacity = Math.max(_maxCapacity / numPartitions, (int) (_partitionCapacity * 1.2));
+  }
+
+  public int getNumPartitions() {
+    return _numPartitions;
+  }
+
+  /**
+   * Returns the partition id for the given key.
+   */
+  public int getPartitionId(Key key) {
+    // Scramble the hash so that the partition id is not correlated with the bucket index inside the partition map
+    return ((key.hashCode() * 0x9E3779B9) & Integer.MAX_VALUE) % _numPartitions;
+  }
+
+  /**
+   * Non thread safe implementation of upsert to insert {@link Record} into the {@link Table}
+   */
+  @Override
+  public boolean upsert(Key key, Record newRecord) {
+    Preconditions.checkNotNull(key, "Cannot upsert record with null keys");
+    upsert(getPartitionId(key), key, newRecord);
+    return true;
+  }
+
+  private void upsert(int partitionId, Key key, Record newRecord) {
+    Map<Key, Record> partitionMap = _partitionMaps[partitionId];
+    if (_noMoreNewRecords) { // allow only existing record updates
+      partitionMap.computeIfPresent(key, (k, v) -> {
+        mergeValues(v, newRecord);
+        return v;
+      });
+    } else { // allow all records
+      Record existingRecord = partitionMap.putIfAbsent(key, newRecord);
+      if (existingRecord != null) {
+        mergeValues(existingRecord, newRecord);
+        return;
+      }
+
+      if (_hasOrderBy) {
+        if (partitionMap.size() >= _partitionMaxCapacity) {
+          // reached max capacity of the partition, resize
+          _tableResizer.resizeRecordsMap(partitionMap, _partitionCapacity);
+        }
+      } else {
+        if (_numRecords.incrementAndGet() >= _maxCapacity) {
+          // reached max capacity of the table and no order by. No more new records will be accepted
+          _noMoreNewRecords = true;
+        }
+      }
+    }
+  }
+
+  private void mergeValues(Record existingRecord, Record newRecord) {
+    Object[] existingValues = existingRecord.getValues();
+    Object[] newValues = newRecord.getValues();
+    int aggNum = 0;
+    for (int i = _numKeyColumns; i < _numColumns; i++) {
+      existingValues[i] = _aggregationFunctions[aggNum++].merge(existingValues[i], newValues[i]);
+    }
+  }
+
+  /**
+   * Merges the given partition of the given table into the same partition of this table.
+   * <p>Both tables must have the same number of partitions. Can be called concurrently for different partitions.
+   */
+  public void mergePartition(int partitionId, PartitionedIndexedTable table) {
+    Preconditions.checkArgument(table._numPartitions == _numPartitions,
+        "Cannot merge tables with different number of partitions: %s and %s", _numPartitions, table._numPartitions);
+    for (Map.Entry<Key, Record> entry : table._partitionMaps[partitionId].entrySet()) {
+      upsert(partitionId, entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Trims the given partition to the capacity of the partition. Can be called concurrently for different partitions.
+   */
+  public void trimPartition(int partitionId) {
+    if (_hasOrderBy) {
+      _tableResizer.resizeRecordsMap(_partitionMaps[partitionId], _partitionCapacity);
+    }
+  }
+
+  public int getPartitionCapacity() {
+    return _partitionCapacity;
+  }
+
+  public int getPartitionMaxCapacity() {
+    return _partitionMaxCapacity;
+  }
+
+  @Override
+  public int size() {
+    if (_mergedMap != null) {
+      return _mergedMap.size();
+    }
+    int size = 0;
+    for (Map<Key, Record> partitionMap : _partitionMaps) {
+      size += partitionMap.size();
+    }
+    return size;
+  }
+
+  @Override
+  public Iterator<Record> iterator() {
+    return _iterator;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Collects the records from all the partitions, and trims them to the capacity of the table. Partitions should
+   * already be trimmed (see {@link #trimPartition(int)}) to reduce the number of records to collect.
+   */
+  @Override
+  public void finish(boolean sort) {
+    _mergedMap = new HashMap<>(HashUtil.getHashMapCapacity(size()));
+    if (_hasOrderBy) {
+      for (Map<Key, Record> partitionMap : _partitionMaps) {
+        _mergedMap.putAll(partitionMap);
+      }
+      if (sort) {
+        List<Record> sortedRecords = _tableResizer.resizeAndSortRecordsMap(_mergedMap, _capacity);
+        _iterator = sortedRecords.iterator();
+      } else {
+        _tableResizer.resizeRecordsMap(_mergedMap, _capacity);
+      }
+    } else {
+      // No order by, keep the first records up to the capacity
+      for (Map<Key, Record> partitionMap : _partitionMaps) {
+        for (Map.Entry<Key, Record> entry : partitionMap.entrySet()) {
+          if (_mergedMap.size() >= _capacity) {
+            break;
+          }
+          _mergedMap.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+
+    if (_iterator == null) {
+      _iterator = _mergedMap.values().iterator();
+    }
+  }
+}
@@ -41,6 +41,7 @@ import org.apache.pinot.spi.utils.ByteArray;
 
 /**
  * Helper class for trimming and sorting records in the IndexedTable, based on the order by information
+ * <p>NOTE: The resizer is stateless after construction, so it can be used to trim different records maps concurrently.
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class TableResizer {
@@ -346,7 +347,6 @@ public class TableResizer {
    * Extractor for a post-aggregation function.
    */
   private class PostAggregationFunctionExtractor implements OrderByValueExtractor {
-    final Object[] _arguments;
     final OrderByValueExtractor[] _argumentExtractors;
     final PostAggregationFunction _postAggregationFunction;
 
@@ -355,7 +355,6 @@ public class TableResizer {
 
       List<ExpressionContext> arguments = function.getArguments();
       int numArguments = arguments.size();
-      _arguments = new Object[numArguments];
       _argumentExtractors = new OrderByValueExtractor[numArguments];
       ColumnDataType[] argumentTypes = new ColumnDataType[numArguments];
       for (int i = 0; i < numArguments; i++) {
@@ -373,11 +372,14 @@ public class TableResizer {
 
     @Override
     public Comparable extract(Record record) {
-      int numArguments = _arguments.length;
+      // NOTE: Allocate the arguments for each call because the resizer can be shared by multiple threads (e.g. the
+      //       partitions of the PartitionedIndexedTable are trimmed concurrently)
+      int numArguments = _argumentExtractors.length;
+      Object[] arguments = new Object[numArguments];
       for (int i = 0; i < numArguments; i++) {
-        _arguments[i] = _argumentExtractors[i].extract(record);
+        arguments[i] = _argumentExtractors[i].extract(record);
       }
-      Object result = _postAggregationFunction.invoke(_arguments);
+      Object result = _postAggregationFunction.invoke(arguments);
       if (_postAggregationFunction.getResultType() == ColumnDataType.BYTES) {
         return new ByteArray((byte[]) result);
       } else {
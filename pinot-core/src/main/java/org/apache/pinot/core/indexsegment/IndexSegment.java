@@ -20,7 +20,9 @@ package org.apache.pinot.core.indexsegment;
 
 import java.util.List;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadata;
 import org.apache.pinot.core.startree.v2.StarTreeV2;
 import org.apache.pinot.spi.annotations.InterfaceAudience;
@@ -71,6 +73,14 @@ public interface IndexSegment {
    */
   List<StarTreeV2> getStarTrees();
 
+  /**
+   * Returns the valid document ids for the segment of an upsert table, or {@code null} if all the documents are valid
+   * (non-upsert table).
+   * <p>NOTE: The valid document ids might be updated when new records are ingested into the partition.
+   */
+  @Nullable
+  ThreadSafeMutableRoaringBitmap getValidDocIds();
+
   /**
    * Returns the record for the given document Id. Virtual column values are not returned.
    * <p>NOTE: don't use this method for high performance code.
@@ -69,6 +69,7 @@ public class SegmentGeneratorConfig {
   private Map<String, ChunkCompressorFactory.CompressionType> _rawIndexCompressionType = new HashMap<>();
   private List<String> _invertedIndexCreationColumns = new ArrayList<>();
   private List<String> _textIndexCreationColumns = new ArrayList<>();
+  private List<String> _jsonIndexCreationColumns = new ArrayList<>();
   private List<String> _columnSortOrder = new ArrayList<>();
   private List<String> _varLengthDictionaryColumns = new ArrayList<>();
   private String _inputFilePath = null;
@@ -218,6 +219,8 @@ public class SegmentGeneratorConfig {
       for (FieldConfig fieldConfig : fieldConfigList) {
         if (fieldConfig.getIndexType() == FieldConfig.IndexType.TEXT) {
           _textIndexCreationColumns.add(fieldConfig.getName());
+        } else if (fieldConfig.getIndexType() == FieldConfig.IndexType.JSON) {
+          _jsonIndexCreationColumns.add(fieldConfig.getName());
         }
       }
     }
@@ -272,6 +275,13 @@ public class SegmentGeneratorConfig {
     return _textIndexCreationColumns;
   }
 
+  /**
+   * Returns the columns with JSON index, which is extracted from the field configs in the table config.
+   */
+  public List<String> getJsonIndexCreationColumns() {
+    return _jsonIndexCreationColumns;
+  }
+
   public List<String> getColumnSortOrder() {
     return _columnSortOrder;
   }
@@ -299,6 +309,11 @@ public class SegmentGeneratorConfig {
     }
   }
 
+  public void setJsonIndexCreationColumns(List<String> jsonIndexCreationColumns) {
+    Preconditions.checkNotNull(jsonIndexCreationColumns);
+    _jsonIndexCreationColumns.addAll(jsonIndexCreationColumns);
+  }
+
   public void setColumnSortOrder(List<String> sortOrder) {
     Preconditions.checkNotNull(sortOrder);
     _columnSortOrder.addAll(sortOrder);
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
 import org.apache.pinot.core.segment.index.column.ColumnIndexContainer;
 import org.apache.pinot.core.segment.index.datasource.ImmutableDataSource;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadataImpl;
@@ -33,6 +34,7 @@ import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.store.SegmentDirectory;
 import org.apache.pinot.core.startree.v2.StarTreeV2;
 import org.apache.pinot.core.startree.v2.store.StarTreeIndexContainer;
+import org.apache.pinot.core.upsert.PartitionUpsertMetadataManager;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +48,11 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
   private final Map<String, ColumnIndexContainer> _indexContainerMap;
   private final StarTreeIndexContainer _starTreeIndexContainer;
 
+  // For upsert
+  private PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
+  private int _sequenceNumber;
+  private ThreadSafeMutableRoaringBitmap _validDocIds;
+
   public ImmutableSegmentImpl(SegmentDirectory segmentDirectory, SegmentMetadataImpl segmentMetadata,
       Map<String, ColumnIndexContainer> columnIndexContainerMap,
       @Nullable StarTreeIndexContainer starTreeIndexContainer) {
@@ -55,6 +62,17 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
     _starTreeIndexContainer = starTreeIndexContainer;
   }
 
+  /**
+   * Enables upsert for the segment with the given sequence number and valid document ids. The segment is removed from
+   * the upsert metadata when it is destroyed.
+   */
+  public void enableUpsert(PartitionUpsertMetadataManager partitionUpsertMetadataManager, int sequenceNumber,
+      ThreadSafeMutableRoaringBitmap validDocIds) {
+    _partitionUpsertMetadataManager = partitionUpsertMetadataManager;
+    _sequenceNumber = sequenceNumber;
+    _validDocIds = validDocIds;
+  }
+
   @Override
   public Dictionary getDictionary(String column) {
     ColumnIndexContainer container = _indexContainerMap.get(column);
@@ -107,6 +125,9 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
   @Override
   public void destroy() {
     LOGGER.info("Trying to destroy segment : {}", getSegmentName());
+    if (_partitionUpsertMetadataManager != null) {
+      _partitionUpsertMetadataManager.removeSegment(_sequenceNumber, _validDocIds);
+    }
     for (Map.Entry<String, ColumnIndexContainer> entry : _indexContainerMap.entrySet()) {
       try {
         entry.getValue().close();
@@ -133,6 +154,12 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
     return _starTreeIndexContainer != null ? _starTreeIndexContainer.getStarTrees() : null;
   }
 
+  @Nullable
+  @Override
+  public ThreadSafeMutableRoaringBitmap getValidDocIds() {
+    return _validDocIds;
+  }
+
   @Override
   public GenericRow getRecord(int docId, GenericRow reuse) {
     // NOTE: Use PinotSegmentRecordReader to read immutable segment
@@ -21,10 +21,12 @@ package org.apache.pinot.core.indexsegment.mutable;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Sets;
 import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -35,21 +37,30 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.common.utils.LLCSegmentName;
 import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.data.aggregator.ValueAggregator;
+import org.apache.pinot.core.data.aggregator.ValueAggregatorFactory;
 import org.apache.pinot.core.data.partition.PartitionFunction;
 import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
 import org.apache.pinot.core.realtime.impl.RealtimeSegmentConfig;
 import org.apache.pinot.core.realtime.impl.RealtimeSegmentStatsHistory;
+import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
 import org.apache.pinot.core.realtime.impl.dictionary.BaseMutableDictionary;
 import org.apache.pinot.core.realtime.impl.dictionary.BaseOffHeapMutableDictionary;
 import org.apache.pinot.core.realtime.impl.dictionary.MutableDictionaryFactory;
 import org.apache.pinot.core.realtime.impl.forward.FixedByteMVMutableForwardIndex;
 import org.apache.pinot.core.realtime.impl.forward.FixedByteSVMutableForwardIndex;
 import org.apache.pinot.core.realtime.impl.forward.VarByteSVMutableForwardIndex;
+import org.apache.pinot.core.realtime.impl.forward.VarByteSVOnHeapMutableForwardIndex;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeInvertedIndexReader;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState.RealtimeLuceneReaders;
+import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneRefreshPolicy;
+import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeJsonIndexReader;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneTextIndexReader;
+import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeSortedRunIndex;
 import org.apache.pinot.core.realtime.impl.nullvalue.MutableNullValueVector;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
 import org.apache.pinot.core.segment.index.datasource.ImmutableDataSource;
@@ -63,11 +74,17 @@ import org.apache.pinot.core.segment.virtualcolumn.VirtualColumnContext;
 import org.apache.pinot.core.segment.virtualcolumn.VirtualColumnProvider;
 import org.apache.pinot.core.segment.virtualcolumn.VirtualColumnProviderFactory;
 import org.apache.pinot.core.startree.v2.StarTreeV2;
+import org.apache.pinot.core.upsert.PartitionUpsertMetadataManager;
+import org.apache.pinot.core.upsert.PrimaryKey;
 import org.apache.pinot.core.util.FixedIntArray;
 import org.apache.pinot.core.util.FixedIntArrayOffHeapIdMap;
 import org.apache.pinot.core.util.IdMap;
 import org.apache.pinot.spi.config.table.ColumnPartitionConfig;
 import org.apache.pinot.spi.config.table.SegmentPartitionConfig;
+import org.apache.pinot.spi.config.table.ingestion.RollupConfig;
+import org.apache.pinot.spi.data.DateTimeFieldSpec;
+import org.apache.pinot.spi.data.DateTimeFormatSpec;
+import org.apache.pinot.spi.data.DateTimeGranularitySpec;
 import org.apache.pinot.spi.data.DimensionFieldSpec;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
@@ -113,8 +130,18 @@ public class MutableSegmentImpl implements MutableSegment {
   private final Map<String, IndexContainer> _indexContainerMap = new HashMap<>();
 
   private final IdMap<FixedIntArray> _recordIdMap;
+  // Map from the hash of the dimension and time values to the doc id, used for metrics aggregation instead of the
+  // record id map when any dimension or time column is not dictionary-encoded
+  private final Long2IntOpenHashMap _hashedRecordIdMap;
   private boolean _aggregateMetrics;
 
+  // For metrics aggregation (rollup)
+  private final Map<String, AggregationFunctionType> _metricAggregationTypes = new HashMap<>();
+  private final Map<String, ValueAggregator> _metricValueAggregators = new HashMap<>();
+  private final DateTimeFormatSpec _rollupTimeFormatSpec;
+  private final long _rollupTimeGranularityMs;
+  private final IndexContainer[] _keyIndexContainers;
+
   private volatile int _numDocsIndexed = 0;
   private final int _numKeyColumns;
 
@@ -129,6 +156,13 @@ public class MutableSegmentImpl implements MutableSegment {
   private volatile long _latestIngestionTimeMs = Long.MIN_VALUE;
 
   private RealtimeLuceneReaders _realtimeLuceneReaders;
+
+  // For upsert
+  private final PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
+  private final List<String> _primaryKeyColumns;
+  private final int _sequenceNumber;
+  private final ThreadSafeMutableRoaringBitmap _validDocIds;
+
   // If the table schema is changed before the consuming segment is committed, newly added columns would appear in _newlyAddedColumnsFieldMap.
   private final Map<String, FieldSpec> _newlyAddedColumnsFieldMap = new ConcurrentHashMap();
   private final Map<String, FieldSpec> _newlyAddedPhysicalColumnsFieldMap = new ConcurrentHashMap();
@@ -163,6 +197,7 @@ public class MutableSegmentImpl implements MutableSegment {
     _partitionId = config.getPartitionId();
     _nullHandlingEnabled = config.isNullHandlingEnabled();
     _aggregateMetrics = config.aggregateMetrics();
+    RollupConfig rollupConfig = config.getRollupConfig();
 
     Collection<FieldSpec> allFieldSpecs = _schema.getAllFieldSpecs();
     List<FieldSpec> physicalFieldSpecs = new ArrayList<>(allFieldSpecs.size());
@@ -190,12 +225,40 @@ public class MutableSegmentImpl implements MutableSegment {
 
     _numKeyColumns = _physicalDimensionFieldSpecs.size() + _physicalTimeColumnNames.size();
 
+    // Aggregation type for each metric (SUM if not configured), and the time granularity to truncate the time column to
+    Map<String, String> aggregationFunctions = rollupConfig != null ? rollupConfig.getAggregationFunctions() : null;
+    for (MetricFieldSpec metricFieldSpec : _physicalMetricFieldSpecs) {
+      String metric = metricFieldSpec.getName();
+      AggregationFunctionType aggregationType = AggregationFunctionType.SUM;
+      if (aggregationFunctions != null && aggregationFunctions.containsKey(metric)) {
+        aggregationType = AggregationFunctionType.getAggregationFunctionType(aggregationFunctions.get(metric));
+      }
+      _metricAggregationTypes.put(metric, aggregationType);
+      if (aggregationType == AggregationFunctionType.DISTINCTCOUNTHLL
+          || aggregationType == AggregationFunctionType.DISTINCTCOUNTTHETASKETCH) {
+        _metricValueAggregators.put(metric, ValueAggregatorFactory.getValueAggregator(aggregationType));
+      }
+    }
+    String timeGranularity = rollupConfig != null ? rollupConfig.getTimeGranularity() : null;
+    if (_aggregateMetrics && timeGranularity != null && _timeColumnName != null) {
+      DateTimeFieldSpec timeFieldSpec = _schema.getSpecForTimeColumn(_timeColumnName);
+      Preconditions.checkState(timeFieldSpec != null, "Failed to find time column: %s in schema", _timeColumnName);
+      _rollupTimeFormatSpec = new DateTimeFormatSpec(timeFieldSpec.getFormat());
+      _rollupTimeGranularityMs = new DateTimeGranularitySpec(timeGranularity).granularityToMillis();
+    } else {
+      _rollupTimeFormatSpec = null;
+      _rollupTimeGranularityMs = 0L;
+    }
+
     _logger =
         LoggerFactory.getLogger(MutableSegmentImpl.class.getName() + "_" + _segmentName + "_" + config.getStreamName());
 
     Set<String> noDictionaryColumns = config.getNoDictionaryColumns();
     Set<String> invertedIndexColumns = config.getInvertedIndexColumns();
     Set<String> textIndexColumns = config.getTextIndexColumns();
+    Set<String> jsonIndexColumns = config.getJsonIndexColumns();
+
+    String sortedColumn = config.getSortedColumn();
 
     int avgNumMultiValues = config.getAvgNumMultiValues();
 
@@ -234,10 +297,16 @@ public class MutableSegmentImpl implements MutableSegment {
           // TODO: Add support for updating RealtimeSegmentStatsHistory with average column value size for no dictionary
           //       columns as well
           // TODO: Use the stats to get estimated average length
-          // Use a smaller capacity as opposed to segment flush size
-          int initialCapacity = Math.min(_capacity, NODICT_VARIABLE_WIDTH_ESTIMATED_NUMBER_OF_VALUES_DEFAULT);
-          forwardIndex = new VarByteSVMutableForwardIndex(dataType, _memoryManager, allocationContext, initialCapacity,
-              NODICT_VARIABLE_WIDTH_ESTIMATED_AVERAGE_VALUE_LENGTH_DEFAULT);
+          if (_aggregateMetrics && fieldSpec.getFieldType() == FieldSpec.FieldType.METRIC) {
+            // Aggregated metrics (e.g. serialized HyperLogLog) are overwritten when records are rolled up
+            forwardIndex = new VarByteSVOnHeapMutableForwardIndex(dataType);
+          } else {
+            // Use a smaller capacity as opposed to segment flush size
+            int initialCapacity = Math.min(_capacity, NODICT_VARIABLE_WIDTH_ESTIMATED_NUMBER_OF_VALUES_DEFAULT);
+            forwardIndex =
+                new VarByteSVMutableForwardIndex(dataType, _memoryManager, allocationContext, initialCapacity,
+                    NODICT_VARIABLE_WIDTH_ESTIMATED_AVERAGE_VALUE_LENGTH_DEFAULT);
+          }
         }
       } else {
         // Dictionary-encoded column
@@ -283,7 +352,12 @@ public class MutableSegmentImpl implements MutableSegment {
       // Text index
       RealtimeLuceneTextIndexReader textIndex;
       if (textIndexColumns.contains(column)) {
-        textIndex = new RealtimeLuceneTextIndexReader(column, new File(config.getConsumerDir()), _segmentName);
+        Map<String, String> columnProperties =
+            config.getColumnProperties() != null ? config.getColumnProperties().get(column) : null;
+        textIndex = new RealtimeLuceneTextIndexReader(column, new File(config.getConsumerDir()), _segmentName,
+            config.getRealtimeSegmentZKMetadata().getTableName(),
+            RealtimeLuceneRefreshPolicy.fromProperties(columnProperties),
+            RealtimeLuceneIndexRefreshState.getInstance().getServerMetrics());
         if (_realtimeLuceneReaders == null) {
           _realtimeLuceneReaders = new RealtimeLuceneReaders(_segmentName);
         }
@@ -292,13 +366,36 @@ public class MutableSegmentImpl implements MutableSegment {
         textIndex = null;
       }
 
+      // JSON index (only for single-value STRING column)
+      RealtimeJsonIndexReader jsonIndex = null;
+      if (jsonIndexColumns.contains(column) && fieldSpec.isSingleValueField()
+          && fieldSpec.getDataType() == DataType.STRING) {
+        jsonIndex = new RealtimeJsonIndexReader();
+      }
+
       // Null value vector
       MutableNullValueVector nullValueVector = _nullHandlingEnabled ? new MutableNullValueVector() : null;
 
+      // Sorted run index (only for dictionary-encoded single-value sorted column)
+      RealtimeSortedRunIndex sortedRunIndex = null;
+      if (column.equals(sortedColumn) && dictionary != null && fieldSpec.isSingleValueField()) {
+        sortedRunIndex = new RealtimeSortedRunIndex(forwardIndex, dictionary, _capacity);
+      }
+
       // TODO: Support range index and bloom filter for mutable segment
       _indexContainerMap.put(column,
           new IndexContainer(fieldSpec, partitionFunction, partitionId, new NumValuesInfo(), forwardIndex, dictionary,
-              invertedIndexReader, null, textIndex, null, nullValueVector));
+              invertedIndexReader, null, textIndex, jsonIndex, null, nullValueVector, sortedRunIndex));
+    }
+
+    // Index containers for the dimension and time columns, which form the key for metrics aggregation
+    _keyIndexContainers = new IndexContainer[_numKeyColumns];
+    int keyIndex = 0;
+    for (FieldSpec fieldSpec : _physicalDimensionFieldSpecs) {
+      _keyIndexContainers[keyIndex++] = _indexContainerMap.get(fieldSpec.getName());
+    }
+    for (String timeColumnName : _physicalTimeColumnNames) {
+      _keyIndexContainers[keyIndex++] = _indexContainerMap.get(timeColumnName);
     }
 
     if (_realtimeLuceneReaders != null) {
@@ -307,9 +404,33 @@ public class MutableSegmentImpl implements MutableSegment {
       realtimeLuceneIndexRefreshState.addRealtimeReadersToQueue(_realtimeLuceneReaders);
     }
 
-    // Metric aggregation can be enabled only if config is specified, and all dimensions have dictionary,
-    // and no metrics have dictionary. If not enabled, the map returned is null.
+    // Metric aggregation can be enabled only if config is specified, all dimensions are single-valued, and no metrics
+    // have dictionary. The record id map is used when all dimensions and time columns have dictionary, otherwise the
+    // hashed record id map is used.
     _recordIdMap = enableMetricsAggregationIfPossible(config, noDictionaryColumns);
+    if (_aggregateMetrics && _recordIdMap == null) {
+      _hashedRecordIdMap = new Long2IntOpenHashMap();
+      _hashedRecordIdMap.defaultReturnValue(IdMap.INVALID_ID);
+    } else {
+      _hashedRecordIdMap = null;
+    }
+
+    _partitionUpsertMetadataManager = config.getPartitionUpsertMetadataManager();
+    if (_partitionUpsertMetadataManager != null) {
+      Preconditions.checkState(!_aggregateMetrics, "Metrics aggregation cannot be enabled for upsert table");
+      _primaryKeyColumns = config.getPrimaryKeyColumns();
+      for (String primaryKeyColumn : _primaryKeyColumns) {
+        Preconditions.checkState(_indexContainerMap.containsKey(primaryKeyColumn),
+            "Failed to find primary key column: %s in segment: %s", primaryKeyColumn, _segmentName);
+      }
+      _sequenceNumber = new LLCSegmentName(_segmentName).getSequenceNumber();
+      _validDocIds = new ThreadSafeMutableRoaringBitmap();
+      _partitionUpsertMetadataManager.addSegment(_sequenceNumber, _validDocIds);
+    } else {
+      _primaryKeyColumns = null;
+      _sequenceNumber = -1;
+      _validDocIds = null;
+    }
   }
 
   /**
@@ -322,26 +443,10 @@ public class MutableSegmentImpl implements MutableSegment {
    */
   private boolean isNoDictionaryColumn(Set<String> noDictionaryColumns, Set<String> invertedIndexColumns,
       FieldSpec fieldSpec, String column) {
-    DataType dataType = fieldSpec.getDataType();
     if (noDictionaryColumns.contains(column)) {
-      // Earlier we didn't support noDict in consuming segments for STRING and BYTES columns.
-      // So even if the user had the column in noDictionaryColumns set in table config, we still
-      // created dictionary in consuming segments.
-      // Later on we added this support. There is a particular impact of this change on the use cases
-      // that have set noDict on their STRING dimension columns for other performance
-      // reasons and also want metricsAggregation. These use cases don't get to
-      // aggregateMetrics because the new implementation is able to honor their table config setting
-      // of noDict on STRING/BYTES. Without metrics aggregation, memory pressure increases.
-      // So to continue aggregating metrics for such cases, we will create dictionary even
-      // if the column is part of noDictionary set from table config
-      if (fieldSpec instanceof DimensionFieldSpec && _aggregateMetrics && (dataType == DataType.STRING
-          || dataType == DataType.BYTES)) {
-        _logger
-            .info("Aggregate metrics is enabled. Will create dictionary in consuming segment for column {} of type {}",
-                column, dataType.toString());
-        return false;
-      }
-      // So don't create dictionary if the column is member of noDictionary, is single-value
+      // NOTE: Metrics aggregation works on no-dictionary dimensions through the hashed record id map, so the
+      //       no-dictionary setting is honored for the dimensions even if metrics aggregation is enabled.
+      // Don't create dictionary if the column is member of noDictionary, is single-value
       // and doesn't have an inverted index
       return fieldSpec.isSingleValueField() && !invertedIndexColumns.contains(column);
     }
@@ -413,12 +518,17 @@ public class MutableSegmentImpl implements MutableSegment {
   @SuppressWarnings("NonAtomicOperationOnVolatileField")
   @Override
   public boolean index(GenericRow row, @Nullable RowMetadata rowMetadata) {
+    // Truncate the time value to the rollup granularity before it is used as part of the key for metrics aggregation
+    if (_aggregateMetrics && _rollupTimeFormatSpec != null) {
+      truncateTimeValue(row);
+    }
+
     // Update dictionary first
     updateDictionary(row);
 
     // If metrics aggregation is enabled and if the dimension values were already seen, this will return existing docId,
     // else this will return a new docId.
-    int docId = getOrCreateDocId();
+    int docId = getOrCreateDocId(row);
 
     boolean canTakeMore;
     if (docId == _numDocsIndexed) {
@@ -426,6 +536,11 @@ public class MutableSegmentImpl implements MutableSegment {
       addNewRow(row);
       // Update number of documents indexed at last to make the latest row queryable
       canTakeMore = _numDocsIndexed++ < _capacity;
+
+      // Update the valid document ids after the row is queryable so that the primary key is never missing from queries
+      if (_partitionUpsertMetadataManager != null) {
+        _partitionUpsertMetadataManager.addRecord(_sequenceNumber, docId, getPrimaryKey(row));
+      }
     } else {
       // Aggregate metrics for an existing row
       assert _aggregateMetrics;
@@ -442,6 +557,22 @@ public class MutableSegmentImpl implements MutableSegment {
     return canTakeMore;
   }
 
+  /**
+   * Returns the primary key of the given row, which is the raw value for single primary key column, or a
+   * {@link PrimaryKey} for composite primary key.
+   */
+  private Object getPrimaryKey(GenericRow row) {
+    int numPrimaryKeyColumns = _primaryKeyColumns.size();
+    if (numPrimaryKeyColumns == 1) {
+      return row.getValue(_primaryKeyColumns.get(0));
+    }
+    Object[] values = new Object[numPrimaryKeyColumns];
+    for (int i = 0; i < numPrimaryKeyColumns; i++) {
+      values[i] = row.getValue(_primaryKeyColumns.get(i));
+    }
+    return new PrimaryKey(values);
+  }
+
   private void updateDictionary(GenericRow row) {
     for (Map.Entry<String, IndexContainer> entry : _indexContainerMap.entrySet()) {
       String column = entry.getKey();
@@ -489,6 +620,12 @@ public class MutableSegmentImpl implements MutableSegment {
           if (invertedIndex != null) {
             invertedIndex.add(dictId, docId);
           }
+
+          // Update sorted run index
+          RealtimeSortedRunIndex sortedRunIndex = indexContainer._sortedRunIndex;
+          if (sortedRunIndex != null) {
+            sortedRunIndex.add(docId);
+          }
         } else {
           // Single-value column with raw index
 
@@ -546,6 +683,12 @@ public class MutableSegmentImpl implements MutableSegment {
         if (textIndex != null) {
           textIndex.addDoc(value, docId);
         }
+
+        // Update JSON index
+        RealtimeJsonIndexReader jsonIndex = indexContainer._jsonIndex;
+        if (jsonIndex != null) {
+          jsonIndex.add((String) value, docId);
+        }
       } else {
         // Multi-value column (always dictionary-encoded)
 
@@ -579,23 +722,109 @@ public class MutableSegmentImpl implements MutableSegment {
       Object value = row.getValue(column);
       MutableForwardIndex forwardIndex = _indexContainerMap.get(column)._forwardIndex;
       DataType dataType = metricFieldSpec.getDataType();
-      switch (dataType) {
-        case INT:
-          forwardIndex.setInt(docId, (Integer) value + forwardIndex.getInt(docId));
+      AggregationFunctionType aggregationType = _metricAggregationTypes.get(column);
+      switch (aggregationType) {
+        case SUM:
+          switch (dataType) {
+            case INT:
+              forwardIndex.setInt(docId, (Integer) value + forwardIndex.getInt(docId));
+              break;
+            case LONG:
+              forwardIndex.setLong(docId, (Long) value + forwardIndex.getLong(docId));
+              break;
+            case FLOAT:
+              forwardIndex.setFloat(docId, (Float) value + forwardIndex.getFloat(docId));
+              break;
+            case DOUBLE:
+              forwardIndex.setDouble(docId, (Double) value + forwardIndex.getDouble(docId));
+              break;
+            default:
+              throw new UnsupportedOperationException(
+                  "Unsupported data type: " + dataType + " for aggregate metric column: " + column);
+          }
           break;
-        case LONG:
-          forwardIndex.setLong(docId, (Long) value + forwardIndex.getLong(docId));
+        case MIN:
+          switch (dataType) {
+            case INT:
+              forwardIndex.setInt(docId, Math.min((Integer) value, forwardIndex.getInt(docId)));
+              break;
+            case LONG:
+              forwardIndex.setLong(docId, Math.min((Long) value, forwardIndex.getLong(docId)));
+              break;
+            case FLOAT:
+              forwardIndex.setFloat(docId, Math.min((Float) value, forwardIndex.getFloat(docId)));
+              break;
+            case DOUBLE:
+              forwardIndex.setDouble(docId, Math.min((Double) value, forwardIndex.getDouble(docId)));
+              break;
+            default:
+              throw new UnsupportedOperationException(
+                  "Unsupported data type: " + dataType + " for aggregate metric column: " + column);
+          }
           break;
-        case FLOAT:
-          forwardIndex.setFloat(docId, (Float) value + forwardIndex.getFloat(docId));
+        case MAX:
+          switch (dataType) {
+            case INT:
+              forwardIndex.setInt(docId, Math.max((Integer) value, forwardIndex.getInt(docId)));
+              break;
+            case LONG:
+              forwardIndex.setLong(docId, Math.max((Long) value, forwardIndex.getLong(docId)));
+              break;
+            case FLOAT:
+              forwardIndex.setFloat(docId, Math.max((Float) value, forwardIndex.getFloat(docId)));
+              break;
+            case DOUBLE:
+              forwardIndex.setDouble(docId, Math.max((Double) value, forwardIndex.getDouble(docId)));
+              break;
+            default:
+              throw new UnsupportedOperationException(
+                  "Unsupported data type: " + dataType + " for aggregate metric column: " + column);
+          }
           break;
-        case DOUBLE:
-          forwardIndex.setDouble(docId, (Double) value + forwardIndex.getDouble(docId));
+        case DISTINCTCOUNTHLL:
+        case DISTINCTCOUNTTHETASKETCH:
+          // BYTES metric with serialized HyperLogLog/theta sketch, merge the value into the existing one
+          ValueAggregator valueAggregator = _metricValueAggregators.get(column);
+          Object aggregatedValue = valueAggregator.deserializeAggregatedValue(forwardIndex.getBytes(docId));
+          aggregatedValue = valueAggregator.applyRawValue(aggregatedValue, value);
+          forwardIndex.setBytes(docId, valueAggregator.serializeAggregatedValue(aggregatedValue));
           break;
         default:
           throw new UnsupportedOperationException(
-              "Unsupported data type: " + dataType + " for aggregate metric column: " + column);
+              "Unsupported aggregation type: " + aggregationType + " for aggregate metric column: " + column);
+      }
+    }
+  }
+
+  /**
+   * Truncates the value of the time column to the rollup time granularity.
+   */
+  private void truncateTimeValue(GenericRow row) {
+    Object timeValue = row.getValue(_timeColumnName);
+    if (timeValue == null) {
+      return;
+    }
+    DataType dataType = _indexContainerMap.get(_timeColumnName)._fieldSpec.getDataType();
+    if (_rollupTimeFormatSpec.getTimeFormat() == DateTimeFieldSpec.TimeFormat.EPOCH) {
+      long timeMs = _rollupTimeFormatSpec.fromFormatToMillis(((Number) timeValue).longValue());
+      long truncatedTimeMs = timeMs - Math.floorMod(timeMs, _rollupTimeGranularityMs);
+      long truncatedTimeValue = _rollupTimeFormatSpec.fromMillisToFormat(truncatedTimeMs, Long.class);
+      switch (dataType) {
+        case INT:
+          row.putValue(_timeColumnName, (int) truncatedTimeValue);
+          break;
+        case LONG:
+          row.putValue(_timeColumnName, truncatedTimeValue);
+          break;
+        default:
+          row.putValue(_timeColumnName, dataType.convert(Long.toString(truncatedTimeValue)));
+          break;
       }
+    } else {
+      long timeMs = _rollupTimeFormatSpec.fromFormatToMillis(timeValue);
+      long truncatedTimeMs = timeMs - Math.floorMod(timeMs, _rollupTimeGranularityMs);
+      row.putValue(_timeColumnName,
+          dataType.convert(_rollupTimeFormatSpec.fromMillisToFormat(truncatedTimeMs, String.class)));
     }
   }
 
@@ -656,6 +885,12 @@ public class MutableSegmentImpl implements MutableSegment {
     return null;
   }
 
+  @Nullable
+  @Override
+  public ThreadSafeMutableRoaringBitmap getValidDocIds() {
+    return _validDocIds;
+  }
+
   /**
    * Returns a record that contains only physical columns
    * @param docId document ID
@@ -720,6 +955,10 @@ public class MutableSegmentImpl implements MutableSegment {
   public void destroy() {
     _logger.info("Trying to close RealtimeSegmentImpl : {}", _segmentName);
 
+    if (_partitionUpsertMetadataManager != null) {
+      _partitionUpsertMetadataManager.removeSegment(_sequenceNumber, _validDocIds);
+    }
+
     // Gather statistics for off-heap mode
     if (_offHeap) {
       if (_numDocsIndexed > 0) {
@@ -834,40 +1073,139 @@ public class MutableSegmentImpl implements MutableSegment {
     return segmentName + ":" + columnName + indexType;
   }
 
-  private int getOrCreateDocId() {
+  private int getOrCreateDocId(GenericRow row) {
     if (!_aggregateMetrics) {
       return _numDocsIndexed;
     }
+    if (_hashedRecordIdMap != null) {
+      return getOrCreateDocIdWithHashedKey(row);
+    }
 
-    int i = 0;
     int[] dictIds = new int[_numKeyColumns]; // dimensions + date time columns + time column.
 
     // FIXME: this for loop breaks for multi value dimensions. https://github.com/apache/incubator-pinot/issues/3867
-    for (FieldSpec fieldSpec : _physicalDimensionFieldSpecs) {
-      dictIds[i++] = _indexContainerMap.get(fieldSpec.getName())._dictId;
-    }
-    for (String timeColumnName : _physicalTimeColumnNames) {
-      dictIds[i++] = _indexContainerMap.get(timeColumnName)._dictId;
+    for (int i = 0; i < _numKeyColumns; i++) {
+      dictIds[i] = _keyIndexContainers[i]._dictId;
     }
     return _recordIdMap.put(new FixedIntArray(dictIds));
   }
 
+  /**
+   * Returns the doc id for the dimension and time values of the given row from the hashed record id map, or the next
+   * doc id if the values are not seen before.
+   * <p>The map is keyed by the 64-bit hash of the values (dictionary id for dictionary-encoded columns, raw value
+   * otherwise). On hash collision, the values are compared with the values of the existing document in the forward
+   * indexes, and the next hash is probed until finding the matching document or an empty slot.
+   */
+  private int getOrCreateDocIdWithHashedKey(GenericRow row) {
+    long hash = computeKeyHash(row);
+    while (true) {
+      int docId = _hashedRecordIdMap.get(hash);
+      if (docId == IdMap.INVALID_ID) {
+        docId = _numDocsIndexed;
+        _hashedRecordIdMap.put(hash, docId);
+        return docId;
+      }
+      if (keyEquals(row, docId)) {
+        return docId;
+      }
+      hash++;
+    }
+  }
+
+  private long computeKeyHash(GenericRow row) {
+    long hash = 0L;
+    for (IndexContainer indexContainer : _keyIndexContainers) {
+      long valueHash;
+      if (indexContainer._dictionary != null) {
+        valueHash = indexContainer._dictId;
+      } else {
+        Object value = row.getValue(indexContainer._fieldSpec.getName());
+        switch (indexContainer._fieldSpec.getDataType()) {
+          case INT:
+          case LONG:
+            valueHash = ((Number) value).longValue();
+            break;
+          case FLOAT:
+            valueHash = Float.floatToIntBits((Float) value);
+            break;
+          case DOUBLE:
+            valueHash = Double.doubleToLongBits((Double) value);
+            break;
+          case BYTES:
+            valueHash = Arrays.hashCode((byte[]) value);
+            break;
+          default:
+            valueHash = value.hashCode();
+            break;
+        }
+      }
+      // Mix the bits so that the hash is well distributed for the sequential dictionary ids and raw values
+      hash = (hash ^ valueHash) * 0x9E3779B97F4A7C15L;
+      hash ^= hash >>> 32;
+    }
+    return hash;
+  }
+
+  private boolean keyEquals(GenericRow row, int docId) {
+    for (IndexContainer indexContainer : _keyIndexContainers) {
+      MutableForwardIndex forwardIndex = indexContainer._forwardIndex;
+      if (indexContainer._dictionary != null) {
+        if (forwardIndex.getDictId(docId) != indexContainer._dictId) {
+          return false;
+        }
+      } else {
+        Object value = row.getValue(indexContainer._fieldSpec.getName());
+        boolean equals;
+        switch (indexContainer._fieldSpec.getDataType()) {
+          case INT:
+            equals = forwardIndex.getInt(docId) == (Integer) value;
+            break;
+          case LONG:
+            equals = forwardIndex.getLong(docId) == (Long) value;
+            break;
+          case FLOAT:
+            equals = Float.compare(forwardIndex.getFloat(docId), (Float) value) == 0;
+            break;
+          case DOUBLE:
+            equals = Double.compare(forwardIndex.getDouble(docId), (Double) value) == 0;
+            break;
+          case STRING:
+            equals = forwardIndex.getString(docId).equals(value);
+            break;
+          case BYTES:
+            equals = Arrays.equals(forwardIndex.getBytes(docId), (byte[]) value);
+            break;
+          default:
+            throw new IllegalStateException();
+        }
+        if (!equals) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
   /**
    * Helper method to enable/initialize aggregation of metrics, based on following conditions:
    * <ul>
    *   <li> Config to enable aggregation of metrics is specified. </li>
-   *   <li> All dimensions and time are dictionary encoded. This is because an integer array containing dictionary id's
-   *        is used as key for dimensions to record Id map. </li>
    *   <li> None of the metrics are dictionary encoded. </li>
+   *   <li> The aggregation function of each metric is supported for its data type (SUM/MIN/MAX for numeric metrics,
+   *        DISTINCTCOUNTHLL/DISTINCTCOUNTTHETASKETCH for BYTES metrics). </li>
    *   <li> All columns should be single-valued (see https://github.com/apache/incubator-pinot/issues/3867)</li>
    * </ul>
+   * When all dimensions and time are dictionary encoded, an integer array containing dictionary id's is used as key
+   * for dimensions to record Id map. Otherwise, the hashed record id map is used.
    *
-   * TODO: Eliminate the requirement on dictionary encoding for dimension and metric columns.
+   * TODO: Eliminate the requirement on dictionary encoding for metric columns.
    *
    * @param config Segment config.
    * @param noDictionaryColumns Set of no dictionary columns.
    *
-   * @return Map from dictionary id array to doc id, null if metrics aggregation cannot be enabled.
+   * @return Map from dictionary id array to doc id, null if metrics aggregation cannot be enabled or any dimension or
+   *         time column is not dictionary encoded.
    */
   private IdMap<FixedIntArray> enableMetricsAggregationIfPossible(RealtimeSegmentConfig config,
       Set<String> noDictionaryColumns) {
@@ -893,17 +1231,38 @@ public class MutableSegmentImpl implements MutableSegment {
         _aggregateMetrics = false;
         break;
       }
+
+      AggregationFunctionType aggregationType = _metricAggregationTypes.get(metric);
+      boolean isBytesMetric = fieldSpec.getDataType() == DataType.BYTES;
+      boolean isSupported;
+      switch (aggregationType) {
+        case SUM:
+        case MIN:
+        case MAX:
+          isSupported = !isBytesMetric && fieldSpec.getDataType() != DataType.STRING;
+          break;
+        case DISTINCTCOUNTHLL:
+        case DISTINCTCOUNTTHETASKETCH:
+          isSupported = isBytesMetric;
+          break;
+        default:
+          isSupported = false;
+          break;
+      }
+      if (!isSupported) {
+        _logger.warn("Metrics aggregation cannot be turned ON with aggregation type: {} for metric: {} of type: {}",
+            aggregationType, metric, fieldSpec.getDataType());
+        _aggregateMetrics = false;
+        break;
+      }
     }
 
-    // All dimension columns should be dictionary encoded.
     // All dimension columns must be single value
+    boolean allKeyColumnsDictionaryEncoded = true;
     for (FieldSpec fieldSpec : _physicalDimensionFieldSpecs) {
       String dimension = fieldSpec.getName();
       if (noDictionaryColumns.contains(dimension)) {
-        _logger
-            .warn("Metrics aggregation cannot be turned ON in presence of no-dictionary dimensions, eg: {}", dimension);
-        _aggregateMetrics = false;
-        break;
+        allKeyColumnsDictionaryEncoded = false;
       }
 
       if (!fieldSpec.isSingleValueField()) {
@@ -914,14 +1273,9 @@ public class MutableSegmentImpl implements MutableSegment {
       }
     }
 
-    // Time columns should be dictionary encoded.
     for (String timeColumnName : _physicalTimeColumnNames) {
       if (noDictionaryColumns.contains(timeColumnName)) {
-        _logger
-            .warn("Metrics aggregation cannot be turned ON in presence of no-dictionary datetime/time columns, eg: {}",
-                timeColumnName);
-        _aggregateMetrics = false;
-        break;
+        allKeyColumnsDictionaryEncoded = false;
       }
     }
 
@@ -929,6 +1283,11 @@ public class MutableSegmentImpl implements MutableSegment {
       return null;
     }
 
+    if (!allKeyColumnsDictionaryEncoded) {
+      _logger.info("Initializing metrics update with hashed record id map for no-dictionary dimension/time columns");
+      return null;
+    }
+
     int estimatedRowsToIndex;
     if (_statsHistory.isEmpty()) {
       // Choose estimated rows to index as maxNumRowsPerSegment / EXPECTED_COMPRESSION (1000, to be conservative in size).
@@ -973,8 +1332,10 @@ public class MutableSegmentImpl implements MutableSegment {
     final RealtimeInvertedIndexReader _invertedIndex;
     final InvertedIndexReader _rangeIndex;
     final RealtimeLuceneTextIndexReader _textIndex;
+    final RealtimeJsonIndexReader _jsonIndex;
     final BloomFilterReader _bloomFilter;
     final MutableNullValueVector _nullValueVector;
+    final RealtimeSortedRunIndex _sortedRunIndex;
 
     volatile Comparable _minValue;
     volatile Comparable _maxValue;
@@ -986,8 +1347,9 @@ public class MutableSegmentImpl implements MutableSegment {
     IndexContainer(FieldSpec fieldSpec, @Nullable PartitionFunction partitionFunction, int partitionId,
         NumValuesInfo numValuesInfo, MutableForwardIndex forwardIndex, @Nullable BaseMutableDictionary dictionary,
         @Nullable RealtimeInvertedIndexReader invertedIndex, @Nullable InvertedIndexReader rangeIndex,
-        @Nullable RealtimeLuceneTextIndexReader textIndex, @Nullable BloomFilterReader bloomFilter,
-        @Nullable MutableNullValueVector nullValueVector) {
+        @Nullable RealtimeLuceneTextIndexReader textIndex, @Nullable RealtimeJsonIndexReader jsonIndex,
+        @Nullable BloomFilterReader bloomFilter, @Nullable MutableNullValueVector nullValueVector,
+        @Nullable RealtimeSortedRunIndex sortedRunIndex) {
       _fieldSpec = fieldSpec;
       _partitionFunction = partitionFunction;
       _partitionId = partitionId;
@@ -997,14 +1359,17 @@ public class MutableSegmentImpl implements MutableSegment {
       _invertedIndex = invertedIndex;
       _rangeIndex = rangeIndex;
       _textIndex = textIndex;
+      _jsonIndex = jsonIndex;
       _bloomFilter = bloomFilter;
       _nullValueVector = nullValueVector;
+      _sortedRunIndex = sortedRunIndex;
     }
 
     DataSource toDataSource() {
       return new MutableDataSource(_fieldSpec, _numDocsIndexed, _numValuesInfo._numValues,
           _numValuesInfo._maxNumValuesPerMVEntry, _partitionFunction, _partitionId, _minValue, _maxValue, _forwardIndex,
-          _dictionary, _invertedIndex, _rangeIndex, _textIndex, _bloomFilter, _nullValueVector);
+          _dictionary, _invertedIndex, _rangeIndex, _textIndex, _bloomFilter, _nullValueVector, _sortedRunIndex,
+          _jsonIndex);
     }
 
     @Override
@@ -1044,6 +1409,13 @@ public class MutableSegmentImpl implements MutableSegment {
           _logger.error("Caught exception while closing text index for column: {}, continuing with error", column, e);
         }
       }
+      if (_jsonIndex != null) {
+        try {
+          _jsonIndex.close();
+        } catch (Exception e) {
+          _logger.error("Caught exception while closing JSON index for column: {}, continuing with error", column, e);
+        }
+      }
     }
   }
 }
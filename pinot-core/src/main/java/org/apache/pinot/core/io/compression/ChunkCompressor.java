@@ -38,4 +38,13 @@ public interface ChunkCompressor {
    */
   int compress(ByteBuffer inUncompressed, ByteBuffer outCompressed)
       throws IOException;
+
+  /**
+   * Returns the maximum size of the compressed output for the given size of input data, which can be used to allocate
+   * the output ByteBuffer.
+   *
+   * @param uncompressedSize Size of the input data to be compressed.
+   * @return Maximum size of the compressed output data.
+   */
+  int maxCompressedSize(int uncompressedSize);
 }
@@ -29,7 +29,8 @@ public class ChunkCompressorFactory {
   }
 
   public enum CompressionType {
-    PASS_THROUGH(0), SNAPPY(1);
+    // NOTE: The value is recorded in the header of the forward index, so the existing values should never be changed
+    PASS_THROUGH(0), SNAPPY(1), ZSTANDARD(2), LZ4(3);
 
     private final int _value;
 
@@ -57,6 +58,12 @@ public class ChunkCompressorFactory {
       case SNAPPY:
         return new SnappyCompressor();
 
+      case ZSTANDARD:
+        return new ZstandardCompressor();
+
+      case LZ4:
+        return new LZ4Compressor();
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
@@ -76,6 +83,12 @@ public class ChunkCompressorFactory {
       case SNAPPY:
         return new SnappyDecompressor();
 
+      case ZSTANDARD:
+        return new ZstandardDecompressor();
+
+      case LZ4:
+        return new LZ4Decompressor();
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.io.compression;
+
+import com.github.luben.zstd.Zstd;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Implementation of {@link ChunkCompressor} using Zstandard, which trades compression speed for compression ratio.
+ * <p>NOTE: Both the input and output ByteBuffers should be direct.
+ */
+public class ZstandardCompressor implements ChunkCompressor {
+  // Default compression level of Zstandard, which gives a good balance between compression speed and ratio
+  private static final int COMPRESSION_LEVEL = 3;
+
+  @Override
+  public int compress(ByteBuffer inUncompressed, ByteBuffer outCompressed)
+      throws IOException {
+    int outPosition = outCompressed.position();
+    long compressedSize = Zstd
+        .compressDirectByteBuffer(outCompressed, outPosition, outCompressed.remaining(), inUncompressed,
+            inUncompressed.position(), inUncompressed.remaining(), COMPRESSION_LEVEL);
+    if (Zstd.isError(compressedSize)) {
+      throw new IOException("Failed to compress chunk with Zstandard: " + Zstd.getErrorName(compressedSize));
+    }
+
+    // Make the output ByteBuffer ready for read.
+    outCompressed.limit(outPosition + (int) compressedSize);
+    return (int) compressedSize;
+  }
+
+  @Override
+  public int maxCompressedSize(int uncompressedSize) {
+    return (int) Zstd.compressBound(uncompressedSize);
+  }
+}
@@ -43,7 +43,8 @@ public abstract class RealtimeIndexOffHeapMemoryManager implements PinotDataBuff
   private final List<PinotDataBuffer> _buffers = new LinkedList<>();
   private final String _segmentName;
   private final ServerMetrics _serverMetrics;
-  private long _totalAllocatedBytes = 0;
+  // Written by the consuming thread, and can be read by other threads (e.g. the realtime memory governor)
+  private volatile long _totalAllocatedBytes = 0;
   private final String _tableName;
 
   protected RealtimeIndexOffHeapMemoryManager(ServerMetrics serverMetrics, String segmentName) {
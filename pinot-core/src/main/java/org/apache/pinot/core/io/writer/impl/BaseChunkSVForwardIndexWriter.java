@@ -76,7 +76,7 @@ public abstract class BaseChunkSVForwardIndexWriter implements Closeable {
     _headerEntryChunkOffsetSize = getHeaderEntryChunkOffsetSize(version);
     _dataOffset = writeHeader(compressionType, totalDocs, numDocsPerChunk, sizeOfEntry, version);
     _chunkBuffer = ByteBuffer.allocateDirect(chunkSize);
-    _compressedBuffer = ByteBuffer.allocateDirect(chunkSize * 2);
+    _compressedBuffer = ByteBuffer.allocateDirect(_chunkCompressor.maxCompressedSize(chunkSize));
     _dataFile = new RandomAccessFile(file, "rw").getChannel();
   }
 
@@ -0,0 +1,260 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.io.writer.impl;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.core.io.util.FixedBitIntReaderWriterV2;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+
+
+/**
+ * Class to write out INT/LONG values into a single column with frame-of-reference or delta encoding.
+ * <p>The values are bit-packed per chunk with one of the following encodings (whichever requires fewer bits):
+ * <ul>
+ *   <li>FOR: the values minus the min value of the chunk (base)</li>
+ *   <li>DELTA: the differences between the consecutive values minus the min difference of the chunk, with the first
+ *   value of the chunk as the base. This works best for sorted columns such as timestamps and counters.</li>
+ * </ul>
+ * The number of bits per packed value is rounded up to the ones supported by {@link FixedBitIntReaderWriterV2} (1, 2,
+ * 4, 8, 16, 32), or 64 if the packed values do not fit into 32 bits, or 0 if all the packed values are 0.
+ *
+ * The layout of the file is as follows:
+ * <p> Header Section: </p>
+ * <ul>
+ *   <li> Integer: Magic marker, which never collides with the version of the chunk-based forward index. </li>
+ *   <li> Integer: File format version. </li>
+ *   <li> Integer: Total number of chunks. </li>
+ *   <li> Integer: Number of docs per chunk. </li>
+ *   <li> Integer: Length of entry (in bytes). </li>
+ *   <li> Integer: Total number of docs. </li>
+ *   <li> Integer: Start offset of data header. </li>
+ *   <li> Long array: Long offsets for all chunks in the data. </li>
+ * </ul>
+ *
+ * <p> Individual Chunks: </p>
+ * <ul>
+ *   <li> Byte: Encoding (FOR or DELTA). </li>
+ *   <li> Byte: Number of bits per packed value. </li>
+ *   <li> Long: Base value. </li>
+ *   <li> Long: Min difference between the consecutive values (DELTA only). </li>
+ *   <li> Bit-packed values (one per doc for FOR, one per doc except the first one for DELTA). </li>
+ * </ul>
+ *
+ * Only sequential writes are supported.
+ */
+@NotThreadSafe
+public class FORChunkSVForwardIndexWriter implements Closeable {
+  // Stored in place of the version of the chunk-based forward index, which is always positive
+  public static final int MAGIC_MARKER = 0xF0C0DE00;
+  public static final int VERSION = 1;
+  public static final byte ENCODING_FOR = 0;
+  public static final byte ENCODING_DELTA = 1;
+  // Encoding (byte), number of bits per packed value (byte), base value (long)
+  public static final int CHUNK_HEADER_SIZE = 2 * Byte.BYTES + Long.BYTES;
+
+  private final FileChannel _dataFile;
+  private final ByteBuffer _header;
+  private final ByteBuffer _chunkHeader;
+  private final PinotDataBuffer _packedBuffer;
+  private final long[] _values;
+  private final int[] _packedValues;
+
+  private int _numValuesInChunk;
+  private long _dataOffset;
+
+  /**
+   * Constructor for the class.
+   *
+   * @param file File to write to.
+   * @param totalDocs Total number of docs to write.
+   * @param numDocsPerChunk Number of documents per chunk.
+   * @param sizeOfEntry Size of entry (in bytes), 4 for INT and 8 for LONG.
+   * @throws FileNotFoundException Throws {@link FileNotFoundException} if the specified file is not found.
+   */
+  public FORChunkSVForwardIndexWriter(File file, int totalDocs, int numDocsPerChunk, int sizeOfEntry)
+      throws FileNotFoundException {
+    int numChunks = (totalDocs + numDocsPerChunk - 1) / numDocsPerChunk;
+    int dataHeaderStart = 7 * Integer.BYTES;
+    int headerSize = dataHeaderStart + numChunks * Long.BYTES;
+    _header = ByteBuffer.allocateDirect(headerSize);
+    _header.putInt(MAGIC_MARKER);
+    _header.putInt(VERSION);
+    _header.putInt(numChunks);
+    _header.putInt(numDocsPerChunk);
+    _header.putInt(sizeOfEntry);
+    _header.putInt(totalDocs);
+    _header.putInt(dataHeaderStart);
+    _dataOffset = headerSize;
+
+    _chunkHeader = ByteBuffer.allocateDirect(CHUNK_HEADER_SIZE + Long.BYTES);
+    _packedBuffer = PinotDataBuffer
+        .allocateDirect((long) numDocsPerChunk * Long.BYTES, ByteOrder.BIG_ENDIAN, "FOR encoding buffer");
+    _values = new long[numDocsPerChunk];
+    _packedValues = new int[numDocsPerChunk];
+    _dataFile = new RandomAccessFile(file, "rw").getChannel();
+  }
+
+  public void putInt(int value) {
+    putLong(value);
+  }
+
+  public void putLong(long value) {
+    _values[_numValuesInChunk++] = value;
+    if (_numValuesInChunk == _values.length) {
+      writeChunk();
+    }
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    try {
+      // Write the chunk if it is non-empty.
+      if (_numValuesInChunk > 0) {
+        writeChunk();
+      }
+
+      // Write the header and close the file.
+      _header.flip();
+      _dataFile.write(_header, 0);
+      _dataFile.close();
+    } finally {
+      _packedBuffer.close();
+    }
+  }
+
+  /**
+   * Helper method to encode and write the current chunk, and update the header with the offset of the chunk.
+   */
+  private void writeChunk() {
+    int numValues = _numValuesInChunk;
+    long[] values = _values;
+
+    // FOR: values minus the min value
+    long minValue = values[0];
+    for (int i = 1; i < numValues; i++) {
+      minValue = Math.min(minValue, values[i]);
+    }
+    long forBits = 0L;
+    for (int i = 0; i < numValues; i++) {
+      forBits |= values[i] - minValue;
+    }
+    int forNumBits = getNumBitsPerValue(forBits);
+
+    // DELTA: differences between the consecutive values minus the min difference
+    // NOTE: The differences might overflow, but the encoding is still lossless as long as the packed values fit into
+    //       the bits because the decoding is done with the same 2's complement arithmetic.
+    int deltaNumBits = Integer.MAX_VALUE;
+    long minDelta = Long.MAX_VALUE;
+    if (numValues > 1) {
+      for (int i = 1; i < numValues; i++) {
+        minDelta = Math.min(minDelta, values[i] - values[i - 1]);
+      }
+      long deltaBits = 0L;
+      for (int i = 1; i < numValues; i++) {
+        deltaBits |= values[i] - values[i - 1] - minDelta;
+      }
+      deltaNumBits = getNumBitsPerValue(deltaBits);
+    }
+
+    _chunkHeader.clear();
+    int numPackedValues;
+    int numBits;
+    if (deltaNumBits < forNumBits) {
+      numBits = deltaNumBits;
+      numPackedValues = numValues - 1;
+      _chunkHeader.put(ENCODING_DELTA);
+      _chunkHeader.put((byte) numBits);
+      _chunkHeader.putLong(values[0]);
+      _chunkHeader.putLong(minDelta);
+      // Compute the packed values backwards so that the values can be overwritten in place
+      for (int i = numValues - 1; i > 0; i--) {
+        values[i] = values[i] - values[i - 1] - minDelta;
+      }
+      System.arraycopy(values, 1, values, 0, numPackedValues);
+    } else {
+      numBits = forNumBits;
+      numPackedValues = numValues;
+      _chunkHeader.put(ENCODING_FOR);
+      _chunkHeader.put((byte) numBits);
+      _chunkHeader.putLong(minValue);
+      for (int i = 0; i < numValues; i++) {
+        values[i] -= minValue;
+      }
+    }
+    _chunkHeader.flip();
+
+    int packedSize = (int) (((long) numPackedValues * numBits + Byte.SIZE - 1) / Byte.SIZE);
+    try {
+      if (numBits == Long.SIZE) {
+        for (int i = 0; i < numPackedValues; i++) {
+          _packedBuffer.putLong((long) i * Long.BYTES, values[i]);
+        }
+      } else if (numBits > 0) {
+        for (int i = 0; i < numPackedValues; i++) {
+          _packedValues[i] = (int) values[i];
+        }
+        try (FixedBitIntReaderWriterV2 writer = new FixedBitIntReaderWriterV2(_packedBuffer.view(0, packedSize),
+            numPackedValues, numBits)) {
+          writer.writeInt(0, numPackedValues, _packedValues);
+        }
+      }
+
+      _header.putLong(_dataOffset);
+      int chunkHeaderSize = _chunkHeader.remaining();
+      _dataFile.write(_chunkHeader, _dataOffset);
+      _dataOffset += chunkHeaderSize;
+      if (packedSize > 0) {
+        _dataFile.write(_packedBuffer.toDirectByteBuffer(0, packedSize), _dataOffset);
+        _dataOffset += packedSize;
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while writing FOR encoded chunk", e);
+    }
+
+    _numValuesInChunk = 0;
+  }
+
+  /**
+   * Returns the number of bits required to pack the values, where the given bits is the bitwise OR of all the values
+   * (treated as unsigned).
+   */
+  private static int getNumBitsPerValue(long bits) {
+    int numBitsRequired = Long.SIZE - Long.numberOfLeadingZeros(bits);
+    if (numBitsRequired == 0) {
+      return 0;
+    }
+    if (numBitsRequired > Integer.SIZE) {
+      return Long.SIZE;
+    }
+    int numBits = 1;
+    while (numBits < numBitsRequired) {
+      numBits <<= 1;
+    }
+    return numBits;
+  }
+}
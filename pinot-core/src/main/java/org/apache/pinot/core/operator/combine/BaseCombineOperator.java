@@ -26,12 +26,14 @@ import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.BaseOperator;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
 import org.apache.pinot.core.query.exception.EarlyTerminationException;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.util.QueryOptions;
 import org.apache.pinot.core.util.trace.TraceRunnable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,6 +44,10 @@ import org.slf4j.LoggerFactory;
  * <p>Combine operator uses multiple worker threads to process segments in parallel, and uses the main thread to merge
  * the results blocks from the processed segments. It can early-terminate the query to save the system resources if it
  * detects that the merged results can already satisfy the query, or the query is already errored out or timed out.
+ * <p>By default, the segments are statically assigned to the worker threads (thread i processes segments i,
+ * i + numThreads, ...). When work-stealing is enabled through the query options, the segments are put into a shared
+ * queue (already sorted by estimated cost by the plan maker), and each idle worker thread pulls the next segment from
+ * the queue, so that a thread stuck on a large segment does not hold up the other segments assigned to it.
  */
 @SuppressWarnings("rawtypes")
 public abstract class BaseCombineOperator extends BaseOperator<IntermediateResultsBlock> {
@@ -51,6 +57,7 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
   protected final QueryContext _queryContext;
   protected final ExecutorService _executorService;
   protected final long _timeOutMs;
+  protected final boolean _workStealingEnabled;
 
   public BaseCombineOperator(List<Operator> operators, QueryContext queryContext, ExecutorService executorService,
       long timeOutMs) {
@@ -58,6 +65,7 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
     _queryContext = queryContext;
     _executorService = executorService;
     _timeOutMs = timeOutMs;
+    _workStealingEnabled = new QueryOptions(queryContext.getQueryOptions()).isWorkStealingEnabled();
   }
 
   @Override
@@ -74,6 +82,8 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
     // deleted/refreshed, the segment will be released after the main thread returns, which would lead to undefined
     // behavior (even JVM crash) when processing queries against it.
     Phaser phaser = new Phaser(1);
+    // Index of the next operator to be processed, shared by all the worker threads when work-stealing is enabled
+    AtomicInteger nextOperatorIndex = new AtomicInteger();
 
     Future[] futures = new Future[numThreads];
     for (int i = 0; i < numThreads; i++) {
@@ -90,7 +100,8 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
               return;
             }
 
-            for (int operatorIndex = threadIndex; operatorIndex < numOperators; operatorIndex += numThreads) {
+            int operatorIndex = _workStealingEnabled ? nextOperatorIndex.getAndIncrement() : threadIndex;
+            while (operatorIndex < numOperators) {
               try {
                 IntermediateResultsBlock resultsBlock =
                     (IntermediateResultsBlock) _operators.get(operatorIndex).nextBlock();
@@ -111,6 +122,7 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
                 blockingQueue.offer(new IntermediateResultsBlock(e));
                 return;
               }
+              operatorIndex = _workStealingEnabled ? nextOperatorIndex.getAndIncrement() : operatorIndex + numThreads;
             }
           } finally {
             phaser.arriveAndDeregister();
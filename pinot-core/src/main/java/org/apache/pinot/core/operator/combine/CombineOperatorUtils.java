@@ -18,8 +18,12 @@
  */
 package org.apache.pinot.core.operator.combine;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegment;
 import org.apache.pinot.core.operator.ExecutionStatistics;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
 
@@ -37,6 +41,13 @@ public class CombineOperatorUtils {
   public static final int MAX_NUM_THREADS_PER_QUERY =
       Math.max(1, Math.min(10, Runtime.getRuntime().availableProcessors() / 2));
 
+  /**
+   * Cost multiplier applied to the number of documents of a mutable (consuming) segment when estimating the cost of
+   * processing it. Mutable segments have no sorted index, unsorted dictionaries and uncompressed forward indexes, so
+   * each document is more expensive to process than in an immutable segment.
+   */
+  public static final int MUTABLE_SEGMENT_COST_MULTIPLIER = 4;
+
   /**
    * Returns the number of threads used to execute the query in parallel.
    */
@@ -44,6 +55,36 @@ public class CombineOperatorUtils {
     return Math.min(numOperators, MAX_NUM_THREADS_PER_QUERY);
   }
 
+  /**
+   * Returns the estimated cost of processing the given segment, based on the number of documents and whether the
+   * segment is mutable (consuming) or immutable.
+   */
+  public static long estimateSegmentCost(IndexSegment indexSegment) {
+    long numDocs = indexSegment.getSegmentMetadata().getTotalDocs();
+    return indexSegment instanceof MutableSegment ? numDocs * MUTABLE_SEGMENT_COST_MULTIPLIER : numDocs;
+  }
+
+  /**
+   * Returns a copy of the given segments sorted by the estimated cost in descending order.
+   * <p>When work-stealing is enabled, the combine operator hands out the segments in this order to the first idle
+   * worker thread, so that the most expensive segments are processed first and the cheap ones fill in the gaps.
+   */
+  public static List<IndexSegment> sortSegmentsByEstimatedCost(List<IndexSegment> indexSegments) {
+    int numSegments = indexSegments.size();
+    long[] costs = new long[numSegments];
+    List<Integer> indexes = new ArrayList<>(numSegments);
+    for (int i = 0; i < numSegments; i++) {
+      costs[i] = estimateSegmentCost(indexSegments.get(i));
+      indexes.add(i);
+    }
+    indexes.sort(Comparator.comparingLong((Integer i) -> costs[i]).reversed());
+    List<IndexSegment> sortedSegments = new ArrayList<>(numSegments);
+    for (int index : indexes) {
+      sortedSegments.add(indexSegments.get(index));
+    }
+    return sortedSegments;
+  }
+
   /**
    * Sets the execution statistics into the results block.
    */
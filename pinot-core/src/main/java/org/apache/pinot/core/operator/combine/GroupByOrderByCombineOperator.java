@@ -28,6 +28,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
@@ -36,7 +37,9 @@ import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
+import org.apache.pinot.core.data.table.IndexedTable;
 import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.PartitionedIndexedTable;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.operator.BaseOperator;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
@@ -46,6 +49,7 @@ import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
 import org.apache.pinot.core.query.exception.EarlyTerminationException;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.util.GroupByUtils;
+import org.apache.pinot.core.util.QueryOptions;
 import org.apache.pinot.core.util.trace.TraceRunnable;
 import org.apache.pinot.spi.utils.BytesUtils;
 import org.slf4j.Logger;
@@ -54,6 +58,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Combine operator for aggregation group-by queries with SQL semantic.
+ * <p>By default, all the worker threads upsert into one shared {@link ConcurrentIndexedTable}. When partitioned combine
+ * is enabled through the query options, each worker thread upserts into its own {@link PartitionedIndexedTable}, and
+ * the partitions are merged in parallel at the end without any shared map.
  * TODO:
  *   - Use CombineOperatorUtils.getNumThreadsForQuery() to get the parallelism of the query instead of using all threads
  *   - Try to extend BaseCombineOperator to reduce duplicate code
@@ -68,6 +75,10 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
   private final ExecutorService _executorService;
   private final long _timeOutMs;
   private final int _indexedTableCapacity;
+  private final int _numGroupByExpressions;
+  private final int _numAggregationFunctions;
+  private final int _numColumns;
+  private final boolean _partitionedCombineEnabled;
   private final Lock _initLock;
   private DataSchema _dataSchema;
   private ConcurrentIndexedTable _indexedTable;
@@ -80,6 +91,14 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
     _timeOutMs = timeOutMs;
     _initLock = new ReentrantLock();
     _indexedTableCapacity = GroupByUtils.getTableCapacity(_queryContext);
+    AggregationFunction[] aggregationFunctions = _queryContext.getAggregationFunctions();
+    assert aggregationFunctions != null;
+    _numAggregationFunctions = aggregationFunctions.length;
+    assert _queryContext.getGroupByExpressions() != null;
+    _numGroupByExpressions = _queryContext.getGroupByExpressions().size();
+    _numColumns = _numGroupByExpressions + _numAggregationFunctions;
+    _partitionedCombineEnabled =
+        new QueryOptions(_queryContext.getQueryOptions()).isPartitionedGroupByCombineEnabled();
   }
 
   /**
@@ -98,12 +117,10 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
    */
   @Override
   protected IntermediateResultsBlock getNextBlock() {
-    AggregationFunction[] aggregationFunctions = _queryContext.getAggregationFunctions();
-    assert aggregationFunctions != null;
-    int numAggregationFunctions = aggregationFunctions.length;
-    assert _queryContext.getGroupByExpressions() != null;
-    int numGroupByExpressions = _queryContext.getGroupByExpressions().size();
-    int numColumns = numGroupByExpressions + numAggregationFunctions;
+    if (_partitionedCombineEnabled) {
+      return getNextBlockWithPartitionedCombine();
+    }
+
     ConcurrentLinkedQueue<ProcessingException> mergedProcessingExceptions = new ConcurrentLinkedQueue<>();
 
     // We use a CountDownLatch to track if all Futures are finished by the query timeout, and cancel the unfinished
@@ -155,54 +172,7 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
             // Merge aggregation group-by result.
             AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
             if (aggregationGroupByResult != null) {
-              if (numGroupByExpressions == 1) {
-                // Get converter function
-                Function converterFunction = getConverterFunction(_dataSchema.getColumnDataType(0));
-
-                // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
-                Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-                while (groupKeyIterator.hasNext()) {
-                  Object[] values = new Object[numColumns];
-                  GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                  Object convertedKey = converterFunction.apply(groupKey._stringKey);
-                  values[0] = convertedKey;
-                  for (int i = 0; i < numAggregationFunctions; i++) {
-                    values[i + 1] = aggregationGroupByResult.getResultForKey(groupKey, i);
-                  }
-                  Key key = new Key(new Object[]{convertedKey});
-                  Record record = new Record(values);
-                  _indexedTable.upsert(key, record);
-                }
-              } else {
-                // Get converter functions
-                Function[] converterFunctions = new Function[numGroupByExpressions];
-                for (int i = 0; i < numGroupByExpressions; i++) {
-                  converterFunctions[i] = getConverterFunction(_dataSchema.getColumnDataType(i));
-                }
-
-                // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
-                Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-                while (groupKeyIterator.hasNext()) {
-                  Object[] values = new Object[numColumns];
-                  int columnIndex = 0;
-                  GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                  String[] stringKeys = groupKey.getKeys();
-                  Object[] objectKeys = new Object[numGroupByExpressions];
-                  for (int i = 0; i < numGroupByExpressions; i++) {
-                    Object convertedKey = converterFunctions[i].apply(stringKeys[i]);
-                    objectKeys[columnIndex] = convertedKey;
-                    values[columnIndex] = convertedKey;
-                    columnIndex++;
-                  }
-                  for (int i = 0; i < numAggregationFunctions; i++) {
-                    values[columnIndex] = aggregationGroupByResult.getResultForKey(groupKey, i);
-                    columnIndex++;
-                  }
-                  Key key = new Key(objectKeys);
-                  Record record = new Record(values);
-                  _indexedTable.upsert(key, record);
-                }
-              }
+              mergeAggregationGroupByResult(aggregationGroupByResult, _indexedTable);
             }
           } catch (EarlyTerminationException e) {
             // Early-terminated because query times out or is already satisfied
@@ -260,6 +230,243 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
     }
   }
 
+  /**
+   * Combines the group-by result blocks with the partitioned merge.
+   * <ul>
+   *   <li>
+   *     Each worker thread pulls the next operator to process, and upserts the group-by results into its own
+   *     {@link PartitionedIndexedTable} without any synchronization
+   *   </li>
+   *   <li>
+   *     Once all the operators are processed, each worker thread merges a subset of the partitions from all the tables
+   *     into the first table, and trims the merged partitions through the table resizer
+   *   </li>
+   *   <li>
+   *     The main thread collects the records from all the partitions of the first table
+   *   </li>
+   * </ul>
+   */
+  private IntermediateResultsBlock getNextBlockWithPartitionedCombine() {
+    long endTimeMs = System.currentTimeMillis() + _timeOutMs;
+    int numOperators = _operators.size();
+    int numThreads = CombineOperatorUtils.getNumThreadsForQuery(numOperators);
+    ConcurrentLinkedQueue<ProcessingException> mergedProcessingExceptions = new ConcurrentLinkedQueue<>();
+
+    // Use a Phaser to ensure all the Futures are done (not scheduled, finished or interrupted) before the main thread
+    // returns (see getNextBlock() for details).
+    Phaser phaser = new Phaser(1);
+    AtomicInteger nextOperatorIndex = new AtomicInteger();
+    PartitionedIndexedTable[] indexedTables = new PartitionedIndexedTable[numThreads];
+    CountDownLatch operatorLatch = new CountDownLatch(numThreads);
+
+    Future[] futures = new Future[numThreads * 2];
+    for (int i = 0; i < numThreads; i++) {
+      int threadIndex = i;
+      futures[i] = _executorService.submit(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          int operatorIndex = -1;
+          try {
+            if (phaser.register() < 0) {
+              return;
+            }
+
+            PartitionedIndexedTable indexedTable = null;
+            while ((operatorIndex = nextOperatorIndex.getAndIncrement()) < numOperators) {
+              IntermediateResultsBlock intermediateResultsBlock =
+                  (IntermediateResultsBlock) _operators.get(operatorIndex).nextBlock();
+
+              if (indexedTable == null) {
+                _initLock.lock();
+                try {
+                  if (_dataSchema == null) {
+                    _dataSchema = intermediateResultsBlock.getDataSchema();
+                  }
+                } finally {
+                  _initLock.unlock();
+                }
+                indexedTable = new PartitionedIndexedTable(_dataSchema, _queryContext, _indexedTableCapacity,
+                    numThreads);
+                indexedTables[threadIndex] = indexedTable;
+              }
+
+              // Merge processing exceptions.
+              List<ProcessingException> processingExceptionsToMerge =
+                  intermediateResultsBlock.getProcessingExceptions();
+              if (processingExceptionsToMerge != null) {
+                mergedProcessingExceptions.addAll(processingExceptionsToMerge);
+              }
+
+              // Merge aggregation group-by result.
+              AggregationGroupByResult aggregationGroupByResult =
+                  intermediateResultsBlock.getAggregationGroupByResult();
+              if (aggregationGroupByResult != null) {
+                mergeAggregationGroupByResult(aggregationGroupByResult, indexedTable);
+              }
+            }
+          } catch (EarlyTerminationException e) {
+            // Early-terminated because query times out or is already satisfied
+          } catch (Exception e) {
+            LOGGER.error(
+                "Caught exception while processing and combining group-by order-by for index: {}, queryContext: {}",
+                operatorIndex, _queryContext, e);
+            mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
+          } finally {
+            operatorLatch.countDown();
+            phaser.arriveAndDeregister();
+          }
+        }
+      });
+    }
+
+    try {
+      if (!operatorLatch.await(endTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS)) {
+        String errorMessage = String
+            .format("Timed out while combining group-by order-by results after %dms, queryContext = %s", _timeOutMs,
+                _queryContext);
+        LOGGER.error(errorMessage);
+        return new IntermediateResultsBlock(new TimeoutException(errorMessage));
+      }
+
+      // Collect the non-empty tables, the first one is used to hold the merged result
+      List<PartitionedIndexedTable> tablesToMerge = new ArrayList<>(numThreads);
+      for (PartitionedIndexedTable indexedTable : indexedTables) {
+        if (indexedTable != null) {
+          tablesToMerge.add(indexedTable);
+        }
+      }
+      if (tablesToMerge.isEmpty()) {
+        // None of the operators returned a results block, directly return the processing exceptions
+        IntermediateResultsBlock errorBlock =
+            new IntermediateResultsBlock(new IllegalStateException("Failed to get results from any of the operators"));
+        if (!mergedProcessingExceptions.isEmpty()) {
+          errorBlock.setProcessingExceptions(new ArrayList<>(mergedProcessingExceptions));
+        }
+        return errorBlock;
+      }
+      PartitionedIndexedTable mergedTable = tablesToMerge.get(0);
+      int numTablesToMerge = tablesToMerge.size();
+
+      // Merge the partitions in parallel, each partition is only touched by one thread
+      CountDownLatch mergeLatch = new CountDownLatch(numThreads);
+      for (int i = 0; i < numThreads; i++) {
+        int partitionId = i;
+        futures[numThreads + i] = _executorService.submit(new TraceRunnable() {
+          @Override
+          public void runJob() {
+            try {
+              if (phaser.register() < 0) {
+                return;
+              }
+              for (int j = 1; j < numTablesToMerge; j++) {
+                mergedTable.mergePartition(partitionId, tablesToMerge.get(j));
+              }
+              mergedTable.trimPartition(partitionId);
+            } catch (Exception e) {
+              LOGGER.error("Caught exception while merging group-by order-by partition: {}, queryContext: {}",
+                  partitionId, _queryContext, e);
+              mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
+            } finally {
+              mergeLatch.countDown();
+              phaser.arriveAndDeregister();
+            }
+          }
+        });
+      }
+      if (!mergeLatch.await(endTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS)) {
+        String errorMessage = String
+            .format("Timed out while merging group-by order-by partitions after %dms, queryContext = %s", _timeOutMs,
+                _queryContext);
+        LOGGER.error(errorMessage);
+        return new IntermediateResultsBlock(new TimeoutException(errorMessage));
+      }
+
+      mergedTable.finish(false);
+      IntermediateResultsBlock mergedBlock = new IntermediateResultsBlock(mergedTable);
+
+      // Set the processing exceptions.
+      if (!mergedProcessingExceptions.isEmpty()) {
+        mergedBlock.setProcessingExceptions(new ArrayList<>(mergedProcessingExceptions));
+      }
+
+      // Set the execution statistics.
+      CombineOperatorUtils.setExecutionStatistics(mergedBlock, _operators);
+
+      if (mergedTable.size() >= _indexedTableCapacity) {
+        mergedBlock.setNumGroupsLimitReached(true);
+      }
+
+      return mergedBlock;
+    } catch (Exception e) {
+      return new IntermediateResultsBlock(e);
+    } finally {
+      // Cancel all ongoing jobs
+      for (Future future : futures) {
+        if (future != null && !future.isDone()) {
+          future.cancel(true);
+        }
+      }
+      // Deregister the main thread and wait for all threads done
+      phaser.awaitAdvance(phaser.arriveAndDeregister());
+    }
+  }
+
+  /**
+   * Upserts the group-by results of a segment into the given indexed table.
+   */
+  @SuppressWarnings("unchecked")
+  private void mergeAggregationGroupByResult(AggregationGroupByResult aggregationGroupByResult,
+      IndexedTable indexedTable) {
+    if (_numGroupByExpressions == 1) {
+      // Get converter function
+      Function converterFunction = getConverterFunction(_dataSchema.getColumnDataType(0));
+
+      // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
+      Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+      while (groupKeyIterator.hasNext()) {
+        Object[] values = new Object[_numColumns];
+        GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+        Object convertedKey = converterFunction.apply(groupKey._stringKey);
+        values[0] = convertedKey;
+        for (int i = 0; i < _numAggregationFunctions; i++) {
+          values[i + 1] = aggregationGroupByResult.getResultForKey(groupKey, i);
+        }
+        Key key = new Key(new Object[]{convertedKey});
+        Record record = new Record(values);
+        indexedTable.upsert(key, record);
+      }
+    } else {
+      // Get converter functions
+      Function[] converterFunctions = new Function[_numGroupByExpressions];
+      for (int i = 0; i < _numGroupByExpressions; i++) {
+        converterFunctions[i] = getConverterFunction(_dataSchema.getColumnDataType(i));
+      }
+
+      // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
+      Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+      while (groupKeyIterator.hasNext()) {
+        Object[] values = new Object[_numColumns];
+        int columnIndex = 0;
+        GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+        String[] stringKeys = groupKey.getKeys();
+        Object[] objectKeys = new Object[_numGroupByExpressions];
+        for (int i = 0; i < _numGroupByExpressions; i++) {
+          Object convertedKey = converterFunctions[i].apply(stringKeys[i]);
+          objectKeys[columnIndex] = convertedKey;
+          values[columnIndex] = convertedKey;
+          columnIndex++;
+        }
+        for (int i = 0; i < _numAggregationFunctions; i++) {
+          values[columnIndex] = aggregationGroupByResult.getResultForKey(groupKey, i);
+          columnIndex++;
+        }
+        Key key = new Key(objectKeys);
+        Record record = new Record(values);
+        indexedTable.upsert(key, record);
+      }
+    }
+  }
+
   private Function<String, Object> getConverterFunction(DataSchema.ColumnDataType columnDataType) {
     switch (columnDataType) {
       case INT:
@@ -154,6 +154,8 @@ public class SelectionOrderByCombineOperator extends BaseCombineOperator {
     // deleted/refreshed, the segment will be released after the main thread returns, which would lead to undefined
     // behavior (even JVM crash) when processing queries against it.
     Phaser phaser = new Phaser(1);
+    // Index of the next operator to be processed, shared by all the worker threads when work-stealing is enabled
+    AtomicInteger nextOperatorIndex = new AtomicInteger();
 
     Future[] futures = new Future[numThreads];
     for (int i = 0; i < numThreads; i++) {
@@ -176,7 +178,8 @@ public class SelectionOrderByCombineOperator extends BaseCombineOperator {
             //       segment result is merged.
             Comparable threadBoundaryValue = null;
 
-            for (int operatorIndex = threadIndex; operatorIndex < numOperators; operatorIndex += numThreads) {
+            int operatorIndex = _workStealingEnabled ? nextOperatorIndex.getAndIncrement() : threadIndex;
+            while (operatorIndex < numOperators) {
               // Calculate the boundary value from global boundary and thread boundary
               Comparable boundaryValue = globalBoundaryValue.get();
               if (boundaryValue == null) {
@@ -204,7 +207,8 @@ public class SelectionOrderByCombineOperator extends BaseCombineOperator {
                   if (minMaxValueContext._minValue != null) {
                     int result = minMaxValueContext._minValue.compareTo(boundaryValue);
                     if (result > 0 || (result == 0 && numOrderByExpressions == 1)) {
-                      numOperatorsSkipped.getAndAdd((numOperators - operatorIndex - 1) / numThreads);
+                      numOperatorsSkipped.getAndAdd(
+                          getNumRemainingOperators(nextOperatorIndex, operatorIndex, numOperators, numThreads));
                       blockingQueue.offer(LAST_RESULTS_BLOCK);
                       return;
                     }
@@ -215,7 +219,8 @@ public class SelectionOrderByCombineOperator extends BaseCombineOperator {
                   if (minMaxValueContext._maxValue != null) {
                     int result = minMaxValueContext._maxValue.compareTo(boundaryValue);
                     if (result < 0 || (result == 0 && numOrderByExpressions == 1)) {
-                      numOperatorsSkipped.getAndAdd((numOperators - operatorIndex - 1) / numThreads);
+                      numOperatorsSkipped.getAndAdd(
+                          getNumRemainingOperators(nextOperatorIndex, operatorIndex, numOperators, numThreads));
                       blockingQueue.offer(LAST_RESULTS_BLOCK);
                       return;
                     }
@@ -257,6 +262,7 @@ public class SelectionOrderByCombineOperator extends BaseCombineOperator {
                 blockingQueue.offer(new IntermediateResultsBlock(e));
                 return;
               }
+              operatorIndex = _workStealingEnabled ? nextOperatorIndex.getAndIncrement() : operatorIndex + numThreads;
             }
           } finally {
             phaser.arriveAndDeregister();
@@ -319,6 +325,22 @@ public class SelectionOrderByCombineOperator extends BaseCombineOperator {
     return mergedBlock;
   }
 
+  /**
+   * Returns the number of the remaining operators to be skipped by the thread which detects that no more segments need
+   * to be processed (excluding the current operator).
+   * <p>With work-stealing, the segments are pulled in the sorted order from a shared index, so the thread claims all
+   * the operators not pulled yet, and the other threads stop pulling. Otherwise, the thread skips the remaining
+   * operators assigned to itself.
+   */
+  private int getNumRemainingOperators(AtomicInteger nextOperatorIndex, int operatorIndex, int numOperators,
+      int numThreads) {
+    if (_workStealingEnabled) {
+      return Math.max(numOperators - nextOperatorIndex.getAndSet(numOperators), 0);
+    } else {
+      return (numOperators - operatorIndex - 1) / numThreads;
+    }
+  }
+
   private static class MinMaxValueContext {
     final SelectionOrderByOperator _operator;
     final Comparable _minValue;
@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import java.util.function.Consumer;
+import org.apache.pinot.core.common.Constants;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * The {@code RecordingScanDocIdIterator} wraps a ScanBasedDocIdIterator and records the matching document ids while
+ * the documents are iterated sequentially. Once the iteration reaches the end, the matching document ids of the full
+ * scan are passed to the given consumer (e.g. to cache the filter result).
+ * <p>The recording stops as soon as the iteration is not a full sequential pass ({@link #advance(int)} or
+ * {@link #applyAnd(ImmutableRoaringBitmap)} is called), in which case the consumer is never invoked.
+ */
+public final class RecordingScanDocIdIterator implements ScanBasedDocIdIterator {
+  private final ScanBasedDocIdIterator _docIdIterator;
+  private final Consumer<MutableRoaringBitmap> _fullScanResultConsumer;
+
+  // Set to null once the iteration is not a full sequential pass
+  private MutableRoaringBitmap _matchingDocIds = new MutableRoaringBitmap();
+
+  public RecordingScanDocIdIterator(ScanBasedDocIdIterator docIdIterator,
+      Consumer<MutableRoaringBitmap> fullScanResultConsumer) {
+    _docIdIterator = docIdIterator;
+    _fullScanResultConsumer = fullScanResultConsumer;
+  }
+
+  @Override
+  public int next() {
+    int docId = _docIdIterator.next();
+    if (_matchingDocIds != null) {
+      if (docId != Constants.EOF) {
+        _matchingDocIds.add(docId);
+      } else {
+        _fullScanResultConsumer.accept(_matchingDocIds);
+        _matchingDocIds = null;
+      }
+    }
+    return docId;
+  }
+
+  @Override
+  public int advance(int targetDocId) {
+    _matchingDocIds = null;
+    return _docIdIterator.advance(targetDocId);
+  }
+
+  @Override
+  public MutableRoaringBitmap applyAnd(ImmutableRoaringBitmap docIds) {
+    _matchingDocIds = null;
+    return _docIdIterator.applyAnd(docIds);
+  }
+
+  @Override
+  public long getNumEntriesScanned() {
+    return _docIdIterator.getNumEntriesScanned();
+  }
+}
@@ -30,9 +30,15 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
 /**
  * The {@code SVScanDocIdIterator} is the scan-based iterator for SVScanDocIdSet to scan a single-value column for the
  * matching document ids.
+ * <p>The documents are evaluated in batches of {@link #BATCH_SIZE} with the batch APIs of the
+ * {@link PredicateEvaluator} to avoid the per-document virtual call to the predicate evaluator. The number of entries
+ * scanned is counted as if the documents are evaluated one at a time (documents evaluated ahead of the returned
+ * document are not counted).
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
+  private static final int BATCH_SIZE = 256;
+
   private final PredicateEvaluator _predicateEvaluator;
   private final ForwardIndexReader _reader;
   // TODO: Figure out a way to close the reader context
@@ -40,8 +46,15 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private final ForwardIndexReaderContext _readerContext;
   private final int _numDocs;
   private final ValueMatcher _valueMatcher;
+  // Document ids of the current batch, which are compacted to the matching document ids after the evaluation
+  private final int[] _docIdBuffer = new int[BATCH_SIZE];
 
   private int _nextDocId = 0;
+  // All the documents before the batch end document id are evaluated, and the matching document ids not returned yet
+  // are stored in the document id buffer from the buffer index to the buffer length
+  private int _batchEndDocId = 0;
+  private int _bufferIndex = 0;
+  private int _bufferLength = 0;
   private long _numEntriesScanned = 0L;
 
   public SVScanDocIdIterator(PredicateEvaluator predicateEvaluator, ForwardIndexReader reader, int numDocs) {
@@ -55,17 +68,30 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   @Override
   public int next() {
     while (_nextDocId < _numDocs) {
-      int nextDocId = _nextDocId++;
-      _numEntriesScanned++;
-      if (_valueMatcher.doesValueMatch(nextDocId)) {
-        return nextDocId;
+      if (_nextDocId >= _batchEndDocId) {
+        evaluateNextBatch();
+      }
+      while (_bufferIndex < _bufferLength) {
+        int docId = _docIdBuffer[_bufferIndex++];
+        // Skip the matching documents before the next document id (after advance)
+        if (docId >= _nextDocId) {
+          _numEntriesScanned += docId - _nextDocId + 1;
+          _nextDocId = docId + 1;
+          return docId;
+        }
       }
+      _numEntriesScanned += _batchEndDocId - _nextDocId;
+      _nextDocId = _batchEndDocId;
     }
     return Constants.EOF;
   }
 
   @Override
   public int advance(int targetDocId) {
+    if (targetDocId < _nextDocId || targetDocId >= _batchEndDocId) {
+      // Discard the current batch
+      resetBatch();
+    }
     _nextDocId = targetDocId;
     return next();
   }
@@ -74,13 +100,20 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   public MutableRoaringBitmap applyAnd(ImmutableRoaringBitmap docIds) {
     MutableRoaringBitmap result = new MutableRoaringBitmap();
     IntIterator docIdIterator = docIds.getIntIterator();
+    int length = 0;
     int nextDocId;
     while (docIdIterator.hasNext() && (nextDocId = docIdIterator.next()) < _numDocs) {
-      _numEntriesScanned++;
-      if (_valueMatcher.doesValueMatch(nextDocId)) {
-        result.add(nextDocId);
+      _docIdBuffer[length++] = nextDocId;
+      if (length == BATCH_SIZE) {
+        addMatchingDocIds(length, result);
+        length = 0;
       }
     }
+    if (length > 0) {
+      addMatchingDocIds(length, result);
+    }
+    // The document id buffer is overwritten
+    resetBatch();
     return result;
   }
 
@@ -89,6 +122,37 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     return _numEntriesScanned;
   }
 
+  /**
+   * Evaluates the next batch of documents starting from the next document id.
+   */
+  private void evaluateNextBatch() {
+    int batchEndDocId = Math.min(_nextDocId + BATCH_SIZE, _numDocs);
+    int length = batchEndDocId - _nextDocId;
+    for (int i = 0; i < length; i++) {
+      _docIdBuffer[i] = _nextDocId + i;
+    }
+    _bufferLength = _valueMatcher.matchValues(_docIdBuffer, length);
+    _bufferIndex = 0;
+    _batchEndDocId = batchEndDocId;
+  }
+
+  private void resetBatch() {
+    _batchEndDocId = 0;
+    _bufferIndex = 0;
+    _bufferLength = 0;
+  }
+
+  /**
+   * Evaluates the documents in the document id buffer, and adds the matching document ids into the result bitmap.
+   */
+  private void addMatchingDocIds(int length, MutableRoaringBitmap result) {
+    _numEntriesScanned += length;
+    int numMatchingDocs = _valueMatcher.matchValues(_docIdBuffer, length);
+    for (int i = 0; i < numMatchingDocs; i++) {
+      result.add(_docIdBuffer[i]);
+    }
+  }
+
   private ValueMatcher getValueMatcher() {
     if (_reader.isDictionaryEncoded()) {
       return new DictIdMatcher();
@@ -115,64 +179,97 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private interface ValueMatcher {
 
     /**
-     * Returns {@code true} if the value for the given document id matches the predicate, {@code false} Otherwise.
+     * Evaluates the values for the given document ids, compacts the matching document ids to the front of the array
+     * and returns the number of matching documents.
      */
-    boolean doesValueMatch(int docId);
+    int matchValues(int[] docIds, int length);
   }
 
   private class DictIdMatcher implements ValueMatcher {
+    final int[] _dictIdBuffer = new int[BATCH_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getDictId(docId, _readerContext));
+    public int matchValues(int[] docIds, int length) {
+      _reader.readDictIds(docIds, length, _dictIdBuffer, _readerContext);
+      return _predicateEvaluator.applySV(length, docIds, _dictIdBuffer);
     }
   }
 
   private class IntMatcher implements ValueMatcher {
+    final int[] _valueBuffer = new int[BATCH_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getInt(docId, _readerContext));
+    public int matchValues(int[] docIds, int length) {
+      for (int i = 0; i < length; i++) {
+        _valueBuffer[i] = _reader.getInt(docIds[i], _readerContext);
+      }
+      return _predicateEvaluator.applySV(length, docIds, _valueBuffer);
     }
   }
 
   private class LongMatcher implements ValueMatcher {
+    final long[] _valueBuffer = new long[BATCH_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getLong(docId, _readerContext));
+    public int matchValues(int[] docIds, int length) {
+      for (int i = 0; i < length; i++) {
+        _valueBuffer[i] = _reader.getLong(docIds[i], _readerContext);
+      }
+      return _predicateEvaluator.applySV(length, docIds, _valueBuffer);
     }
   }
 
   private class FloatMatcher implements ValueMatcher {
+    final float[] _valueBuffer = new float[BATCH_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getFloat(docId, _readerContext));
+    public int matchValues(int[] docIds, int length) {
+      for (int i = 0; i < length; i++) {
+        _valueBuffer[i] = _reader.getFloat(docIds[i], _readerContext);
+      }
+      return _predicateEvaluator.applySV(length, docIds, _valueBuffer);
     }
   }
 
   private class DoubleMatcher implements ValueMatcher {
+    final double[] _valueBuffer = new double[BATCH_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getDouble(docId, _readerContext));
+    public int matchValues(int[] docIds, int length) {
+      for (int i = 0; i < length; i++) {
+        _valueBuffer[i] = _reader.getDouble(docIds[i], _readerContext);
+      }
+      return _predicateEvaluator.applySV(length, docIds, _valueBuffer);
     }
   }
 
   private class StringMatcher implements ValueMatcher {
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getString(docId, _readerContext));
+    public int matchValues(int[] docIds, int length) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < length; i++) {
+        int docId = docIds[i];
+        if (_predicateEvaluator.applySV(_reader.getString(docId, _readerContext))) {
+          docIds[numMatchingDocs++] = docId;
+        }
+      }
+      return numMatchingDocs;
     }
   }
 
   private class BytesMatcher implements ValueMatcher {
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getBytes(docId, _readerContext));
+    public int matchValues(int[] docIds, int length) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < length; i++) {
+        int docId = docIds[i];
+        if (_predicateEvaluator.applySV(_reader.getBytes(docId, _readerContext))) {
+          docIds[numMatchingDocs++] = docId;
+        }
+      }
+      return numMatchingDocs;
     }
   }
 }
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.core.common.Constants;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * The {@code ScanBasedAndDocIdIterator} is the iterator for AndDocIdSet to perform AND on ScanBasedDocIdIterators and
+ * a candidate BlockDocIdIterator when scan on candidates is enabled.
+ * <p>It lazily gathers a batch of candidate document ids from the candidate BlockDocIdIterator (e.g. the most selective
+ * ScanBasedDocIdIterator as ordered within FilterOperatorUtils, or the AND of the non-scan-based BlockDocIdIterators),
+ * and only scans the candidates for the ScanBasedDocIdIterators. The candidate BlockDocIdIterator is never drained
+ * upfront, so the scan stops as soon as the consumer stops iterating (e.g. selection query with LIMIT, or query timed
+ * out), and the memory usage is bounded by the batch size.
+ */
+public final class ScanBasedAndDocIdIterator implements BlockDocIdIterator {
+  private static final int CANDIDATE_BATCH_SIZE = 1024;
+
+  private final BlockDocIdIterator _firstDocIdIterator;
+  private final ScanBasedDocIdIterator[] _remainingDocIdIterators;
+  private final int[] _candidateDocIdBuffer = new int[CANDIDATE_BATCH_SIZE];
+
+  // All the candidates up to the last candidate document id (inclusive) are evaluated, and the matching document ids
+  // not returned yet can be read from the matching document id iterator
+  private int _lastCandidateDocId = -1;
+  private PeekableIntIterator _matchingDocIdIterator;
+  private boolean _firstDocIdIteratorExhausted = false;
+
+  public ScanBasedAndDocIdIterator(BlockDocIdIterator firstDocIdIterator,
+      ScanBasedDocIdIterator[] remainingDocIdIterators) {
+    _firstDocIdIterator = firstDocIdIterator;
+    _remainingDocIdIterators = remainingDocIdIterators;
+  }
+
+  @Override
+  public int next() {
+    while (true) {
+      if (_matchingDocIdIterator != null && _matchingDocIdIterator.hasNext()) {
+        return _matchingDocIdIterator.next();
+      }
+      if (_firstDocIdIteratorExhausted) {
+        return Constants.EOF;
+      }
+      evaluateNextBatch(_firstDocIdIterator.next());
+    }
+  }
+
+  @Override
+  public int advance(int targetDocId) {
+    if (_matchingDocIdIterator != null && targetDocId <= _lastCandidateDocId) {
+      // The target document is within the current batch
+      _matchingDocIdIterator.advanceIfNeeded(targetDocId);
+      return next();
+    }
+    if (_firstDocIdIteratorExhausted) {
+      return Constants.EOF;
+    }
+    // Discard the current batch, and start the next batch from the target document
+    evaluateNextBatch(_firstDocIdIterator.advance(targetDocId));
+    return next();
+  }
+
+  /**
+   * Gathers the next batch of candidates from the candidate BlockDocIdIterator starting with the given candidate, and
+   * applies AND on them with the remaining ScanBasedDocIdIterators.
+   */
+  private void evaluateNextBatch(int firstCandidateDocId) {
+    int length = 0;
+    int docId = firstCandidateDocId;
+    while (docId != Constants.EOF) {
+      _candidateDocIdBuffer[length++] = docId;
+      if (length == CANDIDATE_BATCH_SIZE) {
+        break;
+      }
+      docId = _firstDocIdIterator.next();
+    }
+    if (docId == Constants.EOF) {
+      _firstDocIdIteratorExhausted = true;
+    }
+    if (length == 0) {
+      _matchingDocIdIterator = null;
+      return;
+    }
+
+    MutableRoaringBitmap candidateDocIds = new MutableRoaringBitmap();
+    candidateDocIds.addN(_candidateDocIdBuffer, 0, length);
+    ImmutableRoaringBitmap matchingDocIds = candidateDocIds;
+    for (ScanBasedDocIdIterator remainingDocIdIterator : _remainingDocIdIterators) {
+      if (matchingDocIds.isEmpty()) {
+        break;
+      }
+      matchingDocIds = remainingDocIdIterator.applyAnd(matchingDocIds);
+    }
+    _lastCandidateDocId = _candidateDocIdBuffer[length - 1];
+    _matchingDocIdIterator = matchingDocIds.getIntIterator();
+  }
+}
@@ -25,6 +25,7 @@ import org.apache.pinot.core.common.BlockDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.AndDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.BitmapBasedDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.RangelessBitmapDocIdIterator;
+import org.apache.pinot.core.operator.dociditerators.ScanBasedAndDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.SortedDocIdIterator;
 import org.apache.pinot.core.util.SortedRangeIntersection;
@@ -45,15 +46,29 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
  *     merged RangelessBitmapDocIdIterator and the remaining BlockDocIdIterators.
  *   </li>
  *   <li>
+ *     When scan on candidates is enabled and there is no index-based BlockDocIdIterator but at least one
+ *     ScanBasedDocIdIterator and one other BlockDocIdIterator, construct a ScanBasedAndDocIdIterator which lazily
+ *     gathers the candidate document ids, and only scans the candidates for the ScanBasedDocIdIterators. The
+ *     candidates come from the remaining BlockDocIdIterators (e.g. nested AND/OR, which can be index-based) if there
+ *     are any, or from the first ScanBasedDocIdIterator (the most selective one as ordered within
+ *     FilterOperatorUtils) otherwise.
+ *   </li>
+ *   <li>
  *     Otherwise, construct and return an AndDocIdIterator with all BlockDocIdIterators.
  *   </li>
  * </ul>
  */
 public final class AndDocIdSet implements FilterBlockDocIdSet {
   private final List<FilterBlockDocIdSet> _docIdSets;
+  private final boolean _scanOnCandidates;
 
   public AndDocIdSet(List<FilterBlockDocIdSet> docIdSets) {
+    this(docIdSets, false);
+  }
+
+  public AndDocIdSet(List<FilterBlockDocIdSet> docIdSets, boolean scanOnCandidates) {
     _docIdSets = docIdSets;
+    _scanOnCandidates = scanOnCandidates;
   }
 
   @Override
@@ -82,7 +97,6 @@ public final class AndDocIdSet implements FilterBlockDocIdSet {
     int numSortedDocIdIterators = sortedDocIdIterators.size();
     int numBitmapBasedDocIdIterators = bitmapBasedDocIdIterators.size();
     int numScanBasedDocIdIterators = scanBasedDocIdIterators.size();
-    int numRemainingDocIdIterators = remainingDocIdIterators.size();
     int numIndexBasedDocIdIterators = numSortedDocIdIterators + numBitmapBasedDocIdIterators;
     if ((numIndexBasedDocIdIterators > 0 && numScanBasedDocIdIterators > 0) || numIndexBasedDocIdIterators > 1) {
       // When there are at least one index-base BlockDocIdIterator (SortedDocIdIterator or BitmapBasedDocIdIterator)
@@ -127,16 +141,27 @@ public final class AndDocIdSet implements FilterBlockDocIdSet {
       for (ScanBasedDocIdIterator scanBasedDocIdIterator : scanBasedDocIdIterators) {
         docIds = scanBasedDocIdIterator.applyAnd(docIds);
       }
-      RangelessBitmapDocIdIterator rangelessBitmapDocIdIterator = new RangelessBitmapDocIdIterator(docIds);
-      if (numRemainingDocIdIterators == 0) {
-        return rangelessBitmapDocIdIterator;
+      return getDocIdIterator(new RangelessBitmapDocIdIterator(docIds), remainingDocIdIterators);
+    } else if (_scanOnCandidates && numIndexBasedDocIdIterators == 0 && numScanBasedDocIdIterators > 0
+        && numScanBasedDocIdIterators + remainingDocIdIterators.size() > 1) {
+      // When scan on candidates is enabled and there is no index-based BlockDocIdIterator but at least one
+      // ScanBasedDocIdIterator and one other BlockDocIdIterator, construct a ScanBasedAndDocIdIterator which lazily
+      // gathers the candidate document ids from the remaining BlockDocIdIterators (or the first ScanBasedDocIdIterator
+      // if there is no remaining BlockDocIdIterator), and only scans the candidates for the ScanBasedDocIdIterators.
+
+      int numRemainingDocIdIterators = remainingDocIdIterators.size();
+      if (numRemainingDocIdIterators > 0) {
+        BlockDocIdIterator candidateDocIdIterator = numRemainingDocIdIterators == 1 ? remainingDocIdIterators.get(0)
+            : new AndDocIdIterator(remainingDocIdIterators.toArray(new BlockDocIdIterator[0]));
+        return new ScanBasedAndDocIdIterator(candidateDocIdIterator,
+            scanBasedDocIdIterators.toArray(new ScanBasedDocIdIterator[0]));
       } else {
-        BlockDocIdIterator[] docIdIterators = new BlockDocIdIterator[numRemainingDocIdIterators + 1];
-        docIdIterators[0] = rangelessBitmapDocIdIterator;
-        for (int i = 0; i < numRemainingDocIdIterators; i++) {
-          docIdIterators[i + 1] = remainingDocIdIterators.get(i);
+        ScanBasedDocIdIterator[] candidateScanDocIdIterators =
+            new ScanBasedDocIdIterator[numScanBasedDocIdIterators - 1];
+        for (int i = 1; i < numScanBasedDocIdIterators; i++) {
+          candidateScanDocIdIterators[i - 1] = scanBasedDocIdIterators.get(i);
         }
-        return new AndDocIdIterator(docIdIterators);
+        return new ScanBasedAndDocIdIterator(scanBasedDocIdIterators.get(0), candidateScanDocIdIterators);
       }
     } else {
       // Otherwise, construct and return an AndDocIdIterator with all BlockDocIdIterators.
@@ -145,6 +170,25 @@ public final class AndDocIdSet implements FilterBlockDocIdSet {
     }
   }
 
+  /**
+   * Returns the given RangelessBitmapDocIdIterator for the merged document ids if there is no remaining
+   * BlockDocIdIterator, or an AndDocIdIterator with the given BlockDocIdIterator and the remaining BlockDocIdIterators.
+   */
+  private static BlockDocIdIterator getDocIdIterator(BlockDocIdIterator mergedDocIdIterator,
+      List<BlockDocIdIterator> remainingDocIdIterators) {
+    int numRemainingDocIdIterators = remainingDocIdIterators.size();
+    if (numRemainingDocIdIterators == 0) {
+      return mergedDocIdIterator;
+    } else {
+      BlockDocIdIterator[] docIdIterators = new BlockDocIdIterator[numRemainingDocIdIterators + 1];
+      docIdIterators[0] = mergedDocIdIterator;
+      for (int i = 0; i < numRemainingDocIdIterators; i++) {
+        docIdIterators[i + 1] = remainingDocIdIterators.get(i);
+      }
+      return new AndDocIdIterator(docIdIterators);
+    }
+  }
+
   @Override
   public long getNumEntriesScannedInFilter() {
     long numEntriesScannedInFilter = 0L;
@@ -0,0 +1,48 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.docidsets;
+
+import java.util.function.Consumer;
+import org.apache.pinot.core.operator.dociditerators.RecordingScanDocIdIterator;
+import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * The {@code RecordingScanDocIdSet} wraps a ScanBasedDocIdIterator with a {@link RecordingScanDocIdIterator}, which
+ * passes the matching document ids of a full scan to the given consumer.
+ */
+public final class RecordingScanDocIdSet implements FilterBlockDocIdSet {
+  private final RecordingScanDocIdIterator _docIdIterator;
+
+  public RecordingScanDocIdSet(ScanBasedDocIdIterator docIdIterator,
+      Consumer<MutableRoaringBitmap> fullScanResultConsumer) {
+    _docIdIterator = new RecordingScanDocIdIterator(docIdIterator, fullScanResultConsumer);
+  }
+
+  @Override
+  public RecordingScanDocIdIterator iterator() {
+    return _docIdIterator;
+  }
+
+  @Override
+  public long getNumEntriesScannedInFilter() {
+    return _docIdIterator.getNumEntriesScanned();
+  }
+}
@@ -29,9 +29,22 @@ public class AndFilterOperator extends BaseFilterOperator {
   private static final String OPERATOR_NAME = "AndFilterOperator";
 
   private final List<BaseFilterOperator> _filterOperators;
+  private final boolean _scanOnCandidates;
 
   public AndFilterOperator(List<BaseFilterOperator> filterOperators) {
+    this(filterOperators, false);
+  }
+
+  /**
+   * Constructor for the AND filter operator.
+   *
+   * @param filterOperators Child filter operators (already ordered)
+   * @param scanOnCandidates Whether to evaluate the scan-based child filters one after another on the candidates
+   *                         matched by the previous ones (see {@link AndDocIdSet})
+   */
+  public AndFilterOperator(List<BaseFilterOperator> filterOperators, boolean scanOnCandidates) {
     _filterOperators = filterOperators;
+    _scanOnCandidates = scanOnCandidates;
   }
 
   @Override
@@ -40,7 +53,28 @@ public class AndFilterOperator extends BaseFilterOperator {
     for (BaseFilterOperator filterOperator : _filterOperators) {
       filterBlockDocIdSets.add(filterOperator.nextBlock().getBlockDocIdSet());
     }
-    return new FilterBlock(new AndDocIdSet(filterBlockDocIdSets));
+    return new FilterBlock(new AndDocIdSet(filterBlockDocIdSets, _scanOnCandidates));
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>Assumes the child filters are independent.
+   */
+  @Override
+  public double getEstimatedSelectivity() {
+    double selectivity = 1.0;
+    for (BaseFilterOperator filterOperator : _filterOperators) {
+      selectivity *= filterOperator.getEstimatedSelectivity();
+    }
+    return selectivity;
+  }
+
+  public List<BaseFilterOperator> getChildFilterOperators() {
+    return _filterOperators;
+  }
+
+  public boolean isScanOnCandidates() {
+    return _scanOnCandidates;
   }
 
   @Override
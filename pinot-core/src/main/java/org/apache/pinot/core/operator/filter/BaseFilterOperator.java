@@ -26,6 +26,7 @@ import org.apache.pinot.core.operator.blocks.FilterBlock;
  * The {@link BaseFilterOperator} class is the base class for all filter operators.
  */
 public abstract class BaseFilterOperator extends BaseOperator<FilterBlock> {
+  public static final double UNKNOWN_SELECTIVITY = 1.0;
 
   /**
    * Returns {@code true} if the result is always empty, {@code false} otherwise.
@@ -40,4 +41,14 @@ public abstract class BaseFilterOperator extends BaseOperator<FilterBlock> {
   public boolean isResultMatchingAll() {
     return false;
   }
+
+  /**
+   * Returns the estimated fraction of the documents matching the filter (in the range of [0, 1]), or
+   * {@link #UNKNOWN_SELECTIVITY} if it cannot be estimated.
+   * <p>The estimation should be cheap (based on the metadata and index stats) as it is computed before executing the
+   * filter.
+   */
+  public double getEstimatedSelectivity() {
+    return UNKNOWN_SELECTIVITY;
+  }
 }
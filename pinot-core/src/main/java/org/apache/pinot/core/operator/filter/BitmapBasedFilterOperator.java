@@ -31,6 +31,8 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
 @SuppressWarnings("rawtypes")
 public class BitmapBasedFilterOperator extends BaseFilterOperator {
   private static final String OPERATOR_NAME = "BitmapBasedFilterOperator";
+  // Skip reading the posting lists for selectivity estimation when there are too many matching dictionary ids
+  private static final int MAX_NUM_DICT_IDS_FOR_SELECTIVITY_ESTIMATION = 1000;
 
   private final PredicateEvaluator _predicateEvaluator;
   private final InvertedIndexReader _invertedIndexReader;
@@ -38,6 +40,9 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
   private final boolean _exclusive;
   private final int _numDocs;
 
+  private FilterResultCache _filterResultCache;
+  private FilterResultCache.Key _filterResultCacheKey;
+
   BitmapBasedFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs) {
     _predicateEvaluator = predicateEvaluator;
     _invertedIndexReader = dataSource.getInvertedIndex();
@@ -71,14 +76,12 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
     if (numDictIds == 1) {
       ImmutableRoaringBitmap docIds = (ImmutableRoaringBitmap) _invertedIndexReader.getDocIds(dictIds[0]);
       if (_exclusive) {
-        if (docIds instanceof MutableRoaringBitmap) {
-          MutableRoaringBitmap mutableRoaringBitmap = (MutableRoaringBitmap) docIds;
-          mutableRoaringBitmap.flip(0L, _numDocs);
-          return new FilterBlock(new BitmapDocIdSet(mutableRoaringBitmap, _numDocs));
-        } else {
-          return new FilterBlock(new BitmapDocIdSet(ImmutableRoaringBitmap.flip(docIds, 0L, _numDocs), _numDocs));
-        }
+        // NOTE: The bitmap might be shared (e.g. cached by the real-time inverted index), so do not flip it in place
+        MutableRoaringBitmap flippedDocIds = ImmutableRoaringBitmap.flip(docIds, 0L, _numDocs);
+        cacheResult(flippedDocIds);
+        return new FilterBlock(new BitmapDocIdSet(flippedDocIds, _numDocs));
       } else {
+        // NOTE: Do not cache the posting list of a single dictionary id, which can be directly read from the index
         return new FilterBlock(new BitmapDocIdSet(docIds, _numDocs));
       }
     } else {
@@ -90,10 +93,54 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
       if (_exclusive) {
         docIds.flip(0L, _numDocs);
       }
+      cacheResult(docIds);
       return new FilterBlock(new BitmapDocIdSet(docIds, _numDocs));
     }
   }
 
+  /**
+   * Enables caching the filter result computed from the inverted index into the given filter result cache with the
+   * given key.
+   */
+  public void enableResultCaching(FilterResultCache filterResultCache, FilterResultCache.Key filterResultCacheKey) {
+    _filterResultCache = filterResultCache;
+    _filterResultCacheKey = filterResultCacheKey;
+  }
+
+  private void cacheResult(MutableRoaringBitmap docIds) {
+    if (_filterResultCache != null) {
+      _filterResultCache.put(_filterResultCacheKey, docIds);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>Computed from the sizes of the posting lists of the matching (or non-matching for exclusive predicate)
+   * dictionary ids.
+   */
+  @Override
+  public double getEstimatedSelectivity() {
+    if (_numDocs == 0) {
+      return UNKNOWN_SELECTIVITY;
+    }
+    long numMatchingDocs;
+    if (_docIds != null) {
+      numMatchingDocs = _docIds.getCardinality();
+    } else {
+      int[] dictIds =
+          _exclusive ? _predicateEvaluator.getNonMatchingDictIds() : _predicateEvaluator.getMatchingDictIds();
+      if (dictIds.length > MAX_NUM_DICT_IDS_FOR_SELECTIVITY_ESTIMATION) {
+        return UNKNOWN_SELECTIVITY;
+      }
+      numMatchingDocs = 0;
+      for (int dictId : dictIds) {
+        numMatchingDocs += ((ImmutableRoaringBitmap) _invertedIndexReader.getDocIds(dictId)).getCardinality();
+      }
+    }
+    double selectivity = Math.min((double) numMatchingDocs / _numDocs, 1.0);
+    return _exclusive ? 1.0 - selectivity : selectivity;
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
@@ -20,6 +20,7 @@ package org.apache.pinot.core.operator.filter;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -28,6 +29,8 @@ import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.OfflineDictionaryBasedRangePredicateEvaluator;
 import org.apache.pinot.core.query.request.context.predicate.Predicate;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.util.trace.TraceContext;
 
 
 public class FilterOperatorUtils {
@@ -37,6 +40,12 @@ public class FilterOperatorUtils {
   // Debug option to enable or disable multi-value optimization
   public static final String USE_SCAN_REORDER_OPTIMIZATION = "useScanReorderOpt";
 
+  // With cost-based reordering, only scan the candidates for the scan-based filters when the estimated selectivity of
+  // the candidates is no more than this threshold
+  public static final double MAX_SELECTIVITY_FOR_SCAN_ON_CANDIDATES = 0.1;
+  // Key of the trace info for the chosen AND filter plan
+  public static final String AND_FILTER_PLAN_TRACE_KEY = "AndFilterPlan";
+
   /**
    * Returns the leaf filter operator (i.e. not {@link AndFilterOperator} or {@link OrFilterOperator}).
    */
@@ -57,6 +66,9 @@ public class FilterOperatorUtils {
         return new RangeIndexBasedFilterOperator((OfflineDictionaryBasedRangePredicateEvaluator) predicateEvaluator,
             dataSource, numDocs);
       }
+      if (dataSource.getSortedRunIndex() != null && predicateEvaluator.isDictionaryBased()) {
+        return new SortedRunIndexBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
+      }
       return new ScanBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
     } else if (predicateType == Predicate.Type.REGEXP_LIKE) {
       return new ScanBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
@@ -67,6 +79,10 @@ public class FilterOperatorUtils {
       if (dataSource.getInvertedIndex() != null) {
         return new BitmapBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
       }
+      if (dataSource.getSortedRunIndex() != null && predicateEvaluator.isDictionaryBased() && (
+          predicateType == Predicate.Type.EQ || predicateType == Predicate.Type.IN)) {
+        return new SortedRunIndexBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
+      }
       return new ScanBasedFilterOperator(predicateEvaluator, dataSource, numDocs);
     }
   }
@@ -76,6 +92,15 @@ public class FilterOperatorUtils {
    */
   public static BaseFilterOperator getAndFilterOperator(List<BaseFilterOperator> filterOperators, int numDocs,
       @Nullable Map<String, String> debugOptions) {
+    return getAndFilterOperator(filterOperators, numDocs, debugOptions, false);
+  }
+
+  /**
+   * Returns the AND filter operator or equivalent filter operator, where the child filter operators with the same
+   * priority are ordered by their estimated selectivity if cost-based reordering is enabled.
+   */
+  public static BaseFilterOperator getAndFilterOperator(List<BaseFilterOperator> filterOperators, int numDocs,
+      @Nullable Map<String, String> debugOptions, boolean costBasedReordering) {
     List<BaseFilterOperator> childFilterOperators = new ArrayList<>(filterOperators.size());
     for (BaseFilterOperator filterOperator : filterOperators) {
       if (filterOperator.isResultEmpty()) {
@@ -93,11 +118,103 @@ public class FilterOperatorUtils {
       return childFilterOperators.get(0);
     } else {
       // Return the AND filter operator with re-ordered child filter operators
-      FilterOperatorUtils.reorderAndFilterChildOperators(childFilterOperators, debugOptions);
+      if (costBasedReordering) {
+        return getCostBasedAndFilterOperator(childFilterOperators, debugOptions);
+      }
+      FilterOperatorUtils.reorderAndFilterChildOperators(childFilterOperators, debugOptions, null);
       return new AndFilterOperator(childFilterOperators);
     }
   }
 
+  /**
+   * Returns the AND filter operator with the child filter operators ordered by their priority and then the estimated
+   * selectivity, so that the most selective scan-based filter is evaluated first. When the candidates are selective
+   * enough, the scan-based child filter operators only scan the candidates instead of the whole segment, where the
+   * candidates are matched by:
+   * <ul>
+   *   <li>The non-scan-based child filter operators (index-based, or nested AND/OR) if there are any</li>
+   *   <li>Otherwise, the first (most selective) scan-based child filter operator</li>
+   * </ul>
+   * <p>The chosen plan is logged into the trace if enabled.
+   */
+  private static AndFilterOperator getCostBasedAndFilterOperator(List<BaseFilterOperator> filterOperators,
+      @Nullable Map<String, String> debugOptions) {
+    Map<BaseFilterOperator, Double> selectivityMap = new IdentityHashMap<>();
+    for (BaseFilterOperator filterOperator : filterOperators) {
+      selectivityMap.put(filterOperator, filterOperator.getEstimatedSelectivity());
+    }
+    reorderAndFilterChildOperators(filterOperators, debugOptions, selectivityMap);
+
+    int numScanBasedFilterOperators = 0;
+    int numNonScanBasedFilterOperators = 0;
+    // Assume the child filters are independent
+    double nonScanBasedSelectivity = 1.0;
+    for (BaseFilterOperator filterOperator : filterOperators) {
+      if (isScanBased(filterOperator)) {
+        numScanBasedFilterOperators++;
+      } else {
+        numNonScanBasedFilterOperators++;
+        nonScanBasedSelectivity *= selectivityMap.get(filterOperator);
+      }
+    }
+    double candidateSelectivity =
+        numNonScanBasedFilterOperators > 0 ? nonScanBasedSelectivity : selectivityMap.get(filterOperators.get(0));
+    boolean scanOnCandidates =
+        numScanBasedFilterOperators > 0 && candidateSelectivity <= MAX_SELECTIVITY_FOR_SCAN_ON_CANDIDATES;
+
+    if (TraceContext.traceEnabled()) {
+      StringBuilder stringBuilder = new StringBuilder("AND(");
+      for (int i = 0; i < filterOperators.size(); i++) {
+        BaseFilterOperator filterOperator = filterOperators.get(i);
+        if (i > 0) {
+          stringBuilder.append(", ");
+        }
+        stringBuilder.append(filterOperator.getOperatorName()).append("(selectivity=")
+            .append(selectivityMap.get(filterOperator)).append(')');
+      }
+      stringBuilder.append(") candidateSelectivity=").append(candidateSelectivity).append(" scanOnCandidates=")
+          .append(scanOnCandidates);
+      TraceContext.logInfo(AND_FILTER_PLAN_TRACE_KEY, stringBuilder.toString());
+    }
+    return new AndFilterOperator(filterOperators, scanOnCandidates);
+  }
+
+  /**
+   * Returns {@code true} if the given filter operator evaluates the predicate by scanning the values (i.e. its doc id
+   * iterator is a ScanBasedDocIdIterator), {@code false} otherwise.
+   */
+  private static boolean isScanBased(BaseFilterOperator filterOperator) {
+    return filterOperator instanceof ScanBasedFilterOperator || filterOperator instanceof ExpressionFilterOperator;
+  }
+
+  /**
+   * Estimates the selectivity of the given predicate evaluator on the given data source.
+   * <p>For dictionary-based predicate evaluators on the sorted (immutable) dictionary, the selectivity is estimated as
+   * the fraction of the matching dictionary ids, assuming the values are evenly distributed. Returns
+   * {@link BaseFilterOperator#UNKNOWN_SELECTIVITY} if it cannot be estimated.
+   */
+  public static double estimateSelectivity(PredicateEvaluator predicateEvaluator, DataSource dataSource) {
+    Dictionary dictionary = dataSource.getDictionary();
+    if (!predicateEvaluator.isDictionaryBased() || dictionary == null || !dictionary.isSorted()) {
+      return BaseFilterOperator.UNKNOWN_SELECTIVITY;
+    }
+    int cardinality = dictionary.length();
+    if (cardinality == 0) {
+      return BaseFilterOperator.UNKNOWN_SELECTIVITY;
+    }
+    switch (predicateEvaluator.getPredicateType()) {
+      case EQ:
+      case IN:
+      case RANGE:
+        return (double) predicateEvaluator.getNumMatchingDictIds() / cardinality;
+      case NOT_EQ:
+      case NOT_IN:
+        return 1.0 - (double) predicateEvaluator.getNumNonMatchingDictIds() / cardinality;
+      default:
+        return BaseFilterOperator.UNKNOWN_SELECTIVITY;
+    }
+  }
+
   /**
    * Returns the OR filter operator or equivalent filter operator.
    */
@@ -129,13 +246,20 @@ public class FilterOperatorUtils {
    * inverted index first in order to reduce the number of documents to be processed.
    * <p>Special filter operators such as {@link MatchAllFilterOperator} and {@link EmptyFilterOperator} should be
    * removed from the list before calling this method.
+   * <p>If the selectivity map is provided, the filter operators with the same priority are ordered by their estimated
+   * selectivity.
    */
   private static void reorderAndFilterChildOperators(List<BaseFilterOperator> filterOperators,
-      @Nullable Map<String, String> debugOptions) {
+      @Nullable Map<String, String> debugOptions, @Nullable Map<BaseFilterOperator, Double> selectivityMap) {
     filterOperators.sort(new Comparator<BaseFilterOperator>() {
       @Override
       public int compare(BaseFilterOperator o1, BaseFilterOperator o2) {
-        return getPriority(o1) - getPriority(o2);
+        int priorityDiff = getPriority(o1) - getPriority(o2);
+        if (priorityDiff != 0 || selectivityMap == null) {
+          return priorityDiff;
+        }
+        // Within the same priority, evaluate the more selective filter first
+        return Double.compare(selectivityMap.get(o1), selectivityMap.get(o2));
       }
 
       int getPriority(BaseFilterOperator filterOperator) {
@@ -145,7 +269,8 @@ public class FilterOperatorUtils {
         if (filterOperator instanceof BitmapBasedFilterOperator) {
           return 1;
         }
-        if (filterOperator instanceof RangeIndexBasedFilterOperator) {
+        if (filterOperator instanceof RangeIndexBasedFilterOperator
+            || filterOperator instanceof SortedRunIndexBasedFilterOperator) {
           return 2;
         }
         if (filterOperator instanceof TextMatchFilterOperator) {
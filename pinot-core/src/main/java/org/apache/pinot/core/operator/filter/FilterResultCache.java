@@ -0,0 +1,277 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.query.request.context.predicate.InPredicate;
+import org.apache.pinot.core.query.request.context.predicate.NotInPredicate;
+import org.apache.pinot.core.query.request.context.predicate.Predicate;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Size-bounded LRU cache of the filter results (matching document ids) for the predicates on the immutable segments.
+ * <p>The results are serialized into direct byte buffers, and are read back as {@link ImmutableRoaringBitmap} backed
+ * by the off-heap buffer without deserialization. Evicted buffers are released by the garbage collector once the
+ * queries reading them are done, so that eviction never invalidates a bitmap in use.
+ * <p>The entries are keyed by the segment name, the segment CRC and the normalized predicate, so that the cache never
+ * holds a reference to the segment, and a replaced segment (with a different CRC) never reads the results of the old
+ * one. The entries should be invalidated (see {@link #invalidate(IndexSegment)}) when the segment is destroyed
+ * (replaced or unloaded) to release the memory early.
+ * <p>The cache is populated lazily by the filter operators during the query execution (see
+ * {@link BitmapBasedFilterOperator} and {@link ScanBasedFilterOperator}), so that populating the cache never adds
+ * extra work to the query.
+ * <p>The cache is disabled by default, and can be enabled on the server via {@link #init(long, ServerMetrics)}.
+ */
+@ThreadSafe
+public class FilterResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FilterResultCache.class);
+
+  private static volatile FilterResultCache _instance;
+
+  private final long _maxSizeInBytes;
+  private final ServerMetrics _serverMetrics;
+  // Access-ordered so that the first entry is the least recently used one
+  private final LinkedHashMap<Key, ByteBuffer> _cache = new LinkedHashMap<>(16, 0.75f, true);
+  // Keys of the cached entries by the segment name, so that invalidating a segment only touches its own entries
+  private final Map<String, Set<Key>> _keysBySegmentName = new HashMap<>();
+
+  private long _sizeInBytes;
+
+  public FilterResultCache(long maxSizeInBytes, @Nullable ServerMetrics serverMetrics) {
+    Preconditions.checkArgument(maxSizeInBytes > 0, "Max size of the filter result cache must be positive, got: %s",
+        maxSizeInBytes);
+    _maxSizeInBytes = maxSizeInBytes;
+    _serverMetrics = serverMetrics;
+  }
+
+  /**
+   * Initializes the filter result cache with the given max size. Non-positive max size disables the cache.
+   */
+  public static void init(long maxSizeInBytes, @Nullable ServerMetrics serverMetrics) {
+    if (maxSizeInBytes > 0) {
+      LOGGER.info("Enabling filter result cache with max size: {} bytes", maxSizeInBytes);
+      _instance = new FilterResultCache(maxSizeInBytes, serverMetrics);
+    } else {
+      _instance = null;
+    }
+  }
+
+  /**
+   * Returns the filter result cache, or {@code null} if it is not enabled.
+   */
+  @Nullable
+  public static FilterResultCache getInstance() {
+    return _instance;
+  }
+
+  /**
+   * Returns the cache key for the given predicate on the given segment.
+   */
+  public static Key getKey(IndexSegment indexSegment, Predicate predicate) {
+    return new Key(indexSegment.getSegmentName(), indexSegment.getSegmentMetadata().getCrc(), normalize(predicate));
+  }
+
+  /**
+   * Returns the cached matching document ids for the given key, or {@code null} if not cached.
+   */
+  @Nullable
+  public ImmutableRoaringBitmap get(Key key) {
+    ByteBuffer buffer;
+    synchronized (this) {
+      buffer = _cache.get(key);
+    }
+    if (buffer != null) {
+      addMeteredValue(ServerMeter.FILTER_RESULT_CACHE_HITS);
+      return new ImmutableRoaringBitmap(buffer.duplicate());
+    } else {
+      addMeteredValue(ServerMeter.FILTER_RESULT_CACHE_MISSES);
+      return null;
+    }
+  }
+
+  /**
+   * Caches the matching document ids for the given key. Results larger than the max size of the cache are not cached.
+   */
+  public void put(Key key, MutableRoaringBitmap docIds) {
+    int sizeInBytes = docIds.serializedSizeInBytes();
+    if (sizeInBytes > _maxSizeInBytes) {
+      return;
+    }
+    ByteBuffer buffer = ByteBuffer.allocateDirect(sizeInBytes);
+    docIds.serialize(buffer);
+    // NOTE: Depending on the byte order, serialization might not advance the buffer position, so reset the position and
+    //       limit to cover the whole buffer (capacity is the same as the serialized size)
+    buffer.clear();
+
+    synchronized (this) {
+      ByteBuffer oldBuffer = _cache.put(key, buffer);
+      if (oldBuffer != null) {
+        _sizeInBytes -= oldBuffer.capacity();
+      } else {
+        _keysBySegmentName.computeIfAbsent(key._segmentName, k -> new HashSet<>()).add(key);
+      }
+      _sizeInBytes += sizeInBytes;
+      Iterator<Map.Entry<Key, ByteBuffer>> iterator = _cache.entrySet().iterator();
+      while (_sizeInBytes > _maxSizeInBytes) {
+        Map.Entry<Key, ByteBuffer> entry = iterator.next();
+        _sizeInBytes -= entry.getValue().capacity();
+        iterator.remove();
+        removeFromSegmentIndex(entry.getKey());
+      }
+      updateSizeGauge();
+    }
+  }
+
+  /**
+   * Removes all the cached results for the given segment. Should be called when the segment is destroyed.
+   */
+  public synchronized void invalidate(IndexSegment indexSegment) {
+    String segmentName = indexSegment.getSegmentName();
+    Set<Key> keys = _keysBySegmentName.get(segmentName);
+    if (keys == null) {
+      return;
+    }
+    // NOTE: Only remove the entries with the same CRC because the new segment might be loaded before the old segment
+    //       is destroyed when the segment is replaced.
+    String crc = indexSegment.getSegmentMetadata().getCrc();
+    Iterator<Key> iterator = keys.iterator();
+    while (iterator.hasNext()) {
+      Key key = iterator.next();
+      if (Objects.equals(key._crc, crc)) {
+        _sizeInBytes -= _cache.remove(key).capacity();
+        iterator.remove();
+      }
+    }
+    if (keys.isEmpty()) {
+      _keysBySegmentName.remove(segmentName);
+    }
+    updateSizeGauge();
+  }
+
+  public synchronized int getNumEntries() {
+    return _cache.size();
+  }
+
+  public synchronized long getSizeInBytes() {
+    return _sizeInBytes;
+  }
+
+  private void removeFromSegmentIndex(Key key) {
+    Set<Key> keys = _keysBySegmentName.get(key._segmentName);
+    keys.remove(key);
+    if (keys.isEmpty()) {
+      _keysBySegmentName.remove(key._segmentName);
+    }
+  }
+
+  private void addMeteredValue(ServerMeter meter) {
+    if (_serverMetrics != null) {
+      _serverMetrics.addMeteredGlobalValue(meter, 1L);
+    }
+  }
+
+  private void updateSizeGauge() {
+    if (_serverMetrics != null) {
+      _serverMetrics.setValueOfGlobalGauge(ServerGauge.FILTER_RESULT_CACHE_SIZE_IN_BYTES, _sizeInBytes);
+    }
+  }
+
+  /**
+   * Normalizes the predicate so that the equivalent predicates share the same cache entry. The values of IN/NOT_IN
+   * predicates are sorted and de-duplicated.
+   */
+  private static Predicate normalize(Predicate predicate) {
+    switch (predicate.getType()) {
+      case IN:
+        InPredicate inPredicate = (InPredicate) predicate;
+        return new InPredicate(inPredicate.getLhs(), getSortedDistinctValues(inPredicate.getValues()));
+      case NOT_IN:
+        NotInPredicate notInPredicate = (NotInPredicate) predicate;
+        return new NotInPredicate(notInPredicate.getLhs(), getSortedDistinctValues(notInPredicate.getValues()));
+      default:
+        return predicate;
+    }
+  }
+
+  private static List<String> getSortedDistinctValues(List<String> values) {
+    List<String> sortedValues = new ArrayList<>(values);
+    Collections.sort(sortedValues);
+    int numDistinctValues = 0;
+    for (String value : sortedValues) {
+      if (numDistinctValues == 0 || !value.equals(sortedValues.get(numDistinctValues - 1))) {
+        sortedValues.set(numDistinctValues++, value);
+      }
+    }
+    return sortedValues.subList(0, numDistinctValues);
+  }
+
+  /**
+   * Cache key of the segment name, the segment CRC and the normalized predicate.
+   */
+  public static final class Key {
+    final String _segmentName;
+    final String _crc;
+    final Predicate _predicate;
+
+    private Key(String segmentName, @Nullable String crc, Predicate predicate) {
+      _segmentName = segmentName;
+      _crc = crc;
+      _predicate = predicate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return _segmentName.equals(that._segmentName) && Objects.equals(_crc, that._crc) && _predicate
+          .equals(that._predicate);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * _segmentName.hashCode() + Objects.hashCode(_crc)) + _predicate.hashCode();
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import java.util.List;
+import org.apache.calcite.sql.parser.SqlParseException;
+import org.apache.pinot.core.operator.blocks.FilterBlock;
+import org.apache.pinot.core.operator.docidsets.BitmapDocIdSet;
+import org.apache.pinot.core.query.exception.BadQueryRequestException;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.FilterContext;
+import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.InPredicate;
+import org.apache.pinot.core.query.request.context.predicate.Predicate;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
+import org.apache.pinot.core.util.JsonIndexUtils;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Filter operator for the filters on the JSON index, which supports the EQ and IN predicates on the JsonPaths combined
+ * with AND and OR, e.g. {@code JSON_MATCH(col, '"$.device.os" = ''ios'' AND "$.tags[*]" IN (''a'', ''b'')')}.
+ */
+public class JsonMatchFilterOperator extends BaseFilterOperator {
+  private static final String OPERATOR_NAME = "JsonMatchFilterOperator";
+
+  private final JsonIndexReader _jsonIndex;
+  private final FilterContext _filter;
+  private final int _numDocs;
+
+  /**
+   * Constructs the operator from the filter on the JsonPaths, where the left-hand side of each predicate is the
+   * identifier of the normalized JsonPath (see {@link #parseFilter(String)}).
+   */
+  public JsonMatchFilterOperator(JsonIndexReader jsonIndex, FilterContext filter, int numDocs) {
+    _jsonIndex = jsonIndex;
+    _filter = filter;
+    _numDocs = numDocs;
+  }
+
+  @Override
+  protected FilterBlock getNextBlock() {
+    return new FilterBlock(new BitmapDocIdSet(getMatchingDocIds(_filter), _numDocs));
+  }
+
+  private ImmutableRoaringBitmap getMatchingDocIds(FilterContext filter) {
+    switch (filter.getType()) {
+      case AND:
+        List<FilterContext> children = filter.getChildren();
+        MutableRoaringBitmap matchingDocIds = getMatchingDocIds(children.get(0)).toMutableRoaringBitmap();
+        int numChildren = children.size();
+        for (int i = 1; i < numChildren && !matchingDocIds.isEmpty(); i++) {
+          matchingDocIds.and(getMatchingDocIds(children.get(i)));
+        }
+        return matchingDocIds;
+      case OR:
+        matchingDocIds = new MutableRoaringBitmap();
+        for (FilterContext child : filter.getChildren()) {
+          matchingDocIds.or(getMatchingDocIds(child));
+        }
+        return matchingDocIds;
+      case PREDICATE:
+        Predicate predicate = filter.getPredicate();
+        String path = predicate.getLhs().getIdentifier();
+        if (predicate.getType() == Predicate.Type.EQ) {
+          return _jsonIndex.getMatchingDocIds(path, ((EqPredicate) predicate).getValue());
+        } else {
+          List<String> values = ((InPredicate) predicate).getValues();
+          if (values.size() == 1) {
+            return _jsonIndex.getMatchingDocIds(path, values.get(0));
+          }
+          matchingDocIds = new MutableRoaringBitmap();
+          for (String value : values) {
+            matchingDocIds.or(_jsonIndex.getMatchingDocIds(path, value));
+          }
+          return matchingDocIds;
+        }
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  /**
+   * Parses the filter string of the JSON_MATCH predicate into a filter on the normalized JsonPaths, e.g.
+   * {@code "$.device.os" = 'ios' AND "$.tags[*]" IN ('a', 'b')}. The JsonPaths should be quoted as identifiers, and
+   * the root ({@code $}) is optional.
+   */
+  public static FilterContext parseFilter(String filterString) {
+    FilterContext filter;
+    try {
+      filter = QueryContextConverterUtils.getFilter(CalciteSqlParser.compileToExpression(filterString));
+    } catch (SqlParseException e) {
+      throw new BadQueryRequestException("Caught exception while parsing JSON_MATCH filter: " + filterString, e);
+    } catch (BadQueryRequestException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new BadQueryRequestException("Invalid JSON_MATCH filter: " + filterString, e);
+    }
+    return normalizeFilter(filter, filterString);
+  }
+
+  private static FilterContext normalizeFilter(FilterContext filter, String filterString) {
+    switch (filter.getType()) {
+      case AND:
+      case OR:
+        List<FilterContext> children = filter.getChildren();
+        int numChildren = children.size();
+        for (int i = 0; i < numChildren; i++) {
+          children.set(i, normalizeFilter(children.get(i), filterString));
+        }
+        return filter;
+      case PREDICATE:
+        Predicate predicate = filter.getPredicate();
+        ExpressionContext lhs = predicate.getLhs();
+        if (lhs.getType() != ExpressionContext.Type.IDENTIFIER) {
+          throw new BadQueryRequestException(
+              "Left-hand side of the predicate must be a JsonPath in JSON_MATCH filter: " + filterString);
+        }
+        ExpressionContext path = ExpressionContext.forIdentifier(JsonIndexUtils.normalizePath(lhs.getIdentifier()));
+        switch (predicate.getType()) {
+          case EQ:
+            return new FilterContext(FilterContext.Type.PREDICATE, null,
+                new EqPredicate(path, ((EqPredicate) predicate).getValue()));
+          case IN:
+            return new FilterContext(FilterContext.Type.PREDICATE, null,
+                new InPredicate(path, ((InPredicate) predicate).getValues()));
+          default:
+            throw new BadQueryRequestException(
+                "Unsupported predicate type: " + predicate.getType() + " in JSON_MATCH filter: " + filterString);
+        }
+      default:
+        throw new IllegalStateException();
+    }
+  }
+}
@@ -45,6 +45,19 @@ public class OrFilterOperator extends BaseFilterOperator {
     return new FilterBlock(new OrDocIdSet(filterBlockDocIdSets, _numDocs));
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>Assumes the child filters are independent.
+   */
+  @Override
+  public double getEstimatedSelectivity() {
+    double nonMatchingFraction = 1.0;
+    for (BaseFilterOperator filterOperator : _filterOperators) {
+      nonMatchingFraction *= 1.0 - filterOperator.getEstimatedSelectivity();
+    }
+    return 1.0 - nonMatchingFraction;
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
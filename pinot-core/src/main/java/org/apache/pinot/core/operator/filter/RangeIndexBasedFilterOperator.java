@@ -81,6 +81,11 @@ public class RangeIndexBasedFilterOperator extends BaseFilterOperator {
     });
   }
 
+  @Override
+  public double getEstimatedSelectivity() {
+    return FilterOperatorUtils.estimateSelectivity(_rangePredicateEvaluator, _dataSource);
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
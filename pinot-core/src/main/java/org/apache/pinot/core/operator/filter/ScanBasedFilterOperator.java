@@ -21,7 +21,10 @@ package org.apache.pinot.core.operator.filter;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.common.DataSourceMetadata;
 import org.apache.pinot.core.operator.blocks.FilterBlock;
+import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
+import org.apache.pinot.core.operator.docidsets.FilterBlockDocIdSet;
 import org.apache.pinot.core.operator.docidsets.MVScanDocIdSet;
+import org.apache.pinot.core.operator.docidsets.RecordingScanDocIdSet;
 import org.apache.pinot.core.operator.docidsets.SVScanDocIdSet;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 
@@ -33,6 +36,9 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
   private final DataSource _dataSource;
   private final int _numDocs;
 
+  private FilterResultCache _filterResultCache;
+  private FilterResultCache.Key _filterResultCacheKey;
+
   ScanBasedFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs) {
     _predicateEvaluator = predicateEvaluator;
     _dataSource = dataSource;
@@ -42,12 +48,29 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
   @Override
   protected FilterBlock getNextBlock() {
     DataSourceMetadata dataSourceMetadata = _dataSource.getDataSourceMetadata();
+    FilterBlockDocIdSet docIdSet;
     if (dataSourceMetadata.isSingleValue()) {
-      return new FilterBlock(new SVScanDocIdSet(_predicateEvaluator, _dataSource.getForwardIndex(), _numDocs));
+      docIdSet = new SVScanDocIdSet(_predicateEvaluator, _dataSource.getForwardIndex(), _numDocs);
     } else {
-      return new FilterBlock(new MVScanDocIdSet(_predicateEvaluator, _dataSource.getForwardIndex(), _numDocs,
-          dataSourceMetadata.getMaxNumValuesPerMVEntry()));
+      docIdSet = new MVScanDocIdSet(_predicateEvaluator, _dataSource.getForwardIndex(), _numDocs,
+          dataSourceMetadata.getMaxNumValuesPerMVEntry());
+    }
+    if (_filterResultCache != null) {
+      // Only cache the result when the query scans all the documents
+      docIdSet = new RecordingScanDocIdSet((ScanBasedDocIdIterator) docIdSet.iterator(),
+          docIds -> _filterResultCache.put(_filterResultCacheKey, docIds));
     }
+    return new FilterBlock(docIdSet);
+  }
+
+  /**
+   * Enables caching the filter result into the given filter result cache with the given key. The result is cached
+   * only when the documents are scanned in a full sequential pass during the query execution, so that caching never
+   * scans extra documents.
+   */
+  public void enableResultCaching(FilterResultCache filterResultCache, FilterResultCache.Key filterResultCacheKey) {
+    _filterResultCache = filterResultCache;
+    _filterResultCacheKey = filterResultCacheKey;
   }
 
   @Override
@@ -55,6 +78,11 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
     return OPERATOR_NAME;
   }
 
+  @Override
+  public double getEstimatedSelectivity() {
+    return FilterOperatorUtils.estimateSelectivity(_predicateEvaluator, _dataSource);
+  }
+
   /**
    * Returns the metadata of the data source associated with the scan filter.
    * TODO: Replace this with a priority method for all filter operators
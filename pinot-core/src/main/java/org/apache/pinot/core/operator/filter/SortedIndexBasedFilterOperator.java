@@ -36,11 +36,13 @@ public class SortedIndexBasedFilterOperator extends BaseFilterOperator {
   private static final String OPERATOR_NAME = "SortedIndexBasedFilterOperator";
 
   private final PredicateEvaluator _predicateEvaluator;
+  private final DataSource _dataSource;
   private final SortedIndexReader<?> _sortedIndexReader;
   private final int _numDocs;
 
   SortedIndexBasedFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs) {
     _predicateEvaluator = predicateEvaluator;
+    _dataSource = dataSource;
     _sortedIndexReader = (SortedIndexReader<?>) dataSource.getInvertedIndex();
     _numDocs = numDocs;
   }
@@ -130,6 +132,11 @@ public class SortedIndexBasedFilterOperator extends BaseFilterOperator {
     }
   }
 
+  @Override
+  public double getEstimatedSelectivity() {
+    return FilterOperatorUtils.estimateSelectivity(_predicateEvaluator, _dataSource);
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
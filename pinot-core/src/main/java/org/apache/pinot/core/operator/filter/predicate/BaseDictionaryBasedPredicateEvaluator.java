@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.core.operator.filter.predicate;
 
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 
 
@@ -95,6 +97,33 @@ public abstract class BaseDictionaryBasedPredicateEvaluator extends BasePredicat
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Creates a bit set (1 bit per dictionary id, up to the max dictionary id in the set) for the given dictionary ids,
+   * which can be checked with {@link #isSet(long[], int)} without hashing in the batch APIs.
+   */
+  protected static long[] createDictIdBitSet(IntSet dictIds) {
+    int maxDictId = -1;
+    IntIterator iterator = dictIds.iterator();
+    while (iterator.hasNext()) {
+      maxDictId = Math.max(maxDictId, iterator.nextInt());
+    }
+    long[] bitSet = new long[(maxDictId >>> 6) + 1];
+    iterator = dictIds.iterator();
+    while (iterator.hasNext()) {
+      int dictId = iterator.nextInt();
+      bitSet[dictId >>> 6] |= 1L << dictId;
+    }
+    return bitSet;
+  }
+
+  /**
+   * Returns whether the given dictionary id is in the bit set created with {@link #createDictIdBitSet(IntSet)}.
+   */
+  protected static boolean isSet(long[] bitSet, int dictId) {
+    int index = dictId >>> 6;
+    return index < bitSet.length && (bitSet[index] & (1L << dictId)) != 0;
+  }
+
   // NOTE: override it for exclusive predicate
   @Override
   public int[] getNonMatchingDictIds() {
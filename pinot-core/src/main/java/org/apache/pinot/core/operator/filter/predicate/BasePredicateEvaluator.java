@@ -34,4 +34,50 @@ public abstract class BasePredicateEvaluator implements PredicateEvaluator {
   public int getNumNonMatchingDictIds() {
     return getNonMatchingDictIds().length;
   }
+
+  // NOTE: override the batch APIs with specialized loops for the common predicates
+
+  @Override
+  public int applySV(int length, int[] docIds, int[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < length; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
+
+  @Override
+  public int applySV(int length, int[] docIds, long[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < length; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
+
+  @Override
+  public int applySV(int length, int[] docIds, float[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < length; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
+
+  @Override
+  public int applySV(int length, int[] docIds, double[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < length; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
 }
@@ -99,6 +99,17 @@ public class EqualsPredicateEvaluatorFactory {
       return _matchingDictId == dictId;
     }
 
+    @Override
+    public int applySV(int length, int[] docIds, int[] dictIds) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < length; i++) {
+        if (dictIds[i] == _matchingDictId) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
+
     @Override
     public int[] getMatchingDictIds() {
       return _matchingDictIds;
@@ -126,6 +137,17 @@ public class EqualsPredicateEvaluatorFactory {
     public boolean applySV(int value) {
       return _matchingValue == value;
     }
+
+    @Override
+    public int applySV(int length, int[] docIds, int[] values) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < length; i++) {
+        if (values[i] == _matchingValue) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class LongRawValueBasedEqPredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -149,6 +171,17 @@ public class EqualsPredicateEvaluatorFactory {
     public boolean applySV(long value) {
       return (_matchingValue == value);
     }
+
+    @Override
+    public int applySV(int length, int[] docIds, long[] values) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < length; i++) {
+        if (values[i] == _matchingValue) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class FloatRawValueBasedEqPredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
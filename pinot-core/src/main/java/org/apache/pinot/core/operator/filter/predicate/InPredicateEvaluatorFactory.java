@@ -88,6 +88,7 @@ public class InPredicateEvaluatorFactory {
     final IntSet _matchingDictIdSet;
     final int _numMatchingDictIds;
     int[] _matchingDictIds;
+    long[] _matchingDictIdBitSet;
 
     DictionaryBasedInPredicateEvaluator(InPredicate inPredicate, Dictionary dictionary) {
       List<String> values = inPredicate.getValues();
@@ -116,6 +117,21 @@ public class InPredicateEvaluatorFactory {
       return _matchingDictIdSet.contains(dictId);
     }
 
+    @Override
+    public int applySV(int length, int[] docIds, int[] dictIds) {
+      if (_matchingDictIdBitSet == null) {
+        _matchingDictIdBitSet = createDictIdBitSet(_matchingDictIdSet);
+      }
+      long[] matchingDictIdBitSet = _matchingDictIdBitSet;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < length; i++) {
+        if (isSet(matchingDictIdBitSet, dictIds[i])) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
+
     @Override
     public int getNumMatchingDictIds() {
       return _numMatchingDictIds;
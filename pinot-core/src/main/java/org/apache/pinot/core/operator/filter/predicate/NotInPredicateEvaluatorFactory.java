@@ -90,6 +90,7 @@ public class NotInPredicateEvaluatorFactory {
     final Dictionary _dictionary;
     int[] _matchingDictIds;
     int[] _nonMatchingDictIds;
+    long[] _nonMatchingDictIdBitSet;
 
     DictionaryBasedNotInPredicateEvaluator(NotInPredicate notInPredicate, Dictionary dictionary) {
       List<String> values = notInPredicate.getValues();
@@ -119,6 +120,21 @@ public class NotInPredicateEvaluatorFactory {
       return !_nonMatchingDictIdSet.contains(dictId);
     }
 
+    @Override
+    public int applySV(int length, int[] docIds, int[] dictIds) {
+      if (_nonMatchingDictIdBitSet == null) {
+        _nonMatchingDictIdBitSet = createDictIdBitSet(_nonMatchingDictIdSet);
+      }
+      long[] nonMatchingDictIdBitSet = _nonMatchingDictIdBitSet;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < length; i++) {
+        if (!isSet(nonMatchingDictIdBitSet, dictIds[i])) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
+
     @Override
     public int[] getMatchingDictIds() {
       if (_matchingDictIds == null) {
@@ -75,6 +75,17 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(int[] values, int length);
 
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the document ids of the matching entries to the
+   * front of the document ids array (keeping the order).
+   *
+   * @param length Number of entries in the batch
+   * @param docIds Document ids of the entries, overwritten with the matching document ids
+   * @param values Dictionary ids or raw values of the entries
+   * @return Number of matching entries
+   */
+  int applySV(int length, int[] docIds, int[] values);
+
   /**
    * APIs for dictionary based predicate evaluator
    */
@@ -120,6 +131,17 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(long[] values, int length);
 
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the document ids of the matching entries to the
+   * front of the document ids array (keeping the order).
+   *
+   * @param length Number of entries in the batch
+   * @param docIds Document ids of the entries, overwritten with the matching document ids
+   * @param values Raw values of the entries
+   * @return Number of matching entries
+   */
+  int applySV(int length, int[] docIds, long[] values);
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -137,6 +159,17 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(float[] values, int length);
 
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the document ids of the matching entries to the
+   * front of the document ids array (keeping the order).
+   *
+   * @param length Number of entries in the batch
+   * @param docIds Document ids of the entries, overwritten with the matching document ids
+   * @param values Raw values of the entries
+   * @return Number of matching entries
+   */
+  int applySV(int length, int[] docIds, float[] values);
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -154,6 +187,17 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(double[] values, int length);
 
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the document ids of the matching entries to the
+   * front of the document ids array (keeping the order).
+   *
+   * @param length Number of entries in the batch
+   * @param docIds Document ids of the entries, overwritten with the matching document ids
+   * @param values Raw values of the entries
+   * @return Number of matching entries
+   */
+  int applySV(int length, int[] docIds, double[] values);
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -19,6 +19,7 @@
 package org.apache.pinot.core.operator.filter.predicate;
 
 import javax.annotation.Nullable;
+import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.query.exception.BadQueryRequestException;
 import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
 import org.apache.pinot.core.query.request.context.predicate.InPredicate;
@@ -28,6 +29,7 @@ import org.apache.pinot.core.query.request.context.predicate.Predicate;
 import org.apache.pinot.core.query.request.context.predicate.RangePredicate;
 import org.apache.pinot.core.query.request.context.predicate.RegexpLikePredicate;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.FSTIndexReader;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 
 
@@ -35,6 +37,24 @@ public class PredicateEvaluatorProvider {
   private PredicateEvaluatorProvider() {
   }
 
+  /**
+   * Returns the predicate evaluator for the given predicate on the given data source, which can take advantage of the
+   * indexes of the data source (e.g. FST index for REGEXP_LIKE predicate) to compute the matching dictionary ids.
+   */
+  public static PredicateEvaluator getPredicateEvaluator(Predicate predicate, DataSource dataSource) {
+    Dictionary dictionary = dataSource.getDictionary();
+    FSTIndexReader fstIndex = dataSource.getFSTIndex();
+    if (dictionary != null && fstIndex != null && predicate.getType() == Predicate.Type.REGEXP_LIKE) {
+      try {
+        return RegexpLikePredicateEvaluatorFactory
+            .newFSTBasedEvaluator((RegexpLikePredicate) predicate, fstIndex, dictionary);
+      } catch (Exception e) {
+        throw new BadQueryRequestException(e);
+      }
+    }
+    return getPredicateEvaluator(predicate, dictionary, dataSource.getDataSourceMetadata().getDataType());
+  }
+
   public static PredicateEvaluator getPredicateEvaluator(Predicate predicate, @Nullable Dictionary dictionary,
       DataType dataType) {
     try {
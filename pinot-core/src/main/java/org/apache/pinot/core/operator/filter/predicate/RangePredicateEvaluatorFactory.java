@@ -149,6 +149,17 @@ public class RangePredicateEvaluatorFactory {
       return _startDictId <= dictId && _endDictId > dictId;
     }
 
+    @Override
+    public int applySV(int length, int[] docIds, int[] dictIds) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < length; i++) {
+        if (_startDictId <= dictIds[i] && _endDictId > dictIds[i]) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
+
     @Override
     public int getNumMatchingDictIds() {
       return _numMatchingDictIds;
@@ -305,6 +316,21 @@ public class RangePredicateEvaluatorFactory {
       }
       return result;
     }
+
+    @Override
+    public int applySV(int length, int[] docIds, int[] values) {
+      // Convert the bounds to inclusive long bounds so that the loop does not branch on the inclusiveness
+      long lowerBound = _lowerInclusive ? _lowerBound : (long) _lowerBound + 1;
+      long upperBound = _upperInclusive ? _upperBound : (long) _upperBound - 1;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < length; i++) {
+        int value = values[i];
+        if (lowerBound <= value && upperBound >= value) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class LongRawValueBasedRangePredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
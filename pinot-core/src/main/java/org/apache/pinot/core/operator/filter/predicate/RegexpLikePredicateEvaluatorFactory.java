@@ -21,17 +21,28 @@ package org.apache.pinot.core.operator.filter.predicate;
 import com.google.common.base.Preconditions;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import java.io.IOException;
 import java.util.regex.Pattern;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.RegExp;
+import org.apache.lucene.util.automaton.TooComplexToDeterminizeException;
 import org.apache.pinot.core.query.request.context.predicate.Predicate;
 import org.apache.pinot.core.query.request.context.predicate.RegexpLikePredicate;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.FSTIndexReader;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
  * Factory for REGEXP_LIKE predicate evaluators.
  */
 public class RegexpLikePredicateEvaluatorFactory {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RegexpLikePredicateEvaluatorFactory.class);
+
   private RegexpLikePredicateEvaluatorFactory() {
   }
 
@@ -47,6 +58,36 @@ public class RegexpLikePredicateEvaluatorFactory {
     return new DictionaryBasedRegexpLikePredicateEvaluator(regexpLikePredicate, dictionary);
   }
 
+  /**
+   * Create a new instance of FST index based REGEXP_LIKE predicate evaluator, which finds the matching dictionary ids
+   * by intersecting the automaton of the pattern with the FST index instead of scanning the whole dictionary. Falls
+   * back to the dictionary based evaluator if the pattern cannot be converted into an automaton (see
+   * {@link RegexpPatternConverterUtils}).
+   *
+   * @param regexpLikePredicate REGEXP_LIKE predicate to evaluate
+   * @param fstIndexReader FST index for the column
+   * @param dictionary Dictionary for the column
+   * @return FST index based REGEXP_LIKE predicate evaluator
+   */
+  public static BaseDictionaryBasedPredicateEvaluator newFSTBasedEvaluator(RegexpLikePredicate regexpLikePredicate,
+      FSTIndexReader fstIndexReader, Dictionary dictionary) {
+    String regexp = regexpLikePredicate.getValue();
+    // Validate the pattern so that the invalid pattern is rejected the same way as the dictionary based evaluator
+    Pattern.compile(regexp, PATTERN_FLAG);
+    String luceneRegexp = RegexpPatternConverterUtils.toLuceneRegexp(regexp);
+    if (luceneRegexp != null) {
+      try {
+        Automaton automaton = new RegExp(luceneRegexp, RegExp.NONE).toAutomaton();
+        return new FSTBasedRegexpLikePredicateEvaluator(fstIndexReader.getMatchingDictIds(automaton), dictionary);
+      } catch (IllegalArgumentException | TooComplexToDeterminizeException e) {
+        LOGGER.debug("Failed to build automaton for pattern: {}, falling back to dictionary scan", regexp, e);
+      } catch (IOException e) {
+        throw new RuntimeException("Caught exception while reading the FST index", e);
+      }
+    }
+    return newDictionaryBasedEvaluator(regexpLikePredicate, dictionary);
+  }
+
   /**
    * Create a new instance of raw value based REGEXP_LIKE predicate evaluator.
    *
@@ -98,6 +139,58 @@ public class RegexpLikePredicateEvaluatorFactory {
     }
   }
 
+  private static final class FSTBasedRegexpLikePredicateEvaluator extends BaseDictionaryBasedPredicateEvaluator {
+    final int[] _matchingDictIds;
+    final IntSet _matchingDictIdSet;
+    long[] _matchingDictIdBitSet;
+
+    FSTBasedRegexpLikePredicateEvaluator(int[] matchingDictIds, Dictionary dictionary) {
+      _matchingDictIds = matchingDictIds;
+      _matchingDictIdSet = new IntOpenHashSet(matchingDictIds);
+      int numMatchingDictIds = matchingDictIds.length;
+      if (numMatchingDictIds == 0) {
+        _alwaysFalse = true;
+      } else if (dictionary.length() == numMatchingDictIds) {
+        _alwaysTrue = true;
+      }
+    }
+
+    @Override
+    public Predicate.Type getPredicateType() {
+      return Predicate.Type.REGEXP_LIKE;
+    }
+
+    @Override
+    public boolean applySV(int dictId) {
+      return _matchingDictIdSet.contains(dictId);
+    }
+
+    @Override
+    public int applySV(int length, int[] docIds, int[] dictIds) {
+      if (_matchingDictIdBitSet == null) {
+        _matchingDictIdBitSet = createDictIdBitSet(_matchingDictIdSet);
+      }
+      long[] matchingDictIdBitSet = _matchingDictIdBitSet;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < length; i++) {
+        if (isSet(matchingDictIdBitSet, dictIds[i])) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
+
+    @Override
+    public int getNumMatchingDictIds() {
+      return _matchingDictIds.length;
+    }
+
+    @Override
+    public int[] getMatchingDictIds() {
+      return _matchingDictIds;
+    }
+  }
+
   private static final class RawValueBasedRegexpLikePredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
     final Pattern _pattern;
 
@@ -0,0 +1,505 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter.predicate;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+
+/**
+ * Utility class to convert the REGEXP_LIKE pattern (Java regular expression evaluated with {@code Matcher.find()} in
+ * case-insensitive and unicode-case mode) into an equivalent Lucene regular expression, which always matches the whole
+ * input and can be compiled into an automaton to be intersected with the FST index.
+ * <p>Only a subset of the Java syntax is supported: literals and escaped characters, {@code .}, character classes
+ * (without nested classes or intersections), predefined classes {@code \d \D \s \S \w \W}, groups (capturing or
+ * {@code (?:...)}), alternations, greedy or reluctant quantifiers, and the {@code ^} and {@code $} anchors at the
+ * beginning and the end of the pattern. {@code null} is returned for the other syntax (e.g. back references,
+ * look-arounds, boundary matchers, inline flags, possessive quantifiers), where the caller should fall back to the
+ * Java regular expression.
+ * <p>The case-insensitive matching is expressed by expanding each literal and character class into all the case
+ * variants, and the characters emitted are always escaped so that the optional Lucene syntax has no effect.
+ * <p>NOTE: The pattern is expected to be a valid Java regular expression.
+ */
+public class RegexpPatternConverterUtils {
+  private RegexpPatternConverterUtils() {
+  }
+
+  // Line terminators, which are not matched by '.' (without DOTALL flag)
+  private static final int[] LINE_TERMINATORS = {'\n', '\r', '\u0085', '\u2028', '\u2029'};
+  private static final int[] DIGIT_RANGES = {'0', '9'};
+  private static final int[] SPACE_RANGES = {'\t', '\r', ' ', ' '};
+  private static final int[] WORD_RANGES = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+
+  /**
+   * Converts the given REGEXP_LIKE pattern into the equivalent Lucene regular expression, or returns {@code null} if
+   * the pattern contains unsupported syntax.
+   */
+  @Nullable
+  public static String toLuceneRegexp(String regexp) {
+    try {
+      return new Converter(regexp).convert();
+    } catch (UnsupportedSyntaxException e) {
+      return null;
+    }
+  }
+
+  private static class Converter {
+    final String _regexp;
+    final StringBuilder _builder = new StringBuilder();
+    int _position;
+    int _end;
+    int _depth;
+    boolean _hasTopLevelAlternation;
+
+    Converter(String regexp) {
+      _regexp = regexp;
+    }
+
+    String convert() {
+      _end = _regexp.length();
+      boolean anchoredStart = false;
+      if (_end > 0 && _regexp.charAt(0) == '^') {
+        anchoredStart = true;
+        _position = 1;
+      }
+      boolean anchoredEnd = false;
+      if (_end > _position && _regexp.charAt(_end - 1) == '$') {
+        // The '$' is escaped if it follows odd number of backslashes
+        int numBackslashes = 0;
+        for (int i = _end - 2; i >= _position && _regexp.charAt(i) == '\\'; i--) {
+          numBackslashes++;
+        }
+        if (numBackslashes % 2 == 0) {
+          anchoredEnd = true;
+          _end--;
+        }
+      }
+
+      if (!anchoredStart) {
+        _builder.append(".*");
+      }
+      _builder.append('(');
+      while (_position < _end) {
+        int codePoint = nextCodePoint();
+        switch (codePoint) {
+          case '\\':
+            appendRanges(parseEscape());
+            break;
+          case '.':
+            appendRanges(complement(toRanges(LINE_TERMINATORS)));
+            break;
+          case '[':
+            appendRanges(parseCharClass());
+            break;
+          case '(':
+            if (_position < _end && _regexp.charAt(_position) == '?') {
+              // Only support non-capturing group
+              if (_position + 1 < _end && _regexp.charAt(_position + 1) == ':') {
+                _position += 2;
+              } else {
+                throw new UnsupportedSyntaxException();
+              }
+            }
+            _depth++;
+            _builder.append('(');
+            break;
+          case ')':
+            _depth--;
+            _builder.append(')');
+            break;
+          case '|':
+            if (_depth == 0) {
+              _hasTopLevelAlternation = true;
+            }
+            _builder.append('|');
+            break;
+          case '*':
+          case '+':
+          case '?':
+            _builder.appendCodePoint(codePoint);
+            parseQuantifierMode();
+            break;
+          case '{':
+            _builder.append('{');
+            while (true) {
+              char c = nextChar();
+              if (c == '}') {
+                break;
+              }
+              if ((c < '0' || c > '9') && c != ',') {
+                throw new UnsupportedSyntaxException();
+              }
+              _builder.append(c);
+            }
+            _builder.append('}');
+            parseQuantifierMode();
+            break;
+          case '^':
+          case '$':
+            // Anchors in the middle of the pattern
+            throw new UnsupportedSyntaxException();
+          default:
+            appendRanges(getCaseInsensitiveRanges(codePoint));
+            break;
+        }
+      }
+      _builder.append(')');
+
+      // Anchors cannot be applied to the whole pattern when there is top level alternation
+      if (_hasTopLevelAlternation && (anchoredStart || anchoredEnd)) {
+        throw new UnsupportedSyntaxException();
+      }
+      if (anchoredEnd) {
+        // '$' also matches before the line terminator at the end of the input
+        _builder.append("(\\\r\\\n|");
+        appendRanges(toRanges(LINE_TERMINATORS));
+        _builder.append(")?");
+      } else {
+        _builder.append(".*");
+      }
+      return _builder.toString();
+    }
+
+    char nextChar() {
+      if (_position >= _end) {
+        throw new UnsupportedSyntaxException();
+      }
+      return _regexp.charAt(_position++);
+    }
+
+    int nextCodePoint() {
+      if (_position >= _end) {
+        throw new UnsupportedSyntaxException();
+      }
+      int codePoint = _regexp.codePointAt(_position);
+      _position += Character.charCount(codePoint);
+      return codePoint;
+    }
+
+    /**
+     * Reluctant quantifiers can be treated as greedy ones because they match the same set of inputs, but possessive
+     * quantifiers cannot.
+     */
+    void parseQuantifierMode() {
+      if (_position < _end) {
+        char c = _regexp.charAt(_position);
+        if (c == '?') {
+          _position++;
+        } else if (c == '+') {
+          throw new UnsupportedSyntaxException();
+        }
+      }
+    }
+
+    /**
+     * Parses the escape sequence after the backslash, and returns the ranges of the matching code points.
+     */
+    IntList parseEscape() {
+      char c = nextChar();
+      switch (c) {
+        case 'd':
+          return new IntArrayList(DIGIT_RANGES);
+        case 'D':
+          return complement(new IntArrayList(DIGIT_RANGES));
+        case 's':
+          return new IntArrayList(SPACE_RANGES);
+        case 'S':
+          return complement(new IntArrayList(SPACE_RANGES));
+        case 'w':
+          return new IntArrayList(WORD_RANGES);
+        case 'W':
+          return complement(new IntArrayList(WORD_RANGES));
+        default:
+          _position--;
+          return getCaseInsensitiveRanges(parseEscapedCodePoint());
+      }
+    }
+
+    int parseEscapedCodePoint() {
+      int codePoint = nextCodePoint();
+      switch (codePoint) {
+        case 't':
+          return '\t';
+        case 'n':
+          return '\n';
+        case 'r':
+          return '\r';
+        case 'f':
+          return '\f';
+        case 'a':
+          return '\u0007';
+        case 'e':
+          return '\u001B';
+        case 'x':
+          if (_position < _end && _regexp.charAt(_position) == '{') {
+            int endIndex = _regexp.indexOf('}', _position);
+            if (endIndex < 0 || endIndex >= _end) {
+              throw new UnsupportedSyntaxException();
+            }
+            int value = parseHex(_position + 1, endIndex);
+            _position = endIndex + 1;
+            return value;
+          } else {
+            return parseHex(_position, _position += 2);
+          }
+        case 'u':
+          // NOTE: Surrogate pairs written as 2 unicode escapes are not supported
+          int value = parseHex(_position, _position += 4);
+          if (Character.isSurrogate((char) value)) {
+            throw new UnsupportedSyntaxException();
+          }
+          return value;
+        default:
+          // Non-alphabetic characters can be escaped to be matched literally, while the alphabetic ones are reserved
+          // for the constructs not supported (e.g. back references, boundary matchers, unicode classes)
+          if (Character.isLetterOrDigit(codePoint)) {
+            throw new UnsupportedSyntaxException();
+          }
+          return codePoint;
+      }
+    }
+
+    int parseHex(int startIndex, int endIndex) {
+      if (startIndex >= endIndex || endIndex > _end) {
+        throw new UnsupportedSyntaxException();
+      }
+      try {
+        int value = Integer.parseInt(_regexp.substring(startIndex, endIndex), 16);
+        if (value < 0 || value > Character.MAX_CODE_POINT) {
+          throw new UnsupportedSyntaxException();
+        }
+        return value;
+      } catch (NumberFormatException e) {
+        throw new UnsupportedSyntaxException();
+      }
+    }
+
+    /**
+     * Parses the character class after the '[', and returns the ranges of the matching code points.
+     */
+    IntList parseCharClass() {
+      boolean negated = false;
+      if (_position < _end && _regexp.charAt(_position) == '^') {
+        negated = true;
+        _position++;
+      }
+      IntList ranges = new IntArrayList();
+      boolean first = true;
+      while (true) {
+        int codePoint = nextCodePoint();
+        if (codePoint == ']' && !first) {
+          break;
+        }
+        first = false;
+        switch (codePoint) {
+          case '[':
+          case ']':
+            // Nested class
+            throw new UnsupportedSyntaxException();
+          case '&':
+            if (_position < _end && _regexp.charAt(_position) == '&') {
+              // Intersection
+              throw new UnsupportedSyntaxException();
+            }
+            break;
+          case '\\':
+            if (_position < _end && "dDsSwW".indexOf(_regexp.charAt(_position)) >= 0) {
+              ranges.addAll(parseEscape());
+              continue;
+            }
+            codePoint = parseEscapedCodePoint();
+            break;
+          default:
+            break;
+        }
+
+        // Check for range
+        if (_position + 1 < _end && _regexp.charAt(_position) == '-' && _regexp.charAt(_position + 1) != ']') {
+          _position++;
+          int rangeEnd = nextCodePoint();
+          if (rangeEnd == '[' || rangeEnd == '&') {
+            throw new UnsupportedSyntaxException();
+          }
+          if (rangeEnd == '\\') {
+            rangeEnd = parseEscapedCodePoint();
+          }
+          if (rangeEnd < codePoint) {
+            throw new UnsupportedSyntaxException();
+          }
+          ranges.addAll(getCaseInsensitiveRanges(codePoint, rangeEnd));
+        } else {
+          ranges.addAll(getCaseInsensitiveRanges(codePoint));
+        }
+      }
+      return negated ? complement(ranges) : normalize(ranges);
+    }
+
+    void appendRanges(IntList ranges) {
+      ranges = normalize(ranges);
+      int size = ranges.size();
+      if (size == 2 && ranges.getInt(0) == ranges.getInt(1)) {
+        appendCodePoint(ranges.getInt(0));
+        return;
+      }
+      if (size == 0) {
+        // Matches nothing
+        throw new UnsupportedSyntaxException();
+      }
+      _builder.append('[');
+      for (int i = 0; i < size; i += 2) {
+        int start = ranges.getInt(i);
+        int end = ranges.getInt(i + 1);
+        appendCodePoint(start);
+        if (end != start) {
+          _builder.append('-');
+          appendCodePoint(end);
+        }
+      }
+      _builder.append(']');
+    }
+
+    void appendCodePoint(int codePoint) {
+      if (codePoint < 128 && !Character.isLetterOrDigit(codePoint)) {
+        _builder.append('\\');
+      }
+      _builder.appendCodePoint(codePoint);
+    }
+  }
+
+  /**
+   * Returns the ranges of the code points matching the given code point case-insensitively. Follows the semantic of
+   * the Java regular expression: code point {@code c} matches {@code p} if {@code p} is cased and
+   * {@code toLowerCase(toUpperCase(c)) == toLowerCase(toUpperCase(p))}.
+   */
+  private static IntList getCaseInsensitiveRanges(int codePoint) {
+    IntList ranges = new IntArrayList();
+    ranges.add(codePoint);
+    ranges.add(codePoint);
+    int upper = Character.toUpperCase(codePoint);
+    int lower = Character.toLowerCase(upper);
+    if (upper != lower) {
+      ranges.add(lower);
+      ranges.add(lower);
+      for (int casedCodePoint : CasedCodePoints.CODE_POINTS) {
+        if (Character.toLowerCase(Character.toUpperCase(casedCodePoint)) == lower) {
+          ranges.add(casedCodePoint);
+          ranges.add(casedCodePoint);
+        }
+      }
+    }
+    return ranges;
+  }
+
+  /**
+   * Returns the ranges of the code points matching the given range case-insensitively. Follows the semantic of the
+   * Java regular expression: code point {@code c} matches the range if {@code c}, {@code toUpperCase(c)} or
+   * {@code toLowerCase(toUpperCase(c))} is within the range.
+   */
+  private static IntList getCaseInsensitiveRanges(int start, int end) {
+    IntList ranges = new IntArrayList();
+    ranges.add(start);
+    ranges.add(end);
+    for (int casedCodePoint : CasedCodePoints.CODE_POINTS) {
+      int upper = Character.toUpperCase(casedCodePoint);
+      int lower = Character.toLowerCase(upper);
+      if ((upper >= start && upper <= end) || (lower >= start && lower <= end)) {
+        ranges.add(casedCodePoint);
+        ranges.add(casedCodePoint);
+      }
+    }
+    return ranges;
+  }
+
+  private static IntList toRanges(int[] codePoints) {
+    IntList ranges = new IntArrayList(codePoints.length * 2);
+    for (int codePoint : codePoints) {
+      ranges.add(codePoint);
+      ranges.add(codePoint);
+    }
+    return ranges;
+  }
+
+  /**
+   * Sorts and merges the ranges (pairs of inclusive start and end).
+   */
+  private static IntList normalize(IntList ranges) {
+    int numRanges = ranges.size() / 2;
+    List<int[]> rangeList = new ArrayList<>(numRanges);
+    for (int i = 0; i < numRanges; i++) {
+      rangeList.add(new int[]{ranges.getInt(2 * i), ranges.getInt(2 * i + 1)});
+    }
+    rangeList.sort((range1, range2) -> Integer.compare(range1[0], range2[0]));
+    IntList normalizedRanges = new IntArrayList(ranges.size());
+    for (int[] range : rangeList) {
+      int size = normalizedRanges.size();
+      if (size > 0 && range[0] <= normalizedRanges.getInt(size - 1) + 1) {
+        normalizedRanges.set(size - 1, Math.max(normalizedRanges.getInt(size - 1), range[1]));
+      } else {
+        normalizedRanges.add(range[0]);
+        normalizedRanges.add(range[1]);
+      }
+    }
+    return normalizedRanges;
+  }
+
+  private static IntList complement(IntList ranges) {
+    ranges = normalize(ranges);
+    IntList complementRanges = new IntArrayList(ranges.size() + 2);
+    int start = 0;
+    for (int i = 0; i < ranges.size(); i += 2) {
+      if (ranges.getInt(i) > start) {
+        complementRanges.add(start);
+        complementRanges.add(ranges.getInt(i) - 1);
+      }
+      start = ranges.getInt(i + 1) + 1;
+    }
+    if (start <= Character.MAX_CODE_POINT) {
+      complementRanges.add(start);
+      complementRanges.add(Character.MAX_CODE_POINT);
+    }
+    return complementRanges;
+  }
+
+  /**
+   * Lazily initialized code points affected by the case conversion.
+   */
+  private static class CasedCodePoints {
+    static final int[] CODE_POINTS;
+
+    static {
+      IntList codePoints = new IntArrayList();
+      for (int codePoint = 0; codePoint <= Character.MAX_CODE_POINT; codePoint++) {
+        int upper = Character.toUpperCase(codePoint);
+        if (upper != codePoint || Character.toLowerCase(upper) != codePoint) {
+          codePoints.add(codePoint);
+        }
+      }
+      CODE_POINTS = codePoints.toIntArray();
+    }
+  }
+
+  private static class UnsupportedSyntaxException extends RuntimeException {
+    UnsupportedSyntaxException() {
+      super(null, null, false, false);
+    }
+  }
+}
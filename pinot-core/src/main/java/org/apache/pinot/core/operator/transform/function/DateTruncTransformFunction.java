@@ -99,7 +99,7 @@ public class DateTruncTransformFunction extends BaseTransformFunction {
   private TimeUnit _inputTimeUnit;
   private TimeUnit _outputTimeUnit;
 
-  private static DateTimeField getTimestampField(ISOChronology chronology, String unitString) {
+  public static DateTimeField getTimestampField(ISOChronology chronology, String unitString) {
     switch (unitString) {
       case "millisecond":
         return chronology.millisOfSecond();
@@ -58,8 +58,9 @@ public class AggregationGroupByPlanNode implements PlanNode {
     assert groupByExpressions != null;
     _groupByExpressions = groupByExpressions.toArray(new ExpressionContext[0]);
 
+    // NOTE: Star-tree cannot be used for upsert table because the pre-aggregated records include the invalid documents
     List<StarTreeV2> starTrees = indexSegment.getStarTrees();
-    if (starTrees != null) {
+    if (starTrees != null && indexSegment.getValidDocIds() == null) {
       if (!StarTreeUtils.isStarTreeDisabled(queryContext)) {
         int numAggregationFunctions = _aggregationFunctions.length;
         AggregationFunctionColumnPair[] aggregationFunctionColumnPairs =
@@ -77,14 +78,16 @@ public class AggregationGroupByPlanNode implements PlanNode {
         }
         if (!hasUnsupportedAggregationFunction) {
           FilterContext filter = queryContext.getFilter();
+          ExpressionContext[] dimensionExpressions =
+              StarTreeUtils.getDimensionExpressions(_aggregationFunctions, _groupByExpressions);
           for (StarTreeV2 starTreeV2 : starTrees) {
             if (StarTreeUtils
-                .isFitForStarTree(starTreeV2.getMetadata(), aggregationFunctionColumnPairs, _groupByExpressions,
+                .isFitForStarTree(starTreeV2.getMetadata(), aggregationFunctionColumnPairs, dimensionExpressions,
                     filter)) {
               _transformPlanNode = null;
               _starTreeTransformPlanNode =
-                  new StarTreeTransformPlanNode(starTreeV2, aggregationFunctionColumnPairs, _groupByExpressions, filter,
-                      queryContext.getDebugOptions());
+                  new StarTreeTransformPlanNode(starTreeV2, aggregationFunctionColumnPairs, dimensionExpressions,
+                      filter, queryContext.getDebugOptions());
               return;
             }
           }
@@ -94,8 +97,7 @@ public class AggregationGroupByPlanNode implements PlanNode {
 
     Set<ExpressionContext> expressionsToTransform =
         AggregationFunctionUtils.collectExpressionsToTransform(_aggregationFunctions, _groupByExpressions);
-    _transformPlanNode =
-        new TransformPlanNode(_indexSegment, queryContext, expressionsToTransform, DocIdSetPlanNode.MAX_DOC_PER_CALL);
+    _transformPlanNode = new TransformPlanNode(_indexSegment, queryContext, expressionsToTransform);
     _starTreeTransformPlanNode = null;
   }
 
@@ -49,8 +49,9 @@ public class AggregationPlanNode implements PlanNode {
     _aggregationFunctions = queryContext.getAggregationFunctions();
     assert _aggregationFunctions != null;
 
+    // NOTE: Star-tree cannot be used for upsert table because the pre-aggregated records include the invalid documents
     List<StarTreeV2> starTrees = indexSegment.getStarTrees();
-    if (starTrees != null) {
+    if (starTrees != null && indexSegment.getValidDocIds() == null) {
       if (!StarTreeUtils.isStarTreeDisabled(queryContext)) {
         int numAggregationFunctions = _aggregationFunctions.length;
         AggregationFunctionColumnPair[] aggregationFunctionColumnPairs =
@@ -68,13 +69,14 @@ public class AggregationPlanNode implements PlanNode {
         }
         if (!hasUnsupportedAggregationFunction) {
           FilterContext filter = queryContext.getFilter();
+          ExpressionContext[] dimensionExpressions = StarTreeUtils.getDimensionExpressions(_aggregationFunctions, null);
           for (StarTreeV2 starTreeV2 : starTrees) {
-            if (StarTreeUtils
-                .isFitForStarTree(starTreeV2.getMetadata(), aggregationFunctionColumnPairs, null, filter)) {
+            if (StarTreeUtils.isFitForStarTree(starTreeV2.getMetadata(), aggregationFunctionColumnPairs,
+                dimensionExpressions, filter)) {
               _transformPlanNode = null;
               _starTreeTransformPlanNode =
-                  new StarTreeTransformPlanNode(starTreeV2, aggregationFunctionColumnPairs, null, filter,
-                      queryContext.getDebugOptions());
+                  new StarTreeTransformPlanNode(starTreeV2, aggregationFunctionColumnPairs, dimensionExpressions,
+                      filter, queryContext.getDebugOptions());
               return;
             }
           }
@@ -84,8 +86,7 @@ public class AggregationPlanNode implements PlanNode {
 
     Set<ExpressionContext> expressionsToTransform =
         AggregationFunctionUtils.collectExpressionsToTransform(_aggregationFunctions, null);
-    _transformPlanNode =
-        new TransformPlanNode(_indexSegment, queryContext, expressionsToTransform, DocIdSetPlanNode.MAX_DOC_PER_CALL);
+    _transformPlanNode = new TransformPlanNode(_indexSegment, queryContext, expressionsToTransform);
     _starTreeTransformPlanNode = null;
   }
 
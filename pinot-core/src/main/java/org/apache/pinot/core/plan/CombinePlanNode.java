@@ -133,12 +133,19 @@ public class CombinePlanNode implements PlanNode {
       }
 
       // Get all results
+      // NOTE: Keep the operators in the same order as the plan nodes so that the combine operator can schedule the
+      //       segments in the order decided by the plan maker (e.g. sorted by estimated cost for work-stealing).
+      Operator[] operatorArray = new Operator[numPlanNodes];
       try {
-        for (Future future : futures) {
+        for (int i = 0; i < numThreads; i++) {
           List<Operator> ops =
-              (List<Operator>) future.get(endTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
-          operators.addAll(ops);
+              (List<Operator>) futures[i].get(endTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+          int numOps = ops.size();
+          for (int j = 0; j < numOps; j++) {
+            operatorArray[i + j * numThreads] = ops.get(j);
+          }
         }
+        Collections.addAll(operators, operatorArray);
       } catch (Exception e) {
         // Future object will throw ExecutionException for execution exception, need to check the cause to determine
         // whether it is caused by bad query
@@ -19,13 +19,23 @@
 package org.apache.pinot.core.plan;
 
 import com.google.common.base.Preconditions;
+import java.util.Collection;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.common.DataSourceMetadata;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.operator.DocIdSetOperator;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 
 
 public class DocIdSetPlanNode implements PlanNode {
   public static int MAX_DOC_PER_CALL = 10000;
+  public static final int MIN_DOC_PER_CALL = 1000;
+  // Target size of the values fetched for each block (doc ids and projected values), so that the working set of a block
+  // can stay in the CPU cache
+  public static final int TARGET_BLOCK_SIZE_IN_BYTES = 1024 * 1024;
+  // Estimated number of bytes for each STRING/BYTES value (object reference plus the value)
+  private static final int ESTIMATED_NUM_BYTES_PER_VAR_WIDTH_VALUE = 32;
 
   private final FilterPlanNode _filterPlanNode;
   private final int _maxDocPerCall;
@@ -36,6 +46,46 @@ public class DocIdSetPlanNode implements PlanNode {
     _maxDocPerCall = maxDocPerCall;
   }
 
+  /**
+   * Returns the max number of documents to be processed in each block for the given projection columns of the segment.
+   * <p>The block size is chosen so that the doc ids and the projected values of a block fit into
+   * {@link #TARGET_BLOCK_SIZE_IN_BYTES}, bounded by [{@link #MIN_DOC_PER_CALL}, {@link #MAX_DOC_PER_CALL}]. Queries
+   * with few narrow columns use the max block size to amortize the per-block overhead, while queries with many wide
+   * columns use smaller blocks to avoid spilling the cache.
+   * <p>NOTE: The block size can only be reduced from {@link #MAX_DOC_PER_CALL}, never raised above it. The DataFetcher,
+   *          projection, transform and group-by buffers are all sized to {@link #MAX_DOC_PER_CALL}, and only the first
+   *          block size entries are touched for each block.
+   */
+  public static int getMaxDocPerCall(IndexSegment indexSegment, Collection<String> projectionColumns) {
+    long numBytesPerDoc = Integer.BYTES;
+    for (String column : projectionColumns) {
+      numBytesPerDoc += getNumBytesPerDoc(indexSegment.getDataSource(column));
+    }
+    long maxDocPerCall = TARGET_BLOCK_SIZE_IN_BYTES / numBytesPerDoc;
+    return (int) Math.max(MIN_DOC_PER_CALL, Math.min(MAX_DOC_PER_CALL, maxDocPerCall));
+  }
+
+  /**
+   * Returns the estimated number of bytes fetched for each document of the given column.
+   */
+  private static long getNumBytesPerDoc(DataSource dataSource) {
+    DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
+    DataType storedType = dataSourceMetadata.getDataType().getStoredType();
+    int numBytesPerValue = storedType.isNumeric() ? storedType.size() : ESTIMATED_NUM_BYTES_PER_VAR_WIDTH_VALUE;
+    if (dataSource.getDictionary() != null) {
+      // Dictionary ids are fetched before the values
+      numBytesPerValue += Integer.BYTES;
+    }
+    if (dataSourceMetadata.isSingleValue()) {
+      return numBytesPerValue;
+    } else {
+      // Use the average number of values per document for multi-value column
+      int numDocs = dataSourceMetadata.getNumDocs();
+      long numValuesPerDoc = numDocs > 0 ? Math.max(1, (long) dataSourceMetadata.getNumValues() / numDocs) : 1;
+      return numValuesPerDoc * numBytesPerValue;
+    }
+  }
+
   @Override
   public DocIdSetOperator run() {
     return new DocIdSetOperator(_filterPlanNode.run(), _maxDocPerCall);
@@ -19,32 +19,52 @@
 package org.apache.pinot.core.plan;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
 import org.apache.pinot.core.operator.filter.BaseFilterOperator;
 import org.apache.pinot.core.operator.filter.BitmapBasedFilterOperator;
 import org.apache.pinot.core.operator.filter.EmptyFilterOperator;
 import org.apache.pinot.core.operator.filter.ExpressionFilterOperator;
 import org.apache.pinot.core.operator.filter.FilterOperatorUtils;
+import org.apache.pinot.core.operator.filter.FilterResultCache;
+import org.apache.pinot.core.operator.filter.JsonMatchFilterOperator;
 import org.apache.pinot.core.operator.filter.MatchAllFilterOperator;
+import org.apache.pinot.core.operator.filter.ScanBasedFilterOperator;
 import org.apache.pinot.core.operator.filter.TextMatchFilterOperator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import org.apache.pinot.core.query.exception.BadQueryRequestException;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.query.request.context.FilterContext;
+import org.apache.pinot.core.query.request.context.FunctionContext;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.InPredicate;
+import org.apache.pinot.core.query.request.context.predicate.JsonMatchPredicate;
 import org.apache.pinot.core.query.request.context.predicate.Predicate;
 import org.apache.pinot.core.query.request.context.predicate.TextMatchPredicate;
+import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
+import org.apache.pinot.core.util.JsonIndexUtils;
+import org.apache.pinot.core.util.QueryOptions;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 public class FilterPlanNode implements PlanNode {
+  private static final String JSON_EXTRACT_SCALAR = "jsonextractscalar";
+  private static final String JSON_EXTRACT_SCALAR_WITH_UNDERSCORE = "json_extract_scalar";
+
   private final IndexSegment _indexSegment;
   private final QueryContext _queryContext;
   private final int _numDocs;
+  private final boolean _costBasedFilterReorderingEnabled;
 
   public FilterPlanNode(IndexSegment indexSegment, QueryContext queryContext) {
     _indexSegment = indexSegment;
@@ -52,16 +72,34 @@ public class FilterPlanNode implements PlanNode {
     // NOTE: Fetch number of documents in the segment when creating the plan node so that it is consistent among all
     //       filter operators. Number of documents will keep increasing for MutableSegment (CONSUMING segment).
     _numDocs = _indexSegment.getSegmentMetadata().getTotalDocs();
+    _costBasedFilterReorderingEnabled =
+        new QueryOptions(queryContext.getQueryOptions()).isCostBasedFilterReorderingEnabled();
   }
 
   @Override
   public BaseFilterOperator run() {
     FilterContext filter = _queryContext.getFilter();
+    BaseFilterOperator filterOperator;
     if (filter != null) {
-      return constructPhysicalOperator(filter, _queryContext.getDebugOptions());
+      filterOperator = constructPhysicalOperator(filter, _queryContext.getDebugOptions());
     } else {
-      return new MatchAllFilterOperator(_numDocs);
+      filterOperator = new MatchAllFilterOperator(_numDocs);
+    }
+
+    // For upsert table, only match the valid documents (latest record of each primary key)
+    ThreadSafeMutableRoaringBitmap validDocIds = _indexSegment.getValidDocIds();
+    if (validDocIds != null && !filterOperator.isResultEmpty()) {
+      MutableRoaringBitmap validDocIdsSnapshot = validDocIds.getMutableRoaringBitmap();
+      // NOTE: Valid document ids might contain documents indexed after the plan node is created, exclude them so that
+      //       the result is consistent with the number of documents
+      validDocIdsSnapshot.remove(_numDocs, Integer.MAX_VALUE + 1L);
+      BaseFilterOperator validDocIdsFilterOperator =
+          new BitmapBasedFilterOperator(validDocIdsSnapshot, false, _numDocs);
+      return FilterOperatorUtils
+          .getAndFilterOperator(new ArrayList<>(Arrays.asList(filterOperator, validDocIdsFilterOperator)), _numDocs,
+              _queryContext.getDebugOptions(), _costBasedFilterReorderingEnabled);
     }
+    return filterOperator;
   }
 
   /**
@@ -83,7 +121,8 @@ public class FilterPlanNode implements PlanNode {
             childFilterOperators.add(childFilterOperator);
           }
         }
-        return FilterOperatorUtils.getAndFilterOperator(childFilterOperators, _numDocs, debugOptions);
+        return FilterOperatorUtils
+            .getAndFilterOperator(childFilterOperators, _numDocs, debugOptions, _costBasedFilterReorderingEnabled);
       case OR:
         childFilters = filter.getChildren();
         childFilterOperators = new ArrayList<>(childFilters.size());
@@ -102,6 +141,10 @@ public class FilterPlanNode implements PlanNode {
         Predicate predicate = filter.getPredicate();
         ExpressionContext lhs = predicate.getLhs();
         if (lhs.getType() == ExpressionContext.Type.FUNCTION) {
+          BaseFilterOperator jsonMatchFilterOperator = getJsonExtractScalarFilterOperator(predicate);
+          if (jsonMatchFilterOperator != null) {
+            return jsonMatchFilterOperator;
+          }
           // TODO: ExpressionFilterOperator does not support predicate types without PredicateEvaluator (IS_NULL,
           //       IS_NOT_NULL, TEXT_MATCH)
           return new ExpressionFilterOperator(_indexSegment, predicate, _numDocs);
@@ -111,6 +154,14 @@ public class FilterPlanNode implements PlanNode {
             case TEXT_MATCH:
               return new TextMatchFilterOperator(dataSource.getTextIndex(),
                   ((TextMatchPredicate) predicate).getValue(), _numDocs);
+            case JSON_MATCH:
+              JsonIndexReader jsonIndex = dataSource.getJsonIndex();
+              if (jsonIndex == null) {
+                throw new BadQueryRequestException(
+                    "Cannot apply JSON_MATCH on column: " + lhs.getIdentifier() + " without JSON index");
+              }
+              return new JsonMatchFilterOperator(jsonIndex,
+                  JsonMatchFilterOperator.parseFilter(((JsonMatchPredicate) predicate).getValue()), _numDocs);
             case IS_NULL:
               NullValueVectorReader nullValueVector = dataSource.getNullValueVector();
               if (nullValueVector != null) {
@@ -126,14 +177,85 @@ public class FilterPlanNode implements PlanNode {
                 return new MatchAllFilterOperator(_numDocs);
               }
             default:
-              PredicateEvaluator predicateEvaluator = PredicateEvaluatorProvider
-                  .getPredicateEvaluator(predicate, dataSource.getDictionary(),
-                      dataSource.getDataSourceMetadata().getDataType());
-              return FilterOperatorUtils.getLeafFilterOperator(predicateEvaluator, dataSource, _numDocs);
+              PredicateEvaluator predicateEvaluator =
+                  PredicateEvaluatorProvider.getPredicateEvaluator(predicate, dataSource);
+              BaseFilterOperator leafFilterOperator =
+                  FilterOperatorUtils.getLeafFilterOperator(predicateEvaluator, dataSource, _numDocs);
+              return getCachedFilterOperator(predicate, leafFilterOperator);
           }
         }
       default:
         throw new IllegalStateException();
     }
   }
+
+  /**
+   * Returns a filter operator on the JSON index for the EQ/IN predicate on
+   * {@code json_extract_scalar(column, 'path', 'STRING')} if the column has JSON index and the path can be looked up
+   * in the JSON index as is, or {@code null} otherwise (the predicate should be evaluated by scanning the column).
+   * <p>NOTE: Only STRING results are supported because the values in the JSON index are stored as strings, and the
+   *          paths with wildcard or filter are not supported because they might select multiple values within a
+   *          document.
+   */
+  @Nullable
+  private BaseFilterOperator getJsonExtractScalarFilterOperator(Predicate predicate) {
+    Predicate.Type predicateType = predicate.getType();
+    if (predicateType != Predicate.Type.EQ && predicateType != Predicate.Type.IN) {
+      return null;
+    }
+    FunctionContext function = predicate.getLhs().getFunction();
+    String functionName = function.getFunctionName();
+    if (!functionName.equals(JSON_EXTRACT_SCALAR) && !functionName.equals(JSON_EXTRACT_SCALAR_WITH_UNDERSCORE)) {
+      return null;
+    }
+    List<ExpressionContext> arguments = function.getArguments();
+    if (arguments.size() != 3 || arguments.get(0).getType() != ExpressionContext.Type.IDENTIFIER
+        || arguments.get(1).getType() != ExpressionContext.Type.LITERAL
+        || arguments.get(2).getType() != ExpressionContext.Type.LITERAL || !arguments.get(2).getLiteral()
+        .equalsIgnoreCase("STRING")) {
+      return null;
+    }
+    String path = arguments.get(1).getLiteral();
+    if (!JsonIndexUtils.isSimplePath(path)) {
+      return null;
+    }
+    JsonIndexReader jsonIndex = _indexSegment.getDataSource(arguments.get(0).getIdentifier()).getJsonIndex();
+    if (jsonIndex == null) {
+      return null;
+    }
+    ExpressionContext pathExpression = ExpressionContext.forIdentifier(path);
+    Predicate pathPredicate;
+    if (predicateType == Predicate.Type.EQ) {
+      pathPredicate = new EqPredicate(pathExpression, ((EqPredicate) predicate).getValue());
+    } else {
+      pathPredicate = new InPredicate(pathExpression, ((InPredicate) predicate).getValues());
+    }
+    return new JsonMatchFilterOperator(jsonIndex, new FilterContext(FilterContext.Type.PREDICATE, null, pathPredicate),
+        _numDocs);
+  }
+
+  /**
+   * Returns a filter operator on the cached filter result if the filter result cache is enabled and the result is
+   * cached, or the given filter operator otherwise. On a cache miss, the inverted index and scan based filter operators
+   * on the immutable segments are configured to populate the cache with the result computed during the query
+   * execution.
+   */
+  private BaseFilterOperator getCachedFilterOperator(Predicate predicate, BaseFilterOperator filterOperator) {
+    FilterResultCache filterResultCache = FilterResultCache.getInstance();
+    if (filterResultCache == null || !(_indexSegment instanceof ImmutableSegment) || !(
+        filterOperator instanceof BitmapBasedFilterOperator || filterOperator instanceof ScanBasedFilterOperator)) {
+      return filterOperator;
+    }
+    FilterResultCache.Key key = FilterResultCache.getKey(_indexSegment, predicate);
+    ImmutableRoaringBitmap cachedDocIds = filterResultCache.get(key);
+    if (cachedDocIds != null) {
+      return new BitmapBasedFilterOperator(cachedDocIds, false, _numDocs);
+    }
+    if (filterOperator instanceof BitmapBasedFilterOperator) {
+      ((BitmapBasedFilterOperator) filterOperator).enableResultCaching(filterResultCache, key);
+    } else {
+      ((ScanBasedFilterOperator) filterOperator).enableResultCaching(filterResultCache, key);
+    }
+    return filterOperator;
+  }
 }
@@ -21,6 +21,9 @@ package org.apache.pinot.core.plan;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.operator.transform.TransformOperator;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
@@ -31,15 +34,31 @@ import org.apache.pinot.core.query.request.context.QueryContext;
  * The <code>TransformPlanNode</code> class provides the execution plan for transforms on a single segment.
  */
 public class TransformPlanNode implements PlanNode {
+  private static volatile ServerMetrics _serverMetrics;
+
   private final Collection<ExpressionContext> _expressions;
   private final ProjectionPlanNode _projectionPlanNode;
 
+  /**
+   * Constructor for the class, where the max number of documents per block is chosen based on the projection columns
+   * (see {@link DocIdSetPlanNode#getMaxDocPerCall(IndexSegment, Collection)}).
+   */
+  public TransformPlanNode(IndexSegment indexSegment, QueryContext queryContext,
+      Collection<ExpressionContext> expressions) {
+    this(indexSegment, queryContext, expressions, getProjectionColumns(expressions), -1);
+  }
+
   public TransformPlanNode(IndexSegment indexSegment, QueryContext queryContext,
       Collection<ExpressionContext> expressions, int maxDocsPerCall) {
+    this(indexSegment, queryContext, expressions, getProjectionColumns(expressions), maxDocsPerCall);
+  }
+
+  private TransformPlanNode(IndexSegment indexSegment, QueryContext queryContext,
+      Collection<ExpressionContext> expressions, Set<String> projectionColumns, int maxDocsPerCall) {
     _expressions = expressions;
-    Set<String> projectionColumns = new HashSet<>();
-    for (ExpressionContext expression : expressions) {
-      expression.getColumns(projectionColumns);
+    if (maxDocsPerCall < 0) {
+      maxDocsPerCall = DocIdSetPlanNode.getMaxDocPerCall(indexSegment, projectionColumns);
+      recordMaxDocsPerCall(maxDocsPerCall);
     }
     // NOTE: Skip creating DocIdSetPlanNode when maxDocsPerCall is 0 (for selection query with LIMIT 0).
     DocIdSetPlanNode docIdSetPlanNode =
@@ -47,6 +66,35 @@ public class TransformPlanNode implements PlanNode {
     _projectionPlanNode = new ProjectionPlanNode(indexSegment, projectionColumns, docIdSetPlanNode);
   }
 
+  /**
+   * Sets the server metrics to emit the block size chosen for each segment plan. {@code null} disables the metrics.
+   */
+  public static void setServerMetrics(@Nullable ServerMetrics serverMetrics) {
+    _serverMetrics = serverMetrics;
+  }
+
+  private static void recordMaxDocsPerCall(int maxDocsPerCall) {
+    ServerMetrics serverMetrics = _serverMetrics;
+    if (serverMetrics != null) {
+      serverMetrics.addMeteredGlobalValue(ServerMeter.QUERY_BLOCK_SIZE_SEGMENT_PLANS, 1L);
+      serverMetrics.addMeteredGlobalValue(ServerMeter.QUERY_BLOCK_SIZE_DOCS, maxDocsPerCall);
+      if (maxDocsPerCall < DocIdSetPlanNode.MAX_DOC_PER_CALL) {
+        serverMetrics.addMeteredGlobalValue(ServerMeter.QUERY_BLOCK_SIZE_REDUCED_SEGMENT_PLANS, 1L);
+      }
+    }
+  }
+
+  /**
+   * Returns the columns referenced by the given expressions.
+   */
+  private static Set<String> getProjectionColumns(Collection<ExpressionContext> expressions) {
+    Set<String> projectionColumns = new HashSet<>();
+    for (ExpressionContext expression : expressions) {
+      expression.getColumns(projectionColumns);
+    }
+    return projectionColumns;
+  }
+
   @Override
   public TransformOperator run() {
     return new TransformOperator(_projectionPlanNode.run(), _expressions);
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import org.apache.pinot.common.function.AggregationFunctionType;
 import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.operator.combine.CombineOperatorUtils;
 import org.apache.pinot.core.plan.AggregationGroupByOrderByPlanNode;
 import org.apache.pinot.core.plan.AggregationGroupByPlanNode;
 import org.apache.pinot.core.plan.AggregationPlanNode;
@@ -98,6 +99,10 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   @Override
   public Plan makeInstancePlan(List<IndexSegment> indexSegments, QueryContext queryContext,
       ExecutorService executorService, long timeOutMs) {
+    if (new QueryOptions(queryContext.getQueryOptions()).isWorkStealingEnabled()) {
+      // Schedule the most expensive segments first so that the idle threads can pick up the cheap ones at the end
+      indexSegments = CombineOperatorUtils.sortSegmentsByEstimatedCost(indexSegments);
+    }
     List<PlanNode> planNodes = new ArrayList<>(indexSegments.size());
     for (IndexSegment indexSegment : indexSegments) {
       planNodes.add(makeSegmentPlanNode(indexSegment, queryContext));
@@ -124,7 +129,9 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
             _numGroupsLimit);
       } else {
         // Aggregation only query
-        if (queryContext.getFilter() == null) {
+        // NOTE: Segment metadata and dictionary cannot be used for upsert table because they include the invalid
+        //       documents
+        if (queryContext.getFilter() == null && indexSegment.getValidDocIds() == null) {
           if (isFitForMetadataBasedPlan(queryContext)) {
             return new MetadataBasedAggregationPlanNode(indexSegment, queryContext);
           } else if (isFitForDictionaryBasedPlan(queryContext, indexSegment)) {
@@ -20,15 +20,28 @@ package org.apache.pinot.core.query.aggregation;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import org.apache.pinot.core.query.aggregation.function.PrimitiveAggregationUtils;
+import org.apache.pinot.core.query.aggregation.function.customobject.AvgPair;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
 
 
 public class DefaultAggregationExecutor implements AggregationExecutor {
+  // Max cardinality of the column to aggregate on the dictionary id histogram instead of the values
+  public static final int MAX_CARDINALITY_FOR_DICT_ID_HISTOGRAM = 1 << 16;
+
   protected final AggregationFunction[] _aggregationFunctions;
   protected final AggregationResultHolder[] _aggregationResultHolders;
 
+  // For the aggregation functions aggregated on the dictionary ids, the dictionary of the column, and the histogram of
+  // the dictionary ids (SUM/AVG only)
+  private final Dictionary[] _dictionaries;
+  private final int[][] _dictIdHistograms;
+  private boolean _dictIdBasedAggregationInitialized;
+
   public DefaultAggregationExecutor(AggregationFunction[] aggregationFunctions) {
     _aggregationFunctions = aggregationFunctions;
     int numAggregationFunctions = aggregationFunctions.length;
@@ -36,17 +49,153 @@ public class DefaultAggregationExecutor implements AggregationExecutor {
     for (int i = 0; i < numAggregationFunctions; i++) {
       _aggregationResultHolders[i] = aggregationFunctions[i].createAggregationResultHolder();
     }
+    _dictionaries = new Dictionary[numAggregationFunctions];
+    _dictIdHistograms = new int[numAggregationFunctions][];
   }
 
   @Override
   public void aggregate(TransformBlock transformBlock) {
+    if (!_dictIdBasedAggregationInitialized) {
+      initDictIdBasedAggregation(transformBlock);
+      _dictIdBasedAggregationInitialized = true;
+    }
     int numAggregationFunctions = _aggregationFunctions.length;
     int length = transformBlock.getNumDocs();
     for (int i = 0; i < numAggregationFunctions; i++) {
       AggregationFunction aggregationFunction = _aggregationFunctions[i];
-      aggregationFunction.aggregate(length, _aggregationResultHolders[i],
-          AggregationFunctionUtils.getBlockValSetMap(aggregationFunction, transformBlock));
+      if (_dictionaries[i] != null) {
+        aggregateOnDictIds(i, length, transformBlock);
+      } else {
+        aggregationFunction.aggregate(length, _aggregationResultHolders[i],
+            AggregationFunctionUtils.getBlockValSetMap(aggregationFunction, transformBlock));
+      }
+    }
+  }
+
+  /**
+   * Picks the aggregation functions that can be aggregated on the dictionary ids without reading the values:
+   * <ul>
+   *   <li>MIN/MAX on numeric column with sorted dictionary: the min/max dictionary id maps to the min/max value</li>
+   *   <li>
+   *     SUM/AVG on INT/LONG column with sorted dictionary and cardinality no more than
+   *     {@link #MAX_CARDINALITY_FOR_DICT_ID_HISTOGRAM}: the occurrences of each dictionary id are counted, and the
+   *     values are only read once when extracting the result
+   *   </li>
+   * </ul>
+   * <p>NOTE: Only sorted (immutable) dictionaries are used because the size of the mutable dictionary can change
+   *          during the query.
+   */
+  private void initDictIdBasedAggregation(TransformBlock transformBlock) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      AggregationFunction aggregationFunction = _aggregationFunctions[i];
+      switch (aggregationFunction.getType()) {
+        case MIN:
+        case MAX:
+        case SUM:
+        case AVG:
+          break;
+        default:
+          continue;
+      }
+      BlockValSet blockValSet = transformBlock.getBlockValueSet(aggregationFunction.getInputExpressions().get(0));
+      Dictionary dictionary = blockValSet.getDictionary();
+      if (!blockValSet.isSingleValue() || dictionary == null || !dictionary.isSorted()) {
+        continue;
+      }
+      switch (aggregationFunction.getType()) {
+        case MIN:
+        case MAX:
+          if (dictionary.getValueType().isNumeric()) {
+            _dictionaries[i] = dictionary;
+          }
+          break;
+        case SUM:
+        case AVG:
+          // Only aggregate the integral values on the histogram so that the result does not depend on the order of the
+          // additions
+          switch (dictionary.getValueType()) {
+            case INT:
+            case LONG:
+              int cardinality = dictionary.length();
+              if (cardinality <= MAX_CARDINALITY_FOR_DICT_ID_HISTOGRAM) {
+                _dictionaries[i] = dictionary;
+                _dictIdHistograms[i] = new int[cardinality];
+              }
+              break;
+            default:
+              break;
+          }
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+    }
+  }
+
+  private void aggregateOnDictIds(int index, int length, TransformBlock transformBlock) {
+    if (length == 0) {
+      return;
+    }
+    AggregationFunction aggregationFunction = _aggregationFunctions[index];
+    int[] dictIds =
+        transformBlock.getBlockValueSet(aggregationFunction.getInputExpressions().get(0)).getDictionaryIdsSV();
+    AggregationResultHolder aggregationResultHolder = _aggregationResultHolders[index];
+    switch (aggregationFunction.getType()) {
+      case MIN:
+        aggregationResultHolder.setValue(Math.min(aggregationResultHolder.getDoubleResult(),
+            _dictionaries[index].getDoubleValue(PrimitiveAggregationUtils.min(dictIds, length))));
+        break;
+      case MAX:
+        aggregationResultHolder.setValue(Math.max(aggregationResultHolder.getDoubleResult(),
+            _dictionaries[index].getDoubleValue(PrimitiveAggregationUtils.max(dictIds, length))));
+        break;
+      default:
+        int[] dictIdHistogram = _dictIdHistograms[index];
+        for (int i = 0; i < length; i++) {
+          dictIdHistogram[dictIds[i]]++;
+        }
+        break;
+    }
+  }
+
+  /**
+   * Reads the values for the dictionary id histogram, and merges the sum and count into the result holder.
+   */
+  private void mergeDictIdHistogram(int index) {
+    Dictionary dictionary = _dictionaries[index];
+    int[] dictIdHistogram = _dictIdHistograms[index];
+    long count = 0L;
+    double sum = 0.0;
+    int cardinality = dictIdHistogram.length;
+    for (int dictId = 0; dictId < cardinality; dictId++) {
+      int numOccurrences = dictIdHistogram[dictId];
+      if (numOccurrences != 0) {
+        count += numOccurrences;
+        sum += numOccurrences * dictionary.getDoubleValue(dictId);
+      }
+    }
+    AggregationResultHolder aggregationResultHolder = _aggregationResultHolders[index];
+    switch (_aggregationFunctions[index].getType()) {
+      case SUM:
+        aggregationResultHolder.setValue(aggregationResultHolder.getDoubleResult() + sum);
+        break;
+      case AVG:
+        if (count == 0) {
+          // Keep the result holder untouched when there is no value aggregated
+          break;
+        }
+        AvgPair avgPair = aggregationResultHolder.getResult();
+        if (avgPair == null) {
+          aggregationResultHolder.setValue(new AvgPair(sum, count));
+        } else {
+          avgPair.apply(sum, count);
+        }
+        break;
+      default:
+        throw new IllegalStateException();
     }
+    _dictIdHistograms[index] = null;
   }
 
   @Override
@@ -54,6 +203,9 @@ public class DefaultAggregationExecutor implements AggregationExecutor {
     int numFunctions = _aggregationFunctions.length;
     List<Object> aggregationResults = new ArrayList<>(numFunctions);
     for (int i = 0; i < numFunctions; i++) {
+      if (_dictIdHistograms[i] != null) {
+        mergeDictIdHistogram(i);
+      }
       aggregationResults.add(_aggregationFunctions[i].extractAggregationResult(_aggregationResultHolders[i]));
     }
     return aggregationResults;
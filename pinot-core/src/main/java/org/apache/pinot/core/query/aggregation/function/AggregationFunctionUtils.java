@@ -32,6 +32,7 @@ import javax.annotation.Nullable;
 import org.apache.pinot.common.function.AggregationFunctionType;
 import org.apache.pinot.common.request.AggregationInfo;
 import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.data.aggregator.DistinctCountThetaSketchValueAggregator;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
@@ -83,6 +84,22 @@ public class AggregationFunctionUtils {
         return new AggregationFunctionColumnPair(aggregationFunctionType, inputExpression.getIdentifier());
       }
     }
+    // NOTE: For DISTINCTCOUNTTHETASKETCH, the first input expression is the theta-sketch column, and the others are the
+    //       lhs of the predicates which are read from the star-tree dimensions. Star-tree can only serve the function
+    //       with the same nominal entries as the pre-aggregated sketches.
+    if (aggregationFunctionType == AggregationFunctionType.DISTINCTCOUNTTHETASKETCH
+        || aggregationFunctionType == AggregationFunctionType.DISTINCTCOUNTRAWTHETASKETCH) {
+      int nominalEntries = aggregationFunctionType == AggregationFunctionType.DISTINCTCOUNTTHETASKETCH
+          ? ((DistinctCountThetaSketchAggregationFunction) aggregationFunction).getNominalEntries()
+          : ((DistinctCountRawThetaSketchAggregationFunction) aggregationFunction).getNominalEntries();
+      if (!DistinctCountThetaSketchValueAggregator.canServe(nominalEntries)) {
+        return null;
+      }
+      ExpressionContext thetaSketchColumn = inputExpressions.get(0);
+      if (thetaSketchColumn.getType() == ExpressionContext.Type.IDENTIFIER) {
+        return new AggregationFunctionColumnPair(aggregationFunctionType, thetaSketchColumn.getIdentifier());
+      }
+    }
     return null;
   }
 
@@ -175,6 +192,30 @@ public class AggregationFunctionUtils {
     return Collections.singletonMap(expression, blockValSet);
   }
 
+  /**
+   * (For Star-Tree) Creates a map from expression required by the {@link AggregationFunction} to {@link BlockValSet}
+   * fetched from the {@link TransformBlock}, where the first input expression is fetched with the aggregation function
+   * pair, and the other input expressions (e.g. lhs of the predicates for DISTINCTCOUNTTHETASKETCH) are fetched from
+   * the star-tree dimensions.
+   */
+  public static Map<ExpressionContext, BlockValSet> getBlockValSetMap(AggregationFunction aggregationFunction,
+      AggregationFunctionColumnPair aggregationFunctionColumnPair, TransformBlock transformBlock) {
+    //noinspection unchecked
+    List<ExpressionContext> expressions = aggregationFunction.getInputExpressions();
+    int numExpressions = expressions.size();
+    if (numExpressions <= 1) {
+      return getBlockValSetMap(aggregationFunctionColumnPair, transformBlock);
+    }
+    Map<ExpressionContext, BlockValSet> blockValSetMap = new HashMap<>();
+    blockValSetMap.put(ExpressionContext.forIdentifier(aggregationFunctionColumnPair.getColumn()),
+        transformBlock.getBlockValueSet(aggregationFunctionColumnPair.toColumnName()));
+    for (int i = 1; i < numExpressions; i++) {
+      ExpressionContext expression = expressions.get(i);
+      blockValSetMap.put(expression, transformBlock.getBlockValueSet(expression));
+    }
+    return blockValSetMap;
+  }
+
   public static boolean isFitForDictionaryBasedComputation(String functionName) {
     //@formatter:off
     return functionName.equalsIgnoreCase(AggregationFunctionType.MIN.name())
@@ -58,8 +58,13 @@ public class AvgAggregationFunction extends BaseSingleInputAggregationFunction<A
   public void aggregate(int length, AggregationResultHolder aggregationResultHolder,
       Map<ExpressionContext, BlockValSet> blockValSetMap) {
     BlockValSet blockValSet = blockValSetMap.get(_expression);
+    DataType valueType = blockValSet.getValueType();
 
-    if (blockValSet.getValueType() != DataType.BYTES) {
+    if (valueType == DataType.INT) {
+      // Sum the int values in the long domain so that the loop can be vectorized
+      setAggregationResult(aggregationResultHolder,
+          PrimitiveAggregationUtils.sum(blockValSet.getIntValuesSV(), length), length);
+    } else if (valueType != DataType.BYTES) {
       double[] doubleValues = blockValSet.getDoubleValuesSV();
       double sum = 0.0;
       for (int i = 0; i < length; i++) {
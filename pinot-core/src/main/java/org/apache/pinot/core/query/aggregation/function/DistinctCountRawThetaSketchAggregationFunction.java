@@ -69,6 +69,13 @@ public class DistinctCountRawThetaSketchAggregationFunction implements Aggregati
     return _thetaSketchAggregationFunction.getInputExpressions();
   }
 
+  /**
+   * Returns the nominal entries of the theta sketch set operations.
+   */
+  public int getNominalEntries() {
+    return _thetaSketchAggregationFunction.getNominalEntries();
+  }
+
   @Override
   public AggregationResultHolder createAggregationResultHolder() {
     return _thetaSketchAggregationFunction.createAggregationResultHolder();
@@ -29,6 +29,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.calcite.sql.parser.SqlParseException;
 import org.apache.commons.collections.MapUtils;
+import org.apache.datasketches.Util;
 import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.theta.AnotB;
 import org.apache.datasketches.theta.Intersection;
@@ -174,6 +175,13 @@ public class DistinctCountThetaSketchAggregationFunction implements AggregationF
     return _inputExpressions;
   }
 
+  /**
+   * Returns the nominal entries of the theta sketch set operations.
+   */
+  public int getNominalEntries() {
+    return _thetaSketchParams != null ? _thetaSketchParams.getNominalEntries() : Util.DEFAULT_NOMINAL_ENTRIES;
+  }
+
   @Override
   public AggregationResultHolder createAggregationResultHolder() {
     return new ObjectAggregationResultHolder();
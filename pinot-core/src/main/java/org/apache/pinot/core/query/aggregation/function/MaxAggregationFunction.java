@@ -54,7 +54,24 @@ public class MaxAggregationFunction extends BaseSingleInputAggregationFunction<D
   @Override
   public void aggregate(int length, AggregationResultHolder aggregationResultHolder,
       Map<ExpressionContext, BlockValSet> blockValSetMap) {
-    double[] valueArray = blockValSetMap.get(_expression).getDoubleValuesSV();
+    if (length == 0) {
+      return;
+    }
+    BlockValSet blockValSet = blockValSetMap.get(_expression);
+    // Compute the max of the INT/LONG values in their own domain so that the loop can be vectorized
+    switch (blockValSet.getValueType()) {
+      case INT:
+        aggregationResultHolder.setValue(Math.max(aggregationResultHolder.getDoubleResult(),
+            PrimitiveAggregationUtils.max(blockValSet.getIntValuesSV(), length)));
+        return;
+      case LONG:
+        aggregationResultHolder.setValue(Math.max(aggregationResultHolder.getDoubleResult(),
+            PrimitiveAggregationUtils.max(blockValSet.getLongValuesSV(), length)));
+        return;
+      default:
+        break;
+    }
+    double[] valueArray = blockValSet.getDoubleValuesSV();
     double max = aggregationResultHolder.getDoubleResult();
     for (int i = 0; i < length; i++) {
       double value = valueArray[i];
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.function;
+
+/**
+ * Primitive-specialized aggregation loops over the value arrays of a block.
+ * <p>The loops are kept free of branches and virtual calls so that they can be auto-vectorized by the JIT. Integral
+ * reductions can be vectorized because they are associative, while floating point reductions cannot (the order of the
+ * additions affects the result), so the aggregation functions should aggregate the INT/LONG values in their own domain
+ * and only convert the per-block result to double.
+ */
+public class PrimitiveAggregationUtils {
+  private PrimitiveAggregationUtils() {
+  }
+
+  /**
+   * Returns the sum of the first {@code length} int values.
+   * <p>NOTE: The sum cannot overflow for a block of values (at most 2^31 * {@code length}).
+   */
+  public static long sum(int[] values, int length) {
+    long sum = 0L;
+    for (int i = 0; i < length; i++) {
+      sum += values[i];
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the minimum of the first {@code length} int values, or {@link Integer#MAX_VALUE} if {@code length} is 0.
+   */
+  public static int min(int[] values, int length) {
+    int min = Integer.MAX_VALUE;
+    for (int i = 0; i < length; i++) {
+      min = Math.min(min, values[i]);
+    }
+    return min;
+  }
+
+  /**
+   * Returns the minimum of the first {@code length} long values, or {@link Long#MAX_VALUE} if {@code length} is 0.
+   */
+  public static long min(long[] values, int length) {
+    long min = Long.MAX_VALUE;
+    for (int i = 0; i < length; i++) {
+      min = Math.min(min, values[i]);
+    }
+    return min;
+  }
+
+  /**
+   * Returns the maximum of the first {@code length} int values, or {@link Integer#MIN_VALUE} if {@code length} is 0.
+   */
+  public static int max(int[] values, int length) {
+    int max = Integer.MIN_VALUE;
+    for (int i = 0; i < length; i++) {
+      max = Math.max(max, values[i]);
+    }
+    return max;
+  }
+
+  /**
+   * Returns the maximum of the first {@code length} long values, or {@link Long#MIN_VALUE} if {@code length} is 0.
+   */
+  public static long max(long[] values, int length) {
+    long max = Long.MIN_VALUE;
+    for (int i = 0; i < length; i++) {
+      max = Math.max(max, values[i]);
+    }
+    return max;
+  }
+}
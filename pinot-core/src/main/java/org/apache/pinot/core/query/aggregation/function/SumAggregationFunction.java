@@ -27,6 +27,7 @@ import org.apache.pinot.core.query.aggregation.DoubleAggregationResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.DoubleGroupByResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 
 
 public class SumAggregationFunction extends BaseSingleInputAggregationFunction<Double, Double> {
@@ -54,7 +55,14 @@ public class SumAggregationFunction extends BaseSingleInputAggregationFunction<D
   @Override
   public void aggregate(int length, AggregationResultHolder aggregationResultHolder,
       Map<ExpressionContext, BlockValSet> blockValSetMap) {
-    double[] valueArray = blockValSetMap.get(_expression).getDoubleValuesSV();
+    BlockValSet blockValSet = blockValSetMap.get(_expression);
+    if (blockValSet.getValueType() == DataType.INT) {
+      // Sum the int values in the long domain so that the loop can be vectorized
+      aggregationResultHolder.setValue(aggregationResultHolder.getDoubleResult() + PrimitiveAggregationUtils
+          .sum(blockValSet.getIntValuesSV(), length));
+      return;
+    }
+    double[] valueArray = blockValSet.getDoubleValuesSV();
     double sum = aggregationResultHolder.getDoubleResult();
     for (int i = 0; i < length; i++) {
       sum += valueArray[i];
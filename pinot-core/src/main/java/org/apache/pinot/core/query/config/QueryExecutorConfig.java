@@ -35,6 +35,10 @@ public class QueryExecutorConfig {
   public static final String QUERY_PLANNER = "queryPlanner";
   // Prefix key of TimeOut
   public static final String TIME_OUT = "timeout";
+  // Max size of the filter result cache, filter result cache is disabled if not configured
+  public static final String FILTER_RESULT_CACHE_SIZE_IN_BYTES = "filterResultCacheSizeInBytes";
+  // Max size of the decompressed chunk cache for the raw forward indexes, chunk cache is disabled if not configured
+  public static final String CHUNK_CACHE_SIZE_IN_BYTES = "chunkCacheSizeInBytes";
 
   private static final String[] REQUIRED_KEYS = {};
 
@@ -42,6 +46,8 @@ public class QueryExecutorConfig {
   private SegmentPrunerConfig _segmentPrunerConfig;
   private QueryPlannerConfig _queryPlannerConfig;
   private final long _timeOutMs;
+  private final long _filterResultCacheSizeInBytes;
+  private final long _chunkCacheSizeInBytes;
 
   public QueryExecutorConfig(PinotConfiguration config) throws ConfigurationException {
     _queryExecutorConfig = config;
@@ -49,6 +55,8 @@ public class QueryExecutorConfig {
     _segmentPrunerConfig = new SegmentPrunerConfig(_queryExecutorConfig.subset(QUERY_PRUNER));
     _queryPlannerConfig = new QueryPlannerConfig(_queryExecutorConfig.subset(QUERY_PLANNER));
     _timeOutMs = _queryExecutorConfig.getProperty(TIME_OUT, -1);
+    _filterResultCacheSizeInBytes = _queryExecutorConfig.getProperty(FILTER_RESULT_CACHE_SIZE_IN_BYTES, 0L);
+    _chunkCacheSizeInBytes = _queryExecutorConfig.getProperty(CHUNK_CACHE_SIZE_IN_BYTES, 0L);
   }
 
   private void checkRequiredKeys()
@@ -75,4 +83,12 @@ public class QueryExecutorConfig {
   public long getTimeOut() {
     return _timeOutMs;
   }
+
+  public long getFilterResultCacheSizeInBytes() {
+    return _filterResultCacheSizeInBytes;
+  }
+
+  public long getChunkCacheSizeInBytes() {
+    return _chunkCacheSizeInBytes;
+  }
 }
@@ -38,7 +38,9 @@ import org.apache.pinot.core.data.manager.SegmentDataManager;
 import org.apache.pinot.core.data.manager.TableDataManager;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.indexsegment.mutable.MutableSegment;
+import org.apache.pinot.core.operator.filter.FilterResultCache;
 import org.apache.pinot.core.plan.Plan;
+import org.apache.pinot.core.plan.TransformPlanNode;
 import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
 import org.apache.pinot.core.plan.maker.PlanMaker;
 import org.apache.pinot.core.query.config.QueryExecutorConfig;
@@ -48,6 +50,7 @@ import org.apache.pinot.core.query.request.ServerQueryRequest;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.TimerContext;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadata;
+import org.apache.pinot.core.segment.index.readers.forward.ChunkCache;
 import org.apache.pinot.core.util.QueryOptions;
 import org.apache.pinot.core.util.trace.TraceContext;
 import org.apache.pinot.spi.env.PinotConfiguration;
@@ -80,6 +83,9 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     _segmentPrunerService = new SegmentPrunerService(queryExecutorConfig.getPrunerConfig());
     LOGGER.info("Trying to build QueryPlanMaker");
     _planMaker = new InstancePlanMakerImplV2(queryExecutorConfig);
+    FilterResultCache.init(queryExecutorConfig.getFilterResultCacheSizeInBytes(), serverMetrics);
+    ChunkCache.init(queryExecutorConfig.getChunkCacheSizeInBytes(), serverMetrics);
+    TransformPlanNode.setServerMetrics(serverMetrics);
     LOGGER.info("Trying to build QueryExecutorTimer");
   }
 
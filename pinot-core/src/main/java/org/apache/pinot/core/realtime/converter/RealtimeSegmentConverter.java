@@ -124,7 +124,8 @@ public class RealtimeSegmentConverter {
     RealtimeSegmentSegmentCreationDataSource dataSource =
         new RealtimeSegmentSegmentCreationDataSource(_realtimeSegmentImpl, reader, _dataSchema);
     driver.init(genConfig, dataSource, CompositeTransformer.getPassThroughTransformer());
-    driver.build();
+    // Build the segment directly from the columns of the mutable segment, reusing its dictionaries and stats
+    driver.buildByColumn(_realtimeSegmentImpl, reader.getSortedDocIdIterationOrder());
 
     if (segmentPartitionConfig != null) {
       Map<String, ColumnPartitionConfig> columnPartitionMap = segmentPartitionConfig.getColumnPartitionMap();
@@ -18,11 +18,17 @@
  */
 package org.apache.pinot.core.realtime.impl;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import org.apache.pinot.core.data.partition.PartitionFunction;
 import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.core.upsert.PartitionUpsertMetadataManager;
+import org.apache.pinot.spi.config.table.ingestion.RollupConfig;
 import org.apache.pinot.spi.data.Schema;
 
 
@@ -37,6 +43,7 @@ public class RealtimeSegmentConfig {
   private final Set<String> _varLengthDictionaryColumns;
   private final Set<String> _invertedIndexColumns;
   private final Set<String> _textIndexColumns;
+  private final Set<String> _jsonIndexColumns;
   private final RealtimeSegmentZKMetadata _realtimeSegmentZKMetadata;
   private final boolean _offHeap;
   private final PinotDataBufferMemoryManager _memoryManager;
@@ -45,16 +52,23 @@ public class RealtimeSegmentConfig {
   private final PartitionFunction _partitionFunction;
   private final int _partitionId;
   private final boolean _aggregateMetrics;
+  private final RollupConfig _rollupConfig;
   private final boolean _nullHandlingEnabled;
   private final String _consumerDir;
+  private final PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
+  private final List<String> _primaryKeyColumns;
+  private final String _sortedColumn;
+  private final Map<String, Map<String, String>> _columnProperties;
 
   // TODO: Clean up this constructor. Most of these things can be extracted from tableConfig.
   private RealtimeSegmentConfig(String segmentName, String streamName, Schema schema, String timeColumnName,
       int capacity, int avgNumMultiValues, Set<String> noDictionaryColumns, Set<String> varLengthDictionaryColumns,
-      Set<String> invertedIndexColumns, Set<String> textIndexColumns,
+      Set<String> invertedIndexColumns, Set<String> textIndexColumns, Set<String> jsonIndexColumns,
       RealtimeSegmentZKMetadata realtimeSegmentZKMetadata, boolean offHeap, PinotDataBufferMemoryManager memoryManager,
       RealtimeSegmentStatsHistory statsHistory, String partitionColumn, PartitionFunction partitionFunction,
-      int partitionId, boolean aggregateMetrics, boolean nullHandlingEnabled, String consumerDir) {
+      int partitionId, boolean aggregateMetrics, RollupConfig rollupConfig, boolean nullHandlingEnabled,
+      String consumerDir, PartitionUpsertMetadataManager partitionUpsertMetadataManager,
+      List<String> primaryKeyColumns, String sortedColumn, Map<String, Map<String, String>> columnProperties) {
     _segmentName = segmentName;
     _streamName = streamName;
     _schema = schema;
@@ -65,6 +79,7 @@ public class RealtimeSegmentConfig {
     _varLengthDictionaryColumns = varLengthDictionaryColumns;
     _invertedIndexColumns = invertedIndexColumns;
     _textIndexColumns = textIndexColumns;
+    _jsonIndexColumns = jsonIndexColumns;
     _realtimeSegmentZKMetadata = realtimeSegmentZKMetadata;
     _offHeap = offHeap;
     _memoryManager = memoryManager;
@@ -73,8 +88,13 @@ public class RealtimeSegmentConfig {
     _partitionFunction = partitionFunction;
     _partitionId = partitionId;
     _aggregateMetrics = aggregateMetrics;
+    _rollupConfig = rollupConfig;
     _nullHandlingEnabled = nullHandlingEnabled;
     _consumerDir = consumerDir;
+    _partitionUpsertMetadataManager = partitionUpsertMetadataManager;
+    _primaryKeyColumns = primaryKeyColumns;
+    _sortedColumn = sortedColumn;
+    _columnProperties = columnProperties;
   }
 
   public String getSegmentName() {
@@ -122,6 +142,10 @@ public class RealtimeSegmentConfig {
     return _textIndexColumns;
   }
 
+  public Set<String> getJsonIndexColumns() {
+    return _jsonIndexColumns;
+  }
+
   public RealtimeSegmentZKMetadata getRealtimeSegmentZKMetadata() {
     return _realtimeSegmentZKMetadata;
   }
@@ -154,6 +178,15 @@ public class RealtimeSegmentConfig {
     return _aggregateMetrics;
   }
 
+  /**
+   * Returns the rollup config (metric aggregation functions and time granularity) applied when metrics aggregation is
+   * enabled, or {@code null} if not configured (SUM for all metrics, no time truncation).
+   */
+  @Nullable
+  public RollupConfig getRollupConfig() {
+    return _rollupConfig;
+  }
+
   public boolean isNullHandlingEnabled() {
     return _nullHandlingEnabled;
   }
@@ -162,6 +195,29 @@ public class RealtimeSegmentConfig {
     return _consumerDir;
   }
 
+  /**
+   * Returns the upsert metadata manager for the stream partition, or {@code null} if upsert is not enabled.
+   */
+  public PartitionUpsertMetadataManager getPartitionUpsertMetadataManager() {
+    return _partitionUpsertMetadataManager;
+  }
+
+  public List<String> getPrimaryKeyColumns() {
+    return _primaryKeyColumns;
+  }
+
+  /**
+   * Returns the sorted column of the table, or {@code null} if not configured. The consuming segment maintains a sorted
+   * run index for the sorted column.
+   */
+  public String getSortedColumn() {
+    return _sortedColumn;
+  }
+
+  public Map<String, Map<String, String>> getColumnProperties() {
+    return _columnProperties;
+  }
+
   public static class Builder {
     private String _segmentName;
     private String _streamName;
@@ -173,6 +229,7 @@ public class RealtimeSegmentConfig {
     private Set<String> _varLengthDictionaryColumns;
     private Set<String> _invertedIndexColumns;
     private Set<String> _textIndexColumns = new HashSet<>();
+    private Set<String> _jsonIndexColumns = new HashSet<>();
     private RealtimeSegmentZKMetadata _realtimeSegmentZKMetadata;
     private boolean _offHeap;
     private PinotDataBufferMemoryManager _memoryManager;
@@ -181,8 +238,13 @@ public class RealtimeSegmentConfig {
     private PartitionFunction _partitionFunction;
     private int _partitionId;
     private boolean _aggregateMetrics = false;
+    private RollupConfig _rollupConfig;
     private boolean _nullHandlingEnabled = false;
     private String _consumerDir;
+    private PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
+    private List<String> _primaryKeyColumns;
+    private String _sortedColumn;
+    private Map<String, Map<String, String>> _columnProperties = new HashMap<>();
 
     public Builder() {
     }
@@ -245,6 +307,11 @@ public class RealtimeSegmentConfig {
       return this;
     }
 
+    public Builder setJsonIndexColumns(Set<String> jsonIndexColumns) {
+      _jsonIndexColumns = jsonIndexColumns;
+      return this;
+    }
+
     public Builder setRealtimeSegmentZKMetadata(RealtimeSegmentZKMetadata realtimeSegmentZKMetadata) {
       _realtimeSegmentZKMetadata = realtimeSegmentZKMetadata;
       return this;
@@ -285,6 +352,11 @@ public class RealtimeSegmentConfig {
       return this;
     }
 
+    public Builder setRollupConfig(RollupConfig rollupConfig) {
+      _rollupConfig = rollupConfig;
+      return this;
+    }
+
     public Builder setNullHandlingEnabled(boolean nullHandlingEnabled) {
       _nullHandlingEnabled = nullHandlingEnabled;
       return this;
@@ -295,11 +367,32 @@ public class RealtimeSegmentConfig {
       return this;
     }
 
+    public Builder setPartitionUpsertMetadataManager(PartitionUpsertMetadataManager partitionUpsertMetadataManager) {
+      _partitionUpsertMetadataManager = partitionUpsertMetadataManager;
+      return this;
+    }
+
+    public Builder setPrimaryKeyColumns(List<String> primaryKeyColumns) {
+      _primaryKeyColumns = primaryKeyColumns;
+      return this;
+    }
+
+    public Builder setSortedColumn(String sortedColumn) {
+      _sortedColumn = sortedColumn;
+      return this;
+    }
+
+    public Builder setColumnProperties(Map<String, Map<String, String>> columnProperties) {
+      _columnProperties = columnProperties;
+      return this;
+    }
+
     public RealtimeSegmentConfig build() {
       return new RealtimeSegmentConfig(_segmentName, _streamName, _schema, _timeColumnName, _capacity,
           _avgNumMultiValues, _noDictionaryColumns, _varLengthDictionaryColumns, _invertedIndexColumns,
-          _textIndexColumns, _realtimeSegmentZKMetadata, _offHeap, _memoryManager, _statsHistory, _partitionColumn,
-          _partitionFunction, _partitionId, _aggregateMetrics, _nullHandlingEnabled, _consumerDir);
+          _textIndexColumns, _jsonIndexColumns, _realtimeSegmentZKMetadata, _offHeap, _memoryManager, _statsHistory,
+          _partitionColumn, _partitionFunction, _partitionId, _aggregateMetrics, _rollupConfig, _nullHandlingEnabled,
+          _consumerDir, _partitionUpsertMetadataManager, _primaryKeyColumns, _sortedColumn, _columnProperties);
     }
   }
 }
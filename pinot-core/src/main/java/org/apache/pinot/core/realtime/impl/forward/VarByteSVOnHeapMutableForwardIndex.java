@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.forward;
+
+import java.util.Arrays;
+import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.core.segment.index.readers.MutableForwardIndex;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * On-heap single-value forward index reader-writer for variable length values (STRING and BYTES) which allows
+ * overwriting the value of an existing document.
+ * <p>Used for the aggregated BYTES metrics (e.g. serialized HyperLogLog or theta sketch) in metrics aggregation mode,
+ * where the value of a document is replaced each time a new record is rolled up into it, and the append-only
+ * {@link VarByteSVMutableForwardIndex} would retain all the intermediate values.
+ * <p>The values are stored in fixed size chunks so that growing the index never copies the values, and the readers
+ * can read the values of the documents already indexed while the writer is adding new documents.
+ */
+public class VarByteSVOnHeapMutableForwardIndex implements MutableForwardIndex {
+  private static final int NUM_DOCS_PER_CHUNK_SHIFT = 12;
+  private static final int NUM_DOCS_PER_CHUNK = 1 << NUM_DOCS_PER_CHUNK_SHIFT;
+  private static final int DOC_ID_MASK = NUM_DOCS_PER_CHUNK - 1;
+
+  private final DataType _valueType;
+
+  private volatile byte[][][] _chunks = new byte[1][][];
+  private int _lengthOfShortestElement = Integer.MAX_VALUE;
+  private int _lengthOfLongestElement = Integer.MIN_VALUE;
+
+  public VarByteSVOnHeapMutableForwardIndex(DataType valueType) {
+    _valueType = valueType;
+  }
+
+  @Override
+  public boolean isDictionaryEncoded() {
+    return false;
+  }
+
+  @Override
+  public boolean isSingleValue() {
+    return true;
+  }
+
+  @Override
+  public DataType getValueType() {
+    return _valueType;
+  }
+
+  @Override
+  public int getLengthOfShortestElement() {
+    return _lengthOfShortestElement;
+  }
+
+  @Override
+  public int getLengthOfLongestElement() {
+    return _lengthOfLongestElement;
+  }
+
+  @Override
+  public String getString(int docId) {
+    return StringUtil.decodeUtf8(getBytes(docId));
+  }
+
+  @Override
+  public byte[] getBytes(int docId) {
+    return _chunks[docId >>> NUM_DOCS_PER_CHUNK_SHIFT][docId & DOC_ID_MASK];
+  }
+
+  @Override
+  public void setString(int docId, String value) {
+    setBytes(docId, StringUtil.encodeUtf8(value));
+  }
+
+  @Override
+  public void setBytes(int docId, byte[] value) {
+    int chunkId = docId >>> NUM_DOCS_PER_CHUNK_SHIFT;
+    byte[][][] chunks = _chunks;
+    if (chunkId >= chunks.length) {
+      chunks = Arrays.copyOf(chunks, Math.max(chunks.length * 2, chunkId + 1));
+      _chunks = chunks;
+    }
+    byte[][] chunk = chunks[chunkId];
+    if (chunk == null) {
+      chunk = new byte[NUM_DOCS_PER_CHUNK][];
+      chunks[chunkId] = chunk;
+    }
+    chunk[docId & DOC_ID_MASK] = value;
+    _lengthOfLongestElement = Math.max(_lengthOfLongestElement, value.length);
+    _lengthOfShortestElement = Math.min(_lengthOfShortestElement, value.length);
+  }
+
+  @Override
+  public void close() {
+    _chunks = null;
+  }
+}
@@ -18,68 +18,132 @@
  */
 package org.apache.pinot.core.realtime.impl.invertedindex;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import java.util.Arrays;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 /**
  * Real-time bitmap based inverted index reader which allows adding values on the fly.
+ * <p>Document ids are appended to a per-value int buffer without locking, and converted to a bitmap lazily on read. The
+ * bitmap is cached until more document ids are appended, so that queries on a value that is not updated share the same
+ * bitmap. After more document ids are appended, the new bitmap is built from a copy of the cached one with only the
+ * newly appended document ids added. The returned bitmaps are point-in-time views of the posting lists and should not
+ * be modified.
  * <p>This class is thread-safe for single writer multiple readers.
  */
-public class RealtimeInvertedIndexReader implements InvertedIndexReader<MutableRoaringBitmap> {
-  private final List<ThreadSafeMutableRoaringBitmap> _bitmaps = new ArrayList<>();
-  private final ReentrantReadWriteLock.ReadLock _readLock;
-  private final ReentrantReadWriteLock.WriteLock _writeLock;
+public class RealtimeInvertedIndexReader implements InvertedIndexReader<ImmutableRoaringBitmap> {
+  private static final int INITIAL_NUM_POSTING_LISTS = 16;
+  private static final int INITIAL_POSTING_LIST_CAPACITY = 4;
 
-  public RealtimeInvertedIndexReader() {
-    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    _readLock = readWriteLock.readLock();
-    _writeLock = readWriteLock.writeLock();
-  }
+  // NOTE: Always publish the posting lists (and the elements) before publishing the number of posting lists, and read
+  //       the number of posting lists before reading the posting lists.
+  private volatile PostingList[] _postingLists = new PostingList[INITIAL_NUM_POSTING_LISTS];
+  private volatile int _numPostingLists;
 
   /**
-   * Adds the document id to the bitmap of the given dictionary id.
+   * Adds the document id to the posting list of the given dictionary id. Document ids should be added in ascending
+   * order.
    */
   public void add(int dictId, int docId) {
-    if (_bitmaps.size() == dictId) {
-      // Bitmap for the dictionary id does not exist, add a new bitmap into the list
-      ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap(docId);
-      try {
-        _writeLock.lock();
-        _bitmaps.add(bitmap);
-      } finally {
-        _writeLock.unlock();
+    int numPostingLists = _numPostingLists;
+    if (dictId >= numPostingLists) {
+      // Posting list for the dictionary id does not exist, add new posting lists up to the dictionary id
+      PostingList[] postingLists = _postingLists;
+      if (dictId >= postingLists.length) {
+        postingLists = Arrays.copyOf(postingLists, Math.max(postingLists.length * 2, dictId + 1));
+      }
+      for (int i = numPostingLists; i <= dictId; i++) {
+        postingLists[i] = new PostingList();
       }
+      postingLists[dictId].add(docId);
+      _postingLists = postingLists;
+      _numPostingLists = dictId + 1;
     } else {
-      // Bitmap for the dictionary id already exists, check and add document id into the bitmap
-      _bitmaps.get(dictId).checkAndAdd(docId);
+      _postingLists[dictId].add(docId);
     }
   }
 
   @Override
-  public MutableRoaringBitmap getDocIds(int dictId) {
-    ThreadSafeMutableRoaringBitmap bitmap;
-    try {
-      _readLock.lock();
-      // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
-      // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
-      // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
-      // empty bitmap. For multi-valued column, the dictionary id might be larger than the bitmap size (not equal).
-      if (_bitmaps.size() <= dictId) {
-        return new MutableRoaringBitmap();
-      }
-      bitmap = _bitmaps.get(dictId);
-    } finally {
-      _readLock.unlock();
+  public ImmutableRoaringBitmap getDocIds(int dictId) {
+    // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
+    // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
+    // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
+    // empty bitmap. For multi-valued column, the dictionary id might be larger than the number of posting lists.
+    if (dictId >= _numPostingLists) {
+      return new MutableRoaringBitmap();
     }
-    return bitmap.getMutableRoaringBitmap();
+    return _postingLists[dictId].getDocIds();
   }
 
   @Override
   public void close() {
   }
+
+  /**
+   * Append-only posting list for a single value.
+   */
+  private static class PostingList {
+    // NOTE: Always publish the buffer (and the elements) before publishing the size, and read the size before reading
+    //       the buffer.
+    volatile int[] _docIds = new int[INITIAL_POSTING_LIST_CAPACITY];
+    volatile int _size;
+    // Cached bitmap of the document ids
+    volatile Snapshot _snapshot;
+
+    void add(int docId) {
+      int size = _size;
+      int[] docIds = _docIds;
+      // Skip the duplicate document id (same value in a multi-value entry)
+      if (size > 0 && docIds[size - 1] == docId) {
+        return;
+      }
+      if (size == docIds.length) {
+        docIds = Arrays.copyOf(docIds, size * 2);
+        docIds[size] = docId;
+        _docIds = docIds;
+      } else {
+        docIds[size] = docId;
+      }
+      _size = size + 1;
+    }
+
+    ImmutableRoaringBitmap getDocIds() {
+      int size = _size;
+      Snapshot snapshot = _snapshot;
+      if (snapshot != null && snapshot._size == size) {
+        return snapshot._bitmap;
+      }
+      MutableRoaringBitmap bitmap;
+      int startIndex;
+      if (snapshot != null && snapshot._size < size) {
+        // Only add the document ids appended after the cached snapshot
+        bitmap = snapshot._bitmap.clone();
+        startIndex = snapshot._size;
+      } else {
+        // NOTE: The cached snapshot might be taken by a concurrent reader after the size is read, in which case it
+        //       contains more document ids than the size and cannot be used
+        bitmap = new MutableRoaringBitmap();
+        startIndex = 0;
+      }
+      bitmap.addN(_docIds, startIndex, size - startIndex);
+      // NOTE: Concurrent readers might overwrite each other's snapshot, which is fine because both of them are valid
+      _snapshot = new Snapshot(size, bitmap);
+      return bitmap;
+    }
+  }
+
+  /**
+   * Bitmap of the first {@code _size} document ids of a posting list.
+   */
+  private static class Snapshot {
+    final int _size;
+    final MutableRoaringBitmap _bitmap;
+
+    Snapshot(int size, MutableRoaringBitmap bitmap) {
+      _size = size;
+      _bitmap = bitmap;
+    }
+  }
 }
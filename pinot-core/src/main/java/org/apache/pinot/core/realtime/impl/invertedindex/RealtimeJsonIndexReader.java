@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.invertedindex;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
+import org.apache.pinot.core.util.JsonIndexUtils;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Real-time JSON index which allows adding JSON documents on the fly.
+ * <p>Each key of the (JsonPath, value) pair is assigned an id on first occurrence, and the document ids are kept in a
+ * {@link RealtimeInvertedIndexReader} on the key ids, so that the posting lists are appended without locking.
+ * <p>This class is thread-safe for single writer multiple readers.
+ */
+public class RealtimeJsonIndexReader implements JsonIndexReader {
+  private final Map<String, Integer> _keyIdMap = new ConcurrentHashMap<>();
+  private final RealtimeInvertedIndexReader _invertedIndex = new RealtimeInvertedIndexReader();
+
+  /**
+   * Adds the JSON document (as a string) for the given document id. Document ids should be added in ascending order.
+   */
+  public void add(String jsonString, int docId) {
+    for (String key : JsonIndexUtils.getKeys(jsonString)) {
+      Integer keyId = _keyIdMap.get(key);
+      if (keyId == null) {
+        // NOTE: Only one writer adds the keys, so the size of the map is the next key id. The key id is published
+        //       before the posting list is created, in which case the reader gets an empty bitmap.
+        keyId = _keyIdMap.size();
+        _keyIdMap.put(key, keyId);
+      }
+      _invertedIndex.add(keyId, docId);
+    }
+  }
+
+  @Override
+  public ImmutableRoaringBitmap getMatchingDocIds(String path, String value) {
+    Integer keyId = _keyIdMap.get(JsonIndexUtils.getKey(path, value));
+    if (keyId != null) {
+      return _invertedIndex.getDocIds(keyId);
+    } else {
+      return new MutableRoaringBitmap();
+    }
+  }
+
+  @Override
+  public void close() {
+    _invertedIndex.close();
+  }
+}
@@ -18,13 +18,11 @@
  */
 package org.apache.pinot.core.realtime.impl.invertedindex;
 
-import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
-import org.apache.lucene.search.SearcherManager;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState.RealtimeLuceneReaders;
-import org.apache.pinot.core.segment.creator.impl.SegmentColumnarIndexCreator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,26 +37,33 @@ import org.slf4j.LoggerFactory;
  * Since text index is also create on a per column basis, there will be as many realtime lucene
  * readers as the number of columns with text search enabled.
  *
- * Between each successive execution of the task, there is a fixed delay (regardless of how long
- * each execution took). When the task wakes up, it pick the RealtimeLuceneReadersForRealtimeSegment
- * from the head of queue, refresh it's readers and adds this at the tail of queue.
+ * In each round, the task goes through all the segments in the queue, refreshes the readers that are
+ * due based on their {@link RealtimeLuceneRefreshPolicy}, and puts the segments back to the tail of
+ * the queue (destroyed segments are dropped). Then it waits until the earliest next check time of
+ * all the readers.
+ *
+ * If a RAM budget is configured for the index writers, it is evenly shared by all the readers.
  */
 public class RealtimeLuceneIndexReaderRefreshThread implements Runnable {
-  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentColumnarIndexCreator.class);
-  // TODO: make this configurable and choose a higher default value
-  private static final int DELAY_BETWEEN_SUCCESSIVE_EXECUTION_MS_DEFAULT = 10;
+  private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeLuceneIndexReaderRefreshThread.class);
+  // Max time to wait between successive rounds, so that newly added segments are picked up in time
+  private static final long MAX_WAIT_TIME_MS = 1000L;
 
   private final ConcurrentLinkedQueue<RealtimeLuceneReaders> _luceneRealtimeReaders;
   private final Lock _mutex;
   private final Condition _conditionVariable;
+  private final double _indexWriterRamBudgetMB;
 
   private volatile boolean _stopped = false;
+  // Number of readers in the last round, used to share the RAM budget
+  private int _numReaders;
 
   RealtimeLuceneIndexReaderRefreshThread(ConcurrentLinkedQueue<RealtimeLuceneReaders> luceneRealtimeReaders, Lock mutex,
-      Condition conditionVariable) {
+      Condition conditionVariable, double indexWriterRamBudgetMB) {
     _luceneRealtimeReaders = luceneRealtimeReaders;
     _mutex = mutex;
     _conditionVariable = conditionVariable;
+    _indexWriterRamBudgetMB = indexWriterRamBudgetMB;
   }
 
   void setStopped() {
@@ -68,84 +73,100 @@ public class RealtimeLuceneIndexReaderRefreshThread implements Runnable {
   @Override
   public void run() {
     while (!_stopped) {
-      while (_luceneRealtimeReaders.isEmpty()) {
-        _mutex.lock();
-        try {
-          // During instantiation of a given MutableSegmentImpl, we will signal on this condition variable once
-          // one or more realtime lucene readers (one per column) belonging to the MutableSegment
-          // are added to the global queue managed by this thread. The thread that signals will
-          // grab this mutex and signal on the condition variable.
-          //
-          // This refresh thread will be woken up (and grab the mutex automatically as per the
-          // implementation of await) and check if the queue is non-empty. It will then proceed to
-          // poll the queue and refresh the realtime index readers for the polled segment.
-          //
-          // The mutex and condition-variable semantics take care of the scenario when on
-          // a given Pinot server, there is no realtime segment with text index enabled. In such
-          // cases, there is no need for this thread to wake up simply after every few seconds/minutes
-          // only to find that there is nothing to be refreshed. The thread should simply be
-          // off CPU until signalled specifically. This also covers the situation where initially
-          // there were few realtime segments of a table with text index. Later if they got
-          // moved to another server as part of rebalance, then again there is no need for this thread
-          // to do anything until some realtime segment is created with text index enabled.
+      _mutex.lock();
+      try {
+        // During instantiation of a given MutableSegmentImpl, we will signal on this condition variable once
+        // one or more realtime lucene readers (one per column) belonging to the MutableSegment
+        // are added to the global queue managed by this thread. The thread that signals will
+        // grab this mutex and signal on the condition variable.
+        //
+        // The mutex and condition-variable semantics take care of the scenario when on
+        // a given Pinot server, there is no realtime segment with text index enabled. In such
+        // cases, there is no need for this thread to wake up simply after every few seconds/minutes
+        // only to find that there is nothing to be refreshed. The thread should simply be
+        // off CPU until signalled specifically.
+        while (_luceneRealtimeReaders.isEmpty() && !_stopped) {
           _conditionVariable.await();
-        } catch (InterruptedException e) {
-          LOGGER.warn("Realtime lucene reader refresh thread got interrupted while waiting on condition variable: ", e);
-          Thread.currentThread().interrupt();
-        } finally {
-          _mutex.unlock();
         }
-      } // end while
+      } catch (InterruptedException e) {
+        LOGGER.warn("Realtime lucene reader refresh thread got interrupted while waiting on condition variable: ", e);
+        Thread.currentThread().interrupt();
+        break;
+      } finally {
+        _mutex.unlock();
+      }
 
       // check if shutdown has been initiated
       if (_stopped) {
-        // exit
         break;
       }
 
-      // remove the realtime segment from the front of queue
-      RealtimeLuceneReaders realtimeReadersForSegment = _luceneRealtimeReaders.poll();
-      if (realtimeReadersForSegment != null) {
-        String segmentName = realtimeReadersForSegment.getSegmentName();
-        // take the lock to prevent the realtime segment from being concurrently destroyed
-        // and thus closing the realtime readers while this thread attempts to refresh them
-        realtimeReadersForSegment.getLock().lock();
+      long nextCheckTimeMs = refreshReaders();
+
+      // Wait until the next check time, or until signalled (new segment added or shutdown)
+      long waitTimeMs = nextCheckTimeMs - System.currentTimeMillis();
+      if (waitTimeMs > 0) {
+        _mutex.lock();
         try {
-          if (!realtimeReadersForSegment.isSegmentDestroyed()) {
-            // if the segment hasn't yet been destroyed, refresh each
-            // realtime reader (one per column with text index enabled)
-            // for this segment.
-            List<RealtimeLuceneTextIndexReader> realtimeLuceneReaders =
-                realtimeReadersForSegment.getRealtimeLuceneReaders();
-            for (RealtimeLuceneTextIndexReader realtimeReader : realtimeLuceneReaders) {
-              if (_stopped) {
-                // exit
-                break;
-              }
-              SearcherManager searcherManager = realtimeReader.getSearcherManager();
-              try {
-                searcherManager.maybeRefresh();
-              } catch (Exception e) {
-                // we should never be here since the locking semantics between MutableSegmentImpl::destroy()
-                // and this code along with volatile state "isSegmentDestroyed" protect against the cases
-                // where this thread might attempt to refresh a realtime lucene reader after it has already
-                // been closed duing segment destroy.
-                LOGGER.warn("Caught exception {} while refreshing realtime lucene reader for segment: {}", e,
-                    segmentName);
-              }
-            }
-          }
+          _conditionVariable.await(waitTimeMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          LOGGER.warn("Realtime lucene reader refresh thread got interrupted while waiting: ", e);
+          Thread.currentThread().interrupt();
+          break;
         } finally {
-          realtimeReadersForSegment.getLock().unlock();
+          _mutex.unlock();
         }
       }
+    }
+  }
 
+  /**
+   * Goes through all the segments in the queue once, refreshes the readers that are due, and returns the earliest next
+   * check time of all the readers.
+   */
+  private long refreshReaders() {
+    long nextCheckTimeMs = System.currentTimeMillis() + MAX_WAIT_TIME_MS;
+    double ramBufferSizeMB = _indexWriterRamBudgetMB > 0 ? _indexWriterRamBudgetMB / Math.max(_numReaders, 1) : 0;
+    int numReaders = 0;
+    int numSegments = _luceneRealtimeReaders.size();
+    for (int i = 0; i < numSegments && !_stopped; i++) {
+      // remove the realtime segment from the front of queue
+      RealtimeLuceneReaders realtimeReadersForSegment = _luceneRealtimeReaders.poll();
+      if (realtimeReadersForSegment == null) {
+        break;
+      }
+      // take the lock to prevent the realtime segment from being concurrently destroyed
+      // and thus closing the realtime readers while this thread attempts to refresh them
+      realtimeReadersForSegment.getLock().lock();
       try {
-        Thread.sleep(DELAY_BETWEEN_SUCCESSIVE_EXECUTION_MS_DEFAULT);
-      } catch (Exception e) {
-        LOGGER.warn("Realtime lucene reader refresh thread got interrupted while sleeping: ", e);
-        Thread.currentThread().interrupt();
+        if (realtimeReadersForSegment.isSegmentDestroyed()) {
+          // drop the destroyed segment from the queue
+          continue;
+        }
+        for (RealtimeLuceneTextIndexReader realtimeReader : realtimeReadersForSegment.getRealtimeLuceneReaders()) {
+          try {
+            if (ramBufferSizeMB > 0) {
+              realtimeReader.setRamBufferSizeMB(ramBufferSizeMB);
+            }
+            realtimeReader.refreshIfNeeded(System.currentTimeMillis());
+          } catch (Exception e) {
+            // we should never be here since the locking semantics between MutableSegmentImpl::destroy()
+            // and this code along with volatile state "isSegmentDestroyed" protect against the cases
+            // where this thread might attempt to refresh a realtime lucene reader after it has already
+            // been closed during segment destroy.
+            LOGGER.warn("Caught exception while refreshing realtime lucene reader for segment: {}",
+                realtimeReadersForSegment.getSegmentName(), e);
+          }
+          nextCheckTimeMs = Math.min(nextCheckTimeMs, realtimeReader.getNextCheckTimeMs());
+          numReaders++;
+        }
+      } finally {
+        realtimeReadersForSegment.getLock().unlock();
       }
-    } // end while
+      // add the segment back to the tail of the queue
+      _luceneRealtimeReaders.offer(realtimeReadersForSegment);
+    }
+    _numReaders = numReaders;
+    return nextCheckTimeMs;
   }
-}
\ No newline at end of file
+}
@@ -24,6 +24,8 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.ServerMetrics;
 
 
 /**
@@ -39,6 +41,7 @@ public class RealtimeLuceneIndexRefreshState {
   private final Lock _mutex;
   private final Condition _conditionVariable;
   private static ConcurrentLinkedQueue<RealtimeLuceneReaders> _luceneRealtimeReaders;
+  private volatile ServerMetrics _serverMetrics;
 
   private RealtimeLuceneIndexRefreshState() {
     _mutex = new ReentrantLock();
@@ -49,10 +52,16 @@ public class RealtimeLuceneIndexRefreshState {
   /**
    * Used by HelixServerStarter during bootstrap to create the singleton
    * instance of this class and start the realtime reader refresh thread.
+   * @param serverMetrics server metrics for the realtime lucene readers
+   * @param indexWriterRamBudgetMB RAM budget shared by the index writers of all the realtime lucene
+   *                               readers on the server, non-positive value to use the default RAM buffer
+   *                               size for each index writer
    */
-  public void start() {
+  public void start(@Nullable ServerMetrics serverMetrics, double indexWriterRamBudgetMB) {
+    _serverMetrics = serverMetrics;
     _realtimeRefreshThread =
-        new RealtimeLuceneIndexReaderRefreshThread(_luceneRealtimeReaders, _mutex, _conditionVariable);
+        new RealtimeLuceneIndexReaderRefreshThread(_luceneRealtimeReaders, _mutex, _conditionVariable,
+            indexWriterRamBudgetMB);
     Thread t = new Thread(_realtimeRefreshThread);
     t.start();
   }
@@ -82,6 +91,14 @@ public class RealtimeLuceneIndexRefreshState {
     return _singletonInstance;
   }
 
+  /**
+   * Returns the server metrics for the realtime lucene readers, or {@code null} if not available.
+   */
+  @Nullable
+  public ServerMetrics getServerMetrics() {
+    return _serverMetrics;
+  }
+
   public void addRealtimeReadersToQueue(RealtimeLuceneReaders readersForRealtimeSegment) {
     _mutex.lock();
     _luceneRealtimeReaders.offer(readersForRealtimeSegment);
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.invertedindex;
+
+import com.google.common.base.Preconditions;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.config.table.FieldConfig;
+
+
+/**
+ * Refresh policy of the {@link RealtimeLuceneTextIndexReader}, configured per text index column via the properties of
+ * the {@link FieldConfig}.
+ * <ul>
+ *   <li>
+ *     Min refresh interval: the reader is refreshed at most once per interval while new documents keep arriving, which
+ *     bounds the CPU spent on refreshing.
+ *   </li>
+ *   <li>
+ *     Max staleness: when no new document arrives, the interval between the checks for new documents is doubled (up to
+ *     the max staleness), so that idle readers are not checked too frequently while the new documents still become
+ *     searchable within the max staleness.
+ *   </li>
+ *   <li>
+ *     Refresh on query: if enabled, the query refreshes the reader before searching if it lags behind the indexed
+ *     documents (subject to the min refresh interval).
+ *   </li>
+ * </ul>
+ */
+public class RealtimeLuceneRefreshPolicy {
+  public static final long DEFAULT_MIN_REFRESH_INTERVAL_MS = 100L;
+  public static final long DEFAULT_MAX_STALENESS_MS = 1000L;
+  public static final RealtimeLuceneRefreshPolicy DEFAULT =
+      new RealtimeLuceneRefreshPolicy(DEFAULT_MIN_REFRESH_INTERVAL_MS, DEFAULT_MAX_STALENESS_MS, false);
+
+  private final long _minRefreshIntervalMs;
+  private final long _maxStalenessMs;
+  private final boolean _refreshOnQuery;
+
+  public RealtimeLuceneRefreshPolicy(long minRefreshIntervalMs, long maxStalenessMs, boolean refreshOnQuery) {
+    Preconditions.checkArgument(minRefreshIntervalMs > 0, "Min refresh interval must be positive, got: %s",
+        minRefreshIntervalMs);
+    Preconditions.checkArgument(maxStalenessMs >= minRefreshIntervalMs,
+        "Max staleness: %s must be no less than the min refresh interval: %s", maxStalenessMs, minRefreshIntervalMs);
+    _minRefreshIntervalMs = minRefreshIntervalMs;
+    _maxStalenessMs = maxStalenessMs;
+    _refreshOnQuery = refreshOnQuery;
+  }
+
+  /**
+   * Returns the refresh policy from the text index properties, or the default policy if not configured.
+   */
+  public static RealtimeLuceneRefreshPolicy fromProperties(@Nullable Map<String, String> textIndexProperties) {
+    if (textIndexProperties == null) {
+      return DEFAULT;
+    }
+    String minRefreshIntervalMs = textIndexProperties.get(FieldConfig.TEXT_INDEX_REALTIME_MIN_REFRESH_INTERVAL_MS);
+    String maxStalenessMs = textIndexProperties.get(FieldConfig.TEXT_INDEX_REALTIME_MAX_STALENESS_MS);
+    String refreshOnQuery = textIndexProperties.get(FieldConfig.TEXT_INDEX_REALTIME_REFRESH_ON_QUERY);
+    if (minRefreshIntervalMs == null && maxStalenessMs == null && refreshOnQuery == null) {
+      return DEFAULT;
+    }
+    long minRefreshIntervalMsValue =
+        minRefreshIntervalMs != null ? Long.parseLong(minRefreshIntervalMs) : DEFAULT_MIN_REFRESH_INTERVAL_MS;
+    long maxStalenessMsValue = maxStalenessMs != null ? Long.parseLong(maxStalenessMs)
+        : Math.max(DEFAULT_MAX_STALENESS_MS, minRefreshIntervalMsValue);
+    return new RealtimeLuceneRefreshPolicy(minRefreshIntervalMsValue, maxStalenessMsValue,
+        Boolean.parseBoolean(refreshOnQuery));
+  }
+
+  public long getMinRefreshIntervalMs() {
+    return _minRefreshIntervalMs;
+  }
+
+  public long getMaxStalenessMs() {
+    return _maxStalenessMs;
+  }
+
+  public boolean isRefreshOnQuery() {
+    return _refreshOnQuery;
+  }
+}
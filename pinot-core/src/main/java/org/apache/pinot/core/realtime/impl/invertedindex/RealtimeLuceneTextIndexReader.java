@@ -19,6 +19,8 @@
 package org.apache.pinot.core.realtime.impl.invertedindex;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexWriter;
@@ -27,6 +29,9 @@ import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SearcherManager;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.metrics.ServerTimer;
 import org.apache.pinot.core.segment.creator.impl.inv.text.LuceneTextIndexCreator;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.roaringbitmap.IntIterator;
@@ -39,6 +44,8 @@ import org.slf4j.LoggerFactory;
  * is created per consuming segment by {@link org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl}.
  * Internally it uses {@link LuceneTextIndexCreator} for adding documents to the lucene index
  * as and when they are indexed by the consuming segment.
+ * <p>The newly added documents become searchable after the reader is refreshed, either by the
+ * {@link RealtimeLuceneIndexReaderRefreshThread} or by the query, based on the {@link RealtimeLuceneRefreshPolicy}.
  */
 public class RealtimeLuceneTextIndexReader implements InvertedIndexReader<MutableRoaringBitmap> {
   private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(RealtimeLuceneTextIndexReader.class);
@@ -48,6 +55,20 @@ public class RealtimeLuceneTextIndexReader implements InvertedIndexReader<Mutabl
   private SearcherManager _searcherManager;
   private final String _column;
   private final String _segmentName;
+  private final String _tableName;
+  private final RealtimeLuceneRefreshPolicy _refreshPolicy;
+  private final ServerMetrics _serverMetrics;
+
+  // Number of documents added to the index writer, updated by the consuming thread
+  private volatile int _numDocsAdded;
+  // Number of documents searchable by the current searcher, and the time of the last refresh
+  private volatile int _numDocsSearchable;
+  private volatile long _lastRefreshTimeMs;
+
+  // Refresh scheduling, only accessed by the refresh thread
+  private long _checkIntervalMs;
+  private long _nextCheckTimeMs;
+  private double _ramBufferSizeMB;
 
   /**
    * Created by {@link org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl}
@@ -55,10 +76,18 @@ public class RealtimeLuceneTextIndexReader implements InvertedIndexReader<Mutabl
    * @param column column name
    * @param segmentIndexDir realtime segment consumer dir
    * @param segmentName realtime segment name
+   * @param tableName table name for the metrics
+   * @param refreshPolicy refresh policy of the reader
+   * @param serverMetrics server metrics to track the refresh latency and the documents not searchable yet
    */
-  public RealtimeLuceneTextIndexReader(String column, File segmentIndexDir, String segmentName) {
+  public RealtimeLuceneTextIndexReader(String column, File segmentIndexDir, String segmentName,
+      @Nullable String tableName, RealtimeLuceneRefreshPolicy refreshPolicy, @Nullable ServerMetrics serverMetrics) {
     _column = column;
     _segmentName = segmentName;
+    _tableName = tableName;
+    _refreshPolicy = refreshPolicy;
+    _serverMetrics = tableName != null ? serverMetrics : null;
+    _checkIntervalMs = refreshPolicy.getMinRefreshIntervalMs();
     try {
       // indexCreator.close() is necessary for cleaning up the resources associated with lucene
       // index writer that was indexing data realtime. We close the indexCreator
@@ -91,6 +120,10 @@ public class RealtimeLuceneTextIndexReader implements InvertedIndexReader<Mutabl
 
   @Override
   public MutableRoaringBitmap getDocIds(String searchQuery) {
+    if (_refreshPolicy.isRefreshOnQuery() && _numDocsAdded > _numDocsSearchable
+        && System.currentTimeMillis() - _lastRefreshTimeMs >= _refreshPolicy.getMinRefreshIntervalMs()) {
+      refresh();
+    }
     MutableRoaringBitmap docIDs = new MutableRoaringBitmap();
     Collector docIDCollector = new RealtimeLuceneDocIdCollector(docIDs);
     IndexSearcher indexSearcher = null;
@@ -138,6 +171,70 @@ public class RealtimeLuceneTextIndexReader implements InvertedIndexReader<Mutabl
 
   public void addDoc(Object doc, int docIdCounter) {
     _indexCreator.addDoc(doc, docIdCounter);
+    _numDocsAdded++;
+  }
+
+  /**
+   * Refreshes the searcher if it is due based on the refresh policy. Should only be called by the refresh thread.
+   * <p>If there are documents not searchable yet, refreshes the searcher and checks again after the min refresh
+   * interval; otherwise, doubles the check interval up to the max staleness.
+   */
+  void refreshIfNeeded(long currentTimeMs) {
+    if (currentTimeMs < _nextCheckTimeMs) {
+      return;
+    }
+    if (_numDocsAdded > _numDocsSearchable) {
+      refresh();
+      _checkIntervalMs = _refreshPolicy.getMinRefreshIntervalMs();
+    } else {
+      _checkIntervalMs = Math.min(_checkIntervalMs * 2, _refreshPolicy.getMaxStalenessMs());
+    }
+    _nextCheckTimeMs = currentTimeMs + _checkIntervalMs;
+  }
+
+  /**
+   * Returns the time of the next check for refresh. Should only be called by the refresh thread.
+   */
+  long getNextCheckTimeMs() {
+    return _nextCheckTimeMs;
+  }
+
+  /**
+   * Sets the RAM buffer size of the index writer. Should only be called by the refresh thread.
+   */
+  void setRamBufferSizeMB(double ramBufferSizeMB) {
+    if (_ramBufferSizeMB != ramBufferSizeMB) {
+      _indexCreator.getIndexWriter().getConfig().setRAMBufferSizeMB(ramBufferSizeMB);
+      _ramBufferSizeMB = ramBufferSizeMB;
+    }
+  }
+
+  /**
+   * Refreshes the searcher so that all the documents added before the refresh become searchable.
+   * <p>NOTE: The refresh can be triggered concurrently by the refresh thread and the queries, so it is synchronized.
+   */
+  private synchronized void refresh() {
+    int numDocsAdded = _numDocsAdded;
+    int numDocsBehind = numDocsAdded - _numDocsSearchable;
+    if (numDocsBehind <= 0) {
+      return;
+    }
+    long startTimeMs = System.currentTimeMillis();
+    try {
+      _searcherManager.maybeRefreshBlocking();
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while refreshing realtime text index for column: {} of segment: {}", _column,
+          _segmentName, e);
+      return;
+    }
+    long endTimeMs = System.currentTimeMillis();
+    _numDocsSearchable = numDocsAdded;
+    _lastRefreshTimeMs = endTimeMs;
+    if (_serverMetrics != null) {
+      _serverMetrics.addTimedTableValue(_tableName, ServerTimer.REALTIME_TEXT_INDEX_REFRESH_TIME,
+          endTimeMs - startTimeMs, TimeUnit.MILLISECONDS);
+      _serverMetrics.setValueOfTableGauge(_tableName, ServerGauge.REALTIME_TEXT_INDEX_DOCS_BEHIND, numDocsBehind);
+    }
   }
 
   @Override
@@ -151,8 +248,4 @@ public class RealtimeLuceneTextIndexReader implements InvertedIndexReader<Mutabl
       throw new RuntimeException(e);
     }
   }
-
-  SearcherManager getSearcherManager() {
-    return _searcherManager;
-  }
 }
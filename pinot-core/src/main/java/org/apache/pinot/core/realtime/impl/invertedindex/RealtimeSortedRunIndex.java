@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.invertedindex;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.query.request.context.predicate.Predicate;
+import org.apache.pinot.core.realtime.impl.dictionary.BaseMutableDictionary;
+import org.apache.pinot.core.segment.index.readers.MutableForwardIndex;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Sorted run index for the sorted column of the consuming segment, which allows solving the predicates matching a
+ * contiguous range of values (e.g. EQ, RANGE) or a set of values (IN) without scanning all the documents.
+ * <p>The documents are divided into fixed-size runs in the indexing order. Once a run is full, the document ids within
+ * the run are sorted on the values of the column, so that the documents matching the predicate are contiguous within
+ * the run and can be located with binary searches. The documents in the last (incomplete) run are scanned. Because the
+ * values of the sorted column are usually near-sorted in the stream (e.g. time column), most runs either match entirely
+ * (added as a document id range) or not at all.
+ * <p>This class is thread-safe for single writer multiple readers.
+ */
+public class RealtimeSortedRunIndex {
+  // NOTE: Run size should be no more than 65536 so that the offsets within the run fit into char
+  public static final int DEFAULT_RUN_SIZE = 16 * 1024;
+
+  private final MutableForwardIndex _forwardIndex;
+  private final BaseMutableDictionary _dictionary;
+  private final int _runSize;
+  // Sorted document offsets (within the run) for each sorted run
+  private final char[][] _sortedOffsets;
+
+  // Buffers for the writer to sort the run
+  private final int[] _dictIdBuffer;
+  private final int[] _offsetBuffer;
+
+  private volatile int _numSortedRuns;
+
+  public RealtimeSortedRunIndex(MutableForwardIndex forwardIndex, BaseMutableDictionary dictionary, int capacity) {
+    this(forwardIndex, dictionary, capacity, DEFAULT_RUN_SIZE);
+  }
+
+  public RealtimeSortedRunIndex(MutableForwardIndex forwardIndex, BaseMutableDictionary dictionary, int capacity,
+      int runSize) {
+    Preconditions.checkArgument(runSize > 0 && runSize <= Character.MAX_VALUE + 1, "Invalid run size: %s", runSize);
+    _forwardIndex = forwardIndex;
+    _dictionary = dictionary;
+    _runSize = runSize;
+    // NOTE: Mutable segment might index one more document than the capacity
+    _sortedOffsets = new char[capacity / runSize + 1][];
+    _dictIdBuffer = new int[runSize];
+    _offsetBuffer = new int[runSize];
+  }
+
+  /**
+   * Adds the document to the index. Should be called in the document id order after the document is added to the
+   * forward index.
+   */
+  public void add(int docId) {
+    int numDocs = docId + 1;
+    if (numDocs % _runSize != 0) {
+      return;
+    }
+    int runId = docId / _runSize;
+    if (runId >= _sortedOffsets.length) {
+      return;
+    }
+
+    // Sort the full run on the values
+    int runStart = numDocs - _runSize;
+    for (int i = 0; i < _runSize; i++) {
+      _dictIdBuffer[i] = _forwardIndex.getDictId(runStart + i);
+      _offsetBuffer[i] = i;
+    }
+    IntArrays.quickSort(_offsetBuffer, (o1, o2) -> _dictionary.compare(_dictIdBuffer[o1], _dictIdBuffer[o2]));
+    char[] sortedOffsets = new char[_runSize];
+    for (int i = 0; i < _runSize; i++) {
+      sortedOffsets[i] = (char) _offsetBuffer[i];
+    }
+    _sortedOffsets[runId] = sortedOffsets;
+    _numSortedRuns = runId + 1;
+  }
+
+  /**
+   * Returns the ids of the documents (within the first {@code numDocs} documents) matching the given dictionary-based
+   * predicate evaluator. The values matching the predicate must be a contiguous range in the value order (e.g. EQ,
+   * RANGE), except for IN predicate where each matching value is located separately.
+   * <p>NOTE: All the values of the first {@code numDocs} documents should be added to the dictionary before creating
+   * the predicate evaluator.
+   */
+  public MutableRoaringBitmap getDocIds(PredicateEvaluator predicateEvaluator, int numDocs) {
+    MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+    int numSortedRuns = Math.min(_numSortedRuns, numDocs / _runSize);
+    int sortedEnd = numSortedRuns * _runSize;
+
+    // Scan the documents not in the sorted runs
+    int referenceDictId = -1;
+    for (int docId = sortedEnd; docId < numDocs; docId++) {
+      int dictId = _forwardIndex.getDictId(docId);
+      if (predicateEvaluator.applySV(dictId)) {
+        docIds.add(docId);
+        referenceDictId = dictId;
+      }
+    }
+    if (numSortedRuns == 0) {
+      return docIds;
+    }
+
+    if (predicateEvaluator.getPredicateType() == Predicate.Type.IN) {
+      // The values matching the IN predicate are not contiguous, so binary search each matching value separately
+      for (int matchingDictId : predicateEvaluator.getMatchingDictIds()) {
+        addSortedRunDocIds(docIds, numSortedRuns, dictId -> dictId == matchingDictId, matchingDictId);
+      }
+      return docIds;
+    }
+
+    // A matching value is required to tell whether a non-matching value is smaller or larger than the matching values.
+    // Look for it from the boundaries of the sorted runs, then from the dictionary.
+    if (referenceDictId < 0) {
+      for (int runId = 0; runId < numSortedRuns && referenceDictId < 0; runId++) {
+        char[] sortedOffsets = _sortedOffsets[runId];
+        int runStart = runId * _runSize;
+        int minDictId = _forwardIndex.getDictId(runStart + sortedOffsets[0]);
+        if (predicateEvaluator.applySV(minDictId)) {
+          referenceDictId = minDictId;
+        } else {
+          int maxDictId = _forwardIndex.getDictId(runStart + sortedOffsets[_runSize - 1]);
+          if (predicateEvaluator.applySV(maxDictId)) {
+            referenceDictId = maxDictId;
+          }
+        }
+      }
+    }
+    if (referenceDictId < 0) {
+      int cardinality = _dictionary.length();
+      for (int dictId = 0; dictId < cardinality; dictId++) {
+        if (predicateEvaluator.applySV(dictId)) {
+          referenceDictId = dictId;
+          break;
+        }
+      }
+      if (referenceDictId < 0) {
+        return docIds;
+      }
+    }
+
+    addSortedRunDocIds(docIds, numSortedRuns, predicateEvaluator::applySV, referenceDictId);
+    return docIds;
+  }
+
+  /**
+   * Binary searches the documents matching the given matcher within each sorted run, and adds them to the given
+   * document ids. The dictionary ids matching the matcher must be a contiguous range in the value order, which contains
+   * the given reference dictionary id.
+   */
+  private void addSortedRunDocIds(MutableRoaringBitmap docIds, int numSortedRuns, IntPredicate matcher,
+      int referenceDictId) {
+    for (int runId = 0; runId < numSortedRuns; runId++) {
+      char[] sortedOffsets = _sortedOffsets[runId];
+      int runStart = runId * _runSize;
+      int start = binarySearch(sortedOffsets, runStart, 0, matcher, referenceDictId, false);
+      int end = binarySearch(sortedOffsets, runStart, start, matcher, referenceDictId, true);
+      if (start == 0 && end == _runSize) {
+        docIds.add((long) runStart, (long) runStart + _runSize);
+      } else if (start < end) {
+        int numMatchingDocs = end - start;
+        int[] matchingDocIds = new int[numMatchingDocs];
+        for (int i = 0; i < numMatchingDocs; i++) {
+          matchingDocIds[i] = runStart + sortedOffsets[start + i];
+        }
+        Arrays.sort(matchingDocIds);
+        docIds.add(matchingDocIds);
+      }
+    }
+  }
+
+  /**
+   * Returns the first index (starting from {@code fromIndex}) in the sorted run whose value is not smaller than the
+   * matching values (or larger than the matching values if {@code afterMatchingValues} is {@code true}), or run size
+   * if not found.
+   */
+  private int binarySearch(char[] sortedOffsets, int runStart, int fromIndex, IntPredicate matcher,
+      int referenceDictId, boolean afterMatchingValues) {
+    int low = fromIndex;
+    int high = _runSize;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      int dictId = _forwardIndex.getDictId(runStart + sortedOffsets[mid]);
+      boolean found;
+      if (matcher.test(dictId)) {
+        found = !afterMatchingValues;
+      } else {
+        // Non-matching value is either smaller or larger than all the matching values
+        found = _dictionary.compare(dictId, referenceDictId) > 0;
+      }
+      if (found) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the number of sorted (full) runs.
+   */
+  public int getNumSortedRuns() {
+    return _numSortedRuns;
+  }
+}
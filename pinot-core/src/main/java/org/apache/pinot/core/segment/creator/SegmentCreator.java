@@ -22,7 +22,9 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.ConfigurationException;
+import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
@@ -53,6 +55,18 @@ public interface SegmentCreator extends Closeable {
    */
   void indexRow(GenericRow row);
 
+  /**
+   * Adds all the values of a column from an existing segment to the index. This is an alternative to
+   * {@link #indexRow(GenericRow)} which reads the column directly from the forward index and dictionary of the segment
+   * without materializing the rows.
+   *
+   * @param columnName The column to index
+   * @param sortedDocIds The document ids of the segment in the order of the new segment, or {@code null} to keep the
+   *                     original order
+   * @param segment The segment to read the column from
+   */
+  void indexColumn(String columnName, @Nullable int[] sortedDocIds, IndexSegment segment);
+
   /**
    * Sets the name of the segment.
    *
@@ -29,10 +29,13 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.pinot.common.utils.FileUtils;
+import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.data.partition.PartitionFunction;
+import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
 import org.apache.pinot.core.io.util.PinotDataBitSet;
@@ -44,14 +47,20 @@ import org.apache.pinot.core.segment.creator.SegmentCreator;
 import org.apache.pinot.core.segment.creator.SegmentIndexCreationInfo;
 import org.apache.pinot.core.segment.creator.TextIndexType;
 import org.apache.pinot.core.segment.creator.impl.fwd.MultiValueUnsortedForwardIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueFORRawIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueFixedByteRawIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueSortedForwardIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueUnsortedForwardIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.inv.JsonIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.OffHeapBitmapInvertedIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.OnHeapBitmapInvertedIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.text.LuceneTextIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.nullvalue.NullValueVectorCreator;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReaderContext;
+import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
 import org.apache.pinot.spi.config.table.FieldConfig;
 import org.apache.pinot.spi.data.DateTimeFieldSpec;
 import org.apache.pinot.spi.data.FieldSpec;
@@ -84,6 +93,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private Map<String, ForwardIndexCreator> _forwardIndexCreatorMap = new HashMap<>();
   private Map<String, InvertedIndexCreator> _invertedIndexCreatorMap = new HashMap<>();
   private Map<String, InvertedIndexCreator> _textIndexCreatorMap = new HashMap<>();
+  private Map<String, JsonIndexCreator> _jsonIndexCreatorMap = new HashMap<>();
   private Map<String, NullValueVectorCreator> _nullValueVectorCreatorMap = new HashMap<>();
   private String segmentName;
   private Schema schema;
@@ -125,6 +135,13 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       _textIndexColumns.add(columnName);
     }
 
+    Set<String> jsonIndexColumns = new HashSet<>();
+    for (String columnName : config.getJsonIndexCreationColumns()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create JSON index for column: %s because it is not in schema", columnName);
+      jsonIndexColumns.add(columnName);
+    }
+
     // Initialize creators for dictionary, forward index and inverted index
     for (FieldSpec fieldSpec : fieldSpecs) {
       // Ignore virtual columns
@@ -190,16 +207,22 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         Preconditions.checkState(!invertedIndexColumns.contains(columnName),
             "Cannot create inverted index for raw index column: %s", columnName);
 
-        ChunkCompressorFactory.CompressionType compressionType =
-            getColumnCompressionType(segmentCreationSpec, fieldSpec);
-
         // Initialize forward index creator
-        boolean deriveNumDocsPerChunk =
-            shouldDeriveNumDocsPerChunk(columnName, segmentCreationSpec.getColumnProperties());
-        int writerVersion = rawIndexWriterVersion(columnName, segmentCreationSpec.getColumnProperties());
-        _forwardIndexCreatorMap.put(columnName,
-            getRawIndexCreatorForColumn(_indexDir, compressionType, columnName, fieldSpec.getDataType(), totalDocs,
-                indexCreationInfo.getLengthOfLongestEntry(), deriveNumDocsPerChunk, writerVersion));
+        FieldConfig.RawIndexEncoding rawIndexEncoding =
+            rawIndexEncoding(columnName, segmentCreationSpec.getColumnProperties());
+        if (rawIndexEncoding == FieldConfig.RawIndexEncoding.FOR) {
+          _forwardIndexCreatorMap.put(columnName,
+              new SingleValueFORRawIndexCreator(_indexDir, columnName, totalDocs, fieldSpec.getDataType()));
+        } else {
+          ChunkCompressorFactory.CompressionType compressionType =
+              getColumnCompressionType(segmentCreationSpec, fieldSpec);
+          boolean deriveNumDocsPerChunk =
+              shouldDeriveNumDocsPerChunk(columnName, segmentCreationSpec.getColumnProperties());
+          int writerVersion = rawIndexWriterVersion(columnName, segmentCreationSpec.getColumnProperties());
+          _forwardIndexCreatorMap.put(columnName,
+              getRawIndexCreatorForColumn(_indexDir, compressionType, columnName, fieldSpec.getDataType(), totalDocs,
+                  indexCreationInfo.getLengthOfLongestEntry(), deriveNumDocsPerChunk, writerVersion));
+        }
       }
 
       if (_textIndexColumns.contains(columnName)) {
@@ -212,6 +235,15 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
             .put(columnName, new LuceneTextIndexCreator(columnName, _indexDir, true /* commitOnClose */));
       }
 
+      if (jsonIndexColumns.contains(columnName)) {
+        // Initialize JSON index creator
+        Preconditions.checkState(fieldSpec.isSingleValueField(),
+            "JSON index is currently only supported on single-value columns");
+        Preconditions.checkState(fieldSpec.getDataType() == DataType.STRING,
+            "JSON index is currently only supported on STRING type columns");
+        _jsonIndexCreatorMap.put(columnName, new JsonIndexCreator(_indexDir, columnName));
+      }
+
       _nullHandlingEnabled = config.isNullHandlingEnabled();
       if (_nullHandlingEnabled) {
         // Initialize Null value vector map
@@ -242,6 +274,22 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     return BaseChunkSVForwardIndexWriter.DEFAULT_VERSION;
   }
 
+  /**
+   * Returns the encoding of the raw forward index configured for the column, or {@code null} if the default chunk-based
+   * forward index should be created.
+   */
+  @Nullable
+  public static FieldConfig.RawIndexEncoding rawIndexEncoding(String columnName,
+      Map<String, Map<String, String>> columnProperties) {
+    if (columnProperties != null && columnProperties.get(columnName) != null) {
+      String encoding = columnProperties.get(columnName).get(FieldConfig.RAW_INDEX_ENCODING);
+      if (encoding != null) {
+        return FieldConfig.RawIndexEncoding.valueOf(encoding);
+      }
+    }
+    return null;
+  }
+
   /**
    * Helper method that returns compression type to use based on segment creation spec and field type.
    * <ul>
@@ -362,6 +410,10 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           // add the column value to lucene index
           textInvertedIndexCreator.addDoc(columnValueToIndex, docIdCounter);
         }
+        JsonIndexCreator jsonIndexCreator = _jsonIndexCreatorMap.get(columnName);
+        if (jsonIndexCreator != null) {
+          jsonIndexCreator.addDoc(columnValueToIndex, docIdCounter);
+        }
       } else {
         // MV column (always dictionary encoded)
         int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
@@ -382,6 +434,154 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     docIdCounter++;
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public void indexColumn(String columnName, @Nullable int[] sortedDocIds, IndexSegment segment) {
+    ForwardIndexCreator forwardIndexCreator = _forwardIndexCreatorMap.get(columnName);
+    Preconditions.checkState(forwardIndexCreator != null, "Failed to find forward index creator for column: %s",
+        columnName);
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+    InvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+    InvertedIndexCreator textIndexCreator = _textIndexCreatorMap.get(columnName);
+    JsonIndexCreator jsonIndexCreator = _jsonIndexCreatorMap.get(columnName);
+    NullValueVectorCreator nullValueVectorCreator = _nullValueVectorCreatorMap.get(columnName);
+
+    DataSource dataSource = segment.getDataSource(columnName);
+    ForwardIndexReader forwardIndex = dataSource.getForwardIndex();
+    Dictionary dictionary = dataSource.getDictionary();
+    NullValueVectorReader nullValueVector = dataSource.getNullValueVector();
+
+    try (ForwardIndexReaderContext readerContext = forwardIndex.createContext()) {
+      if (schema.getFieldSpecFor(columnName).isSingleValueField()) {
+        // Map the dictionary ids of the source dictionary to the dictionary ids of the new (sorted) dictionary once
+        // instead of looking up the value for each document
+        int[] dictIdMap = null;
+        if (dictionaryCreator != null && dictionary != null) {
+          int cardinality = dictionary.length();
+          dictIdMap = new int[cardinality];
+          for (int dictId = 0; dictId < cardinality; dictId++) {
+            dictIdMap[dictId] = dictionaryCreator.indexOfSV(dictionary.get(dictId));
+          }
+        }
+        for (int i = 0; i < totalDocs; i++) {
+          int docId = sortedDocIds != null ? sortedDocIds[i] : i;
+          int sourceDictId = dictionary != null ? forwardIndex.getDictId(docId, readerContext) : -1;
+          if (dictionaryCreator != null) {
+            int dictId = dictIdMap != null ? dictIdMap[sourceDictId]
+                : dictionaryCreator.indexOfSV(getValue(forwardIndex, readerContext, docId));
+            forwardIndexCreator.putDictId(dictId);
+            if (invertedIndexCreator != null) {
+              invertedIndexCreator.add(dictId);
+            }
+          } else {
+            putRawValue(forwardIndexCreator, forwardIndex, readerContext, dictionary, docId, sourceDictId);
+          }
+          if (textIndexCreator != null || jsonIndexCreator != null) {
+            String value = dictionary != null ? dictionary.getStringValue(sourceDictId)
+                : forwardIndex.getString(docId, readerContext);
+            if (textIndexCreator != null) {
+              textIndexCreator.addDoc(value, i);
+            }
+            if (jsonIndexCreator != null) {
+              jsonIndexCreator.addDoc(value, i);
+            }
+          }
+          if (nullValueVectorCreator != null && nullValueVector != null && nullValueVector.isNull(docId)) {
+            nullValueVectorCreator.setNull(i);
+          }
+        }
+      } else {
+        // MV column (always dictionary encoded)
+        Preconditions.checkState(dictionaryCreator != null && dictionary != null,
+            "Dictionary is required for multi-value column: %s", columnName);
+        int cardinality = dictionary.length();
+        int[] dictIdMap = new int[cardinality];
+        for (int dictId = 0; dictId < cardinality; dictId++) {
+          dictIdMap[dictId] = dictionaryCreator.indexOfSV(dictionary.get(dictId));
+        }
+        int[] dictIdBuffer = new int[dataSource.getDataSourceMetadata().getMaxNumValuesPerMVEntry()];
+        for (int i = 0; i < totalDocs; i++) {
+          int docId = sortedDocIds != null ? sortedDocIds[i] : i;
+          int numValues = forwardIndex.getDictIdMV(docId, dictIdBuffer, readerContext);
+          int[] dictIds = new int[numValues];
+          for (int j = 0; j < numValues; j++) {
+            dictIds[j] = dictIdMap[dictIdBuffer[j]];
+          }
+          forwardIndexCreator.putDictIdMV(dictIds);
+          if (invertedIndexCreator != null) {
+            invertedIndexCreator.add(dictIds, numValues);
+          }
+          if (nullValueVectorCreator != null && nullValueVector != null && nullValueVector.isNull(docId)) {
+            nullValueVectorCreator.setNull(i);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while closing the forward index reader context for column: "
+          + columnName, e);
+    }
+  }
+
+  /**
+   * Helper method to read the value of a raw (non-dictionary-encoded) SV column.
+   */
+  @SuppressWarnings("unchecked")
+  private static Object getValue(ForwardIndexReader forwardIndex, ForwardIndexReaderContext readerContext,
+      int docId) {
+    switch (forwardIndex.getValueType()) {
+      case INT:
+        return forwardIndex.getInt(docId, readerContext);
+      case LONG:
+        return forwardIndex.getLong(docId, readerContext);
+      case FLOAT:
+        return forwardIndex.getFloat(docId, readerContext);
+      case DOUBLE:
+        return forwardIndex.getDouble(docId, readerContext);
+      case STRING:
+        return forwardIndex.getString(docId, readerContext);
+      case BYTES:
+        return forwardIndex.getBytes(docId, readerContext);
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  /**
+   * Helper method to copy the value of an SV column into the raw index without boxing.
+   */
+  @SuppressWarnings("unchecked")
+  private static void putRawValue(ForwardIndexCreator forwardIndexCreator, ForwardIndexReader forwardIndex,
+      ForwardIndexReaderContext readerContext, @Nullable Dictionary dictionary, int docId, int dictId) {
+    switch (forwardIndexCreator.getValueType()) {
+      case INT:
+        forwardIndexCreator.putInt(
+            dictionary != null ? dictionary.getIntValue(dictId) : forwardIndex.getInt(docId, readerContext));
+        break;
+      case LONG:
+        forwardIndexCreator.putLong(
+            dictionary != null ? dictionary.getLongValue(dictId) : forwardIndex.getLong(docId, readerContext));
+        break;
+      case FLOAT:
+        forwardIndexCreator.putFloat(
+            dictionary != null ? dictionary.getFloatValue(dictId) : forwardIndex.getFloat(docId, readerContext));
+        break;
+      case DOUBLE:
+        forwardIndexCreator.putDouble(
+            dictionary != null ? dictionary.getDoubleValue(dictId) : forwardIndex.getDouble(docId, readerContext));
+        break;
+      case STRING:
+        forwardIndexCreator.putString(
+            dictionary != null ? dictionary.getStringValue(dictId) : forwardIndex.getString(docId, readerContext));
+        break;
+      case BYTES:
+        forwardIndexCreator.putBytes(
+            dictionary != null ? dictionary.getBytesValue(dictId) : forwardIndex.getBytes(docId, readerContext));
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
   @Override
   public void setSegmentName(String segmentName) {
     this.segmentName = segmentName;
@@ -396,6 +596,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     for (NullValueVectorCreator nullValueVectorCreator : _nullValueVectorCreatorMap.values()) {
       nullValueVectorCreator.seal();
     }
+    for (JsonIndexCreator jsonIndexCreator : _jsonIndexCreatorMap.values()) {
+      jsonIndexCreator.seal();
+    }
     writeMetadata();
   }
 
@@ -617,6 +820,6 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       throws IOException {
     FileUtils.close(Iterables
         .concat(_dictionaryCreatorMap.values(), _forwardIndexCreatorMap.values(), _invertedIndexCreatorMap.values(),
-            _nullValueVectorCreatorMap.values(), _textIndexCreatorMap.values()));
+            _nullValueVectorCreatorMap.values(), _textIndexCreatorMap.values(), _jsonIndexCreatorMap.values()));
   }
 }
@@ -30,11 +30,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.core.data.readers.PinotSegmentRecordReader;
 import org.apache.pinot.core.data.recordtransformer.CompositeTransformer;
 import org.apache.pinot.core.data.recordtransformer.RecordTransformer;
+import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
 import org.apache.pinot.core.segment.creator.ColumnIndexCreationInfo;
@@ -223,6 +225,51 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     handlePostCreation();
   }
 
+  /**
+   * Builds the segment column by column from an existing segment (e.g. the mutable segment of a consuming realtime
+   * segment) instead of replaying the records from the record reader. The forward index and dictionary of each column
+   * are read directly from the given segment, and the dictionary ids are remapped in bulk, which avoids materializing a
+   * record per document and looking up the dictionary for each value.
+   * <p>NOTE: This should only be used when the records do not need to be transformed or filtered (the data source
+   * should provide the stats of the given segment).
+   *
+   * @param indexSegment Segment to build from
+   * @param sortedDocIds Document ids of the given segment in the order of the new segment, or {@code null} to keep the
+   *                     original order
+   */
+  public void buildByColumn(IndexSegment indexSegment, @Nullable int[] sortedDocIds)
+      throws Exception {
+    // Count the number of documents and gather per-column statistics
+    LOGGER.debug("Start building StatsCollector!");
+    buildIndexCreationInfo();
+    LOGGER.info("Finished building StatsCollector!");
+    LOGGER.info("Collected stats for {} documents", totalDocs);
+
+    try {
+      // Initialize the index creation using the per-column statistics information
+      indexCreator.init(config, segmentIndexCreationInfo, indexCreationInfoMap, dataSchema, tempIndexDir);
+
+      // Build the index column by column
+      LOGGER.info("Start building IndexCreator by column!");
+      long indexStartTime = System.currentTimeMillis();
+      for (FieldSpec fieldSpec : dataSchema.getAllFieldSpecs()) {
+        // Ignore virtual columns
+        if (!fieldSpec.isVirtualColumn()) {
+          indexCreator.indexColumn(fieldSpec.getName(), sortedDocIds, indexSegment);
+        }
+      }
+      totalIndexTime = System.currentTimeMillis() - indexStartTime;
+    } catch (Exception e) {
+      indexCreator.close();
+      throw e;
+    } finally {
+      recordReader.close();
+    }
+    LOGGER.info("Finished records indexing by column in IndexCreator!");
+
+    handlePostCreation();
+  }
+
   private void handlePostCreation()
       throws Exception {
     ColumnStatistics timeColumnStatistics = segmentStats.getColumnProfileFor(config.getTimeColumnName());
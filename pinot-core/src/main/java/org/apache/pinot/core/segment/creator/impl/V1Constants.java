@@ -38,6 +38,8 @@ public class V1Constants {
     public static final String BITMAP_INVERTED_INDEX_FILE_EXTENSION = ".bitmap.inv";
     public static final String BITMAP_RANGE_INDEX_FILE_EXTENSION = ".bitmap.range";
     public static final String BLOOM_FILTER_FILE_EXTENSION = ".bloom";
+    public static final String FST_INDEX_FILE_EXTENSION = ".lucene.fst";
+    public static final String JSON_INDEX_FILE_EXTENSION = ".json.idx";
     public static final String NULLVALUE_VECTOR_FILE_EXTENSION = ".bitmap.nullvalue";
   }
 
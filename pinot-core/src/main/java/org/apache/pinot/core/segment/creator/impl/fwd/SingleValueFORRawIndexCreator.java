@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator.impl.fwd;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import org.apache.pinot.core.io.writer.impl.FORChunkSVForwardIndexWriter;
+import org.apache.pinot.core.segment.creator.ForwardIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Forward index creator for raw (non-dictionary-encoded) single-value column of INT/LONG data type with
+ * frame-of-reference or delta encoding.
+ */
+public class SingleValueFORRawIndexCreator implements ForwardIndexCreator {
+  private static final int NUM_DOCS_PER_CHUNK = 1024;
+
+  private final FORChunkSVForwardIndexWriter _indexWriter;
+  private final DataType _valueType;
+
+  /**
+   * Constructor for the class
+   *
+   * @param baseIndexDir Index directory
+   * @param column Name of column to index
+   * @param totalDocs Total number of documents to index
+   * @param valueType Type of the values
+   * @throws IOException
+   */
+  public SingleValueFORRawIndexCreator(File baseIndexDir, String column, int totalDocs, DataType valueType)
+      throws IOException {
+    Preconditions.checkArgument(valueType == DataType.INT || valueType == DataType.LONG,
+        "FOR encoding is only supported for INT/LONG columns, got: %s", valueType);
+    File file = new File(baseIndexDir, column + V1Constants.Indexes.RAW_SV_FORWARD_INDEX_FILE_EXTENSION);
+    _indexWriter = new FORChunkSVForwardIndexWriter(file, totalDocs, NUM_DOCS_PER_CHUNK, valueType.size());
+    _valueType = valueType;
+  }
+
+  @Override
+  public boolean isDictionaryEncoded() {
+    return false;
+  }
+
+  @Override
+  public boolean isSingleValue() {
+    return true;
+  }
+
+  @Override
+  public DataType getValueType() {
+    return _valueType;
+  }
+
+  @Override
+  public void putInt(int value) {
+    _indexWriter.putInt(value);
+  }
+
+  @Override
+  public void putLong(long value) {
+    _indexWriter.putLong(value);
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _indexWriter.close();
+  }
+}
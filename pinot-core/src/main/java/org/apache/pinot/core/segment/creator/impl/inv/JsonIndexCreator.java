@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator.impl.inv;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.core.io.util.VarLengthBytesValueReaderWriter;
+import org.apache.pinot.core.segment.creator.InvertedIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.core.util.JsonIndexUtils;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Creator for the JSON index on a STRING column storing JSON documents.
+ * <p>Each document is flattened into the keys of (JsonPath, value) pairs of its scalar leaves (see
+ * {@link JsonIndexUtils}), and a posting list is kept on heap for each key. On seal, the keys are sorted and written
+ * as a var-length string dictionary, followed by a bitmap inverted index on the key ids:
+ * <pre>
+ * |-------------------------------------------------------------------------|
+ * | Header: version (int), number of keys (int), max key length in bytes    |
+ * |         (int), dictionary length (long), inverted index length (long)   |
+ * |-------------------------------------------------------------------------|
+ * | Dictionary of the sorted keys (see {@link VarLengthBytesValueReaderWriter})
+ * |-------------------------------------------------------------------------|
+ * | Bitmap inverted index on the key ids (see {@link InvertedIndexCreator}) |
+ * |-------------------------------------------------------------------------|
+ * </pre>
+ */
+public class JsonIndexCreator implements InvertedIndexCreator {
+  public static final int VERSION = 1;
+  public static final int HEADER_LENGTH = 3 * Integer.BYTES + 2 * Long.BYTES;
+
+  private final File _jsonIndexFile;
+  private final Map<String, MutableRoaringBitmap> _postingLists = new HashMap<>();
+
+  public JsonIndexCreator(File indexDir, String columnName) {
+    _jsonIndexFile = new File(indexDir, columnName + V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION);
+  }
+
+  @Override
+  public void add(int dictId) {
+    throw new IllegalStateException("JSON index is not dictionary based");
+  }
+
+  @Override
+  public void add(int[] dictIds, int length) {
+    throw new IllegalStateException("JSON index is not dictionary based");
+  }
+
+  /**
+   * Adds the JSON document (as a string) for the given document id. Document ids should be added in ascending order.
+   */
+  @Override
+  public void addDoc(Object document, int docId) {
+    for (String key : JsonIndexUtils.getKeys((String) document)) {
+      _postingLists.computeIfAbsent(key, k -> new MutableRoaringBitmap()).add(docId);
+    }
+  }
+
+  @Override
+  public void seal()
+      throws IOException {
+    int numKeys = _postingLists.size();
+    String[] keys = _postingLists.keySet().toArray(new String[0]);
+    // NOTE: Sort the keys as Java strings, which is the order expected by the binary search in the StringDictionary
+    Arrays.sort(keys);
+    byte[][] keyBytes = new byte[numKeys][];
+    int maxKeyLength = 0;
+    long invertedIndexLength = (long) (numKeys + 1) * Integer.BYTES;
+    for (int i = 0; i < numKeys; i++) {
+      keyBytes[i] = StringUtil.encodeUtf8(keys[i]);
+      maxKeyLength = Math.max(maxKeyLength, keyBytes[i].length);
+      invertedIndexLength += _postingLists.get(keys[i]).serializedSizeInBytes();
+    }
+    long dictionaryLength = VarLengthBytesValueReaderWriter.getRequiredSize(keyBytes);
+    Preconditions.checkState(dictionaryLength <= Integer.MAX_VALUE && invertedIndexLength <= Integer.MAX_VALUE,
+        "JSON index file: %s exceeds 2GB limit", _jsonIndexFile);
+
+    try (DataOutputStream dataOutputStream = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(_jsonIndexFile)))) {
+      dataOutputStream.writeInt(VERSION);
+      dataOutputStream.writeInt(numKeys);
+      dataOutputStream.writeInt(maxKeyLength);
+      dataOutputStream.writeLong(dictionaryLength);
+      dataOutputStream.writeLong(invertedIndexLength);
+
+      // Write the dictionary
+      byte[] dictionaryBytes = new byte[(int) dictionaryLength];
+      try (PinotDataBuffer dictionaryBuffer = PinotDataBuffer
+          .allocateDirect(dictionaryLength, ByteOrder.BIG_ENDIAN, getClass().getSimpleName());
+          VarLengthBytesValueReaderWriter writer = new VarLengthBytesValueReaderWriter(dictionaryBuffer, keyBytes)) {
+        dictionaryBuffer.copyTo(0, dictionaryBytes);
+      }
+      dataOutputStream.write(dictionaryBytes);
+
+      // Write the offsets and the bitmaps of the inverted index
+      int bitmapOffset = (numKeys + 1) * Integer.BYTES;
+      dataOutputStream.writeInt(bitmapOffset);
+      for (String key : keys) {
+        bitmapOffset += _postingLists.get(key).serializedSizeInBytes();
+        dataOutputStream.writeInt(bitmapOffset);
+      }
+      for (String key : keys) {
+        _postingLists.get(key).serialize(dataOutputStream);
+      }
+    } catch (Exception e) {
+      FileUtils.deleteQuietly(_jsonIndexFile);
+      throw e;
+    }
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator.impl.inv;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.fst.Builder;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
+import org.apache.lucene.util.fst.Util;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+
+
+/**
+ * Creator for the FST index on a dictionary-encoded STRING column, which maps each dictionary value to its dictionary
+ * id with a Lucene finite state transducer.
+ * <p>The FST shares the common prefixes and suffixes of the values, and can be intersected with an automaton to find
+ * all the matching dictionary ids without scanning the whole dictionary (see
+ * {@link org.apache.pinot.core.segment.index.readers.FSTIndexReader}).
+ */
+public class LuceneFSTIndexCreator {
+  private final File _fstIndexFile;
+  private final String[] _dictionaryValues;
+
+  /**
+   * Constructor for the FST index creator.
+   *
+   * @param indexDir Index directory
+   * @param columnName Column name
+   * @param dictionaryValues Dictionary values, where the index of the value is the dictionary id
+   */
+  public LuceneFSTIndexCreator(File indexDir, String columnName, String[] dictionaryValues) {
+    _fstIndexFile = new File(indexDir, columnName + V1Constants.Indexes.FST_INDEX_FILE_EXTENSION);
+    _dictionaryValues = dictionaryValues;
+  }
+
+  /**
+   * Builds the FST and writes it into the index file.
+   */
+  public void seal()
+      throws IOException {
+    // NOTE: FST requires the inputs to be added in UTF-8 byte order, which can be different from the order of the
+    //       dictionary (sorted as Java strings) for the supplementary characters.
+    int numValues = _dictionaryValues.length;
+    BytesRef[] values = new BytesRef[numValues];
+    Integer[] dictIds = new Integer[numValues];
+    for (int i = 0; i < numValues; i++) {
+      values[i] = new BytesRef(_dictionaryValues[i]);
+      dictIds[i] = i;
+    }
+    Arrays.sort(dictIds, (dictId1, dictId2) -> values[dictId1].compareTo(values[dictId2]));
+
+    PositiveIntOutputs outputs = PositiveIntOutputs.getSingleton();
+    Builder<Long> builder = new Builder<>(FST.INPUT_TYPE.BYTE1, outputs);
+    IntsRefBuilder scratch = new IntsRefBuilder();
+    for (int dictId : dictIds) {
+      builder.add(Util.toIntsRef(values[dictId], scratch), (long) dictId);
+    }
+    FST<Long> fst = builder.finish();
+    if (fst == null) {
+      // No value added, create an empty index file
+      _fstIndexFile.createNewFile();
+    } else {
+      fst.save(_fstIndexFile.toPath());
+    }
+  }
+}
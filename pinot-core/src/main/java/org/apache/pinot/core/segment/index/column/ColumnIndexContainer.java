@@ -21,8 +21,10 @@ package org.apache.pinot.core.segment.index.column;
 import java.io.Closeable;
 import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.FSTIndexReader;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
 
 
@@ -51,6 +53,16 @@ public interface ColumnIndexContainer extends Closeable {
    */
   InvertedIndexReader<?> getTextIndex();
 
+  /**
+   * Returns the FST index for the column, or {@code null} if it does not exist.
+   */
+  FSTIndexReader getFSTIndex();
+
+  /**
+   * Returns the JSON index for the column, or {@code null} if it does not exist.
+   */
+  JsonIndexReader getJsonIndex();
+
   /**
    * Returns the dictionary for the column, or {@code null} if it does not exist.
    */
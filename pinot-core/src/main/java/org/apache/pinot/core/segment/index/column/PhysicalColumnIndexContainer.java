@@ -29,9 +29,11 @@ import org.apache.pinot.core.segment.index.readers.BitmapInvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.BytesDictionary;
 import org.apache.pinot.core.segment.index.readers.DoubleDictionary;
+import org.apache.pinot.core.segment.index.readers.FSTIndexReader;
 import org.apache.pinot.core.segment.index.readers.FloatDictionary;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.IntDictionary;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.LongDictionary;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
@@ -43,10 +45,12 @@ import org.apache.pinot.core.segment.index.readers.OnHeapStringDictionary;
 import org.apache.pinot.core.segment.index.readers.RangeIndexReader;
 import org.apache.pinot.core.segment.index.readers.SortedIndexReader;
 import org.apache.pinot.core.segment.index.readers.StringDictionary;
+import org.apache.pinot.core.segment.index.readers.forward.FORChunkSVForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.forward.FixedBitMVForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.forward.FixedBitSVForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.forward.FixedByteChunkSVForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.forward.VarByteChunkSVForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.json.ImmutableJsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.sorted.SortedIndexReaderImpl;
 import org.apache.pinot.core.segment.index.readers.text.LuceneTextIndexReader;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
@@ -64,6 +68,8 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
   private final InvertedIndexReader<?> _invertedIndex;
   private final InvertedIndexReader<?> _rangeIndex;
   private final InvertedIndexReader<?> _textIndex;
+  private final FSTIndexReader _fstIndex;
+  private final JsonIndexReader _jsonIndex;
   private final BaseImmutableDictionary _dictionary;
   private final BloomFilterReader _bloomFilterReader;
   private final NullValueVectorReaderImpl _nullValueVectorReader;
@@ -77,12 +83,16 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     boolean loadTextIndex = false;
     boolean loadOnHeapDictionary = false;
     boolean loadBloomFilter = false;
+    boolean loadFSTIndex = false;
+    boolean loadJsonIndex = false;
     if (indexLoadingConfig != null) {
       loadInvertedIndex = indexLoadingConfig.getInvertedIndexColumns().contains(columnName);
       loadRangeIndex = indexLoadingConfig.getRangeIndexColumns().contains(columnName);
       loadOnHeapDictionary = indexLoadingConfig.getOnHeapDictionaryColumns().contains(columnName);
       loadBloomFilter = indexLoadingConfig.getBloomFilterColumns().contains(columnName);
       loadTextIndex = indexLoadingConfig.getTextIndexColumns().contains(columnName);
+      loadFSTIndex = indexLoadingConfig.getFSTIndexColumns().contains(columnName);
+      loadJsonIndex = indexLoadingConfig.getJsonIndexColumns().contains(columnName);
     }
 
     if (segmentReader.hasIndexFor(columnName, ColumnIndexType.NULLVALUE_VECTOR)) {
@@ -101,6 +111,14 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
       _textIndex = null;
     }
 
+    // NOTE: JSON index is created during the segment generation. Segments generated before the JSON index is enabled
+    //       do not have it, and the queries on them fall back to scanning the documents.
+    if (loadJsonIndex && segmentReader.hasIndexFor(columnName, ColumnIndexType.JSON_INDEX)) {
+      _jsonIndex = new ImmutableJsonIndexReader(segmentReader.getIndexFor(columnName, ColumnIndexType.JSON_INDEX));
+    } else {
+      _jsonIndex = null;
+    }
+
     PinotDataBuffer fwdIndexBuffer = segmentReader.getIndexFor(columnName, ColumnIndexType.FORWARD_INDEX);
 
     if (metadata.hasDictionary()) {
@@ -114,6 +132,12 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
       // Dictionary-based index
       _dictionary = loadDictionary(segmentReader.getIndexFor(columnName, ColumnIndexType.DICTIONARY), metadata,
           loadOnHeapDictionary);
+      // FST index is only created on the dictionary-encoded STRING column
+      if (loadFSTIndex && metadata.getDataType() == FieldSpec.DataType.STRING) {
+        _fstIndex = new FSTIndexReader(segmentReader.getIndexFor(columnName, ColumnIndexType.FST_INDEX));
+      } else {
+        _fstIndex = null;
+      }
       if (metadata.isSingleValue()) {
         // Single-value
         if (metadata.isSorted()) {
@@ -147,8 +171,10 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
       }
     } else {
       // Raw index
-      _forwardIndex = loadRawForwardIndex(fwdIndexBuffer, metadata.getDataType());
+      _forwardIndex = loadRawForwardIndex(fwdIndexBuffer, metadata.getDataType(),
+          indexLoadingConfig != null && indexLoadingConfig.isChunkCacheEnabled());
       _dictionary = null;
+      _fstIndex = null;
       _bloomFilterReader = null;
       _rangeIndex = null;
       _invertedIndex = null;
@@ -175,6 +201,16 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     return _textIndex;
   }
 
+  @Override
+  public FSTIndexReader getFSTIndex() {
+    return _fstIndex;
+  }
+
+  @Override
+  public JsonIndexReader getJsonIndex() {
+    return _jsonIndex;
+  }
+
   @Override
   public BaseImmutableDictionary getDictionary() {
     return _dictionary;
@@ -233,16 +269,20 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
   }
 
   private static ForwardIndexReader<?> loadRawForwardIndex(PinotDataBuffer forwardIndexBuffer,
-      FieldSpec.DataType dataType) {
+      FieldSpec.DataType dataType, boolean chunkCacheEnabled) {
     switch (dataType) {
       case INT:
       case LONG:
+        if (FORChunkSVForwardIndexReader.isFOREncoded(forwardIndexBuffer)) {
+          return new FORChunkSVForwardIndexReader(forwardIndexBuffer, dataType);
+        }
+        return new FixedByteChunkSVForwardIndexReader(forwardIndexBuffer, dataType, chunkCacheEnabled);
       case FLOAT:
       case DOUBLE:
-        return new FixedByteChunkSVForwardIndexReader(forwardIndexBuffer, dataType);
+        return new FixedByteChunkSVForwardIndexReader(forwardIndexBuffer, dataType, chunkCacheEnabled);
       case STRING:
       case BYTES:
-        return new VarByteChunkSVForwardIndexReader(forwardIndexBuffer, dataType);
+        return new VarByteChunkSVForwardIndexReader(forwardIndexBuffer, dataType, chunkCacheEnabled);
       default:
         throw new IllegalStateException("Illegal data type for raw forward index: " + dataType);
     }
@@ -264,5 +304,11 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     if (_textIndex != null) {
       _textIndex.close();
     }
+    if (_fstIndex != null) {
+      _fstIndex.close();
+    }
+    if (_jsonIndex != null) {
+      _jsonIndex.close();
+    }
   }
 }
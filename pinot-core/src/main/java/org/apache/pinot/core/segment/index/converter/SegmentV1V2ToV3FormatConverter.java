@@ -156,6 +156,7 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
         // inverted indexes are intentionally stored at the end of the single file
         for (String column : allColumns) {
           copyExistingInvertedIndex(v2DataReader, v3DataWriter, column);
+          copyExistingJsonIndex(v2DataReader, v3DataWriter, column);
         }
         v3DataWriter.saveAndClose();
       }
@@ -196,6 +197,13 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
     }
   }
 
+  private void copyExistingJsonIndex(SegmentDirectory.Reader reader, SegmentDirectory.Writer writer, String column)
+      throws IOException {
+    if (reader.hasIndexFor(column, ColumnIndexType.JSON_INDEX)) {
+      readCopyBuffers(reader, writer, column, ColumnIndexType.JSON_INDEX);
+    }
+  }
+
   private void readCopyBuffers(SegmentDirectory.Reader reader, SegmentDirectory.Writer writer, String column,
       ColumnIndexType indexType)
       throws IOException {
@@ -21,10 +21,13 @@ package org.apache.pinot.core.segment.index.datasource;
 import javax.annotation.Nullable;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.common.DataSourceMetadata;
+import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeSortedRunIndex;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.FSTIndexReader;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
 
 
@@ -98,4 +101,24 @@ public abstract class BaseDataSource implements DataSource {
   public NullValueVectorReader getNullValueVector() {
     return _nullValueVector;
   }
+
+  @Nullable
+  @Override
+  public RealtimeSortedRunIndex getSortedRunIndex() {
+    // NOTE: Sorted run index is only available for the mutable segment
+    return null;
+  }
+
+  @Nullable
+  @Override
+  public FSTIndexReader getFSTIndex() {
+    // NOTE: FST index is only available for the immutable segment
+    return null;
+  }
+
+  @Nullable
+  @Override
+  public JsonIndexReader getJsonIndex() {
+    return null;
+  }
 }
@@ -24,6 +24,8 @@ import org.apache.pinot.core.common.DataSourceMetadata;
 import org.apache.pinot.core.data.partition.PartitionFunction;
 import org.apache.pinot.core.segment.index.column.ColumnIndexContainer;
 import org.apache.pinot.core.segment.index.metadata.ColumnMetadata;
+import org.apache.pinot.core.segment.index.readers.FSTIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.spi.data.FieldSpec;
 
 
@@ -31,12 +33,28 @@ import org.apache.pinot.spi.data.FieldSpec;
  * The {@code ImmutableDataSource} class is the data source for a column in the immutable segment.
  */
 public class ImmutableDataSource extends BaseDataSource {
+  private final FSTIndexReader _fstIndex;
+  private final JsonIndexReader _jsonIndex;
 
   public ImmutableDataSource(ColumnMetadata columnMetadata, ColumnIndexContainer columnIndexContainer) {
     super(new ImmutableDataSourceMetadata(columnMetadata), columnIndexContainer.getForwardIndex(),
         columnIndexContainer.getDictionary(), columnIndexContainer.getInvertedIndex(),
         columnIndexContainer.getRangeIndex(), columnIndexContainer.getTextIndex(),
         columnIndexContainer.getBloomFilter(), columnIndexContainer.getNullValueVector());
+    _fstIndex = columnIndexContainer.getFSTIndex();
+    _jsonIndex = columnIndexContainer.getJsonIndex();
+  }
+
+  @Nullable
+  @Override
+  public FSTIndexReader getFSTIndex() {
+    return _fstIndex;
+  }
+
+  @Nullable
+  @Override
+  public JsonIndexReader getJsonIndex() {
+    return _jsonIndex;
   }
 
   private static class ImmutableDataSourceMetadata implements DataSourceMetadata {
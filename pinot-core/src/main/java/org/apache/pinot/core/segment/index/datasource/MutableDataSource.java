@@ -23,10 +23,12 @@ import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.pinot.core.common.DataSourceMetadata;
 import org.apache.pinot.core.data.partition.PartitionFunction;
+import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeSortedRunIndex;
 import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
 import org.apache.pinot.spi.data.FieldSpec;
 
@@ -35,16 +37,33 @@ import org.apache.pinot.spi.data.FieldSpec;
  * The {@code MutableDataSource} class is the data source for a column in the mutable segment.
  */
 public class MutableDataSource extends BaseDataSource {
+  private final RealtimeSortedRunIndex _sortedRunIndex;
+  private final JsonIndexReader _jsonIndex;
 
   public MutableDataSource(FieldSpec fieldSpec, int numDocs, int numValues, int maxNumValuesPerMVEntry,
       @Nullable PartitionFunction partitionFunction, int partitionId, @Nullable Comparable minValue,
       @Nullable Comparable maxValue, ForwardIndexReader forwardIndex, @Nullable Dictionary dictionary,
       @Nullable InvertedIndexReader invertedIndex, @Nullable InvertedIndexReader rangeIndex,
       @Nullable InvertedIndexReader textIndex, @Nullable BloomFilterReader bloomFilter,
-      @Nullable NullValueVectorReader nullValueVector) {
+      @Nullable NullValueVectorReader nullValueVector, @Nullable RealtimeSortedRunIndex sortedRunIndex,
+      @Nullable JsonIndexReader jsonIndex) {
     super(new MutableDataSourceMetadata(fieldSpec, numDocs, numValues, maxNumValuesPerMVEntry, partitionFunction,
             partitionId, minValue, maxValue), forwardIndex, dictionary, invertedIndex, rangeIndex, textIndex, bloomFilter,
         nullValueVector);
+    _sortedRunIndex = sortedRunIndex;
+    _jsonIndex = jsonIndex;
+  }
+
+  @Nullable
+  @Override
+  public RealtimeSortedRunIndex getSortedRunIndex() {
+    return _sortedRunIndex;
+  }
+
+  @Nullable
+  @Override
+  public JsonIndexReader getJsonIndex() {
+    return _jsonIndex;
   }
 
   private static class MutableDataSourceMetadata implements DataSourceMetadata {
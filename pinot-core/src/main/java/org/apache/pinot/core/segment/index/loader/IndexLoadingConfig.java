@@ -47,6 +47,8 @@ public class IndexLoadingConfig {
   private List<String> _sortedColumns = Collections.emptyList();
   private Set<String> _invertedIndexColumns = new HashSet<>();
   private Set<String> _textIndexColumns = new HashSet<>();
+  private Set<String> _fstIndexColumns = new HashSet<>();
+  private Set<String> _jsonIndexColumns = new HashSet<>();
   private Set<String> _rangeIndexColumns = new HashSet<>();
   private Set<String> _noDictionaryColumns = new HashSet<>(); // TODO: replace this by _noDictionaryConfig.
   private Map<String, String> _noDictionaryConfig = new HashMap<>();
@@ -55,6 +57,7 @@ public class IndexLoadingConfig {
   private Set<String> _bloomFilterColumns = new HashSet<>();
   private List<StarTreeIndexConfig> _starTreeIndexConfigs;
   private boolean _enableDefaultStarTree;
+  private boolean _chunkCacheEnabled;
 
   private SegmentVersion _segmentVersion;
   private ColumnMinMaxValueGeneratorMode _columnMinMaxValueGeneratorMode = ColumnMinMaxValueGeneratorMode.DEFAULT_MODE;
@@ -134,6 +137,8 @@ public class IndexLoadingConfig {
       _enableDefaultStarTree = indexingConfig.isEnableDefaultStarTree();
     }
 
+    _chunkCacheEnabled = indexingConfig.isChunkCacheEnabled();
+
     String tableSegmentVersion = indexingConfig.getSegmentFormatVersion();
     if (tableSegmentVersion != null) {
       _segmentVersion = SegmentVersion.valueOf(tableSegmentVersion.toLowerCase());
@@ -161,6 +166,10 @@ public class IndexLoadingConfig {
         String column = fieldConfig.getName();
         if (fieldConfig.getIndexType() == FieldConfig.IndexType.TEXT) {
           _textIndexColumns.add(column);
+        } else if (fieldConfig.getIndexType() == FieldConfig.IndexType.FST) {
+          _fstIndexColumns.add(column);
+        } else if (fieldConfig.getIndexType() == FieldConfig.IndexType.JSON) {
+          _jsonIndexColumns.add(column);
         }
       }
     }
@@ -237,6 +246,22 @@ public class IndexLoadingConfig {
     return _textIndexColumns;
   }
 
+  /**
+   * Returns the columns with FST index (specified with {@link FieldConfig.IndexType#FST} in the field config), which is
+   * used to accelerate the REGEXP_LIKE predicates on the dictionary-encoded STRING columns.
+   */
+  public Set<String> getFSTIndexColumns() {
+    return _fstIndexColumns;
+  }
+
+  /**
+   * Returns the columns with JSON index (specified with {@link FieldConfig.IndexType#JSON} in the field config), which
+   * is used to accelerate the JSON_MATCH predicates and the json_extract_scalar filters on the STRING columns.
+   */
+  public Set<String> getJsonIndexColumns() {
+    return _jsonIndexColumns;
+  }
+
   /**
    * For tests only.
    */
@@ -264,6 +289,16 @@ public class IndexLoadingConfig {
     _textIndexColumns = textIndexColumns;
   }
 
+  @VisibleForTesting
+  public void setFSTIndexColumns(Set<String> fstIndexColumns) {
+    _fstIndexColumns = fstIndexColumns;
+  }
+
+  @VisibleForTesting
+  public void setJsonIndexColumns(Set<String> jsonIndexColumns) {
+    _jsonIndexColumns = jsonIndexColumns;
+  }
+
   @VisibleForTesting
   public void setBloomFilterColumns(Set<String> bloomFilterColumns) {
     _bloomFilterColumns = bloomFilterColumns;
@@ -303,6 +338,21 @@ public class IndexLoadingConfig {
     return _enableDefaultStarTree;
   }
 
+  /**
+   * Returns whether the raw forward indexes should share the decompressed chunks across the queries via the
+   * {@link org.apache.pinot.core.segment.index.readers.forward.ChunkCache}.
+   */
+  public boolean isChunkCacheEnabled() {
+    return _chunkCacheEnabled;
+  }
+
+  /**
+   * For tests only.
+   */
+  public void setChunkCacheEnabled(boolean chunkCacheEnabled) {
+    _chunkCacheEnabled = chunkCacheEnabled;
+  }
+
   @Nullable
   public SegmentVersion getSegmentVersion() {
     return _segmentVersion;
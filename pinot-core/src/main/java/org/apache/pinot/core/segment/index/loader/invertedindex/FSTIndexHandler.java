@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.loader.invertedindex;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.inv.LuceneFSTIndexCreator;
+import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.core.segment.index.loader.LoaderUtils;
+import org.apache.pinot.core.segment.index.metadata.ColumnMetadata;
+import org.apache.pinot.core.segment.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.core.segment.index.readers.StringDictionary;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.core.segment.store.ColumnIndexType;
+import org.apache.pinot.core.segment.store.SegmentDirectory;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Handler to create the FST index on segment load for the dictionary-encoded STRING columns.
+ */
+public class FSTIndexHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FSTIndexHandler.class);
+
+  private final File _indexDir;
+  private final SegmentDirectory.Writer _segmentWriter;
+  private final String _segmentName;
+  private final SegmentVersion _segmentVersion;
+  private final Set<ColumnMetadata> _fstIndexColumns = new HashSet<>();
+
+  public FSTIndexHandler(File indexDir, SegmentMetadataImpl segmentMetadata, IndexLoadingConfig indexLoadingConfig,
+      SegmentDirectory.Writer segmentWriter) {
+    _indexDir = indexDir;
+    _segmentWriter = segmentWriter;
+    _segmentName = segmentMetadata.getName();
+    _segmentVersion = SegmentVersion.valueOf(segmentMetadata.getVersion());
+
+    // Only create FST index on dictionary-encoded STRING columns
+    for (String column : indexLoadingConfig.getFSTIndexColumns()) {
+      ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+      if (columnMetadata != null && columnMetadata.hasDictionary()
+          && columnMetadata.getDataType() == DataType.STRING) {
+        _fstIndexColumns.add(columnMetadata);
+      }
+    }
+  }
+
+  public void createFSTIndices()
+      throws IOException {
+    for (ColumnMetadata columnMetadata : _fstIndexColumns) {
+      createFSTIndexForColumn(columnMetadata);
+    }
+  }
+
+  private void createFSTIndexForColumn(ColumnMetadata columnMetadata)
+      throws IOException {
+    String column = columnMetadata.getColumnName();
+    File inProgress = new File(_indexDir, column + ".fst.inprogress");
+    File fstIndexFile = new File(_indexDir, column + V1Constants.Indexes.FST_INDEX_FILE_EXTENSION);
+
+    if (!inProgress.exists()) {
+      // Marker file does not exist, which means last run ended normally.
+
+      if (_segmentWriter.hasIndexFor(column, ColumnIndexType.FST_INDEX)) {
+        // Skip creating FST index if already exists.
+
+        LOGGER.info("Found FST index for segment: {}, column: {}", _segmentName, column);
+        return;
+      }
+
+      // Create a marker file.
+      FileUtils.touch(inProgress);
+    } else {
+      // Marker file exists, which means last run gets interrupted.
+      // Remove FST index if exists.
+      // For v1 and v2, it's the actual FST index. For v3, it's the temporary FST index.
+      FileUtils.deleteQuietly(fstIndexFile);
+    }
+
+    // Create new FST index for the column.
+    LOGGER.info("Creating new FST index for segment: {}, column: {}", _segmentName, column);
+    PinotDataBuffer dictionaryBuffer = _segmentWriter.getIndexFor(column, ColumnIndexType.DICTIONARY);
+    try (StringDictionary dictionary = new StringDictionary(dictionaryBuffer, columnMetadata.getCardinality(),
+        columnMetadata.getColumnMaxLength(), (byte) columnMetadata.getPaddingCharacter())) {
+      int cardinality = dictionary.length();
+      String[] values = new String[cardinality];
+      for (int dictId = 0; dictId < cardinality; dictId++) {
+        values[dictId] = dictionary.getStringValue(dictId);
+      }
+      new LuceneFSTIndexCreator(_indexDir, column, values).seal();
+    }
+
+    // For v3, write the generated FST index file into the single file and remove it.
+    if (_segmentVersion == SegmentVersion.v3) {
+      LoaderUtils.writeIndexToV3Format(_segmentWriter, column, fstIndexFile, ColumnIndexType.FST_INDEX);
+    }
+
+    // Delete the marker file.
+    FileUtils.deleteQuietly(inProgress);
+
+    LOGGER.info("Created FST index for segment: {}, column: {}", _segmentName, column);
+  }
+}
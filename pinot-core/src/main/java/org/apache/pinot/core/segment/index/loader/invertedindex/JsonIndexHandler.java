@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.loader.invertedindex;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.inv.JsonIndexCreator;
+import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.core.segment.index.loader.LoaderUtils;
+import org.apache.pinot.core.segment.index.metadata.ColumnMetadata;
+import org.apache.pinot.core.segment.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReaderContext;
+import org.apache.pinot.core.segment.index.readers.StringDictionary;
+import org.apache.pinot.core.segment.index.readers.forward.FixedBitSVForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.forward.VarByteChunkSVForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.sorted.SortedIndexReaderImpl;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.core.segment.store.ColumnIndexType;
+import org.apache.pinot.core.segment.store.SegmentDirectory;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Handler to create the JSON index on segment load for the single-value STRING columns (e.g. the JSON index is enabled
+ * on an existing column).
+ */
+public class JsonIndexHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(JsonIndexHandler.class);
+
+  private final File _indexDir;
+  private final SegmentDirectory.Writer _segmentWriter;
+  private final String _segmentName;
+  private final SegmentVersion _segmentVersion;
+  private final Set<ColumnMetadata> _jsonIndexColumns = new HashSet<>();
+
+  public JsonIndexHandler(File indexDir, SegmentMetadataImpl segmentMetadata, IndexLoadingConfig indexLoadingConfig,
+      SegmentDirectory.Writer segmentWriter) {
+    _indexDir = indexDir;
+    _segmentWriter = segmentWriter;
+    _segmentName = segmentMetadata.getName();
+    _segmentVersion = SegmentVersion.valueOf(segmentMetadata.getVersion());
+
+    // Only create JSON index on single-value STRING columns
+    for (String column : indexLoadingConfig.getJsonIndexColumns()) {
+      ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+      if (columnMetadata != null && columnMetadata.isSingleValue()
+          && columnMetadata.getDataType() == DataType.STRING) {
+        _jsonIndexColumns.add(columnMetadata);
+      }
+    }
+  }
+
+  public void createJsonIndices()
+      throws IOException {
+    for (ColumnMetadata columnMetadata : _jsonIndexColumns) {
+      createJsonIndexForColumn(columnMetadata);
+    }
+  }
+
+  private void createJsonIndexForColumn(ColumnMetadata columnMetadata)
+      throws IOException {
+    String column = columnMetadata.getColumnName();
+    File inProgress = new File(_indexDir, column + ".json.idx.inprogress");
+    File jsonIndexFile = new File(_indexDir, column + V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION);
+
+    if (!inProgress.exists()) {
+      // Marker file does not exist, which means last run ended normally.
+
+      if (_segmentWriter.hasIndexFor(column, ColumnIndexType.JSON_INDEX)) {
+        // Skip creating JSON index if already exists.
+
+        LOGGER.info("Found JSON index for segment: {}, column: {}", _segmentName, column);
+        return;
+      }
+
+      // Create a marker file.
+      FileUtils.touch(inProgress);
+    } else {
+      // Marker file exists, which means last run gets interrupted.
+      // Remove JSON index if exists.
+      // For v1 and v2, it's the actual JSON index. For v3, it's the temporary JSON index.
+      FileUtils.deleteQuietly(jsonIndexFile);
+    }
+
+    // Create new JSON index for the column.
+    LOGGER.info("Creating new JSON index for segment: {}, column: {}", _segmentName, column);
+    int numDocs = columnMetadata.getTotalDocs();
+    JsonIndexCreator jsonIndexCreator = new JsonIndexCreator(_indexDir, column);
+    try (ForwardIndexReader forwardIndexReader = getForwardIndexReader(columnMetadata);
+        ForwardIndexReaderContext readerContext = forwardIndexReader.createContext()) {
+      if (columnMetadata.hasDictionary()) {
+        // Read the dictionary ids from the forward index, and look up the values from the dictionary
+        PinotDataBuffer dictionaryBuffer = _segmentWriter.getIndexFor(column, ColumnIndexType.DICTIONARY);
+        try (StringDictionary dictionary = new StringDictionary(dictionaryBuffer, columnMetadata.getCardinality(),
+            columnMetadata.getColumnMaxLength(), (byte) columnMetadata.getPaddingCharacter())) {
+          for (int docId = 0; docId < numDocs; docId++) {
+            jsonIndexCreator.addDoc(dictionary.getStringValue(forwardIndexReader.getDictId(docId, readerContext)),
+                docId);
+          }
+        }
+      } else {
+        // Read the values from the raw forward index
+        for (int docId = 0; docId < numDocs; docId++) {
+          jsonIndexCreator.addDoc(forwardIndexReader.getString(docId, readerContext), docId);
+        }
+      }
+      jsonIndexCreator.seal();
+    }
+
+    // For v3, write the generated JSON index file into the single file and remove it.
+    if (_segmentVersion == SegmentVersion.v3) {
+      LoaderUtils.writeIndexToV3Format(_segmentWriter, column, jsonIndexFile, ColumnIndexType.JSON_INDEX);
+    }
+
+    // Delete the marker file.
+    FileUtils.deleteQuietly(inProgress);
+
+    LOGGER.info("Created JSON index for segment: {}, column: {}", _segmentName, column);
+  }
+
+  private ForwardIndexReader<?> getForwardIndexReader(ColumnMetadata columnMetadata)
+      throws IOException {
+    PinotDataBuffer buffer = _segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.FORWARD_INDEX);
+    if (!columnMetadata.hasDictionary()) {
+      return new VarByteChunkSVForwardIndexReader(buffer, DataType.STRING);
+    } else if (columnMetadata.isSorted()) {
+      return new SortedIndexReaderImpl(buffer, columnMetadata.getCardinality());
+    } else {
+      return new FixedBitSVForwardIndexReader(buffer, columnMetadata.getTotalDocs(),
+          columnMetadata.getBitsPerElement());
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.ByteRunAutomaton;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+
+
+/**
+ * Reader for the FST index created by {@link org.apache.pinot.core.segment.creator.impl.inv.LuceneFSTIndexCreator}.
+ * <p>The matching dictionary ids for an automaton are found by intersecting the automaton with the FST: the FST is
+ * traversed in depth-first order, and the branches rejected by the automaton are pruned, so that only the values
+ * sharing a matching prefix are visited.
+ */
+public class FSTIndexReader implements Closeable {
+  private final FST<Long> _fst;
+
+  public FSTIndexReader(PinotDataBuffer dataBuffer)
+      throws IOException {
+    int size = (int) dataBuffer.size();
+    if (size == 0) {
+      _fst = null;
+    } else {
+      // NOTE: FST is loaded on heap, which is much smaller than the dictionary because of the prefix/suffix sharing
+      byte[] bytes = new byte[size];
+      dataBuffer.copyTo(0, bytes);
+      _fst = new FST<>(new ByteArrayDataInput(bytes), PositiveIntOutputs.getSingleton());
+    }
+  }
+
+  /**
+   * Returns the sorted dictionary ids of the values accepted by the given automaton.
+   */
+  public int[] getMatchingDictIds(Automaton automaton)
+      throws IOException {
+    if (_fst == null) {
+      return new int[0];
+    }
+    ByteRunAutomaton runAutomaton = new ByteRunAutomaton(automaton);
+    FST.BytesReader fstReader = _fst.getBytesReader();
+    IntList matchingDictIds = new IntArrayList();
+
+    FST.Arc<Long> rootArc = _fst.getFirstArc(new FST.Arc<>());
+    if (rootArc.isFinal() && runAutomaton.isAccept(0)) {
+      // Empty string
+      matchingDictIds.add(rootArc.nextFinalOutput.intValue());
+    }
+    if (FST.targetHasArcs(rootArc)) {
+      Deque<Path> stack = new ArrayDeque<>();
+      stack.push(new Path(_fst.readFirstTargetArc(rootArc, new FST.Arc<>(), fstReader), 0, 0L));
+      while (!stack.isEmpty()) {
+        Path path = stack.peek();
+        FST.Arc<Long> arc = path._arc;
+        Path nextPath = null;
+        // Skip the END_LABEL arc because the final state is already handled with the previous arc
+        if (arc.label != FST.END_LABEL) {
+          int state = runAutomaton.step(path._state, arc.label);
+          if (state != -1) {
+            long output = path._output + arc.output;
+            if (arc.isFinal() && runAutomaton.isAccept(state)) {
+              matchingDictIds.add((int) (output + arc.nextFinalOutput));
+            }
+            if (FST.targetHasArcs(arc)) {
+              nextPath = new Path(_fst.readFirstTargetArc(arc, new FST.Arc<>(), fstReader), state, output);
+            }
+          }
+        }
+        // Move to the next sibling arc before descending
+        if (arc.isLast()) {
+          stack.pop();
+        } else {
+          _fst.readNextArc(arc, fstReader);
+        }
+        if (nextPath != null) {
+          stack.push(nextPath);
+        }
+      }
+    }
+
+    int[] dictIds = matchingDictIds.toIntArray();
+    Arrays.sort(dictIds);
+    return dictIds;
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+
+  /**
+   * Current arc of the traversal, with the automaton state and the accumulated output before the arc.
+   */
+  private static class Path {
+    final FST.Arc<Long> _arc;
+    final int _state;
+    final long _output;
+
+    Path(FST.Arc<Long> arc, int state, long output) {
+      _arc = arc;
+      _state = state;
+      _output = output;
+    }
+  }
+}
@@ -49,8 +49,21 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
   protected final PinotDataBuffer _dataHeader;
   protected final int _headerEntryChunkOffsetSize;
   protected final PinotDataBuffer _rawData;
+  protected final boolean _chunkCacheEnabled;
 
   public BaseChunkSVForwardIndexReader(PinotDataBuffer dataBuffer, DataType valueType) {
+    this(dataBuffer, valueType, false);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param dataBuffer Data buffer of the forward index
+   * @param valueType Data type of the values
+   * @param chunkCacheEnabled Whether to share the decompressed chunks across the queries via the {@link ChunkCache}
+   *                          (only applies when the chunk cache is enabled on the server)
+   */
+  public BaseChunkSVForwardIndexReader(PinotDataBuffer dataBuffer, DataType valueType, boolean chunkCacheEnabled) {
     _dataBuffer = dataBuffer;
     _valueType = valueType;
 
@@ -96,13 +109,19 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
 
     // Useful for uncompressed data.
     _rawData = _dataBuffer.view(rawDataStart, _dataBuffer.size());
+
+    // Only compressed chunks need to be cached
+    _chunkCacheEnabled = chunkCacheEnabled && _isCompressed;
   }
 
   /**
    * Helper method to return the chunk buffer that contains the value at the given document id.
    * <ul>
    *   <li> If the chunk already exists in the reader context, returns the same. </li>
-   *   <li> Otherwise, loads the chunk for the row, and sets it in the reader context. </li>
+   *   <li> If the chunk is cached in the {@link ChunkCache}, returns the cached chunk, and sets it in the reader
+   *   context. </li>
+   *   <li> Otherwise, loads the chunk for the row, caches it if the chunk cache is enabled, and sets it in the reader
+   *   context. </li>
    * </ul>
    * @param docId Document id
    * @param context Reader context
@@ -114,6 +133,15 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
       return context.getChunkBuffer();
     }
 
+    ChunkCache chunkCache = _chunkCacheEnabled ? ChunkCache.getInstance() : null;
+    if (chunkCache != null) {
+      ChunkCache.CachedChunk cachedChunk = chunkCache.get(this, chunkId);
+      if (cachedChunk != null) {
+        context.setCachedChunk(chunkId, cachedChunk);
+        return context.getChunkBuffer();
+      }
+    }
+
     int chunkSize;
     long chunkPosition = getChunkPosition(chunkId);
 
@@ -125,7 +153,7 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
       chunkSize = (int) (nextChunkOffset - chunkPosition);
     }
 
-    ByteBuffer decompressedBuffer = context.getChunkBuffer();
+    ByteBuffer decompressedBuffer = context.getDecompressionBuffer();
     decompressedBuffer.clear();
 
     try {
@@ -134,7 +162,10 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
       LOGGER.error("Exception caught while decompressing data chunk", e);
       throw new RuntimeException(e);
     }
-    context.setChunkId(chunkId);
+    if (chunkCache != null) {
+      chunkCache.put(this, chunkId, decompressedBuffer);
+    }
+    context.setChunk(chunkId, decompressedBuffer);
     return decompressedBuffer;
   }
 
@@ -170,6 +201,12 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
   public void close() {
     // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
     // caller is responsible of closing the PinotDataBuffer.
+    if (_chunkCacheEnabled) {
+      ChunkCache chunkCache = ChunkCache.getInstance();
+      if (chunkCache != null) {
+        chunkCache.invalidate(this);
+      }
+    }
   }
 
   /**
@@ -178,24 +215,38 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
    * <ul>
    *   <li>
    *     Chunk Buffer from the previous read. Useful if the subsequent read is from the same buffer, as it avoids extra
-   *     chunk decompression.
+   *     chunk decompression. The chunk buffer is either the decompression buffer owned by the context, or a view of the
+   *     chunk cached in the {@link ChunkCache}.
    *   </li>
    *   <li>Id for the chunk</li>
    * </ul>
    */
   public static class ChunkReaderContext implements ForwardIndexReaderContext {
-    private final ByteBuffer _chunkBuffer;
+    private final ByteBuffer _decompressionBuffer;
+    private ByteBuffer _chunkBuffer;
+    private ChunkCache.CachedChunk _cachedChunk;
     private int _chunkId;
 
     public ChunkReaderContext(int maxChunkSize) {
-      _chunkBuffer = ByteBuffer.allocateDirect(maxChunkSize);
+      _decompressionBuffer = ByteBuffer.allocateDirect(maxChunkSize);
+      _chunkBuffer = _decompressionBuffer;
       _chunkId = -1;
     }
 
+    /**
+     * Returns the buffer of the current chunk.
+     */
     public ByteBuffer getChunkBuffer() {
       return _chunkBuffer;
     }
 
+    /**
+     * Returns the buffer owned by the context to decompress the chunks into.
+     */
+    public ByteBuffer getDecompressionBuffer() {
+      return _decompressionBuffer;
+    }
+
     public int getChunkId() {
       return _chunkId;
     }
@@ -204,11 +255,41 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
       _chunkId = chunkId;
     }
 
+    /**
+     * Sets the current chunk id and the buffer of the chunk.
+     */
+    public void setChunk(int chunkId, ByteBuffer chunkBuffer) {
+      releaseCachedChunk();
+      _chunkId = chunkId;
+      _chunkBuffer = chunkBuffer;
+    }
+
+    /**
+     * Sets the current chunk id and the chunk from the {@link ChunkCache}, which is held (not returned to the buffer
+     * pool of the cache) until another chunk is set or the context is closed.
+     */
+    public void setCachedChunk(int chunkId, ChunkCache.CachedChunk cachedChunk) {
+      releaseCachedChunk();
+      _chunkId = chunkId;
+      _cachedChunk = cachedChunk;
+      _chunkBuffer = cachedChunk.getBuffer();
+    }
+
+    private void releaseCachedChunk() {
+      if (_cachedChunk != null) {
+        _cachedChunk.release();
+        _cachedChunk = null;
+      }
+    }
+
     @Override
     public void close()
         throws IOException {
+      releaseCachedChunk();
+      _chunkBuffer = _decompressionBuffer;
+      _chunkId = -1;
       if (CleanerUtil.UNMAP_SUPPORTED) {
-        CleanerUtil.getCleaner().freeBuffer(_chunkBuffer);
+        CleanerUtil.getCleaner().freeBuffer(_decompressionBuffer);
       }
     }
   }
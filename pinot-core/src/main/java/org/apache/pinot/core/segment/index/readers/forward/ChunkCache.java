@@ -0,0 +1,415 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers.forward;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.util.CleanerUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Size-bounded LRU cache of the decompressed chunks of the chunk-based raw forward indexes, shared across the queries
+ * so that the hot chunks are not decompressed again by each query.
+ * <p>The entries are keyed by the forward index reader instance (one per segment and column) and the chunk id, and are
+ * spread over multiple independently locked LRU segments (up to {@link #MAX_NUM_SEGMENTS}) to reduce the lock
+ * contention. Each segment keeps an index of the chunk ids per reader so that invalidating a reader only touches the
+ * entries of the reader.
+ * <p>The decompressed chunks are copied into direct byte buffers allocated from a {@link BufferPool} with power of 2
+ * size classes, and the size of the cache is measured by the capacity of the buffers. A cached chunk is reference
+ * counted: each hit acquires a reference (see {@link CachedChunk#release()}), and the buffer is only returned to the
+ * pool after the chunk is evicted and all the references are released, so that eviction never invalidates a chunk in
+ * use. The entries must be invalidated (see {@link #invalidate(Object)}) when the reader is closed.
+ * <p>The cache is disabled by default, and can be enabled on the server via {@link #init(long, ServerMetrics)}. Each
+ * table needs to opt in via {@code chunkCacheEnabled} in the indexing config.
+ */
+@ThreadSafe
+public class ChunkCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ChunkCache.class);
+
+  static final int MAX_NUM_SEGMENTS = 16;
+  static final long MIN_SEGMENT_SIZE_IN_BYTES = 16 * 1024 * 1024;
+  // Max size of the free buffers kept in the pool, as a fraction of the max size of the cache
+  static final int POOL_SIZE_RATIO = 8;
+
+  private static volatile ChunkCache _instance;
+
+  private final long _maxSizeInBytes;
+  private final ServerMetrics _serverMetrics;
+  private final Segment[] _segments;
+  private final int _segmentMask;
+  private final BufferPool _bufferPool;
+  private final AtomicLong _sizeInBytes = new AtomicLong();
+
+  public ChunkCache(long maxSizeInBytes, @Nullable ServerMetrics serverMetrics) {
+    Preconditions
+        .checkArgument(maxSizeInBytes > 0, "Max size of the chunk cache must be positive, got: %s", maxSizeInBytes);
+    _maxSizeInBytes = maxSizeInBytes;
+    _serverMetrics = serverMetrics;
+    int numSegments = 1;
+    while (numSegments < MAX_NUM_SEGMENTS && maxSizeInBytes / (numSegments * 2) >= MIN_SEGMENT_SIZE_IN_BYTES) {
+      numSegments *= 2;
+    }
+    _segments = new Segment[numSegments];
+    long maxSegmentSizeInBytes = maxSizeInBytes / numSegments;
+    for (int i = 0; i < numSegments; i++) {
+      _segments[i] = new Segment(maxSegmentSizeInBytes);
+    }
+    _segmentMask = numSegments - 1;
+    _bufferPool = new BufferPool(maxSizeInBytes / POOL_SIZE_RATIO);
+  }
+
+  /**
+   * Initializes the chunk cache with the given max size. Non-positive max size disables the cache.
+   */
+  public static void init(long maxSizeInBytes, @Nullable ServerMetrics serverMetrics) {
+    if (maxSizeInBytes > 0) {
+      LOGGER.info("Enabling chunk cache with max size: {} bytes", maxSizeInBytes);
+      _instance = new ChunkCache(maxSizeInBytes, serverMetrics);
+    } else {
+      _instance = null;
+    }
+  }
+
+  /**
+   * Returns the chunk cache, or {@code null} if it is not enabled.
+   */
+  @Nullable
+  public static ChunkCache getInstance() {
+    return _instance;
+  }
+
+  @VisibleForTesting
+  static void setInstance(@Nullable ChunkCache chunkCache) {
+    _instance = chunkCache;
+  }
+
+  /**
+   * Returns the cached decompressed chunk for the given reader and chunk id with a reference acquired, or {@code null}
+   * if not cached. The caller must release the chunk (see {@link CachedChunk#release()}) once done with it.
+   */
+  @Nullable
+  public CachedChunk get(Object reader, int chunkId) {
+    Key key = new Key(reader, chunkId);
+    CachedChunk cachedChunk = getSegment(key).get(key);
+    addMeteredValue(cachedChunk != null ? ServerMeter.CHUNK_CACHE_HITS : ServerMeter.CHUNK_CACHE_MISSES, 1L);
+    return cachedChunk;
+  }
+
+  /**
+   * Caches a copy of the decompressed chunk (from position 0 to the limit of the given buffer) for the given reader
+   * and chunk id. Chunks larger than the max size of a cache segment are not cached.
+   */
+  public void put(Object reader, int chunkId, ByteBuffer decompressedChunk) {
+    Key key = new Key(reader, chunkId);
+    Segment segment = getSegment(key);
+    int sizeInBytes = decompressedChunk.limit();
+    long capacity = BufferPool.getCapacity(sizeInBytes);
+    if (capacity > segment._maxSizeInBytes || capacity > Integer.MAX_VALUE || segment.contains(key)) {
+      return;
+    }
+    ByteBuffer buffer = _bufferPool.allocate(sizeInBytes);
+    ByteBuffer source = decompressedChunk.duplicate();
+    source.position(0);
+    buffer.put(source);
+    buffer.clear();
+    int numEvictedEntries = segment.put(key, new CachedChunk(buffer, sizeInBytes, _bufferPool));
+    updateSizeGauge();
+    if (numEvictedEntries > 0) {
+      addMeteredValue(ServerMeter.CHUNK_CACHE_EVICTIONS, numEvictedEntries);
+    }
+  }
+
+  /**
+   * Removes all the cached chunks for the given reader. Should be called when the reader is closed.
+   */
+  public void invalidate(Object reader) {
+    for (Segment segment : _segments) {
+      segment.invalidate(reader);
+    }
+    updateSizeGauge();
+  }
+
+  public int getNumEntries() {
+    int numEntries = 0;
+    for (Segment segment : _segments) {
+      numEntries += segment.getNumEntries();
+    }
+    return numEntries;
+  }
+
+  public long getSizeInBytes() {
+    return _sizeInBytes.get();
+  }
+
+  @VisibleForTesting
+  int getNumSegments() {
+    return _segments.length;
+  }
+
+  @VisibleForTesting
+  long getPooledSizeInBytes() {
+    return _bufferPool._pooledSizeInBytes.get();
+  }
+
+  private Segment getSegment(Key key) {
+    int hash = key.hashCode();
+    return _segments[(hash ^ (hash >>> 16)) & _segmentMask];
+  }
+
+  private void addMeteredValue(ServerMeter meter, long value) {
+    if (_serverMetrics != null) {
+      _serverMetrics.addMeteredGlobalValue(meter, value);
+    }
+  }
+
+  private void updateSizeGauge() {
+    if (_serverMetrics != null) {
+      _serverMetrics.setValueOfGlobalGauge(ServerGauge.CHUNK_CACHE_SIZE_IN_BYTES, _sizeInBytes.get());
+    }
+  }
+
+  /**
+   * Decompressed chunk in the cache. The cache holds one reference until the chunk is evicted or invalidated, and each
+   * hit holds one reference until it is released. The buffer is returned to the pool when the last reference is
+   * released.
+   * <p>NOTE: A chunk that is never released is not returned to the pool, and its buffer is reclaimed by the garbage
+   *          collector instead.
+   */
+  public static final class CachedChunk {
+    private final ByteBuffer _buffer;
+    private final int _sizeInBytes;
+    private final BufferPool _bufferPool;
+    private final AtomicInteger _refCount = new AtomicInteger(1);
+
+    CachedChunk(ByteBuffer buffer, int sizeInBytes, BufferPool bufferPool) {
+      _buffer = buffer;
+      _sizeInBytes = sizeInBytes;
+      _bufferPool = bufferPool;
+    }
+
+    /**
+     * Returns a view (position 0, limit as the size of the chunk) of the chunk, which is only valid until the chunk is
+     * released and should not be modified.
+     */
+    public ByteBuffer getBuffer() {
+      ByteBuffer buffer = _buffer.duplicate();
+      buffer.limit(_sizeInBytes);
+      return buffer;
+    }
+
+    public void release() {
+      if (_refCount.decrementAndGet() == 0) {
+        _bufferPool.recycle(_buffer);
+      }
+    }
+
+    void acquire() {
+      _refCount.incrementAndGet();
+    }
+
+    int getCapacity() {
+      return _buffer.capacity();
+    }
+  }
+
+  /**
+   * LRU segment of the cache guarded by its own lock.
+   */
+  private class Segment {
+    final long _maxSizeInBytes;
+    // Access-ordered so that the first entry is the least recently used one
+    final LinkedHashMap<Key, CachedChunk> _cache = new LinkedHashMap<>(16, 0.75f, true);
+    final IdentityHashMap<Object, IntOpenHashSet> _chunkIdsByReader = new IdentityHashMap<>();
+    long _sizeInBytes;
+
+    Segment(long maxSizeInBytes) {
+      _maxSizeInBytes = maxSizeInBytes;
+    }
+
+    synchronized CachedChunk get(Key key) {
+      CachedChunk cachedChunk = _cache.get(key);
+      if (cachedChunk != null) {
+        cachedChunk.acquire();
+      }
+      return cachedChunk;
+    }
+
+    synchronized boolean contains(Key key) {
+      return _cache.containsKey(key);
+    }
+
+    /**
+     * Adds the chunk and evicts the least recently used entries if needed, returns the number of evicted entries.
+     */
+    synchronized int put(Key key, CachedChunk cachedChunk) {
+      if (_cache.containsKey(key)) {
+        // Cached by a concurrent query
+        cachedChunk.release();
+        return 0;
+      }
+      _cache.put(key, cachedChunk);
+      _chunkIdsByReader.computeIfAbsent(key._reader, k -> new IntOpenHashSet()).add(key._chunkId);
+      addSize(cachedChunk.getCapacity());
+      int numEvictedEntries = 0;
+      Iterator<Map.Entry<Key, CachedChunk>> iterator = _cache.entrySet().iterator();
+      while (_sizeInBytes > _maxSizeInBytes) {
+        Map.Entry<Key, CachedChunk> entry = iterator.next();
+        iterator.remove();
+        Key evictedKey = entry.getKey();
+        IntOpenHashSet chunkIds = _chunkIdsByReader.get(evictedKey._reader);
+        chunkIds.remove(evictedKey._chunkId);
+        if (chunkIds.isEmpty()) {
+          _chunkIdsByReader.remove(evictedKey._reader);
+        }
+        CachedChunk evictedChunk = entry.getValue();
+        addSize(-evictedChunk.getCapacity());
+        evictedChunk.release();
+        numEvictedEntries++;
+      }
+      return numEvictedEntries;
+    }
+
+    synchronized void invalidate(Object reader) {
+      IntOpenHashSet chunkIds = _chunkIdsByReader.remove(reader);
+      if (chunkIds == null) {
+        return;
+      }
+      IntIterator iterator = chunkIds.iterator();
+      while (iterator.hasNext()) {
+        CachedChunk cachedChunk = _cache.remove(new Key(reader, iterator.nextInt()));
+        addSize(-cachedChunk.getCapacity());
+        cachedChunk.release();
+      }
+    }
+
+    synchronized int getNumEntries() {
+      return _cache.size();
+    }
+
+    private void addSize(long sizeInBytes) {
+      _sizeInBytes += sizeInBytes;
+      ChunkCache.this._sizeInBytes.addAndGet(sizeInBytes);
+    }
+  }
+
+  /**
+   * Pool of the direct byte buffers with power of 2 capacities. Released buffers are kept for reuse up to the max
+   * pooled size, and the others are freed explicitly instead of waiting for the garbage collector.
+   */
+  static class BufferPool {
+    private final long _maxPooledSizeInBytes;
+    @SuppressWarnings("unchecked")
+    private final Queue<ByteBuffer>[] _freeBuffers = new Queue[Integer.SIZE];
+    private final AtomicLong _pooledSizeInBytes = new AtomicLong();
+
+    BufferPool(long maxPooledSizeInBytes) {
+      _maxPooledSizeInBytes = maxPooledSizeInBytes;
+      for (int i = 0; i < Integer.SIZE; i++) {
+        _freeBuffers[i] = new ConcurrentLinkedQueue<>();
+      }
+    }
+
+    /**
+     * Returns the capacity of the buffer allocated for the given size, which is the next power of 2.
+     */
+    static long getCapacity(int sizeInBytes) {
+      return 1L << getSizeClass(sizeInBytes);
+    }
+
+    private static int getSizeClass(int sizeInBytes) {
+      return sizeInBytes <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(sizeInBytes - 1);
+    }
+
+    ByteBuffer allocate(int sizeInBytes) {
+      int sizeClass = getSizeClass(sizeInBytes);
+      ByteBuffer buffer = _freeBuffers[sizeClass].poll();
+      if (buffer != null) {
+        _pooledSizeInBytes.addAndGet(-buffer.capacity());
+        buffer.clear();
+        return buffer;
+      }
+      return ByteBuffer.allocateDirect(1 << sizeClass);
+    }
+
+    void recycle(ByteBuffer buffer) {
+      int capacity = buffer.capacity();
+      if (_pooledSizeInBytes.addAndGet(capacity) <= _maxPooledSizeInBytes) {
+        _freeBuffers[getSizeClass(capacity)].offer(buffer);
+      } else {
+        _pooledSizeInBytes.addAndGet(-capacity);
+        if (CleanerUtil.UNMAP_SUPPORTED) {
+          try {
+            CleanerUtil.getCleaner().freeBuffer(buffer);
+          } catch (IOException e) {
+            LOGGER.warn("Caught exception while freeing the chunk buffer", e);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Cache key of the reader instance and the chunk id.
+   */
+  private static class Key {
+    final Object _reader;
+    final int _chunkId;
+
+    Key(Object reader, int chunkId) {
+      _reader = reader;
+      _chunkId = chunkId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return _reader == that._reader && _chunkId == that._chunkId;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(_reader) + _chunkId;
+    }
+  }
+}
@@ -0,0 +1,216 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers.forward;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import org.apache.pinot.core.io.util.PinotDataBitSetV2;
+import org.apache.pinot.core.io.writer.impl.FORChunkSVForwardIndexWriter;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReaderContext;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Chunk-based single-value raw (non-dictionary-encoded) forward index reader for INT/LONG values with
+ * frame-of-reference or delta encoding.
+ * <p>The whole chunk is decoded into the reader context on the first access of the chunk, so that the following reads
+ * (especially the batch reads) from the same chunk are simple array lookups.
+ * <p>For data layout, please refer to the documentation for {@link FORChunkSVForwardIndexWriter}
+ */
+public final class FORChunkSVForwardIndexReader
+    implements ForwardIndexReader<FORChunkSVForwardIndexReader.FORReaderContext> {
+  private final PinotDataBuffer _dataBuffer;
+  private final DataType _valueType;
+  private final int _numDocsPerChunk;
+  private final int _totalDocs;
+  private final PinotDataBuffer _dataHeader;
+
+  public FORChunkSVForwardIndexReader(PinotDataBuffer dataBuffer, DataType valueType) {
+    Preconditions.checkState(isFOREncoded(dataBuffer), "Forward index is not FOR encoded");
+    _dataBuffer = dataBuffer;
+    _valueType = valueType;
+
+    int headerOffset = Integer.BYTES; // Magic marker
+    int version = _dataBuffer.getInt(headerOffset);
+    Preconditions.checkState(version == FORChunkSVForwardIndexWriter.VERSION,
+        "Unsupported FOR forward index version: %s", version);
+    headerOffset += Integer.BYTES;
+    int numChunks = _dataBuffer.getInt(headerOffset);
+    headerOffset += Integer.BYTES;
+    _numDocsPerChunk = _dataBuffer.getInt(headerOffset);
+    headerOffset += Integer.BYTES;
+    Preconditions.checkState(_dataBuffer.getInt(headerOffset) == valueType.size());
+    headerOffset += Integer.BYTES;
+    _totalDocs = _dataBuffer.getInt(headerOffset);
+    headerOffset += Integer.BYTES;
+    int dataHeaderStart = _dataBuffer.getInt(headerOffset);
+    _dataHeader = _dataBuffer.view(dataHeaderStart, dataHeaderStart + (long) numChunks * Long.BYTES);
+  }
+
+  /**
+   * Returns {@code true} if the given raw forward index buffer is written by the {@link FORChunkSVForwardIndexWriter},
+   * {@code false} otherwise.
+   */
+  public static boolean isFOREncoded(PinotDataBuffer dataBuffer) {
+    return dataBuffer.size() >= Integer.BYTES && dataBuffer.getInt(0) == FORChunkSVForwardIndexWriter.MAGIC_MARKER;
+  }
+
+  @Override
+  public boolean isDictionaryEncoded() {
+    return false;
+  }
+
+  @Override
+  public boolean isSingleValue() {
+    return true;
+  }
+
+  @Override
+  public DataType getValueType() {
+    return _valueType;
+  }
+
+  @Override
+  public FORReaderContext createContext() {
+    return new FORReaderContext(_numDocsPerChunk);
+  }
+
+  @Override
+  public int getInt(int docId, FORReaderContext context) {
+    return (int) getChunkValues(docId / _numDocsPerChunk, context)[docId % _numDocsPerChunk];
+  }
+
+  @Override
+  public long getLong(int docId, FORReaderContext context) {
+    return getChunkValues(docId / _numDocsPerChunk, context)[docId % _numDocsPerChunk];
+  }
+
+  @Override
+  public void readValuesSV(int[] docIds, int length, int[] valueBuffer, FORReaderContext context) {
+    int i = 0;
+    while (i < length) {
+      int chunkId = docIds[i] / _numDocsPerChunk;
+      int chunkStartDocId = chunkId * _numDocsPerChunk;
+      long[] chunkValues = getChunkValues(chunkId, context);
+      // Read all the values within the same chunk
+      int chunkRowId;
+      while (i < length && (chunkRowId = docIds[i] - chunkStartDocId) >= 0 && chunkRowId < _numDocsPerChunk) {
+        valueBuffer[i++] = (int) chunkValues[chunkRowId];
+      }
+    }
+  }
+
+  @Override
+  public void readValuesSV(int[] docIds, int length, long[] valueBuffer, FORReaderContext context) {
+    int i = 0;
+    while (i < length) {
+      int chunkId = docIds[i] / _numDocsPerChunk;
+      int chunkStartDocId = chunkId * _numDocsPerChunk;
+      long[] chunkValues = getChunkValues(chunkId, context);
+      // Read all the values within the same chunk
+      int chunkRowId;
+      while (i < length && (chunkRowId = docIds[i] - chunkStartDocId) >= 0 && chunkRowId < _numDocsPerChunk) {
+        valueBuffer[i++] = chunkValues[chunkRowId];
+      }
+    }
+  }
+
+  /**
+   * Helper method to return the decoded values of the given chunk. Decodes the chunk into the reader context if it is
+   * not the chunk decoded by the previous read.
+   */
+  private long[] getChunkValues(int chunkId, FORReaderContext context) {
+    long[] values = context._values;
+    if (context._chunkId == chunkId) {
+      return values;
+    }
+
+    long chunkOffset = _dataHeader.getLong((long) chunkId * Long.BYTES);
+    int numValues = Math.min(_numDocsPerChunk, _totalDocs - chunkId * _numDocsPerChunk);
+    byte encoding = _dataBuffer.getByte(chunkOffset);
+    int numBits = _dataBuffer.getByte(chunkOffset + Byte.BYTES);
+    long base = _dataBuffer.getLong(chunkOffset + 2 * Byte.BYTES);
+    long dataOffset = chunkOffset + FORChunkSVForwardIndexWriter.CHUNK_HEADER_SIZE;
+    if (encoding == FORChunkSVForwardIndexWriter.ENCODING_FOR) {
+      unpack(dataOffset, numValues, numBits, values, 0, context._packedValues);
+      for (int i = 0; i < numValues; i++) {
+        values[i] += base;
+      }
+    } else {
+      Preconditions.checkState(encoding == FORChunkSVForwardIndexWriter.ENCODING_DELTA, "Invalid encoding: %s",
+          encoding);
+      long minDelta = _dataBuffer.getLong(dataOffset);
+      unpack(dataOffset + Long.BYTES, numValues - 1, numBits, values, 1, context._packedValues);
+      values[0] = base;
+      for (int i = 1; i < numValues; i++) {
+        values[i] += values[i - 1] + minDelta;
+      }
+    }
+    context._chunkId = chunkId;
+    return values;
+  }
+
+  /**
+   * Helper method to unpack the bit-packed values (treated as unsigned) into the value buffer.
+   */
+  private void unpack(long offset, int numValues, int numBits, long[] valueBuffer, int valueBufferOffset,
+      int[] packedValues) {
+    if (numBits == 0) {
+      Arrays.fill(valueBuffer, valueBufferOffset, valueBufferOffset + numValues, 0L);
+    } else if (numBits == Long.SIZE) {
+      for (int i = 0; i < numValues; i++) {
+        valueBuffer[valueBufferOffset + i] = _dataBuffer.getLong(offset + (long) i * Long.BYTES);
+      }
+    } else {
+      long packedSize = ((long) numValues * numBits + Byte.SIZE - 1) / Byte.SIZE;
+      PinotDataBitSetV2.createBitSet(_dataBuffer.view(offset, offset + packedSize), numBits)
+          .readInt(0, numValues, packedValues);
+      for (int i = 0; i < numValues; i++) {
+        valueBuffer[valueBufferOffset + i] = packedValues[i] & 0xFFFFFFFFL;
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+
+  /**
+   * Context for the FOR encoded forward index reader, which holds the decoded values of the chunk from the previous
+   * read.
+   */
+  public static class FORReaderContext implements ForwardIndexReaderContext {
+    private final long[] _values;
+    private final int[] _packedValues;
+    private int _chunkId = -1;
+
+    public FORReaderContext(int numDocsPerChunk) {
+      _values = new long[numDocsPerChunk];
+      _packedValues = new int[numDocsPerChunk];
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
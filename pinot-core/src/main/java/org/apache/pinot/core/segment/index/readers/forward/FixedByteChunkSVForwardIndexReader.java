@@ -34,7 +34,12 @@ public final class FixedByteChunkSVForwardIndexReader extends BaseChunkSVForward
   private final int _chunkSize;
 
   public FixedByteChunkSVForwardIndexReader(PinotDataBuffer dataBuffer, DataType valueType) {
-    super(dataBuffer, valueType);
+    this(dataBuffer, valueType, false);
+  }
+
+  public FixedByteChunkSVForwardIndexReader(PinotDataBuffer dataBuffer, DataType valueType,
+      boolean chunkCacheEnabled) {
+    super(dataBuffer, valueType, chunkCacheEnabled);
     _chunkSize = _numDocsPerChunk * _lengthOfLongestEntry;
   }
 
@@ -40,7 +40,11 @@ public final class VarByteChunkSVForwardIndexReader extends BaseChunkSVForwardIn
   private final ThreadLocal<byte[]> _reusableBytes = ThreadLocal.withInitial(() -> new byte[_lengthOfLongestEntry]);
 
   public VarByteChunkSVForwardIndexReader(PinotDataBuffer dataBuffer, DataType valueType) {
-    super(dataBuffer, valueType);
+    this(dataBuffer, valueType, false);
+  }
+
+  public VarByteChunkSVForwardIndexReader(PinotDataBuffer dataBuffer, DataType valueType, boolean chunkCacheEnabled) {
+    super(dataBuffer, valueType, chunkCacheEnabled);
     _maxChunkSize = _numDocsPerChunk * (ROW_OFFSET_SIZE + _lengthOfLongestEntry);
   }
 
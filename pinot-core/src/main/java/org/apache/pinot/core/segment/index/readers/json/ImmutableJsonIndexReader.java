@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers.json;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteOrder;
+import org.apache.pinot.core.segment.creator.impl.inv.JsonIndexCreator;
+import org.apache.pinot.core.segment.index.readers.BitmapInvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
+import org.apache.pinot.core.segment.index.readers.StringDictionary;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.core.util.JsonIndexUtils;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Reader for the JSON index of the immutable segment created by {@link JsonIndexCreator}.
+ * <p>The key of the (path, value) pair is looked up with a binary search in the dictionary of the sorted keys, and the
+ * posting list is read from the bitmap inverted index on the key ids.
+ */
+public class ImmutableJsonIndexReader implements JsonIndexReader {
+  private final StringDictionary _dictionary;
+  private final BitmapInvertedIndexReader _invertedIndex;
+
+  public ImmutableJsonIndexReader(PinotDataBuffer dataBuffer) {
+    int version = dataBuffer.getInt(0);
+    Preconditions.checkState(version == JsonIndexCreator.VERSION, "Unsupported JSON index version: %s", version);
+    int numKeys = dataBuffer.getInt(Integer.BYTES);
+    int maxKeyLength = dataBuffer.getInt(2 * Integer.BYTES);
+    long dictionaryLength = dataBuffer.getLong(3 * Integer.BYTES);
+    long invertedIndexLength = dataBuffer.getLong(3 * Integer.BYTES + Long.BYTES);
+
+    long dictionaryEndOffset = JsonIndexCreator.HEADER_LENGTH + dictionaryLength;
+    _dictionary =
+        new StringDictionary(dataBuffer.view(JsonIndexCreator.HEADER_LENGTH, dictionaryEndOffset, ByteOrder.BIG_ENDIAN),
+            numKeys, maxKeyLength, (byte) 0);
+    _invertedIndex = new BitmapInvertedIndexReader(
+        dataBuffer.view(dictionaryEndOffset, dictionaryEndOffset + invertedIndexLength, ByteOrder.BIG_ENDIAN),
+        numKeys);
+  }
+
+  @Override
+  public ImmutableRoaringBitmap getMatchingDocIds(String path, String value) {
+    int keyId = _dictionary.indexOf(JsonIndexUtils.getKey(path, value));
+    if (keyId >= 0) {
+      return _invertedIndex.getDocIds(keyId);
+    } else {
+      return new MutableRoaringBitmap();
+    }
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+}
@@ -18,15 +18,23 @@
  */
 package org.apache.pinot.core.startree;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.query.request.context.FilterContext;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.predicate.Predicate;
 import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
+import org.apache.pinot.core.startree.v2.DerivedDimension;
 import org.apache.pinot.core.startree.v2.StarTreeV2Metadata;
 
 
@@ -49,7 +57,10 @@ public class StarTreeUtils {
    * <p>The query is fit for star tree index if the following conditions are met:
    * <ul>
    *   <li>Star-tree contains all aggregation function column pairs</li>
-   *   <li>All predicate columns and group-by columns are star-tree dimensions</li>
+   *   <li>
+   *     All predicate columns and group-by columns are star-tree dimensions, or the group-by columns can be served by
+   *     the derived dimensions (see {@link #getDerivedDimensionMap(StarTreeV2Metadata, ExpressionContext[])})
+   *   </li>
    *   <li>All predicates are conjoined by AND</li>
    * </ul>
    */
@@ -70,8 +81,11 @@ public class StarTreeUtils {
       for (ExpressionContext groupByExpression : groupByExpressions) {
         groupByExpression.getColumns(groupByColumns);
       }
-      if (!starTreeDimensions.containsAll(groupByColumns)) {
-        return false;
+      Map<String, String> derivedDimensionMap = getDerivedDimensionMap(starTreeV2Metadata, groupByExpressions);
+      for (String groupByColumn : groupByColumns) {
+        if (!starTreeDimensions.contains(groupByColumn) && !derivedDimensionMap.containsKey(groupByColumn)) {
+          return false;
+        }
       }
     }
 
@@ -79,6 +93,69 @@ public class StarTreeUtils {
     return filter == null || checkFilters(filter, starTreeDimensions);
   }
 
+  /**
+   * Returns the expressions to be read from the star-tree dimensions, which are the group-by expressions plus the input
+   * expressions of the aggregation functions other than the function-column pair column (e.g. the lhs of the
+   * predicates for DISTINCTCOUNTTHETASKETCH). These expressions are handled the same way as the group-by expressions,
+   * i.e. the columns must be star-tree dimensions, and are never aggregated with star-node. Returns {@code null} if
+   * there is no such expression.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  @Nullable
+  public static ExpressionContext[] getDimensionExpressions(AggregationFunction[] aggregationFunctions,
+      @Nullable ExpressionContext[] groupByExpressions) {
+    List<ExpressionContext> extraExpressions = new ArrayList<>();
+    for (AggregationFunction aggregationFunction : aggregationFunctions) {
+      List<ExpressionContext> inputExpressions = aggregationFunction.getInputExpressions();
+      int numInputExpressions = inputExpressions.size();
+      for (int i = 1; i < numInputExpressions; i++) {
+        extraExpressions.add(inputExpressions.get(i));
+      }
+    }
+    if (extraExpressions.isEmpty()) {
+      return groupByExpressions;
+    }
+    Set<ExpressionContext> dimensionExpressions = new LinkedHashSet<>();
+    if (groupByExpressions != null) {
+      dimensionExpressions.addAll(Arrays.asList(groupByExpressions));
+    }
+    dimensionExpressions.addAll(extraExpressions);
+    return dimensionExpressions.toArray(new ExpressionContext[0]);
+  }
+
+  /**
+   * Returns a map from the group-by columns to the derived star-tree dimensions (see {@link DerivedDimension}) that can
+   * serve them. A column can be served by a derived dimension if it is not a star-tree dimension, and all the group-by
+   * expressions on the column are the same transform as the derived dimension. The derived dimension stores the
+   * representative value of each bucket, on which the transform gives the same result as on the original values.
+   */
+  public static Map<String, String> getDerivedDimensionMap(StarTreeV2Metadata starTreeV2Metadata,
+      @Nullable ExpressionContext[] groupByExpressions) {
+    if (groupByExpressions == null) {
+      return Collections.emptyMap();
+    }
+    List<String> starTreeDimensions = starTreeV2Metadata.getDimensionsSplitOrder();
+    Map<String, String> derivedDimensionMap = new HashMap<>();
+    Set<String> nonDerivedColumns = new HashSet<>();
+    for (ExpressionContext groupByExpression : groupByExpressions) {
+      DerivedDimension derivedDimension = DerivedDimension.fromExpression(groupByExpression);
+      if (derivedDimension != null && starTreeDimensions.contains(derivedDimension.getName())
+          && !starTreeDimensions.contains(derivedDimension.getColumn())) {
+        String column = derivedDimension.getColumn();
+        String dimension = derivedDimension.getName();
+        String existingDimension = derivedDimensionMap.put(column, dimension);
+        if (existingDimension != null && !existingDimension.equals(dimension)) {
+          // Different buckets on the same column
+          nonDerivedColumns.add(column);
+        }
+      } else {
+        groupByExpression.getColumns(nonDerivedColumns);
+      }
+    }
+    derivedDimensionMap.keySet().removeAll(nonDerivedColumns);
+    return derivedDimensionMap;
+  }
+
   /**
    * Helper method to check whether all columns in predicates are star-tree dimensions, and all predicates are
    * conjoined by AND.
@@ -103,9 +180,10 @@ public class StarTreeUtils {
         switch (predicate.getType()) {
           // NOTE: Do not use star-tree for the following predicates because:
           //       - REGEXP_LIKE: Need to scan the whole dictionary to gather the matching dictionary ids
-          //       - TEXT_MATCH/IS_NULL/IS_NOT_NULL: No way to gather the matching dictionary ids
+          //       - TEXT_MATCH/JSON_MATCH/IS_NULL/IS_NOT_NULL: No way to gather the matching dictionary ids
           case REGEXP_LIKE:
           case TEXT_MATCH:
+          case JSON_MATCH:
           case IS_NULL:
           case IS_NOT_NULL:
             return false;
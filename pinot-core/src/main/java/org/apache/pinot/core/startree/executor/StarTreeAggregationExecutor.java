@@ -53,7 +53,8 @@ public class StarTreeAggregationExecutor extends DefaultAggregationExecutor {
     int length = transformBlock.getNumDocs();
     for (int i = 0; i < numAggregationFunctions; i++) {
       _aggregationFunctions[i].aggregate(length, _aggregationResultHolders[i],
-          AggregationFunctionUtils.getBlockValSetMap(_aggregationFunctionColumnPairs[i], transformBlock));
+          AggregationFunctionUtils
+              .getBlockValSetMap(_aggregationFunctions[i], _aggregationFunctionColumnPairs[i], transformBlock));
     }
   }
 }
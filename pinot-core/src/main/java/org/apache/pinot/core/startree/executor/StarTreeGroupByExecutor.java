@@ -58,7 +58,8 @@ public class StarTreeGroupByExecutor extends DefaultGroupByExecutor {
     AggregationFunction aggregationFunction = _aggregationFunctions[functionIndex];
     GroupByResultHolder groupByResultHolder = _groupByResultHolders[functionIndex];
     Map<ExpressionContext, BlockValSet> blockValSetMap =
-        AggregationFunctionUtils.getBlockValSetMap(_aggregationFunctionColumnPairs[functionIndex], transformBlock);
+        AggregationFunctionUtils
+            .getBlockValSetMap(aggregationFunction, _aggregationFunctionColumnPairs[functionIndex], transformBlock);
     if (_hasMVGroupByExpression) {
       aggregationFunction.aggregateGroupByMV(length, _mvGroupKeys, groupByResultHolder, blockValSetMap);
     } else {
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.startree.plan;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -36,9 +37,21 @@ public class StarTreeProjectionPlanNode implements PlanNode {
   public StarTreeProjectionPlanNode(StarTreeV2 starTreeV2, Set<String> projectionColumns,
       @Nullable FilterContext filter, @Nullable Set<String> groupByColumns,
       @Nullable Map<String, String> debugOptions) {
+    this(starTreeV2, projectionColumns, Collections.emptyMap(), filter, groupByColumns, debugOptions);
+  }
+
+  /**
+   * Constructor for the projection plan node where some projection columns are served by the derived dimensions.
+   *
+   * @param derivedDimensionMap Map from column to the derived dimension serving it
+   */
+  public StarTreeProjectionPlanNode(StarTreeV2 starTreeV2, Set<String> projectionColumns,
+      Map<String, String> derivedDimensionMap, @Nullable FilterContext filter, @Nullable Set<String> groupByColumns,
+      @Nullable Map<String, String> debugOptions) {
     _dataSourceMap = new HashMap<>(projectionColumns.size());
     for (String projectionColumn : projectionColumns) {
-      _dataSourceMap.put(projectionColumn, starTreeV2.getDataSource(projectionColumn));
+      _dataSourceMap.put(projectionColumn,
+          starTreeV2.getDataSource(derivedDimensionMap.getOrDefault(projectionColumn, projectionColumn)));
     }
     _starTreeDocIdSetPlanNode = new StarTreeDocIdSetPlanNode(starTreeV2, filter, groupByColumns, debugOptions);
   }
@@ -29,6 +29,7 @@ import org.apache.pinot.core.operator.transform.TransformOperator;
 import org.apache.pinot.core.plan.PlanNode;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.query.request.context.FilterContext;
+import org.apache.pinot.core.startree.StarTreeUtils;
 import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
 import org.apache.pinot.core.startree.v2.StarTreeV2;
 
@@ -45,19 +46,28 @@ public class StarTreeTransformPlanNode implements PlanNode {
       projectionColumns.add(aggregationFunctionColumnPair.toColumnName());
     }
     Set<String> groupByColumns;
+    Map<String, String> derivedDimensionMap;
     if (groupByExpressions != null) {
       _groupByExpressions = Arrays.asList(groupByExpressions);
-      groupByColumns = new HashSet<>();
+      Set<String> columns = new HashSet<>();
       for (ExpressionContext groupByExpression : groupByExpressions) {
-        groupByExpression.getColumns(groupByColumns);
+        groupByExpression.getColumns(columns);
+      }
+      projectionColumns.addAll(columns);
+      // Group-by columns served by the derived dimensions should be traversed with the derived dimensions
+      derivedDimensionMap = StarTreeUtils.getDerivedDimensionMap(starTreeV2.getMetadata(), groupByExpressions);
+      groupByColumns = new HashSet<>();
+      for (String column : columns) {
+        groupByColumns.add(derivedDimensionMap.getOrDefault(column, column));
       }
-      projectionColumns.addAll(groupByColumns);
     } else {
       _groupByExpressions = Collections.emptyList();
       groupByColumns = null;
+      derivedDimensionMap = Collections.emptyMap();
     }
     _starTreeProjectionPlanNode =
-        new StarTreeProjectionPlanNode(starTreeV2, projectionColumns, filter, groupByColumns, debugOptions);
+        new StarTreeProjectionPlanNode(starTreeV2, projectionColumns, derivedDimensionMap, filter, groupByColumns,
+            debugOptions);
   }
 
   @Override
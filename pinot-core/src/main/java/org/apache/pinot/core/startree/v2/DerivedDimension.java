@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.startree.v2;
+
+import com.google.common.base.Preconditions;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.operator.transform.function.DateTruncTransformFunction;
+import org.apache.pinot.core.operator.transform.function.TimeZoneKey;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.FunctionContext;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.joda.time.DateTimeField;
+
+
+/**
+ * The {@code DerivedDimension} class represents a star-tree dimension derived from a time column by bucketing the time
+ * values with the {@code dateTrunc} transform at star-tree build time, so that the queries grouping on the time buckets
+ * can be solved with star-tree without putting the raw time column (usually with high cardinality) into the tree.
+ * <p>The derived dimension can be configured in the dimensions split order with the transform expression (e.g.
+ * {@code dateTrunc('HOUR', ts, 'MILLISECONDS')}), and is stored with the name of format
+ * {@code dateTrunc__<unit>__<inputTimeUnit>__<column>}. Only UTC time zone is supported.
+ * <p>The derived dimension shares the dictionary with the time column. The time column dictionary is sorted and the
+ * bucketing is monotonic, so the values within a bucket have consecutive dictionary ids, and the derived dimension
+ * stores the smallest dictionary id of the bucket. Applying the same {@code dateTrunc} transform on the stored values
+ * gives the same results as on the original values.
+ */
+public class DerivedDimension {
+  private static final String DELIMITER = "__";
+  private static final String NAME_PREFIX = DateTruncTransformFunction.FUNCTION_NAME + DELIMITER;
+
+  private final String _unit;
+  private final TimeUnit _inputTimeUnit;
+  private final String _column;
+  private final DateTimeField _field;
+
+  private DerivedDimension(String unit, TimeUnit inputTimeUnit, String column) {
+    _unit = unit.toLowerCase();
+    _inputTimeUnit = inputTimeUnit;
+    _column = column;
+    _field = DateTruncTransformFunction.getTimestampField(
+        DateTruncTransformFunction.DateTimeZoneIndex.getChronology(TimeZoneKey.UTC_KEY), _unit);
+  }
+
+  /**
+   * Returns whether the given star-tree dimension is a derived dimension.
+   */
+  public static boolean isDerivedDimension(String dimension) {
+    return dimension.startsWith(NAME_PREFIX);
+  }
+
+  /**
+   * Returns the column to read the dictionary and the dictionary ids from for the given star-tree dimension.
+   */
+  public static String getColumn(String dimension) {
+    return isDerivedDimension(dimension) ? fromName(dimension)._column : dimension;
+  }
+
+  public static DerivedDimension fromName(String name) {
+    String[] parts = name.split(DELIMITER, 4);
+    Preconditions.checkArgument(parts.length == 4 && isDerivedDimension(name), "Invalid derived dimension: %s", name);
+    return new DerivedDimension(parts[1], TimeUnit.valueOf(parts[2]), parts[3]);
+  }
+
+  /**
+   * Returns the derived dimension for the given expression, or {@code null} if the expression cannot be derived at
+   * star-tree build time.
+   */
+  @Nullable
+  public static DerivedDimension fromExpression(ExpressionContext expression) {
+    if (expression.getType() != ExpressionContext.Type.FUNCTION) {
+      return null;
+    }
+    FunctionContext function = expression.getFunction();
+    if (!function.getFunctionName().equalsIgnoreCase(DateTruncTransformFunction.FUNCTION_NAME)) {
+      return null;
+    }
+    // dateTrunc(unit, column, inputTimeUnit[, timeZone[, outputTimeUnit]])
+    // NOTE: Output time unit does not affect the bucketing.
+    List<ExpressionContext> arguments = function.getArguments();
+    int numArguments = arguments.size();
+    if (numArguments < 3 || numArguments > 5) {
+      return null;
+    }
+    ExpressionContext unit = arguments.get(0);
+    ExpressionContext column = arguments.get(1);
+    ExpressionContext inputTimeUnit = arguments.get(2);
+    if (unit.getType() != ExpressionContext.Type.LITERAL || column.getType() != ExpressionContext.Type.IDENTIFIER
+        || inputTimeUnit.getType() != ExpressionContext.Type.LITERAL) {
+      return null;
+    }
+    try {
+      if (numArguments > 3) {
+        ExpressionContext timeZone = arguments.get(3);
+        if (timeZone.getType() != ExpressionContext.Type.LITERAL
+            || TimeZoneKey.getTimeZoneKey(timeZone.getLiteral()) != TimeZoneKey.UTC_KEY) {
+          return null;
+        }
+      }
+      return new DerivedDimension(unit.getLiteral(), TimeUnit.valueOf(inputTimeUnit.getLiteral().toUpperCase()),
+          column.getIdentifier());
+    } catch (Exception e) {
+      // Invalid unit or time zone
+      return null;
+    }
+  }
+
+  public String getName() {
+    return NAME_PREFIX + _unit + DELIMITER + _inputTimeUnit + DELIMITER + _column;
+  }
+
+  public String getColumn() {
+    return _column;
+  }
+
+  /**
+   * Returns the start (in milliseconds since epoch) of the bucket for the given time value.
+   */
+  public long getBucket(long timeValue) {
+    return _field.roundFloor(TimeUnit.MILLISECONDS.convert(timeValue, _inputTimeUnit));
+  }
+
+  /**
+   * Returns the mapping from the dictionary ids of the time column to the dictionary ids stored for the derived
+   * dimension (the smallest dictionary id of the bucket).
+   */
+  public int[] getDictIdMapping(Dictionary dictionary) {
+    Preconditions.checkState(dictionary.isSorted() && dictionary.getValueType().isNumeric(),
+        "Derived dimension: %s requires sorted numeric dictionary for column: %s", getName(), _column);
+    int cardinality = dictionary.length();
+    int[] dictIdMapping = new int[cardinality];
+    long currentBucket = 0;
+    int currentDictId = 0;
+    for (int dictId = 0; dictId < cardinality; dictId++) {
+      long bucket = getBucket(dictionary.getLongValue(dictId));
+      if (dictId == 0 || bucket != currentBucket) {
+        currentBucket = bucket;
+        currentDictId = dictId;
+      }
+      dictIdMapping[dictId] = currentDictId;
+    }
+    return dictIdMapping;
+  }
+}
@@ -40,10 +40,12 @@ import org.apache.pinot.core.segment.creator.ForwardIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueFixedByteRawIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueUnsortedForwardIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndexCreator;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.startree.StarTreeBuilderUtils;
 import org.apache.pinot.core.startree.StarTreeBuilderUtils.TreeNode;
 import org.apache.pinot.core.startree.StarTreeNode;
 import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
+import org.apache.pinot.core.startree.v2.DerivedDimension;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,6 +72,9 @@ abstract class BaseSingleTreeBuilder implements SingleTreeBuilder {
   final String[] _dimensionsSplitOrder;
   final Set<Integer> _skipStarNodeCreationForDimensions;
   final PinotSegmentColumnReader[] _dimensionReaders;
+  // Mappings from the dictionary ids of the time column to the dictionary ids of the derived dimensions (null for the
+  // regular dimensions)
+  final int[][] _dimensionDictIdMappings;
 
   final int _numMetrics;
   // Name of the function-column pairs
@@ -119,6 +124,7 @@ abstract class BaseSingleTreeBuilder implements SingleTreeBuilder {
     _dimensionsSplitOrder = new String[_numDimensions];
     _skipStarNodeCreationForDimensions = new HashSet<>();
     _dimensionReaders = new PinotSegmentColumnReader[_numDimensions];
+    _dimensionDictIdMappings = new int[_numDimensions][];
     Set<String> skipStarNodeCreationForDimensions = builderConfig.getSkipStarNodeCreationForDimensions();
     for (int i = 0; i < _numDimensions; i++) {
       String dimension = dimensionsSplitOrder.get(i);
@@ -126,7 +132,16 @@ abstract class BaseSingleTreeBuilder implements SingleTreeBuilder {
       if (skipStarNodeCreationForDimensions.contains(dimension)) {
         _skipStarNodeCreationForDimensions.add(i);
       }
-      _dimensionReaders[i] = new PinotSegmentColumnReader(segment, dimension);
+      String column = dimension;
+      if (DerivedDimension.isDerivedDimension(dimension)) {
+        DerivedDimension derivedDimension = DerivedDimension.fromName(dimension);
+        column = derivedDimension.getColumn();
+        Dictionary dictionary = segment.getDictionary(column);
+        Preconditions.checkState(dictionary != null,
+            "Column: " + column + " for derived dimension: " + dimension + " does not have dictionary");
+        _dimensionDictIdMappings[i] = derivedDimension.getDictIdMapping(dictionary);
+      }
+      _dimensionReaders[i] = new PinotSegmentColumnReader(segment, column);
       Preconditions
           .checkState(_dimensionReaders[i].hasDictionary(), "Dimension: " + dimension + " does not have dictionary");
     }
@@ -221,7 +236,9 @@ abstract class BaseSingleTreeBuilder implements SingleTreeBuilder {
   int[] getSegmentRecordDimensions(int docId) {
     int[] dimensions = new int[_numDimensions];
     for (int i = 0; i < _numDimensions; i++) {
-      dimensions[i] = _dimensionReaders[i].getDictId(docId);
+      int dictId = _dimensionReaders[i].getDictId(docId);
+      int[] dictIdMapping = _dimensionDictIdMappings[i];
+      dimensions[i] = dictIdMapping != null ? dictIdMapping[dictId] : dictId;
     }
     return dimensions;
   }
@@ -456,7 +473,7 @@ abstract class BaseSingleTreeBuilder implements SingleTreeBuilder {
         new SingleValueUnsortedForwardIndexCreator[_numDimensions];
     for (int i = 0; i < _numDimensions; i++) {
       String dimension = _dimensionsSplitOrder[i];
-      int cardinality = _segment.getDictionary(dimension).length();
+      int cardinality = _segment.getDictionary(DerivedDimension.getColumn(dimension)).length();
       dimensionIndexCreators[i] =
           new SingleValueUnsortedForwardIndexCreator(_outputDir, _dimensionsSplitOrder[i], cardinality, _numDocs);
     }
@@ -27,9 +27,11 @@ import java.util.Set;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
 import org.apache.pinot.core.segment.index.metadata.ColumnMetadata;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
+import org.apache.pinot.core.startree.v2.DerivedDimension;
 import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
@@ -52,10 +54,10 @@ public class StarTreeV2BuilderConfig {
 
   public static StarTreeV2BuilderConfig fromIndexConfig(StarTreeIndexConfig indexConfig) {
     Builder builder = new Builder();
-    builder.setDimensionsSplitOrder(indexConfig.getDimensionsSplitOrder());
+    builder.setDimensionsSplitOrder(getDimensions(indexConfig.getDimensionsSplitOrder()));
     List<String> skipStarNodeCreationForDimensions = indexConfig.getSkipStarNodeCreationForDimensions();
     if (skipStarNodeCreationForDimensions != null && !skipStarNodeCreationForDimensions.isEmpty()) {
-      builder.setSkipStarNodeCreationForDimensions(new HashSet<>(skipStarNodeCreationForDimensions));
+      builder.setSkipStarNodeCreationForDimensions(new HashSet<>(getDimensions(skipStarNodeCreationForDimensions)));
     }
     Set<AggregationFunctionColumnPair> functionColumnPairs = new HashSet<>();
     for (String functionColumnPair : indexConfig.getFunctionColumnPairs()) {
@@ -69,6 +71,25 @@ public class StarTreeV2BuilderConfig {
     return builder.build();
   }
 
+  /**
+   * Converts the dimensions in the index config into the star-tree dimensions, where the derived dimensions can be
+   * configured with the transform expressions (see {@link DerivedDimension}).
+   */
+  private static List<String> getDimensions(List<String> dimensions) {
+    List<String> starTreeDimensions = new ArrayList<>(dimensions.size());
+    for (String dimension : dimensions) {
+      if (dimension.indexOf('(') >= 0) {
+        DerivedDimension derivedDimension =
+            DerivedDimension.fromExpression(QueryContextConverterUtils.getExpression(dimension));
+        Preconditions.checkArgument(derivedDimension != null, "Unsupported derived dimension: %s", dimension);
+        starTreeDimensions.add(derivedDimension.getName());
+      } else {
+        starTreeDimensions.add(dimension);
+      }
+    }
+    return starTreeDimensions;
+  }
+
   /**
    * Generates default config based on the segment metadata.
    * <ul>
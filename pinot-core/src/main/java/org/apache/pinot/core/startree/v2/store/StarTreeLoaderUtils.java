@@ -37,6 +37,7 @@ import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 import org.apache.pinot.core.startree.OffHeapStarTree;
 import org.apache.pinot.core.startree.StarTree;
 import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
+import org.apache.pinot.core.startree.v2.DerivedDimension;
 import org.apache.pinot.core.startree.v2.StarTreeV2;
 import org.apache.pinot.core.startree.v2.StarTreeV2Metadata;
 import org.apache.pinot.spi.data.FieldSpec;
@@ -82,11 +83,13 @@ public class StarTreeLoaderUtils {
         start = indexValue._offset;
         end = start + indexValue._size;
         PinotDataBuffer forwardIndexDataBuffer = dataBuffer.view(start, end, ByteOrder.BIG_ENDIAN);
-        ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(dimension);
+        // NOTE: Derived dimension shares the dictionary with the column it is derived from
+        String column = DerivedDimension.getColumn(dimension);
+        ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
         FixedBitSVForwardIndexReader forwardIndex =
             new FixedBitSVForwardIndexReader(forwardIndexDataBuffer, numDocs, columnMetadata.getBitsPerElement());
         dataSourceMap.put(dimension, new StarTreeDataSource(columnMetadata.getFieldSpec(), numDocs, forwardIndex,
-            indexContainerMap.get(dimension).getDictionary()));
+            indexContainerMap.get(column).getDictionary()));
       }
 
       // Load metric (function-column pair) forward indexes
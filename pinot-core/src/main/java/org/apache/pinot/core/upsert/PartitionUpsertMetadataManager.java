@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ByteArray;
+
+
+/**
+ * The {@code PartitionUpsertMetadataManager} tracks the latest record of each primary key within a stream partition of
+ * an upsert table, and maintains the valid document ids of the segments in the partition.
+ * <p>The location of a record is packed into a long with the sequence number of the segment in the high 32 bits and
+ * the document id in the low 32 bits. Because the records within a stream partition are indexed in the stream order,
+ * the location is also the order of the records, and the record with the largest location is the latest one for the
+ * primary key. This makes the result independent of the order in which the segments are added (e.g. when loading the
+ * segments on server restart), and allows a segment to be replaced by another one with the same records in the same
+ * order (e.g. replacing the consuming segment with the committed one).
+ * <p>The primary keys are stored in primitive-specialized hash maps with the packed location as the value, and INT/LONG
+ * primary keys are stored as primitive longs, so that each entry takes about 16 bytes (plus the key object for the
+ * other primary key types). Composite primary keys (multiple primary key columns) are stored as {@link PrimaryKey}.
+ */
+@ThreadSafe
+public class PartitionUpsertMetadataManager {
+  private static final long NO_LOCATION = -1L;
+
+  private final String _tableNameWithType;
+  private final int _partitionId;
+  private final boolean _longPrimaryKey;
+  private final Long2LongOpenHashMap _longPrimaryKeyToLocationMap;
+  private final Object2LongOpenHashMap<Object> _primaryKeyToLocationMap;
+  private final Int2ObjectOpenHashMap<ThreadSafeMutableRoaringBitmap> _validDocIdsMap = new Int2ObjectOpenHashMap<>();
+
+  public PartitionUpsertMetadataManager(String tableNameWithType, int partitionId,
+      List<DataType> primaryKeyDataTypes) {
+    _tableNameWithType = tableNameWithType;
+    _partitionId = partitionId;
+    if (primaryKeyDataTypes.size() == 1) {
+      DataType primaryKeyDataType = primaryKeyDataTypes.get(0);
+      _longPrimaryKey = primaryKeyDataType == DataType.INT || primaryKeyDataType == DataType.LONG;
+    } else {
+      _longPrimaryKey = false;
+    }
+    if (_longPrimaryKey) {
+      _longPrimaryKeyToLocationMap = new Long2LongOpenHashMap();
+      _longPrimaryKeyToLocationMap.defaultReturnValue(NO_LOCATION);
+      _primaryKeyToLocationMap = null;
+    } else {
+      _longPrimaryKeyToLocationMap = null;
+      _primaryKeyToLocationMap = new Object2LongOpenHashMap<>();
+      _primaryKeyToLocationMap.defaultReturnValue(NO_LOCATION);
+    }
+  }
+
+  public String getTableNameWithType() {
+    return _tableNameWithType;
+  }
+
+  public int getPartitionId() {
+    return _partitionId;
+  }
+
+  /**
+   * Registers the valid document ids of the segment with the given sequence number, which replaces the existing one
+   * (if any). Should be called before adding the records of the segment.
+   */
+  public synchronized void addSegment(int sequenceNumber, ThreadSafeMutableRoaringBitmap validDocIds) {
+    _validDocIdsMap.put(sequenceNumber, validDocIds);
+  }
+
+  /**
+   * Adds a record of the segment with the given sequence number. The record is marked valid if it is the latest record
+   * for the primary key, in which case the previous record for the primary key is marked invalid.
+   * <p>The primary key should be the raw value for single primary key column, or a {@link PrimaryKey} for composite
+   * primary key.
+   */
+  public synchronized void addRecord(int sequenceNumber, int docId, Object primaryKey) {
+    long location = ((long) sequenceNumber << 32) | docId;
+    long previousLocation;
+    if (_longPrimaryKey) {
+      long key = ((Number) primaryKey).longValue();
+      previousLocation = _longPrimaryKeyToLocationMap.get(key);
+      if (location >= previousLocation) {
+        _longPrimaryKeyToLocationMap.put(key, location);
+      }
+    } else {
+      Object key = primaryKey instanceof byte[] ? new ByteArray((byte[]) primaryKey) : primaryKey;
+      previousLocation = _primaryKeyToLocationMap.getLong(key);
+      if (location >= previousLocation) {
+        _primaryKeyToLocationMap.put(key, location);
+      }
+    }
+    if (location < previousLocation) {
+      // There is a later record for the primary key
+      return;
+    }
+    ThreadSafeMutableRoaringBitmap validDocIds = _validDocIdsMap.get(sequenceNumber);
+    if (validDocIds != null) {
+      validDocIds.checkAndAdd(docId);
+    }
+    // NOTE: Same location means the record has been added by the segment being replaced
+    if (previousLocation != NO_LOCATION && previousLocation != location) {
+      ThreadSafeMutableRoaringBitmap previousValidDocIds = _validDocIdsMap.get((int) (previousLocation >>> 32));
+      if (previousValidDocIds != null) {
+        previousValidDocIds.remove((int) previousLocation);
+      }
+    }
+  }
+
+  /**
+   * Removes the segment with the given sequence number and the primary keys located in it. Does nothing if the segment
+   * has been replaced (registered with different valid document ids).
+   */
+  public synchronized void removeSegment(int sequenceNumber, ThreadSafeMutableRoaringBitmap validDocIds) {
+    if (_validDocIdsMap.get(sequenceNumber) != validDocIds) {
+      return;
+    }
+    _validDocIdsMap.remove(sequenceNumber);
+    if (_longPrimaryKey) {
+      Iterator<Long2LongMap.Entry> iterator = _longPrimaryKeyToLocationMap.long2LongEntrySet().fastIterator();
+      while (iterator.hasNext()) {
+        if ((int) (iterator.next().getLongValue() >>> 32) == sequenceNumber) {
+          iterator.remove();
+        }
+      }
+    } else {
+      Iterator<Object2LongMap.Entry<Object>> iterator =
+          _primaryKeyToLocationMap.object2LongEntrySet().fastIterator();
+      while (iterator.hasNext()) {
+        if ((int) (iterator.next().getLongValue() >>> 32) == sequenceNumber) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  public synchronized int getNumPrimaryKeys() {
+    return _longPrimaryKey ? _longPrimaryKeyToLocationMap.size() : _primaryKeyToLocationMap.size();
+  }
+}
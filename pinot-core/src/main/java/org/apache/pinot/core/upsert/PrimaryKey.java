@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import java.util.Arrays;
+
+
+/**
+ * The {@code PrimaryKey} wraps the values of a composite primary key (upsert table with multiple primary key columns)
+ * so that it can be used as the key of the hash maps. BYTES values are compared by content.
+ */
+public final class PrimaryKey {
+  private final Object[] _values;
+
+  public PrimaryKey(Object[] values) {
+    _values = values;
+  }
+
+  public Object[] getValues() {
+    return _values;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof PrimaryKey)) {
+      return false;
+    }
+    return Arrays.deepEquals(_values, ((PrimaryKey) o)._values);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.deepHashCode(_values);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.deepToString(_values);
+  }
+}
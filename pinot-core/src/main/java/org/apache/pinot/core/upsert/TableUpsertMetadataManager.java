@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.utils.LLCSegmentName;
+import org.apache.pinot.common.utils.SegmentName;
+import org.apache.pinot.core.data.readers.PinotSegmentColumnReader;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentImpl;
+import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.spi.config.table.UpsertConfig;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code TableUpsertMetadataManager} manages the {@link PartitionUpsertMetadataManager}s of an upsert table on a
+ * server. The records are only deduplicated within each stream partition, so the stream should be partitioned by the
+ * primary key.
+ */
+@ThreadSafe
+public class TableUpsertMetadataManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TableUpsertMetadataManager.class);
+
+  private final String _tableNameWithType;
+  private final List<String> _primaryKeyColumns;
+  private final List<DataType> _primaryKeyDataTypes;
+  private final Map<Integer, PartitionUpsertMetadataManager> _partitionMetadataManagerMap = new ConcurrentHashMap<>();
+
+  public TableUpsertMetadataManager(String tableNameWithType, UpsertConfig upsertConfig, Schema schema) {
+    _tableNameWithType = tableNameWithType;
+    _primaryKeyColumns = upsertConfig.getPrimaryKeyColumns();
+    _primaryKeyDataTypes = new ArrayList<>(_primaryKeyColumns.size());
+    for (String primaryKeyColumn : _primaryKeyColumns) {
+      FieldSpec primaryKeyFieldSpec = schema.getFieldSpecFor(primaryKeyColumn);
+      Preconditions.checkArgument(primaryKeyFieldSpec != null, "Failed to find primary key column: %s in schema",
+          primaryKeyColumn);
+      Preconditions
+          .checkArgument(primaryKeyFieldSpec.isSingleValueField(), "Primary key column: %s must be single-valued",
+              primaryKeyColumn);
+      _primaryKeyDataTypes.add(primaryKeyFieldSpec.getDataType());
+    }
+  }
+
+  public List<String> getPrimaryKeyColumns() {
+    return _primaryKeyColumns;
+  }
+
+  public PartitionUpsertMetadataManager getOrCreatePartitionManager(int partitionId) {
+    return _partitionMetadataManagerMap.computeIfAbsent(partitionId,
+        k -> new PartitionUpsertMetadataManager(_tableNameWithType, partitionId, _primaryKeyDataTypes));
+  }
+
+  /**
+   * Adds an immutable (LLC) segment to the upsert metadata, and enables upsert for the segment. Should be called before
+   * the segment is queried.
+   */
+  public void addSegment(ImmutableSegmentImpl immutableSegment) {
+    String segmentName = immutableSegment.getSegmentName();
+    Preconditions.checkArgument(SegmentName.isLowLevelConsumerSegmentName(segmentName),
+        "Upsert is only supported for low level consumer segments, got: %s", segmentName);
+    LLCSegmentName llcSegmentName = new LLCSegmentName(segmentName);
+    PartitionUpsertMetadataManager partitionManager = getOrCreatePartitionManager(llcSegmentName.getPartitionId());
+    int sequenceNumber = llcSegmentName.getSequenceNumber();
+    ThreadSafeMutableRoaringBitmap validDocIds = new ThreadSafeMutableRoaringBitmap();
+    immutableSegment.enableUpsert(partitionManager, sequenceNumber, validDocIds);
+    partitionManager.addSegment(sequenceNumber, validDocIds);
+
+    int numDocs = immutableSegment.getSegmentMetadata().getTotalDocs();
+    int numPrimaryKeyColumns = _primaryKeyColumns.size();
+    PinotSegmentColumnReader[] primaryKeyReaders = new PinotSegmentColumnReader[numPrimaryKeyColumns];
+    for (int i = 0; i < numPrimaryKeyColumns; i++) {
+      primaryKeyReaders[i] = new PinotSegmentColumnReader(immutableSegment, _primaryKeyColumns.get(i));
+    }
+    try {
+      for (int docId = 0; docId < numDocs; docId++) {
+        Object primaryKey;
+        if (numPrimaryKeyColumns == 1) {
+          primaryKey = primaryKeyReaders[0].getValue(docId);
+        } else {
+          Object[] values = new Object[numPrimaryKeyColumns];
+          for (int i = 0; i < numPrimaryKeyColumns; i++) {
+            values[i] = primaryKeyReaders[i].getValue(docId);
+          }
+          primaryKey = new PrimaryKey(values);
+        }
+        partitionManager.addRecord(sequenceNumber, docId, primaryKey);
+      }
+    } finally {
+      for (PinotSegmentColumnReader primaryKeyReader : primaryKeyReaders) {
+        try {
+          primaryKeyReader.close();
+        } catch (IOException e) {
+          // Only thrown when closing the reader, which does not affect the upsert metadata
+          LOGGER.warn("Caught exception while closing the primary key reader for segment: {}", segmentName, e);
+        }
+      }
+    }
+  }
+}
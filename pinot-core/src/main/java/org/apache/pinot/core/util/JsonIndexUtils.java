@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.apache.pinot.spi.utils.JsonUtils;
+
+
+/**
+ * Utility methods for the JSON index.
+ * <p>The JSON index flattens each JSON document into the (path, value) pairs of its scalar leaves, and keeps a posting
+ * list for each pair. The paths are in JsonPath notation, e.g. {@code $.device.os}, {@code $.tags[0]} and
+ * {@code $['key with space']}. Each array element is indexed both under its own index and under the wildcard index
+ * {@code [*]}, so that {@code $.tags[*] = 'a'} matches the documents with any element of {@code tags} being 'a'.
+ * <p>The values are stored as strings, where the textual values are stored as is, and the other scalar values (numbers
+ * and booleans) are stored as their JSON representation. Null values, empty objects and empty arrays are not indexed.
+ */
+public class JsonIndexUtils {
+  public static final String ROOT_PATH = "$";
+  public static final String WILDCARD_INDEX = "[*]";
+  // NOTE: Separator between the path and the value within the key, which should not appear in the path
+  public static final char KEY_SEPARATOR = '\0';
+
+  private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+  // Paths with only the identifier keys and the array indexes, which can be looked up in the JSON index as is
+  private static final Pattern SIMPLE_PATH_PATTERN =
+      Pattern.compile("\\$(\\.[A-Za-z_][A-Za-z0-9_]*|\\[(0|[1-9][0-9]*)])+");
+
+  private JsonIndexUtils() {
+  }
+
+  /**
+   * Returns the key in the JSON index for the given path and value.
+   */
+  public static String getKey(String path, String value) {
+    return path + KEY_SEPARATOR + value;
+  }
+
+  /**
+   * Returns the keys in the JSON index for the given JSON document, or an empty set if the document is not a valid JSON.
+   */
+  public static Set<String> getKeys(String jsonString) {
+    JsonNode jsonNode;
+    try {
+      jsonNode = JsonUtils.stringToJsonNode(jsonString);
+    } catch (Exception e) {
+      // NOTE: Invalid JSON document does not match any path
+      return new HashSet<>();
+    }
+    Set<String> keys = new HashSet<>();
+    addKeys(jsonNode, ROOT_PATH, keys);
+    return keys;
+  }
+
+  private static void addKeys(JsonNode jsonNode, String path, Set<String> keys) {
+    if (jsonNode.isObject()) {
+      Iterator<Map.Entry<String, JsonNode>> fields = jsonNode.fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        addKeys(field.getValue(), getChildPath(path, field.getKey()), keys);
+      }
+    } else if (jsonNode.isArray()) {
+      int numElements = jsonNode.size();
+      for (int i = 0; i < numElements; i++) {
+        JsonNode element = jsonNode.get(i);
+        addKeys(element, path + '[' + i + ']', keys);
+        addKeys(element, path + WILDCARD_INDEX, keys);
+      }
+    } else if (!jsonNode.isNull() && !jsonNode.isMissingNode()) {
+      keys.add(getKey(path, jsonNode.asText()));
+    }
+  }
+
+  private static String getChildPath(String path, String fieldName) {
+    if (IDENTIFIER_PATTERN.matcher(fieldName).matches()) {
+      return path + '.' + fieldName;
+    } else {
+      return path + "['" + fieldName.replace("\\", "\\\\").replace("'", "\\'") + "']";
+    }
+  }
+
+  /**
+   * Returns {@code true} if the given JsonPath only contains the identifier keys and the array indexes (e.g.
+   * {@code $.a.b[0].c}), which points to at most one value in a document and can be looked up in the JSON index as is.
+   */
+  public static boolean isSimplePath(String path) {
+    return SIMPLE_PATH_PATTERN.matcher(path).matches();
+  }
+
+  /**
+   * Normalizes the path in the JSON_MATCH filter, where the root ({@code $}) is optional.
+   */
+  public static String normalizePath(String path) {
+    if (path.startsWith(ROOT_PATH)) {
+      return path;
+    }
+    if (path.startsWith("[")) {
+      return ROOT_PATH + path;
+    }
+    return ROOT_PATH + '.' + path;
+  }
+}
@@ -32,6 +32,9 @@ public class QueryOptions {
   private final boolean _groupByModeSQL;
   private final boolean _responseFormatSQL;
   private final boolean _preserveType;
+  private final boolean _workStealingEnabled;
+  private final boolean _partitionedGroupByCombineEnabled;
+  private final boolean _costBasedFilterReorderingEnabled;
 
   public QueryOptions(@Nullable Map<String, String> queryOptions) {
     if (queryOptions != null) {
@@ -39,11 +42,19 @@ public class QueryOptions {
       _groupByModeSQL = Request.SQL.equalsIgnoreCase(queryOptions.get(Request.QueryOptionKey.GROUP_BY_MODE));
       _responseFormatSQL = Request.SQL.equalsIgnoreCase(queryOptions.get(Request.QueryOptionKey.RESPONSE_FORMAT));
       _preserveType = Boolean.parseBoolean(queryOptions.get(Request.QueryOptionKey.PRESERVE_TYPE));
+      _workStealingEnabled = Boolean.parseBoolean(queryOptions.get(Request.QueryOptionKey.ENABLE_WORK_STEALING));
+      _partitionedGroupByCombineEnabled =
+          Boolean.parseBoolean(queryOptions.get(Request.QueryOptionKey.ENABLE_PARTITIONED_GROUP_BY_COMBINE));
+      _costBasedFilterReorderingEnabled =
+          Boolean.parseBoolean(queryOptions.get(Request.QueryOptionKey.ENABLE_COST_BASED_FILTER_REORDERING));
     } else {
       _timeoutMs = null;
       _groupByModeSQL = false;
       _responseFormatSQL = false;
       _preserveType = false;
+      _workStealingEnabled = false;
+      _partitionedGroupByCombineEnabled = false;
+      _costBasedFilterReorderingEnabled = false;
     }
   }
 
@@ -64,6 +75,18 @@ public class QueryOptions {
     return _preserveType;
   }
 
+  public boolean isWorkStealingEnabled() {
+    return _workStealingEnabled;
+  }
+
+  public boolean isPartitionedGroupByCombineEnabled() {
+    return _partitionedGroupByCombineEnabled;
+  }
+
+  public boolean isCostBasedFilterReorderingEnabled() {
+    return _costBasedFilterReorderingEnabled;
+  }
+
   @Nullable
   public static Long getTimeoutMs(Map<String, String> queryOptions) {
     String timeoutMsString = queryOptions.get(Request.QueryOptionKey.TIMEOUT_MS);
@@ -75,4 +98,8 @@ public class QueryOptions {
       return null;
     }
   }
+
+  public static boolean isSkipResultCache(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(Request.QueryOptionKey.SKIP_RESULT_CACHE));
+  }
 }
@@ -22,20 +22,28 @@ import com.google.common.base.Preconditions;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
+import org.apache.pinot.common.function.AggregationFunctionType;
 import org.apache.pinot.common.tier.TierFactory;
 import org.apache.pinot.common.utils.CommonConstants;
 import org.apache.pinot.common.utils.config.TagNameUtils;
 import org.apache.pinot.core.data.function.FunctionEvaluator;
 import org.apache.pinot.core.data.function.FunctionEvaluatorFactory;
+import org.apache.pinot.spi.config.table.FieldConfig;
 import org.apache.pinot.spi.config.table.IngestionConfig;
 import org.apache.pinot.spi.config.table.SegmentsValidationAndRetentionConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.config.table.TierConfig;
 import org.apache.pinot.spi.config.table.ingestion.FilterConfig;
+import org.apache.pinot.spi.config.table.ingestion.RollupConfig;
 import org.apache.pinot.spi.config.table.ingestion.TransformConfig;
+import org.apache.pinot.spi.data.DateTimeGranularitySpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.utils.TimeUtils;
 
 
@@ -54,11 +62,21 @@ public final class TableConfigUtils {
    * 1. Validation config
    * 2. IngestionConfig
    * 3. TierConfigs
+   * 4. FieldConfigs
    */
   public static void validate(TableConfig tableConfig) {
+    validate(tableConfig, null);
+  }
+
+  /**
+   * Performs table config validations same as {@link #validate(TableConfig)}. If the schema is provided, also validates
+   * the field configs against the field specs of the columns.
+   */
+  public static void validate(TableConfig tableConfig, @Nullable Schema schema) {
     validateValidationConfig(tableConfig);
     validateIngestionConfig(tableConfig.getIngestionConfig());
     validateTierConfigList(tableConfig.getTierConfigsList());
+    validateFieldConfigList(tableConfig, schema);
   }
 
   /**
@@ -98,6 +116,7 @@ public final class TableConfigUtils {
    * 3. checks for null column name or transform function in transform config
    * 4. validity of transform function string
    * 5. checks for source fields used in destination columns
+   * 6. validity of rollup aggregation functions and time granularity
    */
   private static void validateIngestionConfig(@Nullable IngestionConfig ingestionConfig) {
     if (ingestionConfig != null) {
@@ -147,6 +166,43 @@ public final class TableConfigUtils {
               "Derived columns not supported yet. Cannot use a transform column as argument to another transform functions");
         }
       }
+      RollupConfig rollupConfig = ingestionConfig.getRollupConfig();
+      if (rollupConfig != null) {
+        Map<String, String> aggregationFunctions = rollupConfig.getAggregationFunctions();
+        if (aggregationFunctions != null) {
+          for (Map.Entry<String, String> entry : aggregationFunctions.entrySet()) {
+            String aggregationFunction = entry.getValue();
+            AggregationFunctionType aggregationType;
+            try {
+              aggregationType = AggregationFunctionType.getAggregationFunctionType(aggregationFunction);
+            } catch (Exception e) {
+              throw new IllegalStateException(
+                  "Invalid rollup aggregation function '" + aggregationFunction + "' for column '" + entry.getKey()
+                      + "'");
+            }
+            switch (aggregationType) {
+              case SUM:
+              case MIN:
+              case MAX:
+              case DISTINCTCOUNTHLL:
+              case DISTINCTCOUNTTHETASKETCH:
+                break;
+              default:
+                throw new IllegalStateException(
+                    "Unsupported rollup aggregation function '" + aggregationFunction + "' for column '" + entry
+                        .getKey() + "'");
+            }
+          }
+        }
+        String timeGranularity = rollupConfig.getTimeGranularity();
+        if (timeGranularity != null) {
+          try {
+            DateTimeGranularitySpec.validateGranularity(timeGranularity);
+          } catch (Exception e) {
+            throw new IllegalStateException("Invalid rollup time granularity '" + timeGranularity + "'");
+          }
+        }
+      }
     }
   }
 
@@ -193,4 +249,46 @@ public final class TableConfigUtils {
       }
     }
   }
+
+  /**
+   * Validates the field configs
+   * Checks that the raw index encoding is only configured on no-dictionary columns, and the FOR encoding is only
+   * configured on single-value INT/LONG columns (if schema is provided)
+   */
+  private static void validateFieldConfigList(TableConfig tableConfig, @Nullable Schema schema) {
+    List<FieldConfig> fieldConfigList = tableConfig.getFieldConfigList();
+    if (fieldConfigList == null) {
+      return;
+    }
+
+    List<String> noDictionaryColumns = tableConfig.getIndexingConfig().getNoDictionaryColumns();
+    for (FieldConfig fieldConfig : fieldConfigList) {
+      Map<String, String> properties = fieldConfig.getProperties();
+      if (properties == null || properties.get(FieldConfig.RAW_INDEX_ENCODING) == null) {
+        continue;
+      }
+      String columnName = fieldConfig.getName();
+      String encoding = properties.get(FieldConfig.RAW_INDEX_ENCODING);
+      FieldConfig.RawIndexEncoding rawIndexEncoding;
+      try {
+        rawIndexEncoding = FieldConfig.RawIndexEncoding.valueOf(encoding);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalStateException("Invalid raw index encoding: " + encoding + " for column: " + columnName);
+      }
+      Preconditions.checkState(noDictionaryColumns != null && noDictionaryColumns.contains(columnName),
+          "Raw index encoding: %s can only be configured on no-dictionary column, but column: %s is not",
+          rawIndexEncoding, columnName);
+      if (schema != null) {
+        FieldSpec fieldSpec = schema.getFieldSpecFor(columnName);
+        Preconditions.checkState(fieldSpec != null, "Failed to find column: %s in schema", columnName);
+        if (rawIndexEncoding == FieldConfig.RawIndexEncoding.FOR) {
+          DataType dataType = fieldSpec.getDataType();
+          Preconditions.checkState(
+              fieldSpec.isSingleValueField() && (dataType == DataType.INT || dataType == DataType.LONG),
+              "FOR raw index encoding is only supported on single-value INT/LONG columns, got %s %s column: %s",
+              fieldSpec.isSingleValueField() ? "single-value" : "multi-value", dataType, columnName);
+        }
+      }
+    }
+  }
 }
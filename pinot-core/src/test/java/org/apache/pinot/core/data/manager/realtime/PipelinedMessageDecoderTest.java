@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.pinot.core.data.manager.realtime.PipelinedMessageDecoder.DecodedMessage;
+import org.apache.pinot.core.data.manager.realtime.PipelinedMessageDecoder.DecodedMessageBatch;
+import org.apache.pinot.core.data.recordtransformer.RecordTransformer;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.StreamMessageDecoder;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class PipelinedMessageDecoderTest {
+  private static final String VALUE_COLUMN = "value";
+  private static final int NUM_MESSAGES = 1000;
+
+  @Test
+  public void testDecode() {
+    PipelinedMessageDecoder pipelinedMessageDecoder =
+        new PipelinedMessageDecoder(3, TestDecoder::new, TestTransformer::new, "testDecoder",
+            LoggerFactory.getLogger(PipelinedMessageDecoderTest.class));
+    try {
+      for (int i = 0; i < 3; i++) {
+        TestMessageBatch messageBatch = new TestMessageBatch(NUM_MESSAGES);
+        try (DecodedMessageBatch decodedMessageBatch = pipelinedMessageDecoder.decode(messageBatch)) {
+          for (int index = 0; index < NUM_MESSAGES; index++) {
+            DecodedMessage decodedMessage = decodedMessageBatch.getDecodedMessage(index);
+            List<GenericRow> rows = decodedMessage.getRows();
+            assertFalse(decodedMessage.isErrored());
+            if (index % 7 == 0) {
+              // Failed to decode
+              assertTrue(rows.isEmpty());
+              assertEquals(decodedMessage.getNumRowsDropped(), 1);
+            } else if (index % 5 == 0) {
+              // Multiple records, where the odd values are filtered out
+              assertEquals(rows.size(), 1);
+              assertEquals(rows.get(0).getValue(VALUE_COLUMN), index * 2);
+              assertEquals(decodedMessage.getNumRowsDropped(), 1);
+            } else if (index % 2 == 1) {
+              // Filtered out
+              assertTrue(rows.isEmpty());
+              assertEquals(decodedMessage.getNumRowsDropped(), 1);
+            } else {
+              assertEquals(rows.size(), 1);
+              assertEquals(rows.get(0).getValue(VALUE_COLUMN), index);
+              assertEquals(decodedMessage.getNumRowsDropped(), 0);
+            }
+          }
+        }
+      }
+      assertTrue(pipelinedMessageDecoder.getDecodeTimeNs() > 0);
+
+      // Closing the batch before accessing all the messages should not block the following batches
+      pipelinedMessageDecoder.decode(new TestMessageBatch(NUM_MESSAGES)).close();
+      try (DecodedMessageBatch decodedMessageBatch = pipelinedMessageDecoder.decode(new TestMessageBatch(2))) {
+        assertEquals(decodedMessageBatch.getDecodedMessage(0).getNumRowsDropped(), 1);
+        assertEquals(decodedMessageBatch.getDecodedMessage(1).getNumRowsDropped(), 1);
+      }
+
+      // Empty batch
+      try (DecodedMessageBatch ignored = pipelinedMessageDecoder.decode(new TestMessageBatch(0))) {
+        // Nothing to decode
+      }
+    } finally {
+      pipelinedMessageDecoder.shutDown();
+    }
+  }
+
+  /**
+   * Message batch where each message is the 4-byte encoded index of the message.
+   */
+  private static class TestMessageBatch implements MessageBatch<byte[]> {
+    final byte[][] _messages;
+
+    TestMessageBatch(int numMessages) {
+      _messages = new byte[numMessages][];
+      for (int i = 0; i < numMessages; i++) {
+        _messages[i] = ByteBuffer.allocate(Integer.BYTES).putInt(i).array();
+      }
+    }
+
+    @Override
+    public int getMessageCount() {
+      return _messages.length;
+    }
+
+    @Override
+    public byte[] getMessageAtIndex(int index) {
+      return _messages[index];
+    }
+
+    @Override
+    public int getMessageOffsetAtIndex(int index) {
+      return 0;
+    }
+
+    @Override
+    public int getMessageLengthAtIndex(int index) {
+      return Integer.BYTES;
+    }
+
+    @Override
+    public long getNextStreamMessageOffsetAtIndex(int index) {
+      return index + 1;
+    }
+  }
+
+  /**
+   * Decoder that fails to decode every 7th message, and decodes every 5th message into 2 records.
+   */
+  private static class TestDecoder implements StreamMessageDecoder<byte[]> {
+    @Override
+    public void init(Map<String, String> props, Set<String> fieldsToRead, String topicName) {
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, GenericRow destination) {
+      return decode(payload, 0, payload.length, destination);
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
+      int value = ByteBuffer.wrap(payload, offset, length).getInt();
+      if (value % 7 == 0) {
+        return null;
+      }
+      if (value % 5 == 0) {
+        GenericRow row1 = new GenericRow();
+        row1.putValue(VALUE_COLUMN, value * 2);
+        GenericRow row2 = new GenericRow();
+        row2.putValue(VALUE_COLUMN, value * 2 + 1);
+        destination.putValue(GenericRow.MULTIPLE_RECORDS_KEY, Arrays.asList(row1, row2));
+      } else {
+        destination.putValue(VALUE_COLUMN, value);
+      }
+      return destination;
+    }
+  }
+
+  /**
+   * Transformer that filters out the odd values.
+   */
+  private static class TestTransformer implements RecordTransformer {
+    @Override
+    public GenericRow transform(GenericRow record) {
+      return (int) record.getValue(VALUE_COLUMN) % 2 == 0 ? record : null;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class RealtimeConsumptionSchedulerTest {
+
+  @Test
+  public void testRoundRobinScheduling()
+      throws InterruptedException {
+    RealtimeConsumptionScheduler.init(1);
+    RealtimeConsumptionScheduler scheduler = RealtimeConsumptionScheduler.getInstance();
+    try {
+      CountDownLatch startLatch = new CountDownLatch(1);
+      CountDownLatch completedLatch = new CountDownLatch(3);
+      List<Integer> consumedTaskIds = Collections.synchronizedList(new ArrayList<>());
+      for (int i = 0; i < 3; i++) {
+        scheduler.schedule(new TestConsumptionTask(i, 3, 0, startLatch, completedLatch, consumedTaskIds));
+      }
+      startLatch.countDown();
+      assertTrue(completedLatch.await(10, TimeUnit.SECONDS));
+
+      // Each task should consume one batch per turn
+      assertEquals(consumedTaskIds, Arrays.asList(0, 1, 2, 0, 1, 2, 0, 1, 2));
+    } finally {
+      RealtimeConsumptionScheduler.shutDown();
+    }
+  }
+
+  @Test
+  public void testIdleTask()
+      throws InterruptedException {
+    RealtimeConsumptionScheduler.init(1);
+    RealtimeConsumptionScheduler scheduler = RealtimeConsumptionScheduler.getInstance();
+    try {
+      CountDownLatch startLatch = new CountDownLatch(1);
+      CountDownLatch completedLatch = new CountDownLatch(2);
+      List<Integer> consumedTaskIds = Collections.synchronizedList(new ArrayList<>());
+      scheduler.schedule(new TestConsumptionTask(0, 1, 2, startLatch, completedLatch, consumedTaskIds));
+      scheduler.schedule(new TestConsumptionTask(1, 3, 0, startLatch, completedLatch, consumedTaskIds));
+      startLatch.countDown();
+      assertTrue(completedLatch.await(10, TimeUnit.SECONDS));
+
+      // The idle task should be delayed without blocking the other task
+      assertEquals(consumedTaskIds, Arrays.asList(1, 1, 1, 0));
+    } finally {
+      RealtimeConsumptionScheduler.shutDown();
+    }
+  }
+
+  private static class TestConsumptionTask implements RealtimeConsumptionScheduler.ConsumptionTask {
+    final int _taskId;
+    final CountDownLatch _startLatch;
+    final CountDownLatch _completedLatch;
+    final List<Integer> _consumedTaskIds;
+    int _numBatchesToConsume;
+    int _numIdleBatches;
+
+    TestConsumptionTask(int taskId, int numBatchesToConsume, int numIdleBatches, CountDownLatch startLatch,
+        CountDownLatch completedLatch, List<Integer> consumedTaskIds) {
+      _taskId = taskId;
+      _numBatchesToConsume = numBatchesToConsume;
+      _numIdleBatches = numIdleBatches;
+      _startLatch = startLatch;
+      _completedLatch = completedLatch;
+      _consumedTaskIds = consumedTaskIds;
+    }
+
+    @Override
+    public RealtimeConsumptionScheduler.TaskStatus consumeNextBatch() {
+      Uninterruptibles.awaitUninterruptibly(_startLatch);
+      if (_numIdleBatches > 0) {
+        _numIdleBatches--;
+        return RealtimeConsumptionScheduler.TaskStatus.IDLE;
+      }
+      if (_numBatchesToConsume > 0) {
+        _numBatchesToConsume--;
+        _consumedTaskIds.add(_taskId);
+        return RealtimeConsumptionScheduler.TaskStatus.CONSUMED;
+      }
+      return RealtimeConsumptionScheduler.TaskStatus.DONE;
+    }
+
+    @Override
+    public void complete() {
+      _completedLatch.countDown();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class RealtimeMemoryGovernorTest {
+
+  @Test
+  public void testCheck() {
+    // High watermark: 900 bytes, low watermark: 500 bytes
+    RealtimeMemoryGovernor memoryGovernor = new RealtimeMemoryGovernor(1000, 0.9, 0.5, null);
+    TestConsumingSegment segment1 = new TestConsumingSegment(200);
+    TestConsumingSegment segment2 = new TestConsumingSegment(300);
+    TestConsumingSegment segment3 = new TestConsumingSegment(250);
+    memoryGovernor.register("segment1", segment1);
+    memoryGovernor.register("segment2", segment2);
+    memoryGovernor.register("segment3", segment3);
+
+    // Below the high watermark
+    assertEquals(memoryGovernor.check(), 0);
+
+    // Above the high watermark, the largest segments should be committed until dropping below the low watermark
+    segment1._memoryUsedBytes = 400;
+    assertEquals(memoryGovernor.check(), 2);
+    assertTrue(segment1._earlyCommitRequested);
+    assertTrue(segment2._earlyCommitRequested);
+    assertFalse(segment3._earlyCommitRequested);
+
+    // Memory of the committing segments should not trigger more commits
+    segment3._memoryUsedBytes = 400;
+    assertEquals(memoryGovernor.check(), 0);
+
+    // Segment that cannot commit early should be skipped
+    memoryGovernor.unregister("segment1");
+    memoryGovernor.unregister("segment2");
+    TestConsumingSegment segment4 = new TestConsumingSegment(600);
+    segment4._canCommitEarly = false;
+    memoryGovernor.register("segment4", segment4);
+    assertEquals(memoryGovernor.check(), 1);
+    assertFalse(segment4._earlyCommitRequested);
+    assertTrue(segment3._earlyCommitRequested);
+  }
+
+  private static class TestConsumingSegment implements RealtimeMemoryGovernor.ConsumingSegment {
+    long _memoryUsedBytes;
+    boolean _canCommitEarly = true;
+    boolean _earlyCommitRequested;
+
+    TestConsumingSegment(long memoryUsedBytes) {
+      _memoryUsedBytes = memoryUsedBytes;
+    }
+
+    @Override
+    public long getMemoryUsedBytes() {
+      return _memoryUsedBytes;
+    }
+
+    @Override
+    public boolean requestEarlyCommit() {
+      if (!_canCommitEarly || _earlyCommitRequested) {
+        return false;
+      }
+      _earlyCommitRequested = true;
+      return true;
+    }
+  }
+}
@@ -133,6 +133,127 @@ public class IndexedTableTest {
     testNonConcurrent(indexedTable, mergeTable);
     indexedTable.finish(true);
     checkSurvivors(indexedTable, survivors);
+
+    // Test PartitionedIndexedTable
+    indexedTable = new PartitionedIndexedTable(dataSchema, queryContext, 5, 3);
+    mergeTable = new SimpleIndexedTable(dataSchema, queryContext, 10);
+    testNonConcurrent(indexedTable, mergeTable);
+    indexedTable.finish(true);
+    checkSurvivors(indexedTable, survivors);
+  }
+
+  @Test
+  public void testPartitionedIndexedTableMerge() {
+    QueryContext queryContext = QueryContextConverterUtils
+        .getQueryContextFromSQL("SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2, d3 ORDER BY SUM(m1)");
+    DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "d3", "sum(m1)", "max(m2)"},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE});
+    int numPartitions = 4;
+
+    // Same records as testConcurrentIndexedTable(), but each table is only accessed by one thread
+    PartitionedIndexedTable table1 = new PartitionedIndexedTable(dataSchema, queryContext, 5, numPartitions);
+    table1.upsert(getKey(new Object[]{"a", 1, 10d}), getRecord(new Object[]{"a", 1, 10d, 10d, 100d}));
+    table1.upsert(getKey(new Object[]{"b", 2, 20d}), getRecord(new Object[]{"b", 2, 20d, 10d, 200d}));
+    table1.upsert(getKey(new Object[]{"c", 3, 30d}), getRecord(new Object[]{"c", 3, 30d, 10000d, 300d}));
+    table1.upsert(getKey(new Object[]{"d", 4, 40d}), getRecord(new Object[]{"d", 4, 40d, 10d, 400d}));
+    table1.upsert(getKey(new Object[]{"d", 4, 40d}), getRecord(new Object[]{"d", 4, 40d, 10d, 400d}));
+    table1.upsert(getKey(new Object[]{"e", 5, 50d}), getRecord(new Object[]{"e", 5, 50d, 10d, 500d}));
+
+    PartitionedIndexedTable table2 = new PartitionedIndexedTable(dataSchema, queryContext, 5, numPartitions);
+    table2.upsert(getKey(new Object[]{"a", 1, 10d}), getRecord(new Object[]{"a", 1, 10d, 10d, 100d}));
+    table2.upsert(getKey(new Object[]{"f", 6, 60d}), getRecord(new Object[]{"f", 6, 60d, 20000d, 600d}));
+    table2.upsert(getKey(new Object[]{"g", 7, 70d}), getRecord(new Object[]{"g", 7, 70d, 10d, 700d}));
+    table2.upsert(getKey(new Object[]{"b", 2, 20d}), getRecord(new Object[]{"b", 2, 20d, 10d, 200d}));
+    table2.upsert(getKey(new Object[]{"h", 8, 80d}), getRecord(new Object[]{"h", 8, 80d, 10d, 800d}));
+    table2.upsert(getKey(new Object[]{"i", 9, 90d}), getRecord(new Object[]{"i", 9, 90d, 500d, 900d}));
+    Assert.assertEquals(table1.size(), 5);
+    Assert.assertEquals(table2.size(), 6);
+
+    for (int partitionId = 0; partitionId < numPartitions; partitionId++) {
+      table1.mergePartition(partitionId, table2);
+      table1.trimPartition(partitionId);
+    }
+    table1.finish(true);
+    Assert.assertEquals(table1.size(), 5);
+    checkEvicted(table1, "c", "f", "i");
+
+    // The merged values should be aggregated across the tables
+    Iterator<Record> iterator = table1.iterator();
+    while (iterator.hasNext()) {
+      Object[] values = iterator.next().getValues();
+      if (values[0].equals("a") || values[0].equals("b") || values[0].equals("d")) {
+        Assert.assertEquals(values[3], 20d);
+      }
+    }
+  }
+
+  @Test
+  public void testPartitionedIndexedTableConcurrentTrimOnPostAggregation()
+      throws Exception {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromSQL(
+        "SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2, d3 ORDER BY SUM(m1) / MAX(m2) DESC LIMIT 10");
+    DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "d3", "sum(m1)", "max(m2)"},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE});
+    int numPartitions = 8;
+    int numKeys = 20_000;
+
+    // Even keys go to the first table and odd keys go to the second table, so that the order of the records does not
+    // change during the merge. SUM(m1) / MAX(m2) is i for even i and i / 2 for odd i, so there is no tie.
+    List<Integer> keyIds = new ArrayList<>();
+    for (int i = 0; i < numKeys; i++) {
+      keyIds.add(i);
+    }
+    keyIds.sort((i1, i2) -> Double.compare(getPostAggregationValue(i2), getPostAggregationValue(i1)));
+    List<String> expectedSurvivors = new ArrayList<>(10);
+    for (int i = 0; i < 10; i++) {
+      expectedSurvivors.add("k" + keyIds.get(i));
+    }
+
+    ExecutorService executorService = Executors.newFixedThreadPool(numPartitions);
+    try {
+      for (int iteration = 0; iteration < 5; iteration++) {
+        PartitionedIndexedTable table1 = new PartitionedIndexedTable(dataSchema, queryContext, 100, numPartitions);
+        PartitionedIndexedTable table2 = new PartitionedIndexedTable(dataSchema, queryContext, 100, numPartitions);
+        for (int i = 0; i < numKeys; i++) {
+          PartitionedIndexedTable table = i % 2 == 0 ? table1 : table2;
+          double m2 = i % 2 == 0 ? 1d : 2d;
+          table.upsert(getKey(new Object[]{"k" + i, i, (double) i}),
+              getRecord(new Object[]{"k" + i, i, (double) i, (double) i, m2}));
+        }
+
+        // Merge and trim all the partitions concurrently, which share the same table resizer
+        List<Callable<Void>> tasks = new ArrayList<>(numPartitions);
+        for (int partitionId = 0; partitionId < numPartitions; partitionId++) {
+          int finalPartitionId = partitionId;
+          tasks.add(() -> {
+            table1.mergePartition(finalPartitionId, table2);
+            table1.trimPartition(finalPartitionId);
+            return null;
+          });
+        }
+        for (Future<Void> future : executorService.invokeAll(tasks)) {
+          future.get(10, TimeUnit.SECONDS);
+        }
+
+        table1.finish(true);
+        List<String> survivors = new ArrayList<>(10);
+        Iterator<Record> iterator = table1.iterator();
+        while (iterator.hasNext() && survivors.size() < 10) {
+          survivors.add((String) iterator.next().getValues()[0]);
+        }
+        Assert.assertEquals(survivors, expectedSurvivors);
+      }
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  /**
+   * Returns the value of SUM(m1) / MAX(m2) for the key with the given id in
+   * {@link #testPartitionedIndexedTableConcurrentTrimOnPostAggregation()}.
+   */
+  private static double getPostAggregationValue(int keyId) {
+    return keyId % 2 == 0 ? keyId : keyId / 2d;
   }
 
   @DataProvider(name = "initDataProvider")
@@ -248,6 +369,32 @@ public class IndexedTableTest {
 
     indexedTable = new ConcurrentIndexedTable(dataSchema, queryContext, 5);
     testNoMoreNewRecordsInTable(indexedTable);
+
+    // The capacity should be enforced across all the partitions
+    indexedTable = new PartitionedIndexedTable(dataSchema, queryContext, 5, 3);
+    testNoMoreNewRecordsInTable(indexedTable);
+  }
+
+  @Test
+  public void testPartitionCapacity() {
+    QueryContext queryContext = QueryContextConverterUtils
+        .getQueryContextFromSQL("SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2, d3 ORDER BY SUM(m1) LIMIT 10");
+    DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "d3", "sum(m1)", "max(m2)"},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE});
+
+    // The capacity should be split across the partitions
+    PartitionedIndexedTable indexedTable = new PartitionedIndexedTable(dataSchema, queryContext, 200_000, 8);
+    Assert.assertEquals(indexedTable.getPartitionCapacity(), 25_000);
+    Assert.assertEquals(indexedTable.getPartitionMaxCapacity(), 30_000);
+
+    // Small capacity should not be split below the floor
+    indexedTable = new PartitionedIndexedTable(dataSchema, queryContext, 5000, 8);
+    Assert.assertEquals(indexedTable.getPartitionCapacity(), 1000);
+    Assert.assertEquals(indexedTable.getPartitionMaxCapacity(), 125_000);
+
+    // The floor should never exceed the capacity of the table
+    indexedTable = new PartitionedIndexedTable(dataSchema, queryContext, 5, 8);
+    Assert.assertEquals(indexedTable.getPartitionCapacity(), 5);
   }
 
   private void testNoMoreNewRecordsInTable(IndexedTable indexedTable) {
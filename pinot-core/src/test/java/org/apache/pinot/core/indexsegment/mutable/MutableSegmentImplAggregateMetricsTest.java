@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.indexsegment.mutable;
 
+import com.clearspring.analytics.stream.cardinality.HyperLogLog;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -26,6 +27,10 @@ import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.RandomStringUtils;
+import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.common.utils.CommonConstants;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.spi.config.table.ingestion.RollupConfig;
 import org.apache.pinot.spi.data.DimensionFieldSpec;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.MetricFieldSpec;
@@ -46,6 +51,7 @@ public class MutableSegmentImplAggregateMetricsTest {
   private static final String METRIC_2 = "metric2";
   private static final String TIME_COLUMN1 = "time1";
   private static final String TIME_COLUMN2 = "time2";
+  private static final String HLL_METRIC = "hllMetric";
   private static final String KEY_SEPARATOR = "\t\t";
   private static final int NUM_ROWS = 10001;
 
@@ -92,6 +98,78 @@ public class MutableSegmentImplAggregateMetricsTest {
     mutableSegmentImpl.destroy();
   }
 
+  @Test
+  public void testRollup() {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testSchema")
+        .addSingleValueDimension(DIMENSION_1, FieldSpec.DataType.INT)
+        .addSingleValueDimension(DIMENSION_2, FieldSpec.DataType.STRING).addMetric(METRIC, FieldSpec.DataType.LONG)
+        .addMetric(METRIC_2, FieldSpec.DataType.FLOAT).addMetric(HLL_METRIC, FieldSpec.DataType.BYTES)
+        .addDateTime(TIME_COLUMN1, FieldSpec.DataType.LONG, "1:MILLISECONDS:EPOCH", "1:MILLISECONDS").build();
+    Map<String, String> aggregationFunctions = new HashMap<>();
+    aggregationFunctions.put(METRIC, AggregationFunctionType.MIN.getName());
+    aggregationFunctions.put(METRIC_2, AggregationFunctionType.MAX.getName());
+    aggregationFunctions.put(HLL_METRIC, AggregationFunctionType.DISTINCTCOUNTHLL.getName());
+    RollupConfig rollupConfig = new RollupConfig(aggregationFunctions, "1:MINUTES");
+    // No-dictionary dimension should be aggregated with the hashed record id map
+    MutableSegmentImpl mutableSegmentImpl = MutableSegmentImplTestUtils
+        .createMutableSegmentImpl(schema, new HashSet<>(Arrays.asList(DIMENSION_2, METRIC, METRIC_2, HLL_METRIC)),
+            Collections.emptySet(), Collections.singleton(DIMENSION_1), true, false, TIME_COLUMN1, rollupConfig);
+
+    String[] stringValues = new String[10];
+    for (int i = 0; i < stringValues.length; i++) {
+      stringValues[i] = RandomStringUtils.random(10);
+    }
+    long minuteMs = TimeUnit.MINUTES.toMillis(1);
+    Map<String, Long> expectedMinValues = new HashMap<>();
+    Map<String, Float> expectedMaxValues = new HashMap<>();
+    Map<String, HyperLogLog> expectedHyperLogLogs = new HashMap<>();
+    Random random = new Random();
+    StreamMessageMetadata defaultMetadata = new StreamMessageMetadata(System.currentTimeMillis());
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      int dimensionValue = random.nextInt(10);
+      String stringDimensionValue = stringValues[random.nextInt(stringValues.length)];
+      long timeValue = random.nextInt(5 * (int) minuteMs);
+      long metricValue = random.nextInt();
+      float metricValueFloat = random.nextFloat();
+      HyperLogLog hyperLogLog = new HyperLogLog(CommonConstants.Helix.DEFAULT_HYPERLOGLOG_LOG2M);
+      hyperLogLog.offer(i);
+      row.putField(DIMENSION_1, dimensionValue);
+      row.putField(DIMENSION_2, stringDimensionValue);
+      row.putField(TIME_COLUMN1, timeValue);
+      row.putField(METRIC, metricValue);
+      row.putField(METRIC_2, metricValueFloat);
+      row.putField(HLL_METRIC, ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.serialize(hyperLogLog));
+
+      mutableSegmentImpl.index(row, defaultMetadata);
+
+      // Time value should be truncated to the minute
+      String key = dimensionValue + KEY_SEPARATOR + stringDimensionValue + KEY_SEPARATOR + (timeValue / minuteMs
+          * minuteMs);
+      expectedMinValues.merge(key, metricValue, Math::min);
+      expectedMaxValues.merge(key, metricValueFloat, Math::max);
+      expectedHyperLogLogs.computeIfAbsent(key,
+          k -> new HyperLogLog(CommonConstants.Helix.DEFAULT_HYPERLOGLOG_LOG2M)).offer(i);
+    }
+
+    int numDocsIndexed = mutableSegmentImpl.getNumDocsIndexed();
+    Assert.assertEquals(numDocsIndexed, expectedMinValues.size());
+    Assert.assertTrue(numDocsIndexed < NUM_ROWS);
+
+    GenericRow reuse = new GenericRow();
+    for (int docId = 0; docId < numDocsIndexed; docId++) {
+      GenericRow row = mutableSegmentImpl.getRecord(docId, reuse);
+      String key = row.getValue(DIMENSION_1) + KEY_SEPARATOR + row.getValue(DIMENSION_2) + KEY_SEPARATOR + row
+          .getValue(TIME_COLUMN1);
+      Assert.assertEquals(row.getValue(METRIC), expectedMinValues.get(key));
+      Assert.assertEquals(row.getValue(METRIC_2), expectedMaxValues.get(key));
+      Assert.assertEquals(
+          ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize((byte[]) row.getValue(HLL_METRIC)).cardinality(),
+          expectedHyperLogLogs.get(key).cardinality());
+    }
+    mutableSegmentImpl.destroy();
+  }
+
   private void testAggregateMetrics(MutableSegmentImpl mutableSegmentImpl) {
     String[] stringValues = new String[10];
     Float[] floatValues = new Float[10];
@@ -0,0 +1,229 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.combine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.plan.CombinePlanNode;
+import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.plan.maker.PlanMaker;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Test for {@link GroupByOrderByCombineOperator}, with and without the partitioned combine.
+ */
+public class GroupByOrderByCombineOperatorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "GroupByOrderByCombineOperatorTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME_PREFIX = "testSegment_";
+
+  // Create (MAX_NUM_THREADS_PER_QUERY * 2) segments so that each thread needs to process 2 segments
+  private static final int NUM_SEGMENTS = CombineOperatorUtils.MAX_NUM_THREADS_PER_QUERY * 2;
+  // More groups than the default capacity of the indexed table (5000) so that the results are trimmed
+  private static final int NUM_GROUPS = 6000;
+
+  private static final String GROUP_BY_COLUMN = "groupByColumn";
+  private static final String METRIC_COLUMN = "metricColumn";
+  private static final TableConfig TABLE_CONFIG =
+      new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).build();
+  private static final Schema SCHEMA =
+      new Schema.SchemaBuilder().addSingleValueDimension(GROUP_BY_COLUMN, FieldSpec.DataType.INT)
+          .addMetric(METRIC_COLUMN, FieldSpec.DataType.LONG).build();
+
+  private static final PlanMaker PLAN_MAKER = new InstancePlanMakerImplV2();
+  private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool();
+
+  private List<IndexSegment> _indexSegments;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+    _indexSegments = new ArrayList<>(NUM_SEGMENTS);
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      _indexSegments.add(createSegment(i));
+    }
+  }
+
+  /**
+   * Each segment contains one record for each group, where the metric value is the same as the group value. So the sum
+   * of the metric for each group is (group value * NUM_SEGMENTS).
+   */
+  private IndexSegment createSegment(int index)
+      throws Exception {
+    List<GenericRow> records = new ArrayList<>(NUM_GROUPS);
+    for (int i = 0; i < NUM_GROUPS; i++) {
+      GenericRow record = new GenericRow();
+      record.putValue(GROUP_BY_COLUMN, i);
+      record.putValue(METRIC_COLUMN, (long) i);
+      records.add(record);
+    }
+
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(TABLE_CONFIG, SCHEMA);
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    String segmentName = SEGMENT_NAME_PREFIX + index;
+    segmentGeneratorConfig.setSegmentName(segmentName);
+    segmentGeneratorConfig.setOutDir(TEMP_DIR.getPath());
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    return ImmutableSegmentLoader.load(new File(TEMP_DIR, segmentName), ReadMode.mmap);
+  }
+
+  @Test
+  public void testOrderBy()
+      throws Exception {
+    for (String order : new String[]{"DESC", "ASC"}) {
+      String query = String
+          .format("SELECT %s, SUM(%s) FROM testTable GROUP BY %s ORDER BY SUM(%s) %s LIMIT 10", GROUP_BY_COLUMN,
+              METRIC_COLUMN, GROUP_BY_COLUMN, METRIC_COLUMN, order);
+      boolean desc = order.equals("DESC");
+      // Without the partitioned combine, the merged table is trimmed to the capacity of the indexed table
+      assertEquals(checkOrderByResult(getCombineResult(query, false), desc), 5000);
+      // With the partitioned combine, each partition is trimmed separately, so there can be less records left
+      assertTrue(checkOrderByResult(getCombineResult(query, true), desc) <= 5000);
+    }
+  }
+
+  /**
+   * Checks that the top groups are kept, and the sums are aggregated across all the segments. Returns the number of
+   * groups returned.
+   */
+  private int checkOrderByResult(IntermediateResultsBlock combineResult, boolean desc)
+      throws Exception {
+    assertNull(combineResult.getProcessingExceptions());
+    assertEquals(combineResult.getNumSegmentsProcessed(), NUM_SEGMENTS);
+    assertEquals(combineResult.getNumDocsScanned(), NUM_SEGMENTS * NUM_GROUPS);
+    assertEquals(combineResult.getNumTotalDocs(), NUM_SEGMENTS * NUM_GROUPS);
+
+    DataTable dataTable = combineResult.getDataTable();
+    int numRows = dataTable.getNumberOfRows();
+    boolean[] groupsReturned = new boolean[NUM_GROUPS];
+    for (int i = 0; i < numRows; i++) {
+      int group = dataTable.getInt(i, 0);
+      assertEquals(dataTable.getDouble(i, 1), (double) group * NUM_SEGMENTS);
+      groupsReturned[group] = true;
+    }
+    // The top 10 groups must be kept after trimming
+    for (int i = 0; i < 10; i++) {
+      assertTrue(groupsReturned[desc ? NUM_GROUPS - 1 - i : i]);
+    }
+    return numRows;
+  }
+
+  @Test
+  public void testNoOrderBy()
+      throws Exception {
+    String query = String
+        .format("SELECT %s, SUM(%s) FROM testTable GROUP BY %s LIMIT 10", GROUP_BY_COLUMN, METRIC_COLUMN,
+            GROUP_BY_COLUMN);
+    IntermediateResultsBlock combineResult = getCombineResult(query, true);
+    assertNull(combineResult.getProcessingExceptions());
+    assertTrue(combineResult.isNumGroupsLimitReached());
+    DataTable dataTable = combineResult.getDataTable();
+    // Capacity of the indexed table should be enforced across all the partitions
+    assertEquals(dataTable.getNumberOfRows(), 5000);
+    for (int i = 0; i < 5000; i++) {
+      // Groups accepted by one worker might be rejected by another worker, so the sum can be partial
+      double sum = dataTable.getDouble(i, 1);
+      int group = dataTable.getInt(i, 0);
+      assertTrue(sum > 0 || group == 0);
+      assertTrue(sum <= (double) group * NUM_SEGMENTS);
+    }
+  }
+
+  @Test
+  public void testPartitionedCombineWithFilter()
+      throws Exception {
+    // Only 100 groups match, no trimming should happen
+    String query = String
+        .format("SELECT %s, SUM(%s) FROM testTable WHERE %s < 100 GROUP BY %s ORDER BY %s LIMIT 100", GROUP_BY_COLUMN,
+            METRIC_COLUMN, GROUP_BY_COLUMN, GROUP_BY_COLUMN, GROUP_BY_COLUMN);
+    IntermediateResultsBlock combineResult = getCombineResult(query, true);
+    assertNull(combineResult.getProcessingExceptions());
+    assertFalse(combineResult.isNumGroupsLimitReached());
+    DataTable dataTable = combineResult.getDataTable();
+    assertNotNull(dataTable);
+    assertEquals(dataTable.getNumberOfRows(), 100);
+    boolean[] groupsReturned = new boolean[100];
+    for (int i = 0; i < 100; i++) {
+      int group = dataTable.getInt(i, 0);
+      assertEquals(dataTable.getDouble(i, 1), (double) group * NUM_SEGMENTS);
+      groupsReturned[group] = true;
+    }
+    for (boolean groupReturned : groupsReturned) {
+      assertTrue(groupReturned);
+    }
+  }
+
+  private IntermediateResultsBlock getCombineResult(String query, boolean partitionedCombine) {
+    query += String.format(" OPTION(groupByMode=sql, responseFormat=sql, enablePartitionedGroupByCombine=%s)",
+        partitionedCombine);
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromSQL(query);
+    List<PlanNode> planNodes = new ArrayList<>(NUM_SEGMENTS);
+    for (IndexSegment indexSegment : _indexSegments) {
+      planNodes.add(PLAN_MAKER.makeSegmentPlanNode(indexSegment, queryContext));
+    }
+    CombinePlanNode combinePlanNode = new CombinePlanNode(planNodes, queryContext, EXECUTOR, 10_000,
+        InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT);
+    return combinePlanNode.run().nextBlock();
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    for (IndexSegment indexSegment : _indexSegments) {
+      indexSegment.destroy();
+    }
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+}
@@ -221,6 +221,55 @@ public class SelectionCombineOperatorTest {
     assertEquals(combineResult.getNumTotalDocs(), NUM_SEGMENTS * NUM_RECORDS_PER_SEGMENT);
   }
 
+  @Test
+  public void testSelectionWithWorkStealing() {
+    IntermediateResultsBlock combineResult =
+        getCombineResult("SELECT * FROM testTable LIMIT 10000 OPTION(enableWorkStealing=true)");
+    assertNotNull(combineResult.getSelectionResult());
+    assertEquals(combineResult.getSelectionResult().size(), NUM_SEGMENTS * NUM_RECORDS_PER_SEGMENT);
+    // Should not early-terminate, and each segment should be processed exactly once
+    assertEquals(combineResult.getNumDocsScanned(), NUM_SEGMENTS * NUM_RECORDS_PER_SEGMENT);
+    assertEquals(combineResult.getNumSegmentsProcessed(), NUM_SEGMENTS);
+    assertEquals(combineResult.getNumSegmentsMatched(), NUM_SEGMENTS);
+    assertEquals(combineResult.getNumTotalDocs(), NUM_SEGMENTS * NUM_RECORDS_PER_SEGMENT);
+
+    combineResult =
+        getCombineResult("SELECT * FROM testTable ORDER BY intColumn LIMIT 10000 OPTION(enableWorkStealing=true)");
+    PriorityQueue<Object[]> selectionResult = (PriorityQueue<Object[]>) combineResult.getSelectionResult();
+    assertNotNull(selectionResult);
+    assertEquals(selectionResult.size(), NUM_SEGMENTS * NUM_RECORDS_PER_SEGMENT);
+    assertEquals(combineResult.getNumDocsScanned(), NUM_SEGMENTS * NUM_RECORDS_PER_SEGMENT);
+    assertEquals(combineResult.getNumSegmentsMatched(), NUM_SEGMENTS);
+
+    // Min/max value based combine should pull the segments from the shared index and still early-terminate
+    combineResult = getCombineResult("SELECT * FROM testTable ORDER BY intColumn OPTION(enableWorkStealing=true)");
+    selectionResult = (PriorityQueue<Object[]>) combineResult.getSelectionResult();
+    assertNotNull(selectionResult);
+    assertEquals(selectionResult.size(), 10);
+    int expectedValue = 9;
+    while (!selectionResult.isEmpty()) {
+      assertEquals((int) selectionResult.poll()[0], expectedValue--);
+    }
+    long numDocsScanned = combineResult.getNumDocsScanned();
+    assertTrue(numDocsScanned >= NUM_RECORDS_PER_SEGMENT
+        && numDocsScanned <= CombineOperatorUtils.MAX_NUM_THREADS_PER_QUERY * NUM_RECORDS_PER_SEGMENT);
+    assertEquals(combineResult.getNumSegmentsProcessed(), NUM_SEGMENTS);
+    int numSegmentsMatched = combineResult.getNumSegmentsMatched();
+    assertTrue(numSegmentsMatched >= 1 && numSegmentsMatched <= CombineOperatorUtils.MAX_NUM_THREADS_PER_QUERY);
+  }
+
+  @Test
+  public void testSortSegmentsByEstimatedCost() {
+    List<IndexSegment> sortedSegments = CombineOperatorUtils.sortSegmentsByEstimatedCost(_indexSegments);
+    assertEquals(sortedSegments.size(), NUM_SEGMENTS);
+    long previousCost = Long.MAX_VALUE;
+    for (IndexSegment indexSegment : sortedSegments) {
+      long cost = CombineOperatorUtils.estimateSegmentCost(indexSegment);
+      assertTrue(cost <= previousCost);
+      previousCost = cost;
+    }
+  }
+
   private IntermediateResultsBlock getCombineResult(String query) {
     QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromPQL(query);
     List<PlanNode> planNodes = new ArrayList<>(NUM_SEGMENTS);
@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import org.apache.pinot.core.common.Constants;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class ScanBasedAndDocIdIteratorTest {
+
+  @Test
+  public void testScanBasedAndDocIdIterator() {
+    // AND result: [2, 7, 13, 15, 16, 20]
+    int[] docIds1 = new int[]{0, 1, 2, 3, 5, 7, 10, 12, 13, 15, 16, 18, 20};
+    int[] docIds2 = new int[]{1, 2, 4, 5, 6, 7, 9, 11, 12, 13, 15, 16, 17, 19, 20};
+    int[] docIds3 = new int[]{0, 2, 3, 4, 7, 8, 10, 11, 13, 15, 16, 19, 20};
+
+    ScanBasedAndDocIdIterator scanBasedAndDocIdIterator =
+        new ScanBasedAndDocIdIterator(new FakeScanDocIdIterator(docIds1),
+            new ScanBasedDocIdIterator[]{new FakeScanDocIdIterator(docIds2), new FakeScanDocIdIterator(docIds3)});
+
+    assertEquals(scanBasedAndDocIdIterator.next(), 2);
+    assertEquals(scanBasedAndDocIdIterator.next(), 7);
+    assertEquals(scanBasedAndDocIdIterator.advance(10), 13);
+    assertEquals(scanBasedAndDocIdIterator.advance(16), 16);
+    assertEquals(scanBasedAndDocIdIterator.next(), 20);
+    assertEquals(scanBasedAndDocIdIterator.next(), Constants.EOF);
+  }
+
+  @Test
+  public void testScanOnNonScanBasedCandidates() {
+    // AND result: [2, 7, 13, 15, 16, 20]
+    int[] docIds1 = new int[]{0, 1, 2, 3, 5, 7, 10, 12, 13, 15, 16, 18, 20};
+    int[] docIds2 = new int[]{1, 2, 4, 5, 6, 7, 9, 11, 12, 13, 15, 16, 17, 19, 20};
+    int[] docIds3 = new int[]{0, 2, 3, 4, 7, 8, 10, 11, 13, 15, 16, 19, 20};
+
+    // Candidates come from a non-scan-based iterator, and both scan-based iterators should only scan the candidates
+    MutableRoaringBitmap candidates = new MutableRoaringBitmap();
+    candidates.add(docIds1);
+    FakeScanDocIdIterator secondDocIdIterator = new FakeScanDocIdIterator(docIds2);
+    FakeScanDocIdIterator thirdDocIdIterator = new FakeScanDocIdIterator(docIds3);
+    ScanBasedAndDocIdIterator scanBasedAndDocIdIterator =
+        new ScanBasedAndDocIdIterator(new BitmapDocIdIterator(candidates, 21),
+            new ScanBasedDocIdIterator[]{secondDocIdIterator, thirdDocIdIterator});
+
+    assertEquals(scanBasedAndDocIdIterator.next(), 2);
+    assertEquals(scanBasedAndDocIdIterator.next(), 7);
+    assertEquals(scanBasedAndDocIdIterator.advance(10), 13);
+    assertEquals(scanBasedAndDocIdIterator.advance(16), 16);
+    assertEquals(scanBasedAndDocIdIterator.next(), 20);
+    assertEquals(scanBasedAndDocIdIterator.next(), Constants.EOF);
+    assertTrue(secondDocIdIterator.getNumEntriesScanned() <= docIds1.length);
+    assertTrue(thirdDocIdIterator.getNumEntriesScanned() <= docIds1.length);
+  }
+
+  @Test
+  public void testLazyScan() {
+    int numDocs = 100_000;
+    // First iterator matches all the documents, second iterator matches the even documents
+    int[] docIds1 = new int[numDocs];
+    int[] docIds2 = new int[numDocs / 2];
+    for (int i = 0; i < numDocs; i++) {
+      docIds1[i] = i;
+      if (i % 2 == 0) {
+        docIds2[i / 2] = i;
+      }
+    }
+    FakeScanDocIdIterator firstDocIdIterator = new FakeScanDocIdIterator(docIds1);
+    FakeScanDocIdIterator secondDocIdIterator = new FakeScanDocIdIterator(docIds2);
+    ScanBasedAndDocIdIterator scanBasedAndDocIdIterator =
+        new ScanBasedAndDocIdIterator(firstDocIdIterator, new ScanBasedDocIdIterator[]{secondDocIdIterator});
+
+    // Only the first batch of candidates should be scanned
+    assertEquals(scanBasedAndDocIdIterator.next(), 0);
+    assertEquals(scanBasedAndDocIdIterator.next(), 2);
+    assertTrue(firstDocIdIterator.getNumEntriesScanned() < numDocs / 10);
+    assertTrue(secondDocIdIterator.getNumEntriesScanned() < numDocs / 10);
+
+    // Advance beyond the current batch
+    assertEquals(scanBasedAndDocIdIterator.advance(numDocs / 2 + 1), numDocs / 2 + 2);
+    assertTrue(firstDocIdIterator.getNumEntriesScanned() < numDocs / 5);
+    assertTrue(secondDocIdIterator.getNumEntriesScanned() < numDocs / 5);
+
+    int expectedDocId = numDocs / 2 + 4;
+    int docId;
+    while ((docId = scanBasedAndDocIdIterator.next()) != Constants.EOF) {
+      assertEquals(docId, expectedDocId);
+      expectedDocId += 2;
+    }
+    assertEquals(expectedDocId, numDocs);
+  }
+
+  /**
+   * ScanBasedDocIdIterator backed by a bitmap, which counts each document visited as one entry scanned.
+   */
+  private static class FakeScanDocIdIterator implements ScanBasedDocIdIterator {
+    final MutableRoaringBitmap _docIds = new MutableRoaringBitmap();
+    final PeekableIntIterator _docIdIterator;
+    long _numEntriesScanned = 0L;
+
+    FakeScanDocIdIterator(int[] docIds) {
+      _docIds.add(docIds);
+      _docIdIterator = _docIds.getIntIterator();
+    }
+
+    @Override
+    public int next() {
+      if (_docIdIterator.hasNext()) {
+        _numEntriesScanned++;
+        return _docIdIterator.next();
+      } else {
+        return Constants.EOF;
+      }
+    }
+
+    @Override
+    public int advance(int targetDocId) {
+      _docIdIterator.advanceIfNeeded(targetDocId);
+      return next();
+    }
+
+    @Override
+    public MutableRoaringBitmap applyAnd(ImmutableRoaringBitmap docIds) {
+      MutableRoaringBitmap result = new MutableRoaringBitmap();
+      IntIterator docIdIterator = docIds.getIntIterator();
+      while (docIdIterator.hasNext()) {
+        int docId = docIdIterator.next();
+        _numEntriesScanned++;
+        if (_docIds.contains(docId)) {
+          result.add(docId);
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public long getNumEntriesScanned() {
+      return _numEntriesScanned;
+    }
+  }
+}
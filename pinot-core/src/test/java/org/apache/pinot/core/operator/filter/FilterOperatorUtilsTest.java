@@ -20,8 +20,22 @@ package org.apache.pinot.core.operator.filter;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.common.DataSourceMetadata;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.query.request.context.predicate.Predicate;
+import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeSortedRunIndex;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.testng.annotations.Test;
 
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 
@@ -92,4 +106,131 @@ public class FilterOperatorUtilsTest {
         .getOrFilterOperator(Arrays.asList(MATCH_ALL_FILTER_OPERATOR, REGULAR_FILTER_OPERATOR), NUM_DOCS, null);
     assertTrue(filterOperator instanceof MatchAllFilterOperator);
   }
+
+  @Test
+  public void testGetLeafFilterOperatorOnSortedRunIndex() {
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.isSorted()).thenReturn(false);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    when(dataSource.getSortedRunIndex()).thenReturn(mock(RealtimeSortedRunIndex.class));
+    PredicateEvaluator predicateEvaluator = mock(PredicateEvaluator.class);
+    when(predicateEvaluator.isDictionaryBased()).thenReturn(true);
+
+    // EQ and IN predicates should be solved with the sorted run index when there is no inverted index
+    for (Predicate.Type predicateType : new Predicate.Type[]{
+        Predicate.Type.EQ, Predicate.Type.IN, Predicate.Type.RANGE
+    }) {
+      when(predicateEvaluator.getPredicateType()).thenReturn(predicateType);
+      assertTrue(FilterOperatorUtils.getLeafFilterOperator(predicateEvaluator, dataSource,
+          NUM_DOCS) instanceof SortedRunIndexBasedFilterOperator, predicateType.toString());
+    }
+
+    // Predicates not matching a contiguous range or a set of values should be solved with scan
+    for (Predicate.Type predicateType : new Predicate.Type[]{Predicate.Type.NOT_EQ, Predicate.Type.NOT_IN}) {
+      when(predicateEvaluator.getPredicateType()).thenReturn(predicateType);
+      assertTrue(FilterOperatorUtils.getLeafFilterOperator(predicateEvaluator, dataSource,
+          NUM_DOCS) instanceof ScanBasedFilterOperator, predicateType.toString());
+    }
+
+    // Raw value based predicate evaluator should be solved with scan
+    when(predicateEvaluator.isDictionaryBased()).thenReturn(false);
+    when(predicateEvaluator.getPredicateType()).thenReturn(Predicate.Type.EQ);
+    assertTrue(FilterOperatorUtils.getLeafFilterOperator(predicateEvaluator, dataSource,
+        NUM_DOCS) instanceof ScanBasedFilterOperator);
+
+    // Inverted index should be preferred over the sorted run index
+    when(predicateEvaluator.isDictionaryBased()).thenReturn(true);
+    doReturn(mock(InvertedIndexReader.class)).when(dataSource).getInvertedIndex();
+    assertTrue(FilterOperatorUtils.getLeafFilterOperator(predicateEvaluator, dataSource,
+        NUM_DOCS) instanceof BitmapBasedFilterOperator);
+  }
+
+  @Test
+  public void testCostBasedAndFilterOperator() {
+    BaseFilterOperator scanFilterOperator1 = getScanBasedFilterOperator(0.5);
+    BaseFilterOperator scanFilterOperator2 = getScanBasedFilterOperator(0.05);
+    BaseFilterOperator scanFilterOperator3 = getScanBasedFilterOperator(BaseFilterOperator.UNKNOWN_SELECTIVITY);
+
+    // Scan-based filters should be ordered by the estimated selectivity, and scan on the candidates of the first one
+    BaseFilterOperator filterOperator = FilterOperatorUtils
+        .getAndFilterOperator(Arrays.asList(scanFilterOperator1, scanFilterOperator2, scanFilterOperator3), NUM_DOCS,
+            null, true);
+    assertTrue(filterOperator instanceof AndFilterOperator);
+    AndFilterOperator andFilterOperator = (AndFilterOperator) filterOperator;
+    List<BaseFilterOperator> childFilterOperators = andFilterOperator.getChildFilterOperators();
+    assertSame(childFilterOperators.get(0), scanFilterOperator2);
+    assertSame(childFilterOperators.get(1), scanFilterOperator1);
+    assertSame(childFilterOperators.get(2), scanFilterOperator3);
+    assertTrue(andFilterOperator.isScanOnCandidates());
+
+    // Not selective enough to scan on candidates
+    andFilterOperator = (AndFilterOperator) FilterOperatorUtils
+        .getAndFilterOperator(Arrays.asList(scanFilterOperator1, scanFilterOperator3), NUM_DOCS, null, true);
+    assertSame(andFilterOperator.getChildFilterOperators().get(0), scanFilterOperator1);
+    assertFalse(andFilterOperator.isScanOnCandidates());
+
+    // Non-scan-based filter should be evaluated first, and scan on its candidates
+    OrFilterOperator orFilterOperator = mock(OrFilterOperator.class);
+    when(orFilterOperator.getEstimatedSelectivity()).thenReturn(0.05);
+    when(orFilterOperator.getOperatorName()).thenReturn("OrFilterOperator");
+    andFilterOperator = (AndFilterOperator) FilterOperatorUtils
+        .getAndFilterOperator(Arrays.asList(scanFilterOperator3, orFilterOperator), NUM_DOCS, null, true);
+    assertSame(andFilterOperator.getChildFilterOperators().get(0), orFilterOperator);
+    assertSame(andFilterOperator.getChildFilterOperators().get(1), scanFilterOperator3);
+    assertTrue(andFilterOperator.isScanOnCandidates());
+
+    // Non-scan-based filter not selective enough to scan on candidates, even with a selective scan-based filter
+    when(orFilterOperator.getEstimatedSelectivity()).thenReturn(0.5);
+    andFilterOperator = (AndFilterOperator) FilterOperatorUtils
+        .getAndFilterOperator(Arrays.asList(scanFilterOperator2, orFilterOperator), NUM_DOCS, null, true);
+    assertSame(andFilterOperator.getChildFilterOperators().get(0), orFilterOperator);
+    assertFalse(andFilterOperator.isScanOnCandidates());
+
+    // Cost-based reordering disabled
+    andFilterOperator = (AndFilterOperator) FilterOperatorUtils
+        .getAndFilterOperator(Arrays.asList(scanFilterOperator1, scanFilterOperator2), NUM_DOCS, null);
+    assertSame(andFilterOperator.getChildFilterOperators().get(0), scanFilterOperator1);
+    assertFalse(andFilterOperator.isScanOnCandidates());
+  }
+
+  @Test
+  public void testEstimateSelectivity() {
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.isSorted()).thenReturn(true);
+    when(dictionary.length()).thenReturn(100);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getDictionary()).thenReturn(dictionary);
+
+    PredicateEvaluator predicateEvaluator = mock(PredicateEvaluator.class);
+    when(predicateEvaluator.isDictionaryBased()).thenReturn(true);
+    when(predicateEvaluator.getPredicateType()).thenReturn(Predicate.Type.IN);
+    when(predicateEvaluator.getNumMatchingDictIds()).thenReturn(5);
+    assertEquals(FilterOperatorUtils.estimateSelectivity(predicateEvaluator, dataSource), 0.05);
+
+    when(predicateEvaluator.getPredicateType()).thenReturn(Predicate.Type.NOT_IN);
+    when(predicateEvaluator.getNumNonMatchingDictIds()).thenReturn(5);
+    assertEquals(FilterOperatorUtils.estimateSelectivity(predicateEvaluator, dataSource), 0.95);
+
+    // Unsorted (mutable) dictionary
+    when(dictionary.isSorted()).thenReturn(false);
+    assertEquals(FilterOperatorUtils.estimateSelectivity(predicateEvaluator, dataSource),
+        BaseFilterOperator.UNKNOWN_SELECTIVITY);
+
+    // Raw value based predicate evaluator
+    when(dictionary.isSorted()).thenReturn(true);
+    when(predicateEvaluator.isDictionaryBased()).thenReturn(false);
+    assertEquals(FilterOperatorUtils.estimateSelectivity(predicateEvaluator, dataSource),
+        BaseFilterOperator.UNKNOWN_SELECTIVITY);
+  }
+
+  private static BaseFilterOperator getScanBasedFilterOperator(double selectivity) {
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.isSingleValue()).thenReturn(true);
+    ScanBasedFilterOperator filterOperator = mock(ScanBasedFilterOperator.class);
+    when(filterOperator.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    when(filterOperator.getEstimatedSelectivity()).thenReturn(selectivity);
+    when(filterOperator.getOperatorName()).thenReturn("ScanBasedFilterOperator");
+    return filterOperator;
+  }
 }
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import java.util.Arrays;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.InPredicate;
+import org.apache.pinot.core.query.request.context.predicate.Predicate;
+import org.apache.pinot.core.segment.index.metadata.SegmentMetadata;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class FilterResultCacheTest {
+  private static final ExpressionContext COLUMN = ExpressionContext.forIdentifier("column");
+
+  @Test
+  public void testGetAndPut() {
+    FilterResultCache filterResultCache = new FilterResultCache(1024 * 1024, null);
+    IndexSegment indexSegment = mockIndexSegment("segment", "1");
+    Predicate predicate = new EqPredicate(COLUMN, "foo");
+    assertNull(filterResultCache.get(FilterResultCache.getKey(indexSegment, predicate)));
+
+    MutableRoaringBitmap docIds = MutableRoaringBitmap.bitmapOf(1, 5, 100, 70000);
+    filterResultCache.put(FilterResultCache.getKey(indexSegment, predicate), docIds);
+    ImmutableRoaringBitmap cachedDocIds =
+        filterResultCache.get(FilterResultCache.getKey(indexSegment, new EqPredicate(COLUMN, "foo")));
+    assertNotNull(cachedDocIds);
+    assertEquals(cachedDocIds.toArray(), new int[]{1, 5, 100, 70000});
+
+    // Same segment name and CRC should hit the cache (e.g. segment reloaded)
+    assertNotNull(filterResultCache.get(FilterResultCache.getKey(mockIndexSegment("segment", "1"), predicate)));
+
+    // Different predicate, segment or CRC should not hit the cache
+    assertNull(filterResultCache.get(FilterResultCache.getKey(indexSegment, new EqPredicate(COLUMN, "bar"))));
+    assertNull(filterResultCache.get(FilterResultCache.getKey(mockIndexSegment("segment2", "1"), predicate)));
+    assertNull(filterResultCache.get(FilterResultCache.getKey(mockIndexSegment("segment", "2"), predicate)));
+  }
+
+  @Test
+  public void testNormalization() {
+    FilterResultCache filterResultCache = new FilterResultCache(1024 * 1024, null);
+    IndexSegment indexSegment = mockIndexSegment("segment", "1");
+    filterResultCache.put(FilterResultCache.getKey(indexSegment, new InPredicate(COLUMN, Arrays.asList("b", "a", "b"))),
+        MutableRoaringBitmap.bitmapOf(3));
+    ImmutableRoaringBitmap cachedDocIds =
+        filterResultCache.get(FilterResultCache.getKey(indexSegment, new InPredicate(COLUMN, Arrays.asList("a", "b"))));
+    assertNotNull(cachedDocIds);
+    assertEquals(cachedDocIds.toArray(), new int[]{3});
+  }
+
+  @Test
+  public void testEvictionAndInvalidation() {
+    MutableRoaringBitmap docIds = MutableRoaringBitmap.bitmapOf(1, 2, 3);
+    int sizeInBytes = docIds.serializedSizeInBytes();
+    // Room for 2 entries
+    FilterResultCache filterResultCache = new FilterResultCache(2 * sizeInBytes, null);
+    IndexSegment indexSegment1 = mockIndexSegment("segment1", "1");
+    IndexSegment indexSegment2 = mockIndexSegment("segment2", "2");
+    Predicate predicate1 = new EqPredicate(COLUMN, "1");
+    Predicate predicate2 = new EqPredicate(COLUMN, "2");
+    filterResultCache.put(FilterResultCache.getKey(indexSegment1, predicate1), docIds);
+    filterResultCache.put(FilterResultCache.getKey(indexSegment1, predicate2), docIds);
+
+    // Access the first entry so that the second entry is the least recently used one
+    assertNotNull(filterResultCache.get(FilterResultCache.getKey(indexSegment1, predicate1)));
+    filterResultCache.put(FilterResultCache.getKey(indexSegment2, predicate1), docIds);
+    assertEquals(filterResultCache.getNumEntries(), 2);
+    assertEquals(filterResultCache.getSizeInBytes(), 2 * sizeInBytes);
+    assertNotNull(filterResultCache.get(FilterResultCache.getKey(indexSegment1, predicate1)));
+    assertNull(filterResultCache.get(FilterResultCache.getKey(indexSegment1, predicate2)));
+    assertNotNull(filterResultCache.get(FilterResultCache.getKey(indexSegment2, predicate1)));
+
+    // Invalidating the segment with a different CRC (e.g. new segment loaded before the old one is destroyed) should
+    // not remove the entries
+    filterResultCache.invalidate(mockIndexSegment("segment1", "3"));
+    assertEquals(filterResultCache.getNumEntries(), 2);
+
+    filterResultCache.invalidate(indexSegment1);
+    assertEquals(filterResultCache.getNumEntries(), 1);
+    assertEquals(filterResultCache.getSizeInBytes(), sizeInBytes);
+    assertNull(filterResultCache.get(FilterResultCache.getKey(indexSegment1, predicate1)));
+    assertNotNull(filterResultCache.get(FilterResultCache.getKey(indexSegment2, predicate1)));
+  }
+
+  private static IndexSegment mockIndexSegment(String segmentName, String crc) {
+    IndexSegment indexSegment = mock(IndexSegment.class);
+    when(indexSegment.getSegmentName()).thenReturn(segmentName);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getCrc()).thenReturn(crc);
+    when(indexSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return indexSegment;
+  }
+}
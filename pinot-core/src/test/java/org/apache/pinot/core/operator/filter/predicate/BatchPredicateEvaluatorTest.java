@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter.predicate;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.InPredicate;
+import org.apache.pinot.core.query.request.context.predicate.NotInPredicate;
+import org.apache.pinot.core.query.request.context.predicate.RangePredicate;
+import org.apache.pinot.core.segment.index.readers.BaseImmutableDictionary;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+
+/**
+ * Unit test for the batch APIs of the predicate evaluators, which should match the per-value APIs.
+ */
+public class BatchPredicateEvaluatorTest {
+  private static final ExpressionContext COLUMN_EXPRESSION = ExpressionContext.forIdentifier("column");
+  private static final int DICTIONARY_SIZE = 1000;
+  private static final int NUM_VALUES = 10000;
+  private static final Random RANDOM = new Random();
+
+  @Test
+  public void testDictionaryBasedEvaluators() {
+    BaseImmutableDictionary dictionary = mock(BaseImmutableDictionary.class);
+    when(dictionary.length()).thenReturn(DICTIONARY_SIZE);
+    when(dictionary.indexOf(anyString())).thenReturn(-1);
+    for (int dictId = 0; dictId < DICTIONARY_SIZE; dictId += 7) {
+      when(dictionary.indexOf(Integer.toString(dictId))).thenReturn(dictId);
+    }
+    when(dictionary.insertionIndexOf("100")).thenReturn(100);
+    when(dictionary.insertionIndexOf("500")).thenReturn(500);
+
+    int[] dictIds = new int[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      dictIds[i] = RANDOM.nextInt(DICTIONARY_SIZE);
+    }
+
+    testBatchApi(EqualsPredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new EqPredicate(COLUMN_EXPRESSION, "70"), dictionary), dictIds);
+    testBatchApi(InPredicateEvaluatorFactory.newDictionaryBasedEvaluator(
+        new InPredicate(COLUMN_EXPRESSION, Arrays.asList("0", "7", "63", "64", "994", "995")), dictionary), dictIds);
+    testBatchApi(NotInPredicateEvaluatorFactory.newDictionaryBasedEvaluator(
+        new NotInPredicate(COLUMN_EXPRESSION, Arrays.asList("0", "7", "63", "64", "994", "995")), dictionary),
+        dictIds);
+    testBatchApi(RangePredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, "[100\t\t500)"), dictionary,
+            DataType.INT), dictIds);
+  }
+
+  @Test
+  public void testRawValueBasedEvaluators() {
+    int[] intValues = new int[NUM_VALUES];
+    long[] longValues = new long[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      intValues[i] = RANDOM.nextInt(200) - 100;
+      longValues[i] = intValues[i];
+    }
+    intValues[0] = Integer.MIN_VALUE;
+    intValues[1] = Integer.MAX_VALUE;
+
+    testBatchApi(EqualsPredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new EqPredicate(COLUMN_EXPRESSION, "10"), DataType.INT), intValues);
+    testBatchApi(EqualsPredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new EqPredicate(COLUMN_EXPRESSION, "10"), DataType.LONG), longValues);
+    testBatchApi(InPredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new InPredicate(COLUMN_EXPRESSION, Arrays.asList("-5", "5", "50")), DataType.INT),
+        intValues);
+    for (String range : new String[]{"[-10\t\t10]", "(-10\t\t10)", "(*\t\t10]", "(10\t\t*)", "(*\t\t*)", String
+        .format("(%d\t\t%d)", Integer.MIN_VALUE, Integer.MAX_VALUE), String
+        .format("[%d\t\t%d]", Integer.MAX_VALUE, Integer.MAX_VALUE)}) {
+      testBatchApi(RangePredicateEvaluatorFactory
+          .newRawValueBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, range), DataType.INT), intValues);
+      testBatchApi(RangePredicateEvaluatorFactory
+          .newRawValueBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, range), DataType.LONG), longValues);
+    }
+  }
+
+  private static void testBatchApi(PredicateEvaluator predicateEvaluator, int[] values) {
+    int[] docIds = getDocIds();
+    int numMatchingDocs = predicateEvaluator.applySV(NUM_VALUES, docIds, values);
+    int expectedNumMatchingDocs = 0;
+    for (int i = 0; i < NUM_VALUES; i++) {
+      if (predicateEvaluator.applySV(values[i])) {
+        assertEquals(docIds[expectedNumMatchingDocs++], i);
+      }
+    }
+    assertEquals(numMatchingDocs, expectedNumMatchingDocs);
+  }
+
+  private static void testBatchApi(PredicateEvaluator predicateEvaluator, long[] values) {
+    int[] docIds = getDocIds();
+    int numMatchingDocs = predicateEvaluator.applySV(NUM_VALUES, docIds, values);
+    int expectedNumMatchingDocs = 0;
+    for (int i = 0; i < NUM_VALUES; i++) {
+      if (predicateEvaluator.applySV(values[i])) {
+        assertEquals(docIds[expectedNumMatchingDocs++], i);
+      }
+    }
+    assertEquals(numMatchingDocs, expectedNumMatchingDocs);
+  }
+
+  private static int[] getDocIds() {
+    int[] docIds = new int[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      docIds[i] = i;
+    }
+    return docIds;
+  }
+}
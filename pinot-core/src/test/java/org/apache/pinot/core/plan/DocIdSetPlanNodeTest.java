@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.common.DataSourceMetadata;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+
+public class DocIdSetPlanNodeTest {
+  private static final int NUM_DOCS = 1000;
+
+  @Test
+  public void testGetMaxDocPerCall() {
+    IndexSegment indexSegment = mock(IndexSegment.class);
+    mockDataSource(indexSegment, "intSV", DataType.INT, true, NUM_DOCS, false);
+    mockDataSource(indexSegment, "longSVDict", DataType.LONG, true, NUM_DOCS, true);
+    mockDataSource(indexSegment, "stringSV", DataType.STRING, true, NUM_DOCS, true);
+    mockDataSource(indexSegment, "intMV", DataType.INT, false, 1000 * NUM_DOCS, true);
+
+    // Narrow columns should use the max block size
+    assertEquals(DocIdSetPlanNode.getMaxDocPerCall(indexSegment, Collections.emptyList()),
+        DocIdSetPlanNode.MAX_DOC_PER_CALL);
+    assertEquals(DocIdSetPlanNode.getMaxDocPerCall(indexSegment, Collections.singletonList("intSV")),
+        DocIdSetPlanNode.MAX_DOC_PER_CALL);
+    assertEquals(DocIdSetPlanNode.getMaxDocPerCall(indexSegment, Arrays.asList("longSVDict", "stringSV")),
+        DocIdSetPlanNode.MAX_DOC_PER_CALL);
+
+    // Wide multi-value column: 4 bytes doc id + 1000 values * (4 bytes dict id + 4 bytes value)
+    assertEquals(DocIdSetPlanNode.getMaxDocPerCall(indexSegment, Collections.singletonList("intMV")),
+        DocIdSetPlanNode.MIN_DOC_PER_CALL);
+
+    // Many columns: 4 bytes doc id + 20 * (4 bytes dict id + 32 bytes value) = 724 bytes
+    List<String> columns = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      String column = "stringSV" + i;
+      mockDataSource(indexSegment, column, DataType.STRING, true, NUM_DOCS, true);
+      columns.add(column);
+    }
+    assertEquals(DocIdSetPlanNode.getMaxDocPerCall(indexSegment, columns),
+        DocIdSetPlanNode.TARGET_BLOCK_SIZE_IN_BYTES / 724);
+  }
+
+  private static void mockDataSource(IndexSegment indexSegment, String column, DataType dataType,
+      boolean isSingleValue, int numValues, boolean hasDictionary) {
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.getDataType()).thenReturn(dataType);
+    when(dataSourceMetadata.isSingleValue()).thenReturn(isSingleValue);
+    when(dataSourceMetadata.getNumDocs()).thenReturn(NUM_DOCS);
+    when(dataSourceMetadata.getNumValues()).thenReturn(numValues);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    when(dataSource.getDictionary()).thenReturn(hasDictionary ? mock(Dictionary.class) : null);
+    when(indexSegment.getDataSource(column)).thenReturn(dataSource);
+  }
+}
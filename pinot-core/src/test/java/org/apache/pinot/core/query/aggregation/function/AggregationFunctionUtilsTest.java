@@ -18,9 +18,14 @@
  */
 package org.apache.pinot.core.query.aggregation.function;
 
+import java.util.Arrays;
+import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 
 
 public class AggregationFunctionUtilsTest {
@@ -63,4 +68,30 @@ public class AggregationFunctionUtilsTest {
     value = Double.NaN;
     assertEquals(AggregationFunctionUtils.formatValue(value), "NaN");
   }
+
+  @Test
+  public void testGetThetaSketchAggregationFunctionColumnPair()
+      throws Exception {
+    // Default nominal entries, can be served by star-tree
+    AggregationFunction aggregationFunction = new DistinctCountThetaSketchAggregationFunction(Arrays
+        .asList(ExpressionContext.forIdentifier("colTS"), ExpressionContext.forLiteral(""),
+            ExpressionContext.forLiteral("colA = 1"), ExpressionContext.forLiteral("$1")));
+    assertEquals(AggregationFunctionUtils.getAggregationFunctionColumnPair(aggregationFunction),
+        new AggregationFunctionColumnPair(AggregationFunctionType.DISTINCTCOUNTTHETASKETCH, "colTS"));
+    aggregationFunction = new DistinctCountThetaSketchAggregationFunction(Arrays
+        .asList(ExpressionContext.forIdentifier("colTS"), ExpressionContext.forLiteral("nominalEntries=4096"),
+            ExpressionContext.forLiteral("colA = 1"), ExpressionContext.forLiteral("$1")));
+    assertEquals(AggregationFunctionUtils.getAggregationFunctionColumnPair(aggregationFunction),
+        new AggregationFunctionColumnPair(AggregationFunctionType.DISTINCTCOUNTTHETASKETCH, "colTS"));
+
+    // Nominal entries different from the pre-aggregated sketches, cannot be served by star-tree
+    aggregationFunction = new DistinctCountThetaSketchAggregationFunction(Arrays
+        .asList(ExpressionContext.forIdentifier("colTS"), ExpressionContext.forLiteral("nominalEntries=1024"),
+            ExpressionContext.forLiteral("colA = 1"), ExpressionContext.forLiteral("$1")));
+    assertNull(AggregationFunctionUtils.getAggregationFunctionColumnPair(aggregationFunction));
+    aggregationFunction = new DistinctCountRawThetaSketchAggregationFunction(Arrays
+        .asList(ExpressionContext.forIdentifier("colTS"), ExpressionContext.forLiteral("nominalEntries=1024"),
+            ExpressionContext.forLiteral("colA = 1"), ExpressionContext.forLiteral("$1")));
+    assertNull(AggregationFunctionUtils.getAggregationFunctionColumnPair(aggregationFunction));
+  }
 }
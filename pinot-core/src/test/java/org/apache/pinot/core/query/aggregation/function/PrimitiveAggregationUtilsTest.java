@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.function;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class PrimitiveAggregationUtilsTest {
+  private static final Random RANDOM = new Random();
+  private static final int NUM_VALUES = 10_000;
+
+  @Test
+  public void testIntValues() {
+    int[] values = new int[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      values[i] = RANDOM.nextInt();
+    }
+    int length = RANDOM.nextInt(NUM_VALUES) + 1;
+    long expectedSum = 0L;
+    int expectedMin = Integer.MAX_VALUE;
+    int expectedMax = Integer.MIN_VALUE;
+    for (int i = 0; i < length; i++) {
+      expectedSum += values[i];
+      expectedMin = Math.min(expectedMin, values[i]);
+      expectedMax = Math.max(expectedMax, values[i]);
+    }
+    assertEquals(PrimitiveAggregationUtils.sum(values, length), expectedSum);
+    assertEquals(PrimitiveAggregationUtils.min(values, length), expectedMin);
+    assertEquals(PrimitiveAggregationUtils.max(values, length), expectedMax);
+
+    // Sum of max values should not overflow
+    int[] maxValues = new int[NUM_VALUES];
+    Arrays.fill(maxValues, Integer.MAX_VALUE);
+    assertEquals(PrimitiveAggregationUtils.sum(maxValues, NUM_VALUES), (long) Integer.MAX_VALUE * NUM_VALUES);
+  }
+
+  @Test
+  public void testLongValues() {
+    long[] values = new long[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      values[i] = RANDOM.nextLong();
+    }
+    int length = RANDOM.nextInt(NUM_VALUES) + 1;
+    long expectedMin = Long.MAX_VALUE;
+    long expectedMax = Long.MIN_VALUE;
+    for (int i = 0; i < length; i++) {
+      expectedMin = Math.min(expectedMin, values[i]);
+      expectedMax = Math.max(expectedMax, values[i]);
+    }
+    assertEquals(PrimitiveAggregationUtils.min(values, length), expectedMin);
+    assertEquals(PrimitiveAggregationUtils.max(values, length), expectedMax);
+  }
+}
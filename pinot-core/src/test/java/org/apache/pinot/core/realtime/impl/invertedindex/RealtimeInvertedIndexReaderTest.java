@@ -18,11 +18,13 @@
  */
 package org.apache.pinot.core.realtime.impl.invertedindex;
 
-import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 
@@ -34,7 +36,7 @@ public class RealtimeInvertedIndexReaderTest {
 
     // Add dictionary id 0, document id 0 to the inverted index (single-value dictionary id not added yet)
     // Before adding
-    MutableRoaringBitmap docIds = realtimeInvertedIndexReader.getDocIds(0);
+    ImmutableRoaringBitmap docIds = realtimeInvertedIndexReader.getDocIds(0);
     assertNotNull(docIds);
     assertTrue(docIds.isEmpty());
     // After adding
@@ -103,4 +105,48 @@ public class RealtimeInvertedIndexReaderTest {
     assertFalse(docIds.contains(1));
     assertTrue(docIds.contains(2));
   }
+
+  @Test
+  public void testPointInTimeView() {
+    RealtimeInvertedIndexReader realtimeInvertedIndexReader = new RealtimeInvertedIndexReader();
+    int numDocs = 1000;
+    for (int docId = 0; docId < numDocs; docId++) {
+      realtimeInvertedIndexReader.add(docId % 3, docId);
+      // Duplicate value in the multi-value entry
+      realtimeInvertedIndexReader.add(docId % 3, docId);
+    }
+    ImmutableRoaringBitmap docIds = realtimeInvertedIndexReader.getDocIds(1);
+    assertEquals(docIds.getCardinality(), numDocs / 3);
+    // Bitmap should be reused when no document is added
+    assertSame(realtimeInvertedIndexReader.getDocIds(1), docIds);
+
+    // Adding more documents should not affect the bitmap already returned
+    realtimeInvertedIndexReader.add(1, numDocs);
+    assertEquals(docIds.getCardinality(), numDocs / 3);
+    assertFalse(docIds.contains(numDocs));
+    ImmutableRoaringBitmap newDocIds = realtimeInvertedIndexReader.getDocIds(1);
+    assertEquals(newDocIds.getCardinality(), numDocs / 3 + 1);
+    assertTrue(newDocIds.contains(numDocs));
+
+    // Bitmaps built incrementally from the cached one should contain all the document ids
+    for (int docId = numDocs + 2; docId < 2 * numDocs; docId++) {
+      realtimeInvertedIndexReader.add(2, docId);
+      if (docId % 100 == 0) {
+        assertEquals(realtimeInvertedIndexReader.getDocIds(2).getCardinality(), numDocs / 3 + docId - numDocs - 1);
+      }
+    }
+    docIds = realtimeInvertedIndexReader.getDocIds(2);
+    for (int docId = 2; docId < numDocs; docId += 3) {
+      assertTrue(docIds.contains(docId));
+    }
+    for (int docId = numDocs + 2; docId < 2 * numDocs; docId++) {
+      assertTrue(docIds.contains(docId));
+    }
+
+    // Dictionary ids larger than the current number of posting lists
+    realtimeInvertedIndexReader.add(100, numDocs + 1);
+    assertTrue(realtimeInvertedIndexReader.getDocIds(50).isEmpty());
+    assertTrue(realtimeInvertedIndexReader.getDocIds(100).contains(numDocs + 1));
+    assertTrue(realtimeInvertedIndexReader.getDocIds(101).isEmpty());
+  }
 }
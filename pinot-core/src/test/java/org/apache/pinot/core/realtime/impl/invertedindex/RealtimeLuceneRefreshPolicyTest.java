@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.invertedindex;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.pinot.spi.config.table.FieldConfig;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class RealtimeLuceneRefreshPolicyTest {
+
+  @Test
+  public void testFromProperties() {
+    assertSame(RealtimeLuceneRefreshPolicy.fromProperties(null), RealtimeLuceneRefreshPolicy.DEFAULT);
+    assertSame(RealtimeLuceneRefreshPolicy.fromProperties(Collections.emptyMap()),
+        RealtimeLuceneRefreshPolicy.DEFAULT);
+
+    Map<String, String> properties = new HashMap<>();
+    properties.put(FieldConfig.TEXT_INDEX_REALTIME_MIN_REFRESH_INTERVAL_MS, "50");
+    properties.put(FieldConfig.TEXT_INDEX_REALTIME_MAX_STALENESS_MS, "200");
+    properties.put(FieldConfig.TEXT_INDEX_REALTIME_REFRESH_ON_QUERY, "true");
+    RealtimeLuceneRefreshPolicy refreshPolicy = RealtimeLuceneRefreshPolicy.fromProperties(properties);
+    assertEquals(refreshPolicy.getMinRefreshIntervalMs(), 50L);
+    assertEquals(refreshPolicy.getMaxStalenessMs(), 200L);
+    assertTrue(refreshPolicy.isRefreshOnQuery());
+
+    // Max staleness should default to be no less than the min refresh interval
+    properties.clear();
+    properties.put(FieldConfig.TEXT_INDEX_REALTIME_MIN_REFRESH_INTERVAL_MS, "5000");
+    refreshPolicy = RealtimeLuceneRefreshPolicy.fromProperties(properties);
+    assertEquals(refreshPolicy.getMinRefreshIntervalMs(), 5000L);
+    assertEquals(refreshPolicy.getMaxStalenessMs(), 5000L);
+    assertFalse(refreshPolicy.isRefreshOnQuery());
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidMaxStaleness() {
+    Map<String, String> properties = new HashMap<>();
+    properties.put(FieldConfig.TEXT_INDEX_REALTIME_MIN_REFRESH_INTERVAL_MS, "500");
+    properties.put(FieldConfig.TEXT_INDEX_REALTIME_MAX_STALENESS_MS, "100");
+    RealtimeLuceneRefreshPolicy.fromProperties(properties);
+  }
+}
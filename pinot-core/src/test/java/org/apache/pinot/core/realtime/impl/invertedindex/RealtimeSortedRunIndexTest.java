@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.invertedindex;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.core.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.InPredicate;
+import org.apache.pinot.core.query.request.context.predicate.Predicate;
+import org.apache.pinot.core.query.request.context.predicate.RangePredicate;
+import org.apache.pinot.core.realtime.impl.dictionary.IntOnHeapMutableDictionary;
+import org.apache.pinot.core.realtime.impl.forward.FixedByteSVMutableForwardIndex;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class RealtimeSortedRunIndexTest {
+  private static final ExpressionContext COLUMN = ExpressionContext.forIdentifier("column");
+  private static final int NUM_DOCS = 2050;
+  private static final int RUN_SIZE = 100;
+  private static final Random RANDOM = new Random();
+
+  private PinotDataBufferMemoryManager _memoryManager;
+
+  @BeforeClass
+  public void setUp() {
+    _memoryManager = new DirectMemoryManager(RealtimeSortedRunIndexTest.class.getName());
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    _memoryManager.close();
+  }
+
+  @Test
+  public void testNearSortedValues()
+      throws IOException {
+    // Values are mostly increasing with some disorder
+    int[] values = new int[NUM_DOCS];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      values[i] = i + RANDOM.nextInt(200) - 100;
+    }
+    testSortedRunIndex(values);
+  }
+
+  @Test
+  public void testRandomValues()
+      throws IOException {
+    // Low cardinality values in random order
+    int[] values = new int[NUM_DOCS];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      values[i] = RANDOM.nextInt(500);
+    }
+    testSortedRunIndex(values);
+  }
+
+  private void testSortedRunIndex(int[] values)
+      throws IOException {
+    try (IntOnHeapMutableDictionary dictionary = new IntOnHeapMutableDictionary();
+        FixedByteSVMutableForwardIndex forwardIndex = new FixedByteSVMutableForwardIndex(true, DataType.INT, NUM_DOCS,
+            _memoryManager, "sortedRunIndex")) {
+      RealtimeSortedRunIndex sortedRunIndex = new RealtimeSortedRunIndex(forwardIndex, dictionary, NUM_DOCS, RUN_SIZE);
+      for (int docId = 0; docId < NUM_DOCS; docId++) {
+        forwardIndex.setDictId(docId, dictionary.index(values[docId]));
+        sortedRunIndex.add(docId);
+      }
+      assertEquals(sortedRunIndex.getNumSortedRuns(), NUM_DOCS / RUN_SIZE);
+
+      for (int i = 0; i < 100; i++) {
+        int value1 = RANDOM.nextInt(2200) - 100;
+        int value2 = RANDOM.nextInt(2200) - 100;
+        int lower = Math.min(value1, value2);
+        int upper = Math.max(value1, value2);
+        boolean lowerInclusive = RANDOM.nextBoolean();
+        boolean upperInclusive = RANDOM.nextBoolean();
+        IntPredicate lowerMatcher = lowerInclusive ? v -> v >= lower : v -> v > lower;
+        IntPredicate upperMatcher = upperInclusive ? v -> v <= upper : v -> v < upper;
+        testPredicate(sortedRunIndex, dictionary, values,
+            new RangePredicate(COLUMN, lowerInclusive, Integer.toString(lower), upperInclusive,
+                Integer.toString(upper)), lowerMatcher.and(upperMatcher));
+        testPredicate(sortedRunIndex, dictionary, values,
+            new RangePredicate(COLUMN, false, RangePredicate.UNBOUNDED, upperInclusive, Integer.toString(upper)),
+            upperMatcher);
+        int value = values[RANDOM.nextInt(NUM_DOCS)];
+        testPredicate(sortedRunIndex, dictionary, values, new EqPredicate(COLUMN, Integer.toString(value)),
+            v -> v == value);
+        // IN predicate with non-contiguous values, where the last value might not exist
+        int inValue1 = values[RANDOM.nextInt(NUM_DOCS)];
+        int inValue2 = values[RANDOM.nextInt(NUM_DOCS)];
+        int inValue3 = RANDOM.nextInt(2200) - 100;
+        testPredicate(sortedRunIndex, dictionary, values, new InPredicate(COLUMN,
+                Arrays.asList(Integer.toString(inValue1), Integer.toString(inValue2), Integer.toString(inValue3))),
+            v -> v == inValue1 || v == inValue2 || v == inValue3);
+      }
+    }
+  }
+
+  private void testPredicate(RealtimeSortedRunIndex sortedRunIndex, IntOnHeapMutableDictionary dictionary,
+      int[] values, Predicate predicate, IntPredicate expected) {
+    PredicateEvaluator predicateEvaluator =
+        PredicateEvaluatorProvider.getPredicateEvaluator(predicate, dictionary, DataType.INT);
+    // Query on a subset of the documents
+    int numDocs = NUM_DOCS - RANDOM.nextInt(2 * RUN_SIZE);
+    MutableRoaringBitmap expectedDocIds = new MutableRoaringBitmap();
+    for (int docId = 0; docId < numDocs; docId++) {
+      if (expected.test(values[docId])) {
+        expectedDocIds.add(docId);
+      }
+    }
+    assertEquals(sortedRunIndex.getDocIds(predicateEvaluator, numDocs), expectedDocIds, predicate.toString());
+  }
+}
@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.creator;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.util.automaton.RegExp;
+import org.apache.pinot.core.operator.filter.predicate.RegexpPatternConverterUtils;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.inv.LuceneFSTIndexCreator;
+import org.apache.pinot.core.segment.index.readers.FSTIndexReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class FSTIndexCreatorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "FSTIndexCreatorTest");
+  private static final String COLUMN_NAME = "testColumn";
+  private static final int NUM_VALUES = 10000;
+  private static final int MAX_VALUE_LENGTH = 8;
+  private static final String ALPHABET = "abcdeABCDEkKsSKſ.-_ 09\néÉß😀";
+  private static final Random RANDOM = new Random();
+
+  private String[] _dictionaryValues;
+  private FSTIndexReader _fstIndexReader;
+  private PinotDataBuffer _dataBuffer;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    TEMP_DIR.mkdirs();
+
+    // Dictionary values are sorted as Java strings, which is different from the UTF-8 byte order for the
+    // supplementary characters
+    _dictionaryValues = Arrays.stream(new String[NUM_VALUES]).map(value -> getRandomString()).distinct().sorted()
+        .toArray(String[]::new);
+    new LuceneFSTIndexCreator(TEMP_DIR, COLUMN_NAME, _dictionaryValues).seal();
+    _dataBuffer = PinotDataBuffer
+        .mapReadOnlyBigEndianFile(new File(TEMP_DIR, COLUMN_NAME + V1Constants.Indexes.FST_INDEX_FILE_EXTENSION));
+    _fstIndexReader = new FSTIndexReader(_dataBuffer);
+  }
+
+  private static String getRandomString() {
+    int length = RANDOM.nextInt(MAX_VALUE_LENGTH + 1);
+    StringBuilder stringBuilder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      int index = RANDOM.nextInt(ALPHABET.length());
+      char c = ALPHABET.charAt(index);
+      if (Character.isHighSurrogate(c)) {
+        stringBuilder.append(c).append(ALPHABET.charAt(index + 1));
+      } else if (!Character.isLowSurrogate(c)) {
+        stringBuilder.append(c);
+      }
+    }
+    return stringBuilder.toString();
+  }
+
+  @Test
+  public void testRegexpLike()
+      throws Exception {
+    String[] patterns = {
+        "", "a", "^ab", "ab$", "^ab$", "^$", "k", "[k]", "s+", "[^s]", "\\.", "a.c", "[a-c]{2,3}", "[^a-c]+",
+        "(ab|cd)e", "ab|cd", "^(ab|k)$", "a*?b", "\\d\\s?\\w", "[\\W\\d]", "\\x41", "\\u00e9", "É", "[é-ÿ]",
+        "ß", "(?:ab)+", "b$", "😀", "^[^😀]*$"
+    };
+    for (String pattern : patterns) {
+      String luceneRegexp = RegexpPatternConverterUtils.toLuceneRegexp(pattern);
+      assertNotNull(luceneRegexp, pattern);
+      int[] actualDictIds = _fstIndexReader.getMatchingDictIds(new RegExp(luceneRegexp, RegExp.NONE).toAutomaton());
+      assertEquals(actualDictIds, getExpectedDictIds(pattern), pattern);
+    }
+  }
+
+  private int[] getExpectedDictIds(String regexp) {
+    Pattern pattern = Pattern.compile(regexp, Pattern.UNICODE_CASE | Pattern.CASE_INSENSITIVE);
+    IntList dictIds = new IntArrayList();
+    for (int dictId = 0; dictId < _dictionaryValues.length; dictId++) {
+      if (pattern.matcher(_dictionaryValues[dictId]).find()) {
+        dictIds.add(dictId);
+      }
+    }
+    return dictIds.toIntArray();
+  }
+
+  @Test
+  public void testUnsupportedSyntax() {
+    String[] patterns = {"^ab|cd", "a$|b", "a(?=b)", "(?i)a", "\\bab", "a++", "\\p{L}", "(a)\\1", "[a-z&&[^b]]", "a^b"};
+    for (String pattern : patterns) {
+      assertNull(RegexpPatternConverterUtils.toLuceneRegexp(pattern), pattern);
+    }
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    _fstIndexReader.close();
+    _dataBuffer.close();
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
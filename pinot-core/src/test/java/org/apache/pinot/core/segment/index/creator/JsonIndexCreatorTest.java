@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.creator;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.operator.filter.JsonMatchFilterOperator;
+import org.apache.pinot.core.query.exception.BadQueryRequestException;
+import org.apache.pinot.core.query.request.context.FilterContext;
+import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeJsonIndexReader;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.inv.JsonIndexCreator;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
+import org.apache.pinot.core.segment.index.readers.json.ImmutableJsonIndexReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class JsonIndexCreatorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "JsonIndexCreatorTest");
+  private static final String COLUMN_NAME = "testColumn";
+  private static final String[] DOCUMENTS = {
+      "{\"name\":\"adam\",\"age\":20,\"device\":{\"os\":\"ios\",\"version\":\"14.1\"},\"tags\":[\"a\",\"b\"]}",
+      "{\"name\":\"bob\",\"age\":25,\"device\":{\"os\":\"android\"},\"tags\":[\"b\",\"c\"],\"active\":true}",
+      "{\"name\":\"charles\",\"device\":{\"os\":\"ios\",\"version\":null},\"tags\":[],\"key with space\":\"x\"}",
+      "not a json document",
+      "{\"name\":\"david\",\"age\":20.5,\"orders\":[{\"id\":1,\"items\":[\"pen\"]},{\"id\":2,\"items\":[\"ink\"]}]}"
+  };
+
+  private PinotDataBuffer _dataBuffer;
+  private ImmutableJsonIndexReader _immutableJsonIndex;
+  private RealtimeJsonIndexReader _realtimeJsonIndex;
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    TEMP_DIR.mkdirs();
+
+    _realtimeJsonIndex = new RealtimeJsonIndexReader();
+    try (JsonIndexCreator jsonIndexCreator = new JsonIndexCreator(TEMP_DIR, COLUMN_NAME)) {
+      for (int docId = 0; docId < DOCUMENTS.length; docId++) {
+        jsonIndexCreator.addDoc(DOCUMENTS[docId], docId);
+        _realtimeJsonIndex.add(DOCUMENTS[docId], docId);
+      }
+      jsonIndexCreator.seal();
+    }
+    _dataBuffer = PinotDataBuffer
+        .mapReadOnlyBigEndianFile(new File(TEMP_DIR, COLUMN_NAME + V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION));
+    _immutableJsonIndex = new ImmutableJsonIndexReader(_dataBuffer);
+  }
+
+  @Test
+  public void testGetMatchingDocIds() {
+    for (JsonIndexReader jsonIndex : new JsonIndexReader[]{_immutableJsonIndex, _realtimeJsonIndex}) {
+      assertEquals(jsonIndex.getMatchingDocIds("$.name", "bob").toArray(), new int[]{1});
+      assertEquals(jsonIndex.getMatchingDocIds("$.device.os", "ios").toArray(), new int[]{0, 2});
+      assertEquals(jsonIndex.getMatchingDocIds("$.age", "20").toArray(), new int[]{0});
+      assertEquals(jsonIndex.getMatchingDocIds("$.age", "20.5").toArray(), new int[]{4});
+      assertEquals(jsonIndex.getMatchingDocIds("$.active", "true").toArray(), new int[]{1});
+      assertEquals(jsonIndex.getMatchingDocIds("$.tags[0]", "b").toArray(), new int[]{1});
+      assertEquals(jsonIndex.getMatchingDocIds("$.tags[*]", "b").toArray(), new int[]{0, 1});
+      assertEquals(jsonIndex.getMatchingDocIds("$['key with space']", "x").toArray(), new int[]{2});
+      assertEquals(jsonIndex.getMatchingDocIds("$.orders[1].id", "2").toArray(), new int[]{4});
+      assertEquals(jsonIndex.getMatchingDocIds("$.orders[*].items[*]", "ink").toArray(), new int[]{4});
+
+      // Null values and missing paths should not match
+      assertTrue(jsonIndex.getMatchingDocIds("$.device.version", "null").isEmpty());
+      assertTrue(jsonIndex.getMatchingDocIds("$.name", "eve").isEmpty());
+      assertTrue(jsonIndex.getMatchingDocIds("$.unknown", "bob").isEmpty());
+    }
+  }
+
+  @Test
+  public void testJsonMatchFilter() {
+    String[] filterStrings = {
+        "\"$.device.os\" = 'ios'", "\"device.os\" = 'ios' AND \"$.tags[*]\" = 'b'",
+        "\"$.name\" = 'adam' OR \"$.tags[*]\" IN ('c', 'd')",
+        "\"$.age\" IN ('20', '20.5') AND (\"$.name\" = 'david' OR \"$.device.os\" = 'ios')"
+    };
+    int[][] expectedDocIds = {{0, 2}, {0}, {0, 1}, {0, 4}};
+    for (int i = 0; i < filterStrings.length; i++) {
+      FilterContext filter = JsonMatchFilterOperator.parseFilter(filterStrings[i]);
+      for (JsonIndexReader jsonIndex : new JsonIndexReader[]{_immutableJsonIndex, _realtimeJsonIndex}) {
+        JsonMatchFilterOperator filterOperator = new JsonMatchFilterOperator(jsonIndex, filter, DOCUMENTS.length);
+        assertEquals(getDocIds(filterOperator), expectedDocIds[i], filterStrings[i]);
+      }
+    }
+
+    String[] unsupportedFilterStrings = {"\"$.age\" > 20", "\"$.name\" <> 'bob'", "'bob' = 'bob'"};
+    for (String filterString : unsupportedFilterStrings) {
+      try {
+        JsonMatchFilterOperator.parseFilter(filterString);
+        fail("Should fail for unsupported filter: " + filterString);
+      } catch (BadQueryRequestException e) {
+        // Expected
+      }
+    }
+  }
+
+  private static int[] getDocIds(JsonMatchFilterOperator filterOperator) {
+    MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+    BlockDocIdIterator docIdIterator = filterOperator.nextBlock().getBlockDocIdSet().iterator();
+    int docId;
+    while ((docId = docIdIterator.next()) != Constants.EOF) {
+      docIds.add(docId);
+    }
+    return docIds.toArray();
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    _immutableJsonIndex.close();
+    _realtimeJsonIndex.close();
+    _dataBuffer.close();
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
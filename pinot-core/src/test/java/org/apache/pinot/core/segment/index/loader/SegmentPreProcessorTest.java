@@ -336,6 +336,43 @@ public class SegmentPreProcessorTest {
     }
   }
 
+  /**
+   * Test to check JSON index creation during segment load after JSON index is enabled on the existing raw and
+   * dictionary encoded columns.
+   */
+  @Test
+  public void testEnableJsonIndexOnExistingColumns()
+      throws Exception {
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setJsonIndexColumns(
+        new HashSet<>(Arrays.asList(EXISTING_STRING_COL_RAW, EXISTING_STRING_COL_DICT, NO_SUCH_COLUMN_NAME)));
+
+    constructV1Segment();
+    checkJsonIndexCreation(indexLoadingConfig);
+    constructV3Segment();
+    checkJsonIndexCreation(indexLoadingConfig);
+  }
+
+  private void checkJsonIndexCreation(IndexLoadingConfig indexLoadingConfig)
+      throws Exception {
+    try (SegmentDirectory segmentDirectory = SegmentDirectory.createFromLocalFS(_indexDir, ReadMode.mmap);
+        SegmentDirectory.Reader reader = segmentDirectory.createReader()) {
+      Assert.assertFalse(reader.hasIndexFor(EXISTING_STRING_COL_RAW, ColumnIndexType.JSON_INDEX));
+      Assert.assertFalse(reader.hasIndexFor(EXISTING_STRING_COL_DICT, ColumnIndexType.JSON_INDEX));
+    }
+
+    try (SegmentPreProcessor processor = new SegmentPreProcessor(_indexDir, indexLoadingConfig, null)) {
+      processor.process();
+    }
+
+    try (SegmentDirectory segmentDirectory = SegmentDirectory.createFromLocalFS(_indexDir, ReadMode.mmap);
+        SegmentDirectory.Reader reader = segmentDirectory.createReader()) {
+      Assert.assertTrue(reader.hasIndexFor(EXISTING_STRING_COL_RAW, ColumnIndexType.JSON_INDEX));
+      Assert.assertTrue(reader.hasIndexFor(EXISTING_STRING_COL_DICT, ColumnIndexType.JSON_INDEX));
+      Assert.assertFalse(reader.hasIndexFor(NO_SUCH_COLUMN_NAME, ColumnIndexType.JSON_INDEX));
+    }
+  }
+
   @Test
   public void testV1CreateInvertedIndices()
       throws Exception {
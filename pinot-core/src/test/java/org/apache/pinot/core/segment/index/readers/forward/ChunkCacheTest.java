@@ -0,0 +1,211 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers.forward;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.io.writer.impl.BaseChunkSVForwardIndexWriter;
+import org.apache.pinot.core.io.writer.impl.FixedByteChunkSVForwardIndexWriter;
+import org.apache.pinot.core.segment.index.readers.forward.BaseChunkSVForwardIndexReader.ChunkReaderContext;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class ChunkCacheTest {
+  private static final File INDEX_FILE = new File(FileUtils.getTempDirectory(), "ChunkCacheTest");
+  private static final int NUM_DOCS = 1000;
+  private static final int NUM_DOCS_PER_CHUNK = 100;
+
+  @Test
+  public void testGetAndPut() {
+    ChunkCache chunkCache = new ChunkCache(1024, null);
+    Object reader = new Object();
+    assertNull(chunkCache.get(reader, 0));
+
+    ByteBuffer chunk = ByteBuffer.allocateDirect(16);
+    chunk.putInt(0, 123);
+    chunk.limit(8);
+    chunkCache.put(reader, 0, chunk);
+    // Modifying the original chunk should not affect the cached chunk
+    chunk.putInt(0, 456);
+    ChunkCache.CachedChunk cachedChunk = chunkCache.get(reader, 0);
+    assertNotNull(cachedChunk);
+    ByteBuffer cachedBuffer = cachedChunk.getBuffer();
+    assertEquals(cachedBuffer.position(), 0);
+    assertEquals(cachedBuffer.limit(), 8);
+    assertEquals(cachedBuffer.getInt(0), 123);
+    cachedChunk.release();
+    assertEquals(chunkCache.getSizeInBytes(), 8);
+
+    // Different chunk or reader should not hit the cache
+    assertNull(chunkCache.get(reader, 1));
+    assertNull(chunkCache.get(new Object(), 0));
+
+    // Size is measured by the capacity of the pooled buffer (next power of 2)
+    chunk.limit(12);
+    chunkCache.put(reader, 1, chunk);
+    assertEquals(chunkCache.getSizeInBytes(), 8 + 16);
+  }
+
+  @Test
+  public void testEvictionAndInvalidation() {
+    // Room for 2 chunks
+    ChunkCache chunkCache = new ChunkCache(16, null);
+    assertEquals(chunkCache.getNumSegments(), 1);
+    Object reader1 = new Object();
+    Object reader2 = new Object();
+    ByteBuffer chunk = ByteBuffer.allocateDirect(8);
+    chunkCache.put(reader1, 0, chunk);
+    chunkCache.put(reader1, 1, chunk);
+
+    // Access the first chunk so that the second chunk is the least recently used one
+    chunkCache.get(reader1, 0).release();
+    chunkCache.put(reader2, 0, chunk);
+    assertEquals(chunkCache.getNumEntries(), 2);
+    assertEquals(chunkCache.getSizeInBytes(), 16);
+    ChunkCache.CachedChunk cachedChunk = chunkCache.get(reader1, 0);
+    assertNotNull(cachedChunk);
+    assertNull(chunkCache.get(reader1, 1));
+    chunkCache.get(reader2, 0).release();
+
+    // Chunk larger than the cache should not be cached
+    chunkCache.put(reader2, 1, ByteBuffer.allocateDirect(32));
+    assertEquals(chunkCache.getNumEntries(), 2);
+
+    chunkCache.invalidate(reader1);
+    cachedChunk.release();
+    assertEquals(chunkCache.getNumEntries(), 1);
+    assertEquals(chunkCache.getSizeInBytes(), 8);
+    assertNull(chunkCache.get(reader1, 0));
+    ChunkCache.CachedChunk cachedChunk2 = chunkCache.get(reader2, 0);
+    assertNotNull(cachedChunk2);
+    cachedChunk2.release();
+  }
+
+  @Test
+  public void testBufferPool() {
+    // Max pooled size: 64 / 8 = 8 bytes
+    ChunkCache chunkCache = new ChunkCache(64, null);
+    Object reader = new Object();
+    ByteBuffer chunk = ByteBuffer.allocateDirect(8);
+    chunk.putInt(0, 123);
+    chunkCache.put(reader, 0, chunk);
+    chunkCache.put(reader, 1, chunk);
+
+    // Chunk in use should not be returned to the pool when invalidated
+    ChunkCache.CachedChunk cachedChunk = chunkCache.get(reader, 0);
+    assertNotNull(cachedChunk);
+    chunkCache.invalidate(reader);
+    assertEquals(chunkCache.getNumEntries(), 0);
+    assertEquals(chunkCache.getSizeInBytes(), 0);
+    // Only one of the 2 buffers fits into the pool
+    assertEquals(chunkCache.getPooledSizeInBytes(), 8);
+    assertEquals(cachedChunk.getBuffer().getInt(0), 123);
+    cachedChunk.release();
+    assertEquals(chunkCache.getPooledSizeInBytes(), 8);
+
+    // Pooled buffer should be reused
+    chunkCache.put(reader, 0, chunk);
+    assertEquals(chunkCache.getPooledSizeInBytes(), 0);
+    cachedChunk = chunkCache.get(reader, 0);
+    assertEquals(cachedChunk.getBuffer().getInt(0), 123);
+    cachedChunk.release();
+  }
+
+  @Test
+  public void testSegments() {
+    assertEquals(new ChunkCache(ChunkCache.MIN_SEGMENT_SIZE_IN_BYTES, null).getNumSegments(), 1);
+    assertEquals(new ChunkCache(4 * ChunkCache.MIN_SEGMENT_SIZE_IN_BYTES, null).getNumSegments(), 4);
+    assertEquals(new ChunkCache(1024 * ChunkCache.MIN_SEGMENT_SIZE_IN_BYTES, null).getNumSegments(),
+        ChunkCache.MAX_NUM_SEGMENTS);
+
+    // Chunks of the same reader are spread over the segments, and should all be invalidated
+    ChunkCache chunkCache = new ChunkCache(1024 * ChunkCache.MIN_SEGMENT_SIZE_IN_BYTES, null);
+    Object reader1 = new Object();
+    Object reader2 = new Object();
+    ByteBuffer chunk = ByteBuffer.allocateDirect(8);
+    for (int chunkId = 0; chunkId < 100; chunkId++) {
+      chunkCache.put(reader1, chunkId, chunk);
+      chunkCache.put(reader2, chunkId, chunk);
+    }
+    assertEquals(chunkCache.getNumEntries(), 200);
+    chunkCache.invalidate(reader1);
+    assertEquals(chunkCache.getNumEntries(), 100);
+    assertEquals(chunkCache.getSizeInBytes(), 100 * 8);
+    for (int chunkId = 0; chunkId < 100; chunkId++) {
+      assertNull(chunkCache.get(reader1, chunkId));
+    }
+  }
+
+  @Test
+  public void testForwardIndexReader()
+      throws IOException {
+    FileUtils.deleteQuietly(INDEX_FILE);
+    try (FixedByteChunkSVForwardIndexWriter writer = new FixedByteChunkSVForwardIndexWriter(INDEX_FILE,
+        ChunkCompressorFactory.CompressionType.SNAPPY, NUM_DOCS, NUM_DOCS_PER_CHUNK, Integer.BYTES,
+        BaseChunkSVForwardIndexWriter.CURRENT_VERSION)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        writer.putInt(i);
+      }
+    }
+
+    ChunkCache chunkCache = new ChunkCache(1024 * 1024, null);
+    ChunkCache.setInstance(chunkCache);
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(INDEX_FILE);
+        FixedByteChunkSVForwardIndexReader reader = new FixedByteChunkSVForwardIndexReader(dataBuffer, DataType.INT,
+            true)) {
+      // The chunks decompressed by the first query should be shared with the second query
+      for (int i = 0; i < 2; i++) {
+        try (ChunkReaderContext readerContext = reader.createContext()) {
+          for (int docId = 0; docId < NUM_DOCS; docId++) {
+            assertEquals(reader.getInt(docId, readerContext), docId);
+          }
+        }
+        assertEquals(chunkCache.getNumEntries(), NUM_DOCS / NUM_DOCS_PER_CHUNK);
+      }
+
+      // Reader without the chunk cache enabled should not use the cache
+      try (FixedByteChunkSVForwardIndexReader uncachedReader = new FixedByteChunkSVForwardIndexReader(dataBuffer,
+          DataType.INT); ChunkReaderContext readerContext = uncachedReader.createContext()) {
+        assertEquals(uncachedReader.getInt(0, readerContext), 0);
+        assertEquals(chunkCache.getNumEntries(), NUM_DOCS / NUM_DOCS_PER_CHUNK);
+      }
+
+      // Closing the reader should invalidate its chunks
+      reader.close();
+      assertEquals(chunkCache.getNumEntries(), 0);
+    } finally {
+      ChunkCache.setInstance(null);
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(INDEX_FILE);
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.startree.v2;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.startree.StarTreeUtils;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class DerivedDimensionTest {
+  private static final String DERIVED_DIMENSION = "dateTrunc__hour__MILLISECONDS__ts";
+
+  @Test
+  public void testFromExpression() {
+    DerivedDimension derivedDimension =
+        DerivedDimension.fromExpression(getExpression("dateTrunc('HOUR', ts, 'MILLISECONDS')"));
+    assertNotNull(derivedDimension);
+    assertEquals(derivedDimension.getName(), DERIVED_DIMENSION);
+    assertEquals(derivedDimension.getColumn(), "ts");
+    assertTrue(DerivedDimension.isDerivedDimension(DERIVED_DIMENSION));
+    assertEquals(DerivedDimension.getColumn(DERIVED_DIMENSION), "ts");
+    assertEquals(DerivedDimension.getColumn("ts"), "ts");
+    assertEquals(DerivedDimension.fromName(DERIVED_DIMENSION).getName(), DERIVED_DIMENSION);
+
+    // Output time unit does not affect the bucketing
+    derivedDimension =
+        DerivedDimension.fromExpression(getExpression("dateTrunc('hour', ts, 'MILLISECONDS', 'UTC', 'SECONDS')"));
+    assertNotNull(derivedDimension);
+    assertEquals(derivedDimension.getName(), DERIVED_DIMENSION);
+
+    // Not derivable
+    assertNull(DerivedDimension.fromExpression(getExpression("ts")));
+    assertNull(DerivedDimension.fromExpression(getExpression("dateTrunc('HOUR', ts)")));
+    assertNull(DerivedDimension.fromExpression(getExpression("dateTrunc('HOUR', add(ts, 1), 'MILLISECONDS')")));
+    assertNull(DerivedDimension.fromExpression(getExpression("dateTrunc('INVALID', ts, 'MILLISECONDS')")));
+    assertNull(
+        DerivedDimension.fromExpression(getExpression("dateTrunc('HOUR', ts, 'MILLISECONDS', 'America/Los_Angeles')")));
+  }
+
+  @Test
+  public void testDictIdMapping() {
+    long hourInMillis = TimeUnit.HOURS.toMillis(1);
+    long[] values = new long[]{0, 1, hourInMillis - 1, hourInMillis, 3 * hourInMillis + 5, 3 * hourInMillis + 6};
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.isSorted()).thenReturn(true);
+    when(dictionary.getValueType()).thenReturn(DataType.LONG);
+    when(dictionary.length()).thenReturn(values.length);
+    when(dictionary.getLongValue(anyInt())).thenAnswer(invocation -> values[(int) invocation.getArgument(0)]);
+
+    DerivedDimension derivedDimension = DerivedDimension.fromName(DERIVED_DIMENSION);
+    int[] dictIdMapping = derivedDimension.getDictIdMapping(dictionary);
+    assertEquals(dictIdMapping, new int[]{0, 0, 0, 3, 4, 4});
+    for (int dictId = 0; dictId < values.length; dictId++) {
+      assertEquals(derivedDimension.getBucket(values[dictIdMapping[dictId]]),
+          derivedDimension.getBucket(values[dictId]));
+    }
+  }
+
+  @Test
+  public void testDerivedDimensionMap() {
+    StarTreeV2Metadata metadata = new StarTreeV2Metadata(100, Arrays.asList("d1", DERIVED_DIMENSION),
+        Collections.singleton(AggregationFunctionColumnPair.COUNT_STAR), 100, new HashSet<>());
+    ExpressionContext derivedExpression = getExpression("dateTrunc('HOUR', ts, 'MILLISECONDS')");
+    ExpressionContext d1 = getExpression("d1");
+    assertEquals(StarTreeUtils.getDerivedDimensionMap(metadata, new ExpressionContext[]{d1, derivedExpression}),
+        Collections.singletonMap("ts", DERIVED_DIMENSION));
+    assertTrue(StarTreeUtils
+        .isFitForStarTree(metadata, new AggregationFunctionColumnPair[]{AggregationFunctionColumnPair.COUNT_STAR},
+            new ExpressionContext[]{d1, derivedExpression}, null));
+
+    // Raw time column cannot be served by the derived dimension
+    ExpressionContext[] groupByExpressions = new ExpressionContext[]{derivedExpression, getExpression("ts")};
+    assertTrue(StarTreeUtils.getDerivedDimensionMap(metadata, groupByExpressions).isEmpty());
+    assertFalse(StarTreeUtils
+        .isFitForStarTree(metadata, new AggregationFunctionColumnPair[]{AggregationFunctionColumnPair.COUNT_STAR},
+            groupByExpressions, null));
+
+    // Different bucket cannot be served by the derived dimension
+    groupByExpressions = new ExpressionContext[]{getExpression("dateTrunc('DAY', ts, 'MILLISECONDS')")};
+    assertTrue(StarTreeUtils.getDerivedDimensionMap(metadata, groupByExpressions).isEmpty());
+  }
+
+  private static ExpressionContext getExpression(String expression) {
+    return QueryContextConverterUtils.getExpression(expression);
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.pinot.core.startree.v2.builder;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.concurrent.TimeUnit;
 import org.apache.pinot.common.function.AggregationFunctionType;
@@ -26,6 +27,7 @@ import org.apache.pinot.core.common.Constants;
 import org.apache.pinot.core.segment.index.metadata.ColumnMetadata;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.TimeGranularitySpec;
@@ -35,6 +37,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 
 public class StarTreeV2BuilderConfigTest {
@@ -89,6 +92,30 @@ public class StarTreeV2BuilderConfigTest {
     assertEquals(defaultConfig.getMaxLeafRecords(), StarTreeV2BuilderConfig.DEFAULT_MAX_LEAF_RECORDS);
   }
 
+  @Test
+  public void testDerivedDimensions() {
+    StarTreeIndexConfig indexConfig =
+        new StarTreeIndexConfig(Arrays.asList("d1", "dateTrunc('HOUR', t, 'MILLISECONDS')"),
+            Collections.singletonList("dateTrunc('hour', t, 'milliseconds', 'UTC')"),
+            Collections.singletonList("distinctCountThetaSketch__m2"), 100);
+    StarTreeV2BuilderConfig builderConfig = StarTreeV2BuilderConfig.fromIndexConfig(indexConfig);
+    assertEquals(builderConfig.getDimensionsSplitOrder(), Arrays.asList("d1", "dateTrunc__hour__MILLISECONDS__t"));
+    assertEquals(builderConfig.getSkipStarNodeCreationForDimensions(),
+        Collections.singleton("dateTrunc__hour__MILLISECONDS__t"));
+    assertEquals(builderConfig.getFunctionColumnPairs(), Collections
+        .singleton(new AggregationFunctionColumnPair(AggregationFunctionType.DISTINCTCOUNTTHETASKETCH, "m2")));
+
+    // Only UTC time zone is supported
+    try {
+      StarTreeV2BuilderConfig.fromIndexConfig(
+          new StarTreeIndexConfig(Collections.singletonList("dateTrunc('HOUR', t, 'MILLISECONDS', 'PST')"), null,
+              Collections.singletonList("count__*"), 100));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // Expected
+    }
+  }
+
   private ColumnMetadata getColumnMetadata(String column, boolean hasDictionary, int cardinality) {
     ColumnMetadata columnMetadata = mock(ColumnMetadata.class);
     when(columnMetadata.getColumnName()).thenReturn(column);
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class PartitionUpsertMetadataManagerTest {
+  private static final String TABLE_NAME_WITH_TYPE = "testTable_REALTIME";
+
+  @Test
+  public void testAddRecord() {
+    for (DataType dataType : new DataType[]{DataType.INT, DataType.STRING}) {
+      PartitionUpsertMetadataManager partitionManager =
+          new PartitionUpsertMetadataManager(TABLE_NAME_WITH_TYPE, 0, Collections.singletonList(dataType));
+      ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+      partitionManager.addSegment(1, validDocIds1);
+      addRecords(partitionManager, 1, dataType, 0, 1, 2, 0, 1);
+      assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{2, 3, 4});
+
+      // Records in a later segment should invalidate the records in the earlier segment
+      ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+      partitionManager.addSegment(2, validDocIds2);
+      addRecords(partitionManager, 2, dataType, 2, 3);
+      assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{3, 4});
+      assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
+      assertEquals(partitionManager.getNumPrimaryKeys(), 4);
+    }
+  }
+
+  @Test
+  public void testAddSegmentsOutOfOrder() {
+    PartitionUpsertMetadataManager partitionManager =
+        new PartitionUpsertMetadataManager(TABLE_NAME_WITH_TYPE, 0, Collections.singletonList(DataType.LONG));
+    ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+    partitionManager.addSegment(2, validDocIds2);
+    addRecords(partitionManager, 2, DataType.LONG, 0, 1);
+
+    // Records in an earlier segment should not override the records in the later segment
+    ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+    partitionManager.addSegment(1, validDocIds1);
+    addRecords(partitionManager, 1, DataType.LONG, 1, 2);
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{1});
+    assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
+  }
+
+  @Test
+  public void testReplaceAndRemoveSegment() {
+    PartitionUpsertMetadataManager partitionManager =
+        new PartitionUpsertMetadataManager(TABLE_NAME_WITH_TYPE, 0, Collections.singletonList(DataType.STRING));
+    ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+    partitionManager.addSegment(1, validDocIds1);
+    addRecords(partitionManager, 1, DataType.STRING, 0, 1, 0);
+    ThreadSafeMutableRoaringBitmap consumingValidDocIds = new ThreadSafeMutableRoaringBitmap();
+    partitionManager.addSegment(2, consumingValidDocIds);
+    addRecords(partitionManager, 2, DataType.STRING, 1, 2);
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{2});
+
+    // Replace the consuming segment with the committed segment with the same records
+    ThreadSafeMutableRoaringBitmap committedValidDocIds = new ThreadSafeMutableRoaringBitmap();
+    partitionManager.addSegment(2, committedValidDocIds);
+    addRecords(partitionManager, 2, DataType.STRING, 1, 2);
+    assertEquals(committedValidDocIds.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{2});
+
+    // Removing the replaced segment should be no-op
+    partitionManager.removeSegment(2, consumingValidDocIds);
+    assertEquals(partitionManager.getNumPrimaryKeys(), 3);
+
+    // Removing the segment should remove the primary keys located in it
+    partitionManager.removeSegment(1, validDocIds1);
+    assertEquals(partitionManager.getNumPrimaryKeys(), 2);
+    partitionManager.removeSegment(2, committedValidDocIds);
+    assertEquals(partitionManager.getNumPrimaryKeys(), 0);
+  }
+
+  @Test
+  public void testCompositePrimaryKey() {
+    PartitionUpsertMetadataManager partitionManager = new PartitionUpsertMetadataManager(TABLE_NAME_WITH_TYPE, 0,
+        Arrays.asList(DataType.INT, DataType.BYTES));
+    ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+    partitionManager.addSegment(1, validDocIds1);
+    partitionManager.addRecord(1, 0, new PrimaryKey(new Object[]{0, new byte[]{0}}));
+    partitionManager.addRecord(1, 1, new PrimaryKey(new Object[]{0, new byte[]{1}}));
+    partitionManager.addRecord(1, 2, new PrimaryKey(new Object[]{1, new byte[]{0}}));
+    // Only records with all the primary key values matching should be deduplicated
+    partitionManager.addRecord(1, 3, new PrimaryKey(new Object[]{0, new byte[]{0}}));
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{1, 2, 3});
+
+    ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+    partitionManager.addSegment(2, validDocIds2);
+    partitionManager.addRecord(2, 0, new PrimaryKey(new Object[]{1, new byte[]{0}}));
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{1, 3});
+    assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0});
+    assertEquals(partitionManager.getNumPrimaryKeys(), 3);
+  }
+
+  private static void addRecords(PartitionUpsertMetadataManager partitionManager, int sequenceNumber,
+      DataType dataType, int... primaryKeys) {
+    for (int docId = 0; docId < primaryKeys.length; docId++) {
+      Object primaryKey = dataType == DataType.STRING ? Integer.toString(primaryKeys[docId]) : primaryKeys[docId];
+      partitionManager.addRecord(sequenceNumber, docId, primaryKey);
+    }
+  }
+}
@@ -19,14 +19,19 @@
 package org.apache.pinot.core.util;
 
 import com.google.common.collect.Lists;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Map;
 import org.apache.pinot.common.tier.TierFactory;
+import org.apache.pinot.spi.config.table.FieldConfig;
 import org.apache.pinot.spi.config.table.IngestionConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.config.table.TierConfig;
 import org.apache.pinot.spi.config.table.ingestion.FilterConfig;
 import org.apache.pinot.spi.config.table.ingestion.TransformConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -323,4 +328,66 @@ public class TableConfigUtilsTest {
       // expected
     }
   }
+
+  @Test
+  public void validateFieldConfigs() {
+    Schema schema =
+        new Schema.SchemaBuilder().setSchemaName("testTable").addSingleValueDimension("intCol", DataType.INT)
+            .addMetric("longCol", DataType.LONG).addSingleValueDimension("stringCol", DataType.STRING)
+            .addMultiValueDimension("intMVCol", DataType.INT).build();
+    Map<String, String> forProperties =
+        Collections.singletonMap(FieldConfig.RAW_INDEX_ENCODING, FieldConfig.RawIndexEncoding.FOR.name());
+
+    // FOR encoding on INT/LONG no-dictionary columns
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable")
+        .setNoDictionaryColumns(Arrays.asList("intCol", "longCol")).setFieldConfigList(
+            Arrays.asList(new FieldConfig("intCol", FieldConfig.EncodingType.RAW, null, forProperties),
+                new FieldConfig("longCol", FieldConfig.EncodingType.RAW, null, forProperties))).build();
+    TableConfigUtils.validate(tableConfig, schema);
+
+    // FOR encoding on STRING column
+    tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable")
+        .setNoDictionaryColumns(Collections.singletonList("stringCol")).setFieldConfigList(Collections
+            .singletonList(new FieldConfig("stringCol", FieldConfig.EncodingType.RAW, null, forProperties))).build();
+    try {
+      TableConfigUtils.validate(tableConfig, schema);
+      Assert.fail("Should have failed due to FOR encoding on STRING column");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    // FOR encoding on multi-value column
+    tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable")
+        .setNoDictionaryColumns(Collections.singletonList("intMVCol")).setFieldConfigList(Collections
+            .singletonList(new FieldConfig("intMVCol", FieldConfig.EncodingType.RAW, null, forProperties))).build();
+    try {
+      TableConfigUtils.validate(tableConfig, schema);
+      Assert.fail("Should have failed due to FOR encoding on multi-value column");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    // FOR encoding on dictionary-encoded column
+    tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable").setFieldConfigList(
+        Collections.singletonList(new FieldConfig("intCol", FieldConfig.EncodingType.RAW, null, forProperties)))
+        .build();
+    try {
+      TableConfigUtils.validate(tableConfig, schema);
+      Assert.fail("Should have failed due to FOR encoding on dictionary-encoded column");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    // Invalid raw index encoding
+    tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable")
+        .setNoDictionaryColumns(Collections.singletonList("intCol")).setFieldConfigList(Collections.singletonList(
+            new FieldConfig("intCol", FieldConfig.EncodingType.RAW, null,
+                Collections.singletonMap(FieldConfig.RAW_INDEX_ENCODING, "INVALID")))).build();
+    try {
+      TableConfigUtils.validate(tableConfig, schema);
+      Assert.fail("Should have failed due to invalid raw index encoding");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
 }
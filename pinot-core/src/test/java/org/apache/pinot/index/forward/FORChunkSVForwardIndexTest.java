@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.index.forward;
+
+import java.io.File;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.io.writer.impl.BaseChunkSVForwardIndexWriter;
+import org.apache.pinot.core.io.writer.impl.FORChunkSVForwardIndexWriter;
+import org.apache.pinot.core.io.writer.impl.FixedByteChunkSVForwardIndexWriter;
+import org.apache.pinot.core.segment.index.readers.forward.FORChunkSVForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.forward.FORChunkSVForwardIndexReader.FORReaderContext;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit test for {@link FORChunkSVForwardIndexReader} and {@link FORChunkSVForwardIndexWriter} classes.
+ *
+ * Number of docs and docs per chunk are chosen to generate complete as well partial chunks.
+ */
+public class FORChunkSVForwardIndexTest {
+  private static final int NUM_VALUES = 10009;
+  private static final int NUM_DOCS_PER_CHUNK = 1024;
+  private static final File TEST_FILE =
+      new File(FileUtils.getTempDirectory(), FORChunkSVForwardIndexTest.class.getSimpleName());
+  private static final Random RANDOM = new Random();
+
+  @Test
+  public void testInt()
+      throws Exception {
+    // Random values (32 bits), small range (FOR encoding), sorted values (DELTA encoding) and constant values (0 bit)
+    int[][] testValues = new int[4][NUM_VALUES];
+    int sortedValue = RANDOM.nextInt(1000);
+    for (int i = 0; i < NUM_VALUES; i++) {
+      testValues[0][i] = RANDOM.nextInt();
+      testValues[1][i] = 1000 + RANDOM.nextInt(100);
+      sortedValue += RANDOM.nextInt(10);
+      testValues[2][i] = sortedValue;
+      testValues[3][i] = 123;
+    }
+    testValues[0][0] = Integer.MIN_VALUE;
+    testValues[0][1] = Integer.MAX_VALUE;
+
+    for (int[] expected : testValues) {
+      FileUtils.deleteQuietly(TEST_FILE);
+      try (FORChunkSVForwardIndexWriter writer = new FORChunkSVForwardIndexWriter(TEST_FILE, NUM_VALUES,
+          NUM_DOCS_PER_CHUNK, Integer.BYTES)) {
+        for (int value : expected) {
+          writer.putInt(value);
+        }
+      }
+
+      try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(TEST_FILE);
+          FORChunkSVForwardIndexReader reader = new FORChunkSVForwardIndexReader(dataBuffer, DataType.INT);
+          FORReaderContext readerContext = reader.createContext()) {
+        Assert.assertTrue(FORChunkSVForwardIndexReader.isFOREncoded(dataBuffer));
+        for (int i = 0; i < NUM_VALUES; i++) {
+          Assert.assertEquals(reader.getInt(i, readerContext), expected[i]);
+        }
+        // Random access
+        for (int i = 0; i < 1000; i++) {
+          int docId = RANDOM.nextInt(NUM_VALUES);
+          Assert.assertEquals(reader.getInt(docId, readerContext), expected[docId]);
+        }
+
+        // Batch read
+        int[] docIds = getDocIds();
+        int[] valueBuffer = new int[docIds.length];
+        reader.readValuesSV(docIds, docIds.length, valueBuffer, readerContext);
+        for (int i = 0; i < docIds.length; i++) {
+          Assert.assertEquals(valueBuffer[i], expected[docIds[i]]);
+        }
+      }
+    }
+    FileUtils.deleteQuietly(TEST_FILE);
+  }
+
+  @Test
+  public void testLong()
+      throws Exception {
+    // Random values (64 bits), timestamps (DELTA encoding), small range (FOR encoding), overflowing differences and
+    // constant values (0 bit)
+    long[][] testValues = new long[5][NUM_VALUES];
+    long timestamp = System.currentTimeMillis();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      testValues[0][i] = RANDOM.nextLong();
+      timestamp += RANDOM.nextInt(1000);
+      testValues[1][i] = timestamp;
+      testValues[2][i] = timestamp + RANDOM.nextInt(100000);
+      testValues[3][i] = i % 2 == 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+      testValues[4][i] = 123L;
+    }
+
+    for (long[] expected : testValues) {
+      FileUtils.deleteQuietly(TEST_FILE);
+      try (FORChunkSVForwardIndexWriter writer = new FORChunkSVForwardIndexWriter(TEST_FILE, NUM_VALUES,
+          NUM_DOCS_PER_CHUNK, Long.BYTES)) {
+        for (long value : expected) {
+          writer.putLong(value);
+        }
+      }
+
+      try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(TEST_FILE);
+          FORChunkSVForwardIndexReader reader = new FORChunkSVForwardIndexReader(dataBuffer, DataType.LONG);
+          FORReaderContext readerContext = reader.createContext()) {
+        for (int i = 0; i < NUM_VALUES; i++) {
+          Assert.assertEquals(reader.getLong(i, readerContext), expected[i]);
+        }
+        // Random access
+        for (int i = 0; i < 1000; i++) {
+          int docId = RANDOM.nextInt(NUM_VALUES);
+          Assert.assertEquals(reader.getLong(docId, readerContext), expected[docId]);
+        }
+
+        // Batch read
+        int[] docIds = getDocIds();
+        long[] valueBuffer = new long[docIds.length];
+        reader.readValuesSV(docIds, docIds.length, valueBuffer, readerContext);
+        for (int i = 0; i < docIds.length; i++) {
+          Assert.assertEquals(valueBuffer[i], expected[docIds[i]]);
+        }
+      }
+    }
+    FileUtils.deleteQuietly(TEST_FILE);
+  }
+
+  @Test
+  public void testCompression()
+      throws Exception {
+    // Sorted timestamps should take much less space than the fixed byte raw index
+    File fixedByteFile = new File(TEST_FILE.getPath() + ".fixedByte");
+    FileUtils.deleteQuietly(TEST_FILE);
+    FileUtils.deleteQuietly(fixedByteFile);
+    long timestamp = System.currentTimeMillis();
+    try (FORChunkSVForwardIndexWriter writer = new FORChunkSVForwardIndexWriter(TEST_FILE, NUM_VALUES,
+        NUM_DOCS_PER_CHUNK, Long.BYTES);
+        FixedByteChunkSVForwardIndexWriter fixedByteWriter = new FixedByteChunkSVForwardIndexWriter(fixedByteFile,
+            ChunkCompressorFactory.CompressionType.PASS_THROUGH, NUM_VALUES, NUM_DOCS_PER_CHUNK, Long.BYTES,
+            BaseChunkSVForwardIndexWriter.CURRENT_VERSION)) {
+      for (int i = 0; i < NUM_VALUES; i++) {
+        timestamp += RANDOM.nextInt(10);
+        writer.putLong(timestamp);
+        fixedByteWriter.putLong(timestamp);
+      }
+    }
+    Assert.assertTrue(TEST_FILE.length() * 8 < fixedByteFile.length());
+
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(fixedByteFile)) {
+      Assert.assertFalse(FORChunkSVForwardIndexReader.isFOREncoded(dataBuffer));
+    }
+    FileUtils.deleteQuietly(TEST_FILE);
+    FileUtils.deleteQuietly(fixedByteFile);
+  }
+
+  /**
+   * Returns sorted doc ids with gaps, which cover multiple chunks.
+   */
+  private static int[] getDocIds() {
+    int[] docIds = new int[NUM_VALUES];
+    int numDocIds = 0;
+    for (int docId = 0; docId < NUM_VALUES; docId += 1 + RANDOM.nextInt(5)) {
+      docIds[numDocIds++] = docId;
+    }
+    int[] result = new int[numDocIds];
+    System.arraycopy(docIds, 0, result, 0, numDocIds);
+    return result;
+  }
+}
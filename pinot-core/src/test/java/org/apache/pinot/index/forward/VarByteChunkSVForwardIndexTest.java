@@ -52,6 +52,8 @@ public class VarByteChunkSVForwardIndexTest {
   public void testWithCompression()
       throws Exception {
     test(ChunkCompressorFactory.CompressionType.SNAPPY);
+    test(ChunkCompressorFactory.CompressionType.ZSTANDARD);
+    test(ChunkCompressorFactory.CompressionType.LZ4);
   }
 
   @Test
@@ -159,26 +161,15 @@ public class VarByteChunkSVForwardIndexTest {
   @Test
   public void testVarCharWithDifferentSizes()
       throws Exception {
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.SNAPPY, 10, 1000);
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.PASS_THROUGH, 10, 1000);
-
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.SNAPPY, 100, 1000);
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.PASS_THROUGH, 100, 1000);
-
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.SNAPPY, 1000, 1000);
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.PASS_THROUGH, 1000, 1000);
-
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.SNAPPY, 10000, 100);
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.PASS_THROUGH, 10000, 100);
-
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.SNAPPY, 100000, 10);
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.PASS_THROUGH, 100000, 10);
-
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.SNAPPY, 1000000, 10);
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.PASS_THROUGH, 1000000, 10);
-
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.SNAPPY, 2000000, 10);
-    testLargeVarcharHelper(ChunkCompressorFactory.CompressionType.PASS_THROUGH, 2000000, 10);
+    for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+      testLargeVarcharHelper(compressionType, 10, 1000);
+      testLargeVarcharHelper(compressionType, 100, 1000);
+      testLargeVarcharHelper(compressionType, 1000, 1000);
+      testLargeVarcharHelper(compressionType, 10000, 100);
+      testLargeVarcharHelper(compressionType, 100000, 10);
+      testLargeVarcharHelper(compressionType, 1000000, 10);
+      testLargeVarcharHelper(compressionType, 2000000, 10);
+    }
   }
 
   private void testLargeVarcharHelper(ChunkCompressorFactory.CompressionType compressionType, int numChars, int numDocs)
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentImpl;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.query.AggregationOperator;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.core.upsert.TableUpsertMetadataManager;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.config.table.UpsertConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+/**
+ * Queries test for upsert table with composite primary key, where the replaced records should be filtered out by the
+ * valid document ids.
+ */
+public class UpsertQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "UpsertQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String REALTIME_TABLE_NAME = "testTable_REALTIME";
+  private static final String SEGMENT_NAME_0 = "testTable__0__0__20201017T0000Z";
+  private static final String SEGMENT_NAME_1 = "testTable__0__1__20201017T0100Z";
+
+  private static final String PK_COLUMN_1 = "pk1";
+  private static final String PK_COLUMN_2 = "pk2";
+  private static final String VALUE_COLUMN = "value";
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().addSingleValueDimension(PK_COLUMN_1, DataType.INT)
+      .addSingleValueDimension(PK_COLUMN_2, DataType.STRING).addMetric(VALUE_COLUMN, DataType.INT).build();
+  private static final TableConfig TABLE_CONFIG =
+      new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).build();
+  private static final UpsertConfig UPSERT_CONFIG =
+      new UpsertConfig(Arrays.asList(PK_COLUMN_1, PK_COLUMN_2), "offset", "validFrom", "validUntil");
+
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(INDEX_DIR);
+
+    // Segment 0: (k, 'x') and (k, 'y') for k in [0, 10) with value 1, then (0, 'x') again with value 100
+    List<GenericRow> records0 = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      records0.add(getRecord(i, "x", 1));
+      records0.add(getRecord(i, "y", 1));
+    }
+    records0.add(getRecord(0, "x", 100));
+
+    // Segment 1: (k, 'x') for k in [0, 5) with value 10
+    List<GenericRow> records1 = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      records1.add(getRecord(i, "x", 10));
+    }
+
+    ImmutableSegmentImpl segment0 = buildSegment(SEGMENT_NAME_0, records0);
+    ImmutableSegmentImpl segment1 = buildSegment(SEGMENT_NAME_1, records1);
+    TableUpsertMetadataManager tableUpsertMetadataManager =
+        new TableUpsertMetadataManager(REALTIME_TABLE_NAME, UPSERT_CONFIG, SCHEMA);
+    tableUpsertMetadataManager.addSegment(segment0);
+    tableUpsertMetadataManager.addSegment(segment1);
+
+    _indexSegment = segment0;
+    _indexSegments = Arrays.asList(segment0, segment1);
+  }
+
+  private static GenericRow getRecord(int pk1, String pk2, int value) {
+    GenericRow record = new GenericRow();
+    record.putValue(PK_COLUMN_1, pk1);
+    record.putValue(PK_COLUMN_2, pk2);
+    record.putValue(VALUE_COLUMN, value);
+    return record;
+  }
+
+  private static ImmutableSegmentImpl buildSegment(String segmentName, List<GenericRow> records)
+      throws Exception {
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(TABLE_CONFIG, SCHEMA);
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(segmentName);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    return (ImmutableSegmentImpl) ImmutableSegmentLoader.load(new File(INDEX_DIR, segmentName), ReadMode.mmap);
+  }
+
+  @Test
+  public void testInnerSegment() {
+    // Only (k, 'x') for k in [5, 10) and (k, 'y') for k in [0, 10) are valid in segment 0
+    AggregationOperator aggregationOperator = getOperatorForSqlQuery("SELECT COUNT(*), SUM(value) FROM testTable");
+    IntermediateResultsBlock resultsBlock = aggregationOperator.nextBlock();
+    List<Object> aggregationResult = resultsBlock.getAggregationResult();
+    assertEquals(((Number) aggregationResult.get(0)).longValue(), 15L);
+    assertEquals(((Number) aggregationResult.get(1)).doubleValue(), 15.0);
+  }
+
+  @Test
+  public void testInterSegments() {
+    // NOTE: The broker response is equivalent to querying each segment twice
+    BrokerResponseNative brokerResponse = getBrokerResponseForSqlQuery("SELECT COUNT(*), SUM(value) FROM testTable");
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 1);
+    assertEquals(((Number) rows.get(0)[0]).longValue(), 2 * 20L);
+    assertEquals(((Number) rows.get(0)[1]).doubleValue(), 2 * 65.0);
+
+    // Records should only be deduplicated when all the primary key columns match
+    brokerResponse = getBrokerResponseForSqlQuery("SELECT COUNT(*), SUM(value) FROM testTable WHERE pk2 = 'x'");
+    rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 1);
+    assertEquals(((Number) rows.get(0)[0]).longValue(), 2 * 10L);
+    assertEquals(((Number) rows.get(0)[1]).doubleValue(), 2 * 55.0);
+
+    // The replaced records should not be selected
+    brokerResponse = getBrokerResponseForSqlQuery("SELECT value FROM testTable WHERE pk1 = 0 AND pk2 = 'x'");
+    rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 2);
+    for (Object[] row : rows) {
+      assertEquals(row[0], 10);
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    for (IndexSegment indexSegment : _indexSegments) {
+      indexSegment.destroy();
+    }
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
@@ -40,6 +40,7 @@ import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.query.aggregation.AggregationExecutor;
 import org.apache.pinot.core.query.aggregation.DefaultAggregationExecutor;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.aggregation.function.customobject.AvgPair;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
@@ -76,6 +77,9 @@ public class DefaultAggregationExecutorTest {
 
   private static final String METRIC_PREFIX = "metric_";
   private static final String[] AGGREGATION_FUNCTIONS = {"sum", "max", "min"};
+  private static final String INT_METRIC_PREFIX = "intMetric_";
+  private static final String[] DICT_ID_BASED_AGGREGATION_FUNCTIONS = {"sum", "avg", "max", "min"};
+  private static final int MAX_INT_VALUE = 100;
 
   private static final int NUM_METRIC_COLUMNS = AGGREGATION_FUNCTIONS.length;
   private static final double MAX_VALUE = Integer.MAX_VALUE;
@@ -86,6 +90,8 @@ public class DefaultAggregationExecutorTest {
   private String[] _columns;
   private QueryContext _queryContext;
   private double[][] _inputData;
+  private String[] _intColumns;
+  private int[][] _intInputData;
 
   /**
    * Initializations prior to the test:
@@ -101,8 +107,11 @@ public class DefaultAggregationExecutorTest {
 
     int numColumns = AGGREGATION_FUNCTIONS.length;
     _inputData = new double[numColumns][NUM_ROWS];
+    int numIntColumns = DICT_ID_BASED_AGGREGATION_FUNCTIONS.length;
+    _intInputData = new int[numIntColumns][NUM_ROWS];
 
     _columns = new String[numColumns];
+    _intColumns = new String[numIntColumns];
     setupSegment();
 
     StringBuilder queryBuilder = new StringBuilder("SELECT");
@@ -148,6 +157,64 @@ public class DefaultAggregationExecutorTest {
     }
   }
 
+  /**
+   * Runs 'sum', 'avg', 'max' & 'min' aggregation functions on the low cardinality dictionary-encoded INT columns, which
+   * are aggregated on the dictionary ids, across multiple blocks.
+   */
+  @Test
+  void testDictIdBasedAggregation() {
+    StringBuilder queryBuilder = new StringBuilder("SELECT");
+    for (int i = 0; i < _intColumns.length; i++) {
+      queryBuilder.append(String.format(" %s(%s)", DICT_ID_BASED_AGGREGATION_FUNCTIONS[i], _intColumns[i]));
+      if (i != _intColumns.length - 1) {
+        queryBuilder.append(',');
+      }
+    }
+    queryBuilder.append(" FROM testTable");
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromPQL(queryBuilder.toString());
+
+    Map<String, DataSource> dataSourceMap = new HashMap<>();
+    List<ExpressionContext> expressions = new ArrayList<>();
+    for (String column : _intColumns) {
+      dataSourceMap.put(column, _indexSegment.getDataSource(column));
+      expressions.add(ExpressionContext.forIdentifier(column));
+    }
+    int totalDocs = _indexSegment.getSegmentMetadata().getTotalDocs();
+    MatchAllFilterOperator matchAllFilterOperator = new MatchAllFilterOperator(totalDocs);
+    // Use small blocks so that the histogram is accumulated across blocks
+    DocIdSetOperator docIdSetOperator = new DocIdSetOperator(matchAllFilterOperator, NUM_ROWS / 10);
+    ProjectionOperator projectionOperator = new ProjectionOperator(dataSourceMap, docIdSetOperator);
+    TransformOperator transformOperator = new TransformOperator(projectionOperator, expressions);
+    AggregationFunction[] aggregationFunctions = queryContext.getAggregationFunctions();
+    assert aggregationFunctions != null;
+    AggregationExecutor aggregationExecutor = new DefaultAggregationExecutor(aggregationFunctions);
+    TransformBlock transformBlock;
+    while ((transformBlock = transformOperator.nextBlock()) != null) {
+      aggregationExecutor.aggregate(transformBlock);
+    }
+    List<Object> result = aggregationExecutor.getResult();
+    for (int i = 0; i < result.size(); i++) {
+      double[] values = new double[NUM_ROWS];
+      for (int j = 0; j < NUM_ROWS; j++) {
+        values[j] = _intInputData[i][j];
+      }
+      String functionName = DICT_ID_BASED_AGGREGATION_FUNCTIONS[i];
+      double actual;
+      double expected;
+      if (functionName.equals("avg")) {
+        AvgPair avgPair = (AvgPair) result.get(i);
+        Assert.assertEquals(avgPair.getCount(), NUM_ROWS);
+        actual = avgPair.getSum();
+        expected = computeSum(values);
+      } else {
+        actual = (double) result.get(i);
+        expected = computeAggregation(functionName, values);
+      }
+      Assert.assertEquals(actual, expected,
+          "Aggregation mis-match for function " + functionName + ", Expected: " + expected + " Actual: " + actual);
+    }
+  }
+
   /**
    * Helper method to setup the index segment on which to perform aggregation tests.
    * - Generates a segment with {@link #NUM_METRIC_COLUMNS} and {@link #NUM_ROWS}
@@ -178,6 +245,11 @@ public class DefaultAggregationExecutorTest {
         _inputData[j][i] = value;
         map.put(metricName, value);
       }
+      for (int j = 0; j < _intColumns.length; j++) {
+        int value = _random.nextInt(MAX_INT_VALUE);
+        _intInputData[j][i] = value;
+        map.put(_intColumns[j], value);
+      }
 
       GenericRow genericRow = new GenericRow();
       genericRow.init(map);
@@ -205,6 +277,11 @@ public class DefaultAggregationExecutorTest {
       schema.addField(metricFieldSpec);
       _columns[i] = metricName;
     }
+    for (int i = 0; i < _intColumns.length; i++) {
+      String metricName = INT_METRIC_PREFIX + i;
+      schema.addField(new MetricFieldSpec(metricName, FieldSpec.DataType.INT));
+      _intColumns[i] = metricName;
+    }
     return schema;
   }
 
@@ -18,7 +18,19 @@
  */
 package org.apache.pinot.realtime.converter;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.data.readers.PinotSegmentRecordReader;
+import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImplTestUtils;
 import org.apache.pinot.core.realtime.converter.RealtimeSegmentConverter;
 import org.apache.pinot.core.segment.virtualcolumn.VirtualColumnProviderFactory;
 import org.apache.pinot.spi.config.table.TableConfig;
@@ -29,12 +41,23 @@ import org.apache.pinot.spi.data.MetricFieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.TimeFieldSpec;
 import org.apache.pinot.spi.data.TimeGranularitySpec;
+import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
 import org.testng.Assert;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
+import static org.mockito.Mockito.mock;
+
 
 public class RealtimeSegmentConverterTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "RealtimeSegmentConverterTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testTable__0__0__20200101T0000Z";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final String INT_MV_COLUMN = "intMVColumn";
+  private static final String LONG_COLUMN = "longColumn";
+  private static final int NUM_RECORDS = 1000;
 
   @Test
   public void testNoVirtualColumnsInSchema() {
@@ -47,4 +70,68 @@ public class RealtimeSegmentConverterTest {
     Schema newSchema = RealtimeSegmentConverter.getUpdatedSchema(schema);
     Assert.assertEquals(newSchema.getColumnNames().size(), 2);
   }
+
+  @Test
+  public void testConvertByColumn()
+      throws Exception {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension(STRING_COLUMN, FieldSpec.DataType.STRING)
+        .addMultiValueDimension(INT_MV_COLUMN, FieldSpec.DataType.INT).addMetric(LONG_COLUMN, FieldSpec.DataType.LONG)
+        .build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.REALTIME).setTableName(RAW_TABLE_NAME).build();
+
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    Random random = new Random();
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      record.putValue(STRING_COLUMN, "value" + random.nextInt(100));
+      int numValues = 1 + random.nextInt(5);
+      Object[] intValues = new Object[numValues];
+      for (int j = 0; j < numValues; j++) {
+        intValues[j] = random.nextInt(100);
+      }
+      record.putValue(INT_MV_COLUMN, intValues);
+      record.putValue(LONG_COLUMN, random.nextLong());
+      records.add(record);
+    }
+
+    // Records sorted on the string column, where the records with the same value keep the original order
+    List<GenericRow> sortedRecords = new ArrayList<>(records);
+    sortedRecords.sort(Comparator.comparing(record -> (String) record.getValue(STRING_COLUMN)));
+
+    for (String sortedColumn : new String[]{null, STRING_COLUMN}) {
+      MutableSegmentImpl mutableSegment = MutableSegmentImplTestUtils
+          .createMutableSegmentImpl(schema, Collections.singleton(LONG_COLUMN), Collections.emptySet(),
+              Collections.singleton(STRING_COLUMN), false);
+      for (GenericRow record : records) {
+        mutableSegment.index(record, null);
+      }
+
+      File outputDir = new File(TEMP_DIR, "output-" + sortedColumn);
+      RealtimeSegmentConverter converter =
+          new RealtimeSegmentConverter(mutableSegment, outputDir.getAbsolutePath(), schema, RAW_TABLE_NAME,
+              tableConfig, SEGMENT_NAME, sortedColumn, Collections.singletonList(STRING_COLUMN),
+              Collections.emptyList(), Collections.singletonList(LONG_COLUMN), Collections.emptyList(), false);
+      converter.build(SegmentVersion.v3, mock(ServerMetrics.class));
+      mutableSegment.destroy();
+
+      List<GenericRow> expectedRecords = sortedColumn != null ? sortedRecords : records;
+      try (PinotSegmentRecordReader recordReader = new PinotSegmentRecordReader(new File(outputDir, SEGMENT_NAME))) {
+        for (GenericRow expectedRecord : expectedRecords) {
+          Assert.assertTrue(recordReader.hasNext());
+          GenericRow actualRecord = recordReader.next();
+          Assert.assertEquals(actualRecord.getValue(STRING_COLUMN), expectedRecord.getValue(STRING_COLUMN));
+          Assert.assertEquals((Object[]) actualRecord.getValue(INT_MV_COLUMN),
+              (Object[]) expectedRecord.getValue(INT_MV_COLUMN));
+          Assert.assertEquals(actualRecord.getValue(LONG_COLUMN), expectedRecord.getValue(LONG_COLUMN));
+        }
+        Assert.assertFalse(recordReader.hasNext());
+      }
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
 }
@@ -39,6 +39,7 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
+import org.apache.pinot.core.data.table.PartitionedIndexedTable;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
@@ -52,6 +53,7 @@ import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -65,12 +67,15 @@ import org.openjdk.jmh.runner.options.TimeValue;
 @State(Scope.Benchmark)
 @Fork(value = 1, jvmArgs = {"-server", "-Xmx8G", "-XX:MaxDirectMemorySize=16G"})
 public class BenchmarkCombineGroupBy {
-  private static final int NUM_SEGMENTS = 4;
   private static final int NUM_RECORDS_PER_SEGMENT = 100_000;
   private static final int CARDINALITY_D1 = 500;
   private static final int CARDINALITY_D2 = 500;
   private static final Random RANDOM = new Random();
 
+  // One segment per thread
+  @Param({"8", "16", "32"})
+  private int _numThreads;
+
   private QueryContext _queryContext;
   private AggregationFunction[] _aggregationFunctions;
   private DataSchema _dataSchema;
@@ -103,7 +108,7 @@ public class BenchmarkCombineGroupBy {
     _dataSchema = new DataSchema(new String[]{"d1", "d2", "sum(m1)", "max(m2)"},
         new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.DOUBLE, DataSchema.ColumnDataType.DOUBLE});
 
-    _executorService = Executors.newFixedThreadPool(10);
+    _executorService = Executors.newFixedThreadPool(_numThreads);
   }
 
   @TearDown
@@ -135,11 +140,11 @@ public class BenchmarkCombineGroupBy {
     // make 1 concurrent table
     IndexedTable concurrentIndexedTable = new ConcurrentIndexedTable(_dataSchema, _queryContext, capacity);
 
-    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(NUM_SEGMENTS);
+    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(_numThreads);
 
-    // 10 parallel threads putting 10k records into the table
+    // one parallel thread per segment putting records into the table
 
-    for (int i = 0; i < NUM_SEGMENTS; i++) {
+    for (int i = 0; i < _numThreads; i++) {
 
       Callable<Void> callable = () -> {
 
@@ -159,6 +164,57 @@ public class BenchmarkCombineGroupBy {
     concurrentIndexedTable.finish(false);
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void partitionedIndexedTableForCombineGroupBy()
+      throws InterruptedException, ExecutionException, TimeoutException {
+    int capacity = GroupByUtils.getTableCapacity(_queryContext);
+
+    // make 1 partitioned table per thread, no shared map
+    PartitionedIndexedTable[] partitionedIndexedTables = new PartitionedIndexedTable[_numThreads];
+    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(_numThreads);
+    for (int i = 0; i < _numThreads; i++) {
+      PartitionedIndexedTable partitionedIndexedTable =
+          new PartitionedIndexedTable(_dataSchema, _queryContext, capacity, _numThreads);
+      partitionedIndexedTables[i] = partitionedIndexedTable;
+      Callable<Void> callable = () -> {
+        for (int r = 0; r < NUM_RECORDS_PER_SEGMENT; r++) {
+          partitionedIndexedTable.upsert(getRecord());
+        }
+        return null;
+      };
+      innerSegmentCallables.add(callable);
+    }
+
+    List<Future<Void>> futures = _executorService.invokeAll(innerSegmentCallables);
+    for (Future<Void> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+
+    // merge and trim the partitions in parallel
+    PartitionedIndexedTable mergedTable = partitionedIndexedTables[0];
+    List<Callable<Void>> mergeCallables = new ArrayList<>(_numThreads);
+    for (int i = 0; i < _numThreads; i++) {
+      int partitionId = i;
+      Callable<Void> callable = () -> {
+        for (int j = 1; j < _numThreads; j++) {
+          mergedTable.mergePartition(partitionId, partitionedIndexedTables[j]);
+        }
+        mergedTable.trimPartition(partitionId);
+        return null;
+      };
+      mergeCallables.add(callable);
+    }
+
+    futures = _executorService.invokeAll(mergeCallables);
+    for (Future<Void> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+
+    mergedTable.finish(false);
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -169,8 +225,8 @@ public class BenchmarkCombineGroupBy {
     int _interSegmentNumGroupsLimit = 200_000;
 
     ConcurrentMap<String, Object[]> resultsMap = new ConcurrentHashMap<>();
-    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(NUM_SEGMENTS);
-    for (int i = 0; i < NUM_SEGMENTS; i++) {
+    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(_numThreads);
+    for (int i = 0; i < _numThreads; i++) {
       Callable<Void> callable = () -> {
         for (int r = 0; r < NUM_RECORDS_PER_SEGMENT; r++) {
 
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.combine.AggregationOnlyCombineOperator;
+import org.apache.pinot.core.operator.combine.CombineOperatorUtils;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for the segment scheduling of the combine operator with skewed segment sizes.
+ * <p>Simulates a mixed table with a few large (consuming) segments and many small (immutable) segments, and compares
+ * the latency distribution of the static segment assignment against the work-stealing scheduling.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx4G"})
+public class BenchmarkCombineWorkStealing {
+  private static final int NUM_SMALL_SEGMENTS = 200;
+  private static final int NUM_DOCS_PER_SMALL_SEGMENT = 10_000;
+  private static final int NUM_LARGE_SEGMENTS = 4;
+  private static final int NUM_DOCS_PER_LARGE_SEGMENT = 500_000;
+  private static final long TIMEOUT_MS = 60_000L;
+
+  @Param({"false", "true"})
+  private boolean _workStealing;
+
+  private QueryContext _queryContext;
+  private List<Operator> _operators;
+  private ExecutorService _executorService;
+
+  @Setup
+  public void setUp() {
+    String query = "SELECT COUNT(*) FROM testTable";
+    if (_workStealing) {
+      query += " OPTION(enableWorkStealing=true)";
+    }
+    _queryContext = QueryContextConverterUtils.getQueryContextFromPQL(query);
+    AggregationFunction[] aggregationFunctions = _queryContext.getAggregationFunctions();
+
+    // Put all the large segments into the slots assigned to the first thread under the static assignment
+    int numSegments = NUM_SMALL_SEGMENTS + NUM_LARGE_SEGMENTS;
+    int numThreads = CombineOperatorUtils.getNumThreadsForQuery(numSegments);
+    List<SkewedOperator> operators = new ArrayList<>(numSegments);
+    for (int i = 0; i < NUM_SMALL_SEGMENTS; i++) {
+      operators.add(new SkewedOperator(aggregationFunctions, NUM_DOCS_PER_SMALL_SEGMENT));
+    }
+    for (int i = 0; i < NUM_LARGE_SEGMENTS; i++) {
+      operators.add(Math.min(i * numThreads, operators.size()),
+          new SkewedOperator(aggregationFunctions, NUM_DOCS_PER_LARGE_SEGMENT));
+    }
+    if (_workStealing) {
+      // Same order as the plan maker: most expensive segments first
+      operators.sort(Comparator.comparingInt((SkewedOperator operator) -> operator._numDocs).reversed());
+    }
+    _operators = Collections.unmodifiableList(new ArrayList<>(operators));
+
+    _executorService = Executors.newFixedThreadPool(CombineOperatorUtils.MAX_NUM_THREADS_PER_QUERY);
+  }
+
+  @TearDown
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void combine(Blackhole blackhole) {
+    blackhole.consume(
+        new AggregationOnlyCombineOperator(_operators, _queryContext, _executorService, TIMEOUT_MS).nextBlock());
+  }
+
+  /**
+   * Operator that spends CPU time proportional to the number of documents in the simulated segment.
+   */
+  private static class SkewedOperator extends BaseOperator<IntermediateResultsBlock> {
+    final AggregationFunction[] _aggregationFunctions;
+    final int _numDocs;
+
+    SkewedOperator(AggregationFunction[] aggregationFunctions, int numDocs) {
+      _aggregationFunctions = aggregationFunctions;
+      _numDocs = numDocs;
+    }
+
+    @Override
+    protected IntermediateResultsBlock getNextBlock() {
+      long count = 0;
+      for (int i = 0; i < _numDocs; i++) {
+        // Simulate the per-document cost with a cheap hash computation
+        if ((Integer.hashCode(i) * 0x9E3779B9 & 1) == 0) {
+          count++;
+        }
+      }
+      List<Object> aggregationResult = new ArrayList<>(1);
+      aggregationResult.add(count);
+      return new IntermediateResultsBlock(_aggregationFunctions, aggregationResult, false);
+    }
+
+    @Override
+    public String getOperatorName() {
+      return "SkewedOperator";
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics(_numDocs, 0, 0, _numDocs);
+    }
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkCombineWorkStealing.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(10)).warmupIterations(1).measurementTime(TimeValue.seconds(30))
+        .measurementIterations(3);
+
+    new Runner(opt.build()).run();
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.operator.filter.predicate.RegexpLikePredicateEvaluatorFactory;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.predicate.RegexpLikePredicate;
+import org.apache.pinot.core.realtime.impl.dictionary.StringOnHeapMutableDictionary;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.inv.LuceneFSTIndexCreator;
+import org.apache.pinot.core.segment.index.readers.FSTIndexReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmark for the REGEXP_LIKE predicate evaluation (computing the matching dictionary ids) with the dictionary scan
+ * and with the FST index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkFSTIndex {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkFSTIndex");
+  private static final String COLUMN_NAME = "column";
+  private static final int CARDINALITY = 1_000_000;
+  private static final int MAX_VALUE_LENGTH = 32;
+  private static final ExpressionContext LHS = ExpressionContext.forIdentifier(COLUMN_NAME);
+  private static final Random RANDOM = new Random();
+
+  // Prefix, anchored, suffix and substring patterns
+  @Param({"^ab", "^abc", "^ab.*z$", "xyz$", "xyz"})
+  private String _regexp;
+
+  private StringOnHeapMutableDictionary _dictionary;
+  private PinotDataBuffer _fstIndexBuffer;
+  private FSTIndexReader _fstIndexReader;
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    TEMP_DIR.mkdirs();
+    _dictionary = new StringOnHeapMutableDictionary();
+    for (int i = 0; i < CARDINALITY; i++) {
+      _dictionary.index(generateRandomString(RANDOM.nextInt(MAX_VALUE_LENGTH) + 1));
+    }
+    int cardinality = _dictionary.length();
+    String[] values = new String[cardinality];
+    for (int dictId = 0; dictId < cardinality; dictId++) {
+      values[dictId] = _dictionary.getStringValue(dictId);
+    }
+    new LuceneFSTIndexCreator(TEMP_DIR, COLUMN_NAME, values).seal();
+    _fstIndexBuffer = PinotDataBuffer
+        .mapReadOnlyBigEndianFile(new File(TEMP_DIR, COLUMN_NAME + V1Constants.Indexes.FST_INDEX_FILE_EXTENSION));
+    _fstIndexReader = new FSTIndexReader(_fstIndexBuffer);
+  }
+
+  @TearDown
+  public void tearDown()
+      throws Exception {
+    _fstIndexReader.close();
+    _fstIndexBuffer.close();
+    _dictionary.close();
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  // Generates a lower case string of the given length
+  private String generateRandomString(int length) {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) ('a' + RANDOM.nextInt(26));
+    }
+    return new String(chars);
+  }
+
+  @Benchmark
+  public int dictionaryScan() {
+    return RegexpLikePredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new RegexpLikePredicate(LHS, _regexp), _dictionary).getMatchingDictIds().length;
+  }
+
+  @Benchmark
+  public int fstIndex() {
+    return RegexpLikePredicateEvaluatorFactory
+        .newFSTBasedEvaluator(new RegexpLikePredicate(LHS, _regexp), _fstIndexReader, _dictionary)
+        .getMatchingDictIds().length;
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkFSTIndex.class.getSimpleName());
+    new Runner(opt.build()).run();
+  }
+}
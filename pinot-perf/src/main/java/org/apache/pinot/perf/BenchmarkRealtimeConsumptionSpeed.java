@@ -20,24 +20,39 @@ package org.apache.pinot.perf;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metrics.ServerGauge;
 import org.apache.pinot.integration.tests.BaseClusterIntegrationTest;
 import org.apache.pinot.integration.tests.ClusterIntegrationTestUtils;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.stream.StreamConfigProperties;
 import org.apache.pinot.tools.utils.KafkaStarterUtils;
 import org.apache.pinot.util.TestUtils;
 
 
 /**
  * Benchmark that writes a configurable amount of rows in Kafka and checks how much time it takes to consume all of
- * them.
+ * them, and reports the consumption speed of each stage (fetch, decode and transform, index).
+ * <p>The optional argument is the number of threads for the pipelined consumption (0 for non-pipelined consumption).
  */
 public class BenchmarkRealtimeConsumptionSpeed extends BaseClusterIntegrationTest {
   private static final int ROW_COUNT = 100_000;
   private static final long TIMEOUT_MILLIS = 20 * 60 * 1000L; // Twenty minutes
 
+  private final int _consumptionPipelineNumThreads;
+
+  public BenchmarkRealtimeConsumptionSpeed(int consumptionPipelineNumThreads) {
+    _consumptionPipelineNumThreads = consumptionPipelineNumThreads;
+  }
+
   public static void main(String[] args) {
     try {
-      new BenchmarkRealtimeConsumptionSpeed().runBenchmark();
+      int consumptionPipelineNumThreads = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+      new BenchmarkRealtimeConsumptionSpeed(consumptionPipelineNumThreads).runBenchmark();
     } catch (Exception e) {
       System.exit(-1);
     }
@@ -101,6 +116,40 @@ public class BenchmarkRealtimeConsumptionSpeed extends BaseClusterIntegrationTes
     long endTime = System.currentTimeMillis();
 
     System.out.println("Consumed " + ROW_COUNT + " rows in " + (endTime - startTime) / 1000.0 + " seconds");
+    // NOTE: The stage time is summed across all the partitions (and decoding threads), so the rows/sec is per thread
+    ServerGauge[] stageTimeGauges = new ServerGauge[]{ServerGauge.LLC_PARTITION_FETCH_TIME_MS,
+        ServerGauge.LLC_PARTITION_DECODE_TIME_MS, ServerGauge.LLC_PARTITION_INDEX_TIME_MS};
+    for (ServerGauge stageTimeGauge : stageTimeGauges) {
+      long stageTimeMs = getServerGaugeValue(stageTimeGauge);
+      String rowsPerSecond = stageTimeMs > 0 ? Long.toString(ROW_COUNT * 1000L / stageTimeMs) : "N/A";
+      System.out.println(stageTimeGauge.getGaugeName() + ": " + stageTimeMs + "ms, " + rowsPerSecond + " rows/sec");
+    }
     FileUtils.deleteDirectory(_tempDir);
   }
+
+  @Override
+  protected TableConfig createRealtimeTableConfig(File sampleAvroFile) {
+    TableConfig tableConfig = super.createRealtimeTableConfig(sampleAvroFile);
+    Map<String, String> streamConfigs = tableConfig.getIndexingConfig().getStreamConfigs();
+    streamConfigs.put(StreamConfigProperties.CONSUMPTION_PIPELINE_NUM_THREADS,
+        Integer.toString(_consumptionPipelineNumThreads));
+    return tableConfig;
+  }
+
+  /**
+   * Returns the sum of the values of the given server gauge across all the partitions, read from the JMX beans
+   * registered by the in-process server.
+   */
+  private static long getServerGaugeValue(ServerGauge gauge)
+      throws Exception {
+    MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    long value = 0;
+    for (ObjectName objectName : mBeanServer.queryNames(null, null)) {
+      String name = objectName.getKeyProperty("name");
+      if (name != null && name.contains("." + gauge.getGaugeName() + ".")) {
+        value += ((Number) mBeanServer.getAttribute(objectName, "Value")).longValue();
+      }
+    }
+    return value;
+  }
 }
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.core.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.core.realtime.impl.RealtimeSegmentConfig;
+import org.apache.pinot.core.realtime.impl.RealtimeSegmentStatsHistory;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Benchmark for the real-time inverted index with a single thread ingesting into the mutable segment and multiple
+ * threads querying the inverted index of the same segment concurrently.
+ */
+@State(Scope.Group)
+public class BenchmarkRealtimeInvertedIndex {
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final String COLUMN = "column";
+  private static final int CAPACITY = 5_000_000;
+  private static final File STATS_FILE =
+      new File(FileUtils.getTempDirectory(), BenchmarkRealtimeInvertedIndex.class.getSimpleName() + ".ser");
+
+  @Param({"100", "100000"})
+  private int _cardinality;
+
+  private MutableSegmentImpl _mutableSegment;
+  private GenericRow _row;
+  private int _numDocs;
+
+  @Setup(Level.Iteration)
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(STATS_FILE);
+    Schema schema = new Schema.SchemaBuilder().addSingleValueDimension(COLUMN, DataType.INT).build();
+    RealtimeSegmentConfig realtimeSegmentConfig =
+        new RealtimeSegmentConfig.Builder().setSegmentName(SEGMENT_NAME).setStreamName(SEGMENT_NAME).setSchema(schema)
+            .setCapacity(CAPACITY).setAvgNumMultiValues(2).setNoDictionaryColumns(new HashSet<>())
+            .setVarLengthDictionaryColumns(new HashSet<>())
+            .setInvertedIndexColumns(new HashSet<>(Collections.singletonList(COLUMN)))
+            .setRealtimeSegmentZKMetadata(new RealtimeSegmentZKMetadata())
+            .setMemoryManager(new DirectMemoryManager(SEGMENT_NAME))
+            .setStatsHistory(RealtimeSegmentStatsHistory.deserialzeFrom(STATS_FILE)).build();
+    _mutableSegment = new MutableSegmentImpl(realtimeSegmentConfig);
+    _row = new GenericRow();
+    _numDocs = 0;
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    _mutableSegment.destroy();
+    FileUtils.deleteQuietly(STATS_FILE);
+  }
+
+  @Benchmark
+  @Group("ingestAndQuery")
+  @GroupThreads(1)
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public boolean ingest() {
+    // Stop ingesting when the segment is full
+    if (_numDocs == CAPACITY) {
+      return false;
+    }
+    _numDocs++;
+    _row.putValue(COLUMN, ThreadLocalRandom.current().nextInt(_cardinality));
+    return _mutableSegment.index(_row, null);
+  }
+
+  @Benchmark
+  @Group("ingestAndQuery")
+  @GroupThreads(4)
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int query() {
+    DataSource dataSource = _mutableSegment.getDataSource(COLUMN);
+    int dictId =
+        dataSource.getDictionary().indexOf(Integer.toString(ThreadLocalRandom.current().nextInt(_cardinality)));
+    if (dictId < 0) {
+      return 0;
+    }
+    return ((ImmutableRoaringBitmap) dataSource.getInvertedIndex().getDocIds(dictId)).getCardinality();
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkRealtimeInvertedIndex.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(5)).warmupIterations(1).measurementTime(TimeValue.seconds(10))
+        .measurementIterations(3).forks(1);
+    new Runner(opt.build()).run();
+  }
+}
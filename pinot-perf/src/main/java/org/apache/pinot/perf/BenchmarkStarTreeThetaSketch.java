@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.datasketches.theta.UpdateSketch;
+import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.plan.maker.PlanMaker;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
+import org.apache.pinot.core.startree.v2.builder.MultipleTreesBuilder;
+import org.apache.pinot.core.startree.v2.builder.MultipleTreesBuilder.BuildMode;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for the time-bucketed theta-sketch distinct count, solved with star-tree (with the time bucket as derived
+ * dimension) or with raw scan of the segment.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx4G"})
+public class BenchmarkStarTreeThetaSketch {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkStarTreeThetaSketch");
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_RECORDS = 1_000_000;
+  private static final int NUM_DEVICE_TYPES = 5;
+  private static final int NUM_USERS = 100_000;
+  private static final long START_TIME_MS = 1_600_000_000_000L;
+  private static final long TIME_RANGE_MS = TimeUnit.DAYS.toMillis(7);
+  private static final String DEVICE_TYPE_COLUMN = "deviceType";
+  private static final String TIME_COLUMN = "ts";
+  private static final String SKETCH_COLUMN = "userSketch";
+  private static final String TIME_BUCKET = "dateTrunc('HOUR', ts, 'MILLISECONDS')";
+  private static final String QUERY = String
+      .format("SELECT %s, distinctCountThetaSketch(%s, 'nominalEntries=4096', '%s = 1', '$1') FROM %s GROUP BY %s "
+          + "LIMIT 1000", TIME_BUCKET, SKETCH_COLUMN, DEVICE_TYPE_COLUMN, TABLE_NAME, TIME_BUCKET);
+
+  @Param({"false", "true"})
+  private boolean _useStarTree;
+
+  private IndexSegment _indexSegment;
+  private QueryContext _queryContext;
+  private PlanMaker _planMaker;
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    Schema schema = new Schema.SchemaBuilder().addSingleValueDimension(DEVICE_TYPE_COLUMN, DataType.INT)
+        .addDateTime(TIME_COLUMN, DataType.LONG, "1:MILLISECONDS:EPOCH", "1:SECONDS")
+        .addMetric(SKETCH_COLUMN, DataType.BYTES).build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME).build();
+
+    Random random = new Random();
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      record.putValue(DEVICE_TYPE_COLUMN, random.nextInt(NUM_DEVICE_TYPES));
+      // Second granularity
+      long timeMs = START_TIME_MS + (long) (random.nextDouble() * TIME_RANGE_MS);
+      record.putValue(TIME_COLUMN, timeMs / 1000 * 1000);
+      UpdateSketch sketch = UpdateSketch.builder().build();
+      sketch.update(random.nextInt(NUM_USERS));
+      record.putValue(SKETCH_COLUMN, sketch.compact().toByteArray());
+      records.add(record);
+    }
+
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(tableConfig, schema);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+    segmentGeneratorConfig.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    File indexDir = new File(INDEX_DIR, SEGMENT_NAME);
+    if (_useStarTree) {
+      StarTreeIndexConfig starTreeIndexConfig =
+          new StarTreeIndexConfig(Arrays.asList(DEVICE_TYPE_COLUMN, TIME_BUCKET), null, Collections.singletonList(
+              new AggregationFunctionColumnPair(AggregationFunctionType.DISTINCTCOUNTTHETASKETCH, SKETCH_COLUMN)
+                  .toColumnName()), 0);
+      try (MultipleTreesBuilder builder = new MultipleTreesBuilder(Collections.singletonList(starTreeIndexConfig),
+          false, indexDir, BuildMode.OFF_HEAP)) {
+        builder.build();
+      }
+    }
+
+    _indexSegment = ImmutableSegmentLoader.load(indexDir, ReadMode.mmap);
+    _queryContext = QueryContextConverterUtils.getQueryContextFromSQL(QUERY);
+    _planMaker = new InstancePlanMakerImplV2();
+  }
+
+  @TearDown
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public Object groupByTimeBucket() {
+    return _planMaker.makeSegmentPlanNode(_indexSegment, _queryContext).run().nextBlock();
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkStarTreeThetaSketch.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(10)).warmupIterations(1).measurementTime(TimeValue.seconds(30))
+        .measurementIterations(3);
+
+    new Runner(opt.build()).run();
+  }
+}
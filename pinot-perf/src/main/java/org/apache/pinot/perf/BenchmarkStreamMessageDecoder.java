@@ -0,0 +1,226 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.plugin.PluginManager;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.StreamMessageDecoder;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmark for decoding a batch of stream messages one by one vs. with {@link StreamMessageDecoder#decodeBatch}.
+ * <p>The payloads are recorded in the setup from randomly generated records, and decoded by the decoders loaded the
+ * same way as the realtime consumption does (by class name). The Avro payloads carry the schema hash header of the
+ * {@code KafkaAvroMessageDecoder}, whose schema registry is served from a local directory.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BenchmarkStreamMessageDecoder {
+  private static final String JSON_DECODER_CLASS = "org.apache.pinot.plugin.stream.kafka.KafkaJSONMessageDecoder";
+  private static final String AVRO_DECODER_CLASS = "org.apache.pinot.plugin.inputformat.avro.KafkaAvroMessageDecoder";
+  private static final String TOPIC_NAME = "benchmarkTopic";
+  private static final int NUM_MESSAGES = 1000;
+  private static final String AVRO_SCHEMA = "{\"type\": \"record\", \"name\": \"benchmark\", \"fields\": ["
+      + "{\"name\": \"intColumn\", \"type\": \"int\"}, {\"name\": \"longColumn\", \"type\": \"long\"}, "
+      + "{\"name\": \"doubleColumn\", \"type\": \"double\"}, {\"name\": \"stringColumn\", \"type\": \"string\"}, "
+      + "{\"name\": \"timeColumn\", \"type\": \"long\"}]}";
+  private static final Set<String> FIELDS_TO_READ = new HashSet<>(
+      Arrays.asList("intColumn", "longColumn", "doubleColumn", "stringColumn", "timeColumn"));
+
+  @Param({"JSON", "AVRO"})
+  private String _format;
+
+  private File _schemaRegistryDir;
+  private StreamMessageDecoder<byte[]> _decoder;
+  private MessageBatch<byte[]> _messageBatch;
+  private GenericRow[] _rows;
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    Random random = new Random(0);
+    Schema avroSchema = new Schema.Parser().parse(AVRO_SCHEMA);
+    GenericDatumWriter<GenericData.Record> datumWriter = new GenericDatumWriter<>(avroSchema);
+    byte[] schemaHash = MessageDigest.getInstance("MD5").digest(AVRO_SCHEMA.getBytes(StandardCharsets.UTF_8));
+    BinaryEncoder binaryEncoder = null;
+
+    byte[][] payloads = new byte[NUM_MESSAGES][];
+    for (int i = 0; i < NUM_MESSAGES; i++) {
+      Map<String, Object> record = new LinkedHashMap<>();
+      record.put("intColumn", random.nextInt());
+      record.put("longColumn", random.nextLong());
+      record.put("doubleColumn", random.nextDouble());
+      record.put("stringColumn", "value_" + random.nextInt(1000));
+      record.put("timeColumn", 1600000000000L + i);
+      if (_format.equals("JSON")) {
+        payloads[i] = JsonUtils.objectToBytes(record);
+      } else {
+        GenericData.Record avroRecord = new GenericData.Record(avroSchema);
+        record.forEach(avroRecord::put);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // Magic byte followed by the schema hash
+        outputStream.write(0);
+        outputStream.write(schemaHash);
+        binaryEncoder = EncoderFactory.get().binaryEncoder(outputStream, binaryEncoder);
+        datumWriter.write(avroRecord, binaryEncoder);
+        binaryEncoder.flush();
+        payloads[i] = outputStream.toByteArray();
+      }
+    }
+    _messageBatch = new PayloadMessageBatch(payloads);
+    _rows = new GenericRow[NUM_MESSAGES];
+    for (int i = 0; i < NUM_MESSAGES; i++) {
+      _rows[i] = new GenericRow();
+    }
+
+    Map<String, String> decoderProps = new HashMap<>();
+    if (_format.equals("JSON")) {
+      _decoder = PluginManager.get().createInstance(JSON_DECODER_CLASS);
+    } else {
+      // Serve the schema registry from a local directory
+      _schemaRegistryDir = new File(FileUtils.getTempDirectory(), "BenchmarkStreamMessageDecoder");
+      FileUtils.forceMkdir(_schemaRegistryDir);
+      FileUtils.write(new File(_schemaRegistryDir, "latest_with_type=" + TOPIC_NAME), AVRO_SCHEMA,
+          StandardCharsets.UTF_8);
+      FileUtils.write(new File(_schemaRegistryDir, "id=" + toHex(schemaHash)), AVRO_SCHEMA, StandardCharsets.UTF_8);
+      decoderProps.put("schema.registry.rest.url", "file:" + _schemaRegistryDir.getAbsolutePath());
+      _decoder = PluginManager.get().createInstance(AVRO_DECODER_CLASS);
+    }
+    _decoder.init(decoderProps, FIELDS_TO_READ, TOPIC_NAME);
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (_schemaRegistryDir != null) {
+      FileUtils.deleteQuietly(_schemaRegistryDir);
+    }
+  }
+
+  @Benchmark
+  public int decodePerMessage() {
+    int numDecodedRows = 0;
+    for (int i = 0; i < NUM_MESSAGES; i++) {
+      GenericRow row = _rows[i];
+      row.clear();
+      if (_decoder.decode(_messageBatch.getMessageAtIndex(i), _messageBatch.getMessageOffsetAtIndex(i),
+          _messageBatch.getMessageLengthAtIndex(i), row) != null) {
+        numDecodedRows++;
+      }
+    }
+    return numDecodedRows;
+  }
+
+  @Benchmark
+  public int decodeBatch() {
+    for (GenericRow row : _rows) {
+      row.clear();
+    }
+    int numDecodedRows = 0;
+    for (GenericRow decodedRow : _decoder.decodeBatch(_messageBatch, 0, NUM_MESSAGES, _rows)) {
+      if (decodedRow != null) {
+        numDecodedRows++;
+      }
+    }
+    return numDecodedRows;
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder stringBuilder = new StringBuilder(2 * bytes.length);
+    for (byte b : bytes) {
+      stringBuilder.append(String.format("%02x", b & 0xFF));
+    }
+    return stringBuilder.toString();
+  }
+
+  private static class PayloadMessageBatch implements MessageBatch<byte[]> {
+    final byte[][] _payloads;
+
+    PayloadMessageBatch(byte[][] payloads) {
+      _payloads = payloads;
+    }
+
+    @Override
+    public int getMessageCount() {
+      return _payloads.length;
+    }
+
+    @Override
+    public byte[] getMessageAtIndex(int index) {
+      return _payloads[index];
+    }
+
+    @Override
+    public int getMessageOffsetAtIndex(int index) {
+      return 0;
+    }
+
+    @Override
+    public int getMessageLengthAtIndex(int index) {
+      return _payloads[index].length;
+    }
+
+    @Override
+    public long getNextStreamMessageOffsetAtIndex(int index) {
+      return index + 1;
+    }
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkStreamMessageDecoder.class.getSimpleName()).build()).run();
+  }
+}
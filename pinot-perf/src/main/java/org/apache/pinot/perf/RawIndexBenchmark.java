@@ -21,6 +21,7 @@ package org.apache.pinot.perf;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -40,6 +41,9 @@ import org.apache.pinot.core.data.readers.GenericRowRecordReader;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.io.writer.impl.BaseChunkSVForwardIndexWriter;
+import org.apache.pinot.core.io.writer.impl.VarByteChunkSVForwardIndexWriter;
 import org.apache.pinot.core.operator.DocIdSetOperator;
 import org.apache.pinot.core.operator.ProjectionOperator;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
@@ -49,6 +53,12 @@ import org.apache.pinot.core.operator.filter.TestFilterOperator;
 import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndexCreator;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReaderContext;
+import org.apache.pinot.core.segment.index.readers.forward.BaseChunkSVForwardIndexReader.ChunkReaderContext;
+import org.apache.pinot.core.segment.index.readers.forward.VarByteChunkSVForwardIndexReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
 import org.kohsuke.args4j.CmdLineParser;
 import org.kohsuke.args4j.Option;
@@ -58,6 +68,8 @@ import org.kohsuke.args4j.Option;
  * Class to perform benchmark on lookups for dictionary encoded fwd index v.s. raw index without dictionary.
  * It can take an existing segment with two columns to compare. It can also create a segment on the fly with a
  * given input file containing strings (one string per line).
+ * It also compares the compression ratio and the decompression throughput of the raw index with each compression type
+ * on the values of the raw index column.
  */
 @SuppressWarnings({"FieldCanBeLocal", "unused"})
 public class RawIndexBenchmark {
@@ -107,6 +119,7 @@ public class RawIndexBenchmark {
     IndexSegment segment = ImmutableSegmentLoader.load(segmentFile, ReadMode.valueOf(_loadMode));
     compareIndexSizes(segment, segmentFile, _fwdIndexColumn, _rawIndexColumn);
     compareLookups(segment);
+    compareCompressionTypes(segment);
 
     // Cleanup the temporary directory
     if (_segmentDir != null) {
@@ -230,6 +243,86 @@ public class RawIndexBenchmark {
     return (System.currentTimeMillis() - start);
   }
 
+  /**
+   * Compares the compression ratio and the decompression throughput of the raw index with each compression type.
+   * <ul>
+   *   <li> Values of the raw index column are written into a raw index with each compression type. </li>
+   *   <li> Compression ratio is relative to the raw index without compression (PASS_THROUGH). </li>
+   *   <li> Decompression throughput is measured on reading all the values in order, in MB of values per second. </li>
+   * </ul>
+   *
+   * @param segment Segment containing the raw index column (STRING or BYTES)
+   * @throws IOException
+   */
+  private void compareCompressionTypes(IndexSegment segment)
+      throws IOException {
+    DataSource dataSource = segment.getDataSource(_rawIndexColumn);
+    FieldSpec.DataType dataType = dataSource.getDataSourceMetadata().getDataType();
+    if (dataType != FieldSpec.DataType.STRING && dataType != FieldSpec.DataType.BYTES) {
+      System.out.println("Skipping compression comparison for raw index column of type: " + dataType);
+      return;
+    }
+    int numDocs = segment.getSegmentMetadata().getTotalDocs();
+    byte[][] values = readValues(dataSource.getForwardIndex(), numDocs);
+    int lengthOfLongestEntry = 0;
+    long valuesSize = 0;
+    for (byte[] value : values) {
+      lengthOfLongestEntry = Math.max(lengthOfLongestEntry, value.length);
+      valuesSize += value.length;
+    }
+    int numDocsPerChunk = SingleValueVarByteRawIndexCreator.getNumDocsPerChunk(lengthOfLongestEntry);
+
+    File indexDir = new File(SEGMENT_DIR_NAME, "compression");
+    FileUtils.forceMkdir(indexDir);
+    long uncompressedIndexSize = 0;
+    for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+      File indexFile =
+          new File(indexDir, compressionType + V1Constants.Indexes.RAW_SV_FORWARD_INDEX_FILE_EXTENSION);
+      try (VarByteChunkSVForwardIndexWriter writer = new VarByteChunkSVForwardIndexWriter(indexFile, compressionType,
+          numDocs, numDocsPerChunk, lengthOfLongestEntry, BaseChunkSVForwardIndexWriter.CURRENT_VERSION)) {
+        for (byte[] value : values) {
+          writer.putBytes(value);
+        }
+      }
+      long indexSize = indexFile.length();
+      if (compressionType == ChunkCompressorFactory.CompressionType.PASS_THROUGH) {
+        uncompressedIndexSize = indexSize;
+      }
+
+      long decompressionTimeNs;
+      try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+          VarByteChunkSVForwardIndexReader reader = new VarByteChunkSVForwardIndexReader(dataBuffer, dataType);
+          ChunkReaderContext readerContext = reader.createContext()) {
+        long start = System.nanoTime();
+        for (int docId = 0; docId < numDocs; docId++) {
+          reader.getBytes(docId, readerContext);
+        }
+        decompressionTimeNs = System.nanoTime() - start;
+      }
+
+      System.out.println(String
+          .format("%s: index size: %d bytes, compression ratio: %.2f, decompression throughput: %.2f MB/s",
+              compressionType, indexSize, (double) uncompressedIndexSize / indexSize,
+              valuesSize * 1e9 / decompressionTimeNs / (1024 * 1024)));
+    }
+    FileUtils.deleteQuietly(indexDir);
+  }
+
+  /**
+   * Reads all the values (as bytes) from the given forward index.
+   */
+  private static <T extends ForwardIndexReaderContext> byte[][] readValues(ForwardIndexReader<T> forwardIndex,
+      int numDocs)
+      throws IOException {
+    byte[][] values = new byte[numDocs][];
+    try (T readerContext = forwardIndex.createContext()) {
+      for (int docId = 0; docId < numDocs; docId++) {
+        values[docId] = forwardIndex.getBytes(docId, readerContext);
+      }
+    }
+    return values;
+  }
+
   /**
    * Convert from bytes to mega-bytes.
    *
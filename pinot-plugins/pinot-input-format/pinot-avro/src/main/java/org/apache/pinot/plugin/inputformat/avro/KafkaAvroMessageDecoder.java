@@ -37,11 +37,13 @@ import javax.annotation.concurrent.NotThreadSafe;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericData.Record;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.RecordExtractor;
 import org.apache.pinot.spi.plugin.PluginManager;
+import org.apache.pinot.spi.stream.MessageBatch;
 import org.apache.pinot.spi.stream.StreamMessageDecoder;
 import org.apache.pinot.spi.utils.retry.RetryPolicies;
 import org.slf4j.Logger;
@@ -72,6 +74,14 @@ public class KafkaAvroMessageDecoder implements StreamMessageDecoder<byte[]> {
   private DecoderFactory _decoderFactory;
   private RecordExtractor<GenericData.Record> _avroRecordExtractor;
 
+  // Datum reader for the schema of the last decoded message, and the reusable decoder and record. Creating a datum
+  // reader for each message is expensive, and consecutive messages usually share the same schema.
+  private org.apache.avro.Schema _datumReaderSchema;
+  private DatumReader<Record> _datumReader;
+  private BinaryDecoder _binaryDecoderToReuse;
+  private GenericData.Record _avroRecordToReuse;
+  private boolean _schemaUpdateFailed;
+
   private static final int MAGIC_BYTE_LENGTH = 1;
   private static final int SCHEMA_HASH_LENGTH = 16;
   private static final int HEADER_LENGTH = MAGIC_BYTE_LENGTH + SCHEMA_HASH_LENGTH;
@@ -132,8 +142,52 @@ public class KafkaAvroMessageDecoder implements StreamMessageDecoder<byte[]> {
     }
 
     System.arraycopy(payload, SCHEMA_HASH_START_OFFSET + offset, _reusableMD5Bytes, 0, SCHEMA_HASH_LENGTH);
+    return decode(payload, offset, length, getSchema(), destination);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The schema is looked up only when the schema hash changes between consecutive messages of the batch.
+   */
+  @Override
+  public GenericRow[] decodeBatch(MessageBatch<byte[]> messageBatch, int startIndex, int endIndex,
+      GenericRow[] destinations) {
+    GenericRow[] decodedRows = new GenericRow[endIndex - startIndex];
+    org.apache.avro.Schema schema = null;
+    for (int i = startIndex; i < endIndex; i++) {
+      byte[] payload = messageBatch.getMessageAtIndex(i);
+      int offset = messageBatch.getMessageOffsetAtIndex(i);
+      int length = messageBatch.getMessageLengthAtIndex(i);
+      if (payload == null || payload.length == 0 || length == 0) {
+        continue;
+      }
+      // Retry the schema fetch on every message if it failed
+      if (schema == null || _schemaUpdateFailed || !hasSameSchemaHash(payload, offset)) {
+        System.arraycopy(payload, SCHEMA_HASH_START_OFFSET + offset, _reusableMD5Bytes, 0, SCHEMA_HASH_LENGTH);
+        schema = getSchema();
+      }
+      decodedRows[i - startIndex] = decode(payload, offset, length, schema, destinations[i - startIndex]);
+    }
+    return decodedRows;
+  }
 
-    boolean schemaUpdateFailed = false;
+  private boolean hasSameSchemaHash(byte[] payload, int offset) {
+    int schemaHashStartOffset = SCHEMA_HASH_START_OFFSET + offset;
+    for (int i = 0; i < SCHEMA_HASH_LENGTH; i++) {
+      if (payload[schemaHashStartOffset + i] != _reusableMD5Bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the schema for the schema hash in {@link #_reusableMD5Bytes}, or the default schema if the schema cannot be
+   * fetched (in which case {@link #_schemaUpdateFailed} is set).
+   */
+  private org.apache.avro.Schema getSchema() {
+    _schemaUpdateFailed = false;
     org.apache.avro.Schema schema = _md5ToAvroSchemaMap.getSchema(_reusableMD5Bytes);
     if (schema == null) {
       // We will get here for the first row consumed in the segment, and every row that has a schema ID that is
@@ -154,7 +208,7 @@ public class KafkaAvroMessageDecoder implements StreamMessageDecoder<byte[]> {
             schema = _defaultAvroSchema;
             LOGGER
                 .error("Error fetching schema using url {}. Attempting to continue with previous schema", schemaUri, e);
-            schemaUpdateFailed = true;
+            _schemaUpdateFailed = true;
           }
         } else {
           LOGGER.info("Found schema for {} in cache", hashKey);
@@ -162,15 +216,25 @@ public class KafkaAvroMessageDecoder implements StreamMessageDecoder<byte[]> {
         }
       }
     }
-    DatumReader<Record> reader = new GenericDatumReader<Record>(schema);
+    return schema;
+  }
+
+  private GenericRow decode(byte[] payload, int offset, int length, org.apache.avro.Schema schema,
+      GenericRow destination) {
+    if (_datumReader == null || schema != _datumReaderSchema) {
+      _datumReader = new GenericDatumReader<>(schema);
+      _datumReaderSchema = schema;
+      _avroRecordToReuse = null;
+    }
+    _binaryDecoderToReuse =
+        _decoderFactory.binaryDecoder(payload, HEADER_LENGTH + offset, length - HEADER_LENGTH, _binaryDecoderToReuse);
     try {
-      GenericData.Record avroRecord = reader.read(null,
-          _decoderFactory.createBinaryDecoder(payload, HEADER_LENGTH + offset, length - HEADER_LENGTH, null));
-      return _avroRecordExtractor.extract(avroRecord, destination);
+      _avroRecordToReuse = _datumReader.read(_avroRecordToReuse, _binaryDecoderToReuse);
+      return _avroRecordExtractor.extract(_avroRecordToReuse, destination);
     } catch (IOException e) {
       LOGGER.error("Caught exception while reading message using schema {}{}",
           (schema == null ? "null" : schema.getName()),
-          (schemaUpdateFailed ? "(possibly due to schema update failure)" : ""), e);
+          (_schemaUpdateFailed ? "(possibly due to schema update failure)" : ""), e);
       return null;
     }
   }
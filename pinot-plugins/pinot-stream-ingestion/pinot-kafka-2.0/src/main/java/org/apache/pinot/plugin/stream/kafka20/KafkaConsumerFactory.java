@@ -29,6 +29,9 @@ public class KafkaConsumerFactory extends StreamConsumerFactory {
 
   @Override
   public PartitionLevelConsumer createPartitionLevelConsumer(String clientId, int partition) {
+    if (new KafkaPartitionLevelStreamConfig(_streamConfig).getKafkaConsumerMaxPartitions() > 1) {
+      return new KafkaMultiplexedPartitionLevelConsumer(clientId, _streamConfig, partition);
+    }
     return new KafkaPartitionLevelConsumer(clientId, _streamConfig, partition);
   }
 
@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.stream.kafka20;
+
+import com.google.common.base.Preconditions;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Bytes;
+
+
+/**
+ * Kafka consumer shared by the partition level consumers of multiple partitions, so that a server consuming many
+ * partitions does not need one Kafka consumer (with its own fetcher and network buffers) per partition.
+ * <p>Each poll fetches the records for all the assigned partitions, and the records are buffered per partition until
+ * the partition level consumer of the partition asks for them. A partition is paused once it has a full batch of
+ * records buffered (e.g. its segment is committing and it is not consumed), so that the buffered records are bounded
+ * and the other partitions keep getting fetched, and is resumed once the buffer is drained.
+ * <p>{@link Consumer} is not thread-safe, so all the accesses to it are synchronized. To not block the other partitions
+ * while waiting for records, each poll waits for at most {@link #MAX_POLL_TIMEOUT_MILLIS}, and the lock is released
+ * between the polls so that the other partition level consumers can drain the records buffered for them.
+ */
+@ThreadSafe
+public class KafkaMultiplexedConsumer {
+  static final long MAX_POLL_TIMEOUT_MILLIS = 10L;
+
+  private final Consumer<String, Bytes> _consumer;
+  private final int _maxNumRecordsPerFetch;
+  private final Map<TopicPartition, PartitionState> _partitionStates = new HashMap<>();
+
+  public KafkaMultiplexedConsumer(Consumer<String, Bytes> consumer, int maxNumRecordsPerFetch) {
+    Preconditions.checkArgument(maxNumRecordsPerFetch > 0, "Max number of records per fetch must be positive, got: %s",
+        maxNumRecordsPerFetch);
+    _consumer = consumer;
+    _maxNumRecordsPerFetch = maxNumRecordsPerFetch;
+  }
+
+  /**
+   * Assigns the given partition to the consumer. A partition can be added multiple times (e.g. the partition level
+   * consumer of the next segment is created before the one of the committing segment is closed), and is unassigned
+   * after being removed the same number of times.
+   */
+  public synchronized void addPartition(TopicPartition topicPartition) {
+    PartitionState partitionState = _partitionStates.get(topicPartition);
+    if (partitionState == null) {
+      _partitionStates.put(topicPartition, new PartitionState());
+      _consumer.assign(new ArrayList<>(_partitionStates.keySet()));
+      // Do not fetch the partition until the first fetch seeks to the start offset
+      _consumer.pause(Collections.singletonList(topicPartition));
+    } else {
+      partitionState._refCount++;
+    }
+  }
+
+  /**
+   * Removes the given partition from the consumer, returns the number of partitions still assigned.
+   */
+  public synchronized int removePartition(TopicPartition topicPartition) {
+    PartitionState partitionState = getPartitionState(topicPartition);
+    if (--partitionState._refCount == 0) {
+      _partitionStates.remove(topicPartition);
+      _consumer.assign(new ArrayList<>(_partitionStates.keySet()));
+    }
+    return _partitionStates.size();
+  }
+
+  public synchronized int getNumPartitions() {
+    return _partitionStates.size();
+  }
+
+  public synchronized boolean hasPartition(TopicPartition topicPartition) {
+    return _partitionStates.containsKey(topicPartition);
+  }
+
+  /**
+   * Fetches the records with offset in [startOffset, endOffset) for the given partition. Buffered records are returned
+   * without polling Kafka. When there is no buffered record, Kafka is polled with short timeouts until some records are
+   * buffered for the partition (possibly by the polls of the other partitions) or {@code timeoutMillis} has passed.
+   */
+  public List<ConsumerRecord<String, Bytes>> fetch(TopicPartition topicPartition, long startOffset, long endOffset,
+      int timeoutMillis) {
+    long deadlineMs = System.currentTimeMillis() + timeoutMillis;
+    synchronized (this) {
+      PartitionState partitionState = getPartitionState(topicPartition);
+      if (startOffset != partitionState._nextOffset) {
+        // Not continuing from the last fetch, drop the buffered records and seek to the start offset
+        partitionState._records.clear();
+        partitionState._nextOffset = startOffset;
+        _consumer.seek(topicPartition, startOffset);
+        resume(topicPartition, partitionState);
+      }
+    }
+    while (true) {
+      // NOTE: Release the lock between the polls so that the buffered records of the other partitions can be fetched
+      synchronized (this) {
+        PartitionState partitionState = getPartitionState(topicPartition);
+        if (partitionState._records.isEmpty()) {
+          long remainingTimeMs = deadlineMs - System.currentTimeMillis();
+          poll(Math.max(Math.min(remainingTimeMs, MAX_POLL_TIMEOUT_MILLIS), 0L));
+        }
+        if (!partitionState._records.isEmpty() || System.currentTimeMillis() >= deadlineMs) {
+          return drain(topicPartition, partitionState, endOffset);
+        }
+      }
+    }
+  }
+
+  public synchronized void close() {
+    _consumer.close();
+  }
+
+  private PartitionState getPartitionState(TopicPartition topicPartition) {
+    PartitionState partitionState = _partitionStates.get(topicPartition);
+    Preconditions.checkState(partitionState != null, "Partition: %s is not assigned", topicPartition);
+    return partitionState;
+  }
+
+  private List<ConsumerRecord<String, Bytes>> drain(TopicPartition topicPartition, PartitionState partitionState,
+      long endOffset) {
+    ArrayDeque<ConsumerRecord<String, Bytes>> bufferedRecords = partitionState._records;
+    List<ConsumerRecord<String, Bytes>> records =
+        new ArrayList<>(Math.min(bufferedRecords.size(), _maxNumRecordsPerFetch));
+    while (!bufferedRecords.isEmpty() && records.size() < _maxNumRecordsPerFetch) {
+      ConsumerRecord<String, Bytes> record = bufferedRecords.peekFirst();
+      if (record.offset() >= endOffset) {
+        break;
+      }
+      records.add(bufferedRecords.pollFirst());
+      partitionState._nextOffset = record.offset() + 1;
+    }
+    if (bufferedRecords.size() < _maxNumRecordsPerFetch) {
+      resume(topicPartition, partitionState);
+    }
+    return records;
+  }
+
+  private void poll(long timeoutMillis) {
+    ConsumerRecords<String, Bytes> consumerRecords = _consumer.poll(Duration.ofMillis(timeoutMillis));
+    for (TopicPartition topicPartition : consumerRecords.partitions()) {
+      PartitionState partitionState = _partitionStates.get(topicPartition);
+      if (partitionState == null) {
+        continue;
+      }
+      for (ConsumerRecord<String, Bytes> record : consumerRecords.records(topicPartition)) {
+        // Filter out the null records and the records before the offset to fetch
+        if (record != null && record.offset() >= partitionState._nextOffset) {
+          partitionState._records.addLast(record);
+        }
+      }
+      if (!partitionState._paused && partitionState._records.size() >= _maxNumRecordsPerFetch) {
+        // Stop fetching the partition until the buffered records are consumed
+        _consumer.pause(Collections.singletonList(topicPartition));
+        partitionState._paused = true;
+      }
+    }
+  }
+
+  private void resume(TopicPartition topicPartition, PartitionState partitionState) {
+    if (partitionState._paused) {
+      _consumer.resume(Collections.singletonList(topicPartition));
+      partitionState._paused = false;
+    }
+  }
+
+  private static class PartitionState {
+    final ArrayDeque<ConsumerRecord<String, Bytes>> _records = new ArrayDeque<>();
+    int _refCount = 1;
+    // Offset of the next record expected by the partition level consumer, -1 before the first fetch
+    long _nextOffset = -1;
+    boolean _paused = true;
+  }
+}
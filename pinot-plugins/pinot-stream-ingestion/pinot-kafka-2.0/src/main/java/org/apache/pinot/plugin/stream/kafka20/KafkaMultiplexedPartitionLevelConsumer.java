@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.stream.kafka20;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.pinot.spi.stream.LongMsgOffset;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.PartitionLevelConsumer;
+import org.apache.pinot.spi.stream.StreamConfig;
+import org.apache.pinot.spi.stream.StreamPartitionMsgOffset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Partition level consumer backed by a {@link KafkaMultiplexedConsumer} shared with the other partitions of the same
+ * table. Enabled by setting {@code stream.kafka.consumer.maxPartitions} to more than 1 in the stream configs.
+ * <p>The shared consumers are keyed by the table name and the stream configs, and each of them serves at most the
+ * configured number of partitions. A partition is always added to the shared consumer already serving it if any (e.g.
+ * the next segment of the partition starts consuming before the committing segment closes its consumer).
+ */
+public class KafkaMultiplexedPartitionLevelConsumer implements PartitionLevelConsumer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(KafkaMultiplexedPartitionLevelConsumer.class);
+  // Same as the default value of the Kafka consumer config 'max.poll.records'
+  private static final int DEFAULT_MAX_POLL_RECORDS = 500;
+
+  private static final Map<String, List<KafkaMultiplexedConsumer>> SHARED_CONSUMERS = new HashMap<>();
+
+  private final String _sharedConsumerKey;
+  private final TopicPartition _topicPartition;
+  private final KafkaMultiplexedConsumer _sharedConsumer;
+
+  private boolean _closed;
+
+  public KafkaMultiplexedPartitionLevelConsumer(String clientId, StreamConfig streamConfig, int partition) {
+    KafkaPartitionLevelStreamConfig config = new KafkaPartitionLevelStreamConfig(streamConfig);
+    _sharedConsumerKey = streamConfig.getTableNameWithType() + new TreeMap<>(streamConfig.getStreamConfigsMap());
+    _topicPartition = new TopicPartition(config.getKafkaTopicName(), partition);
+    _sharedConsumer = acquireSharedConsumer(_sharedConsumerKey,
+        KafkaPartitionLevelConnectionHandler.getConsumerProperties(config, streamConfig),
+        config.getKafkaConsumerMaxPartitions(), _topicPartition);
+  }
+
+  @Override
+  public MessageBatch fetchMessages(StreamPartitionMsgOffset startMsgOffset, StreamPartitionMsgOffset endMsgOffset,
+      int timeoutMillis) {
+    long startOffset = ((LongMsgOffset) startMsgOffset).getOffset();
+    long endOffset = endMsgOffset == null ? Long.MAX_VALUE : ((LongMsgOffset) endMsgOffset).getOffset();
+    if (endOffset == -1) {
+      endOffset = Long.MAX_VALUE;
+    }
+    return new KafkaMessageBatch(_sharedConsumer.fetch(_topicPartition, startOffset, endOffset, timeoutMillis));
+  }
+
+  @VisibleForTesting
+  KafkaMultiplexedConsumer getSharedConsumer() {
+    return _sharedConsumer;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!_closed) {
+      _closed = true;
+      releaseSharedConsumer(_sharedConsumerKey, _sharedConsumer, _topicPartition);
+    }
+  }
+
+  private static synchronized KafkaMultiplexedConsumer acquireSharedConsumer(String sharedConsumerKey,
+      Properties consumerProps, int maxNumPartitions, TopicPartition topicPartition) {
+    List<KafkaMultiplexedConsumer> sharedConsumers =
+        SHARED_CONSUMERS.computeIfAbsent(sharedConsumerKey, k -> new ArrayList<>());
+    KafkaMultiplexedConsumer sharedConsumer = null;
+    for (KafkaMultiplexedConsumer consumer : sharedConsumers) {
+      if (consumer.hasPartition(topicPartition)) {
+        sharedConsumer = consumer;
+        break;
+      }
+    }
+    if (sharedConsumer == null) {
+      for (KafkaMultiplexedConsumer consumer : sharedConsumers) {
+        if (consumer.getNumPartitions() < maxNumPartitions) {
+          sharedConsumer = consumer;
+          break;
+        }
+      }
+    }
+    if (sharedConsumer == null) {
+      LOGGER.info("Creating new shared Kafka consumer for topic: {} ({} shared consumers exist)",
+          topicPartition.topic(), sharedConsumers.size());
+      sharedConsumer =
+          new KafkaMultiplexedConsumer(new KafkaConsumer<>(consumerProps), getMaxPollRecords(consumerProps));
+      sharedConsumers.add(sharedConsumer);
+    }
+    sharedConsumer.addPartition(topicPartition);
+    return sharedConsumer;
+  }
+
+  private static synchronized void releaseSharedConsumer(String sharedConsumerKey,
+      KafkaMultiplexedConsumer sharedConsumer, TopicPartition topicPartition) {
+    if (sharedConsumer.removePartition(topicPartition) == 0) {
+      sharedConsumer.close();
+      List<KafkaMultiplexedConsumer> sharedConsumers = SHARED_CONSUMERS.get(sharedConsumerKey);
+      sharedConsumers.remove(sharedConsumer);
+      if (sharedConsumers.isEmpty()) {
+        SHARED_CONSUMERS.remove(sharedConsumerKey);
+      }
+    }
+  }
+
+  private static int getMaxPollRecords(Properties consumerProps) {
+    String maxPollRecords = consumerProps.getProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG);
+    return StringUtils.isNotEmpty(maxPollRecords) ? Integer.parseInt(maxPollRecords) : DEFAULT_MAX_POLL_RECORDS;
+  }
+}
@@ -51,12 +51,7 @@ public abstract class KafkaPartitionLevelConnectionHandler {
     _clientId = clientId;
     _partition = partition;
     _topic = _config.getKafkaTopicName();
-    Properties consumerProp = new Properties();
-    consumerProp.putAll(streamConfig.getStreamConfigsMap());
-    consumerProp.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, _config.getBootstrapHosts());
-    consumerProp.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-    consumerProp.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BytesDeserializer.class.getName());
-    _consumer = new KafkaConsumer<>(consumerProp);
+    _consumer = new KafkaConsumer<>(getConsumerProperties(_config, streamConfig));
     _topicPartition = new TopicPartition(_topic, _partition);
     _consumer.assign(Collections.singletonList(_topicPartition));
   }
@@ -66,6 +61,15 @@ public abstract class KafkaPartitionLevelConnectionHandler {
     _consumer.close();
   }
 
+  static Properties getConsumerProperties(KafkaPartitionLevelStreamConfig config, StreamConfig streamConfig) {
+    Properties consumerProp = new Properties();
+    consumerProp.putAll(streamConfig.getStreamConfigsMap());
+    consumerProp.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getBootstrapHosts());
+    consumerProp.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    consumerProp.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BytesDeserializer.class.getName());
+    return consumerProp;
+  }
+
   @VisibleForTesting
   protected KafkaPartitionLevelStreamConfig getKafkaPartitionLevelStreamConfig() {
     return _config;
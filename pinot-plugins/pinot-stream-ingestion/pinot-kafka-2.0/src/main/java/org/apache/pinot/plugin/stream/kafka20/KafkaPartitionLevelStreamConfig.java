@@ -37,6 +37,7 @@ public class KafkaPartitionLevelStreamConfig {
   private final int _kafkaSocketTimeout;
   private final int _kafkaFetcherSizeBytes;
   private final int _kafkaFetcherMinBytes;
+  private final int _kafkaConsumerMaxPartitions;
   private final Map<String, String> _streamConfigMap;
 
   /**
@@ -58,6 +59,8 @@ public class KafkaPartitionLevelStreamConfig {
         .constructStreamProperty(KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_FETCHER_SIZE_BYTES);
     String fetcherMinBytesKey = KafkaStreamConfigProperties
         .constructStreamProperty(KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_FETCHER_MIN_BYTES);
+    String consumerMaxPartitionsKey = KafkaStreamConfigProperties
+        .constructStreamProperty(KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_CONSUMER_MAX_PARTITIONS);
     _bootstrapHosts = _streamConfigMap.get(llcBrokerListKey);
     _kafkaBufferSize = getIntConfigWithDefault(_streamConfigMap, llcBufferKey,
         KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_BUFFER_SIZE_DEFAULT);
@@ -66,6 +69,8 @@ public class KafkaPartitionLevelStreamConfig {
     _kafkaFetcherSizeBytes = getIntConfigWithDefault(_streamConfigMap, fetcherSizeKey, _kafkaBufferSize);
     _kafkaFetcherMinBytes = getIntConfigWithDefault(_streamConfigMap, fetcherMinBytesKey,
         KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_FETCHER_MIN_BYTES_DEFAULT);
+    _kafkaConsumerMaxPartitions = getIntConfigWithDefault(_streamConfigMap, consumerMaxPartitionsKey,
+        KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_CONSUMER_MAX_PARTITIONS_DEFAULT);
     Preconditions.checkNotNull(_bootstrapHosts,
         "Must specify kafka brokers list " + llcBrokerListKey + " in case of low level kafka consumer");
   }
@@ -94,6 +99,10 @@ public class KafkaPartitionLevelStreamConfig {
     return _kafkaFetcherMinBytes;
   }
 
+  public int getKafkaConsumerMaxPartitions() {
+    return _kafkaConsumerMaxPartitions;
+  }
+
   private int getIntConfigWithDefault(Map<String, String> configMap, String key, int defaultValue) {
     String stringValue = configMap.get(key);
     try {
@@ -111,7 +120,8 @@ public class KafkaPartitionLevelStreamConfig {
     return "KafkaLowLevelStreamConfig{" + "_kafkaTopicName='" + _kafkaTopicName + '\'' + ", _bootstrapHosts='"
         + _bootstrapHosts + '\'' + ", _kafkaBufferSize='" + _kafkaBufferSize + '\'' + ", _kafkaSocketTimeout='"
         + _kafkaSocketTimeout + '\'' + ", _kafkaFetcherSizeBytes='" + _kafkaFetcherSizeBytes + '\''
-        + ", _kafkaFetcherMinBytes='" + _kafkaFetcherMinBytes + '\'' + '}';
+        + ", _kafkaFetcherMinBytes='" + _kafkaFetcherMinBytes + '\'' + ", _kafkaConsumerMaxPartitions='"
+        + _kafkaConsumerMaxPartitions + '\'' + '}';
   }
 
   @Override
@@ -131,7 +141,8 @@ public class KafkaPartitionLevelStreamConfig {
         .isEqual(_kafkaBufferSize, that._kafkaBufferSize) && EqualityUtils
         .isEqual(_kafkaSocketTimeout, that._kafkaSocketTimeout) && EqualityUtils
         .isEqual(_kafkaFetcherSizeBytes, that._kafkaFetcherSizeBytes) && EqualityUtils
-        .isEqual(_kafkaFetcherMinBytes, that._kafkaFetcherMinBytes);
+        .isEqual(_kafkaFetcherMinBytes, that._kafkaFetcherMinBytes) && EqualityUtils
+        .isEqual(_kafkaConsumerMaxPartitions, that._kafkaConsumerMaxPartitions);
   }
 
   @Override
@@ -142,6 +153,7 @@ public class KafkaPartitionLevelStreamConfig {
     result = EqualityUtils.hashCodeOf(result, _kafkaSocketTimeout);
     result = EqualityUtils.hashCodeOf(result, _kafkaFetcherSizeBytes);
     result = EqualityUtils.hashCodeOf(result, _kafkaFetcherMinBytes);
+    result = EqualityUtils.hashCodeOf(result, _kafkaConsumerMaxPartitions);
     return result;
   }
 }
@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.stream.kafka20;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Bytes;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class KafkaMultiplexedConsumerTest {
+  private static final String TOPIC = "testTopic";
+
+  @Test
+  public void testFetchNotBlockedByOtherPartition()
+      throws Exception {
+    MockConsumer<String, Bytes> mockConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    KafkaMultiplexedConsumer multiplexedConsumer = new KafkaMultiplexedConsumer(mockConsumer, 100);
+    TopicPartition partition0 = new TopicPartition(TOPIC, 0);
+    TopicPartition partition1 = new TopicPartition(TOPIC, 1);
+    multiplexedConsumer.addPartition(partition0);
+    multiplexedConsumer.addPartition(partition1);
+    Map<TopicPartition, Long> beginningOffsets = new HashMap<>();
+    beginningOffsets.put(partition0, 0L);
+    beginningOffsets.put(partition1, 0L);
+    mockConsumer.updateBeginningOffsets(beginningOffsets);
+
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      // Long fetch on the partition without any record
+      long fetchTimeoutMs = 5000L;
+      long startTimeMs = System.currentTimeMillis();
+      Future<List<ConsumerRecord<String, Bytes>>> future =
+          executorService.submit(() -> multiplexedConsumer.fetch(partition0, 0, Long.MAX_VALUE, (int) fetchTimeoutMs));
+
+      // Fetch on the other partition should return as soon as its records are available
+      for (int i = 0; i < 10; i++) {
+        mockConsumer.addRecord(new ConsumerRecord<>(TOPIC, 1, i, null, Bytes.wrap(new byte[]{(byte) i})));
+      }
+      List<ConsumerRecord<String, Bytes>> records = multiplexedConsumer.fetch(partition1, 0, Long.MAX_VALUE, 5000);
+      assertTrue(System.currentTimeMillis() - startTimeMs < fetchTimeoutMs);
+      assertEquals(records.size(), 10);
+      for (int i = 0; i < 10; i++) {
+        assertEquals(records.get(i).offset(), i);
+      }
+
+      // Fetch on the partition without any record should time out without any record
+      assertTrue(future.get().isEmpty());
+      assertTrue(System.currentTimeMillis() - startTimeMs >= fetchTimeoutMs);
+    } finally {
+      executorService.shutdownNow();
+      multiplexedConsumer.close();
+    }
+  }
+}
@@ -302,6 +302,71 @@ public class KafkaPartitionLevelConsumerTest {
     }
   }
 
+  @Test
+  public void testMultiplexedConsumer()
+      throws Exception {
+    String streamType = "kafka";
+    String streamKafkaBrokerList = "127.0.0.1:" + kafkaCluster.getKafkaServerPort(0);
+    String streamKafkaConsumerType = "simple";
+    String clientId = "clientId";
+    String tableNameWithType = "tableName_REALTIME";
+
+    Map<String, String> streamConfigMap = new HashMap<>();
+    streamConfigMap.put("streamType", streamType);
+    streamConfigMap.put("stream.kafka.topic.name", TEST_TOPIC_2);
+    streamConfigMap.put("stream.kafka.broker.list", streamKafkaBrokerList);
+    streamConfigMap.put("stream.kafka.consumer.type", streamKafkaConsumerType);
+    streamConfigMap.put("stream.kafka.consumer.factory.class.name", getKafkaConsumerFactoryName());
+    streamConfigMap.put("stream.kafka.decoder.class.name", "decoderClass");
+    streamConfigMap.put("stream.kafka.consumer.maxPartitions", "2");
+    StreamConfig streamConfig = new StreamConfig(tableNameWithType, streamConfigMap);
+
+    StreamConsumerFactory streamConsumerFactory = StreamConsumerFactoryProvider.create(streamConfig);
+    PartitionLevelConsumer[] consumers = new PartitionLevelConsumer[2];
+    for (int partition = 0; partition < 2; partition++) {
+      consumers[partition] = streamConsumerFactory.createPartitionLevelConsumer(clientId, partition);
+      Assert.assertTrue(consumers[partition] instanceof KafkaMultiplexedPartitionLevelConsumer);
+    }
+    KafkaMultiplexedConsumer sharedConsumer =
+        ((KafkaMultiplexedPartitionLevelConsumer) consumers[0]).getSharedConsumer();
+    Assert.assertSame(((KafkaMultiplexedPartitionLevelConsumer) consumers[1]).getSharedConsumer(), sharedConsumer);
+    Assert.assertEquals(sharedConsumer.getNumPartitions(), 2);
+
+    // Consume both partitions in an interleaved way
+    long[] offsets = new long[2];
+    for (int i = 0; i < 100 && (offsets[0] < NUM_MSG_PRODUCED_PER_PARTITION
+        || offsets[1] < NUM_MSG_PRODUCED_PER_PARTITION); i++) {
+      for (int partition = 0; partition < 2; partition++) {
+        MessageBatch batch = consumers[partition].fetchMessages(new LongMsgOffset(offsets[partition]), null, 1000);
+        Assert.assertTrue(batch.getMessageCount() <= 500);
+        for (int j = 0; j < batch.getMessageCount(); j++) {
+          Assert.assertEquals(new String((byte[]) batch.getMessageAtIndex(j)),
+              "sample_msg_" + (offsets[partition] + j));
+        }
+        offsets[partition] += batch.getMessageCount();
+      }
+    }
+    Assert.assertEquals(offsets[0], NUM_MSG_PRODUCED_PER_PARTITION);
+    Assert.assertEquals(offsets[1], NUM_MSG_PRODUCED_PER_PARTITION);
+
+    // Seek back to some random range
+    MessageBatch batch = consumers[0].fetchMessages(new LongMsgOffset(10), new LongMsgOffset(35), 10000);
+    Assert.assertEquals(batch.getMessageCount(), 25);
+    for (int i = 0; i < batch.getMessageCount(); i++) {
+      Assert.assertEquals(new String((byte[]) batch.getMessageAtIndex(i)), "sample_msg_" + (10 + i));
+    }
+
+    // New consumer of an already served partition should join the same shared consumer
+    PartitionLevelConsumer consumer = streamConsumerFactory.createPartitionLevelConsumer(clientId, 0);
+    Assert.assertSame(((KafkaMultiplexedPartitionLevelConsumer) consumer).getSharedConsumer(), sharedConsumer);
+    Assert.assertEquals(sharedConsumer.getNumPartitions(), 2);
+    consumer.close();
+    consumers[0].close();
+    Assert.assertEquals(sharedConsumer.getNumPartitions(), 1);
+    consumers[1].close();
+    Assert.assertEquals(sharedConsumer.getNumPartitions(), 0);
+  }
+
   protected String getKafkaConsumerFactoryName() {
     return KafkaConsumerFactory.class.getName();
   }
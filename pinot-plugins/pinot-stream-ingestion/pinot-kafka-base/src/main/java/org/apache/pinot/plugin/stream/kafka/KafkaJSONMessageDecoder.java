@@ -19,9 +19,8 @@
 package org.apache.pinot.plugin.stream.kafka;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.util.Arrays;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Set;
 import org.apache.pinot.spi.data.readers.GenericRow;
@@ -38,7 +37,10 @@ import org.slf4j.LoggerFactory;
  */
 public class KafkaJSONMessageDecoder implements StreamMessageDecoder<byte[]> {
   private static final Logger LOGGER = LoggerFactory.getLogger(KafkaJSONMessageDecoder.class);
-  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  // Parses the payload into a map directly instead of going through a JsonNode
+  private static final ObjectReader MAP_READER =
+      JsonUtils.DEFAULT_READER.forType(new TypeReference<Map<String, Object>>() {
+      });
   private static final String JSON_RECORD_EXTRACTOR_CLASS =
       "org.apache.pinot.plugin.inputformat.json.JSONRecordExtractor";
 
@@ -60,20 +62,19 @@ public class KafkaJSONMessageDecoder implements StreamMessageDecoder<byte[]> {
 
   @Override
   public GenericRow decode(byte[] payload, GenericRow destination) {
+    return decode(payload, 0, payload.length, destination);
+  }
+
+  @Override
+  public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
     try {
-      JsonNode message = JsonUtils.bytesToJsonNode(payload);
-      Map<String, Object> from = OBJECT_MAPPER.convertValue(message, new TypeReference<Map<String, Object>>() {
-      });
+      Map<String, Object> from = MAP_READER.readValue(payload, offset, length);
       _jsonRecordExtractor.extract(from, destination);
       return destination;
     } catch (Exception e) {
-      LOGGER.error("Caught exception while decoding row, discarding row. Payload is {}", new String(payload), e);
+      LOGGER.error("Caught exception while decoding row, discarding row. Payload is {}",
+          new String(payload, offset, length, StandardCharsets.UTF_8), e);
       return null;
     }
   }
-
-  @Override
-  public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
-    return decode(Arrays.copyOfRange(payload, offset, offset + length), destination);
-  }
 }
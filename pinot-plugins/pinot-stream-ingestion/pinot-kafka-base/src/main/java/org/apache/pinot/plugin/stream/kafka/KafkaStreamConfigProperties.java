@@ -59,6 +59,9 @@ public class KafkaStreamConfigProperties {
     public static final String KAFKA_FETCHER_SIZE_BYTES = "kafka.fetcher.size";
     public static final String KAFKA_FETCHER_MIN_BYTES = "kafka.fetcher.minBytes";
     public static final int KAFKA_FETCHER_MIN_BYTES_DEFAULT = 100000;
+    // Max number of partitions served by one Kafka consumer, where 1 means one dedicated consumer per partition
+    public static final String KAFKA_CONSUMER_MAX_PARTITIONS = "kafka.consumer.maxPartitions";
+    public static final int KAFKA_CONSUMER_MAX_PARTITIONS_DEFAULT = 1;
   }
 
   public static final String KAFKA_CONSUMER_PROP_PREFIX = "kafka.consumer.prop";
@@ -23,13 +23,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.TimeFieldSpec;
 import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.stream.MessageBatch;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -78,6 +82,66 @@ public class KafkaJSONMessageDecoderTest {
     testJsonDecoder(sourceFields);
   }
 
+  @Test
+  public void testDecodeBatch()
+      throws Exception {
+    KafkaJSONMessageDecoder decoder = new KafkaJSONMessageDecoder();
+    decoder.init(new HashMap<>(), new HashSet<>(Arrays.asList("a", "b")), "testTopic");
+
+    // Messages are slices of a shared buffer, with an invalid message in the middle
+    String[] messages = {"{\"a\": 1, \"b\": \"x\"}", "not json", "{\"a\": 2, \"b\": \"y\"}"};
+    StringBuilder buffer = new StringBuilder("header");
+    int[] offsets = new int[messages.length];
+    int[] lengths = new int[messages.length];
+    for (int i = 0; i < messages.length; i++) {
+      offsets[i] = buffer.length();
+      lengths[i] = messages[i].length();
+      buffer.append(messages[i]);
+    }
+    byte[] payload = buffer.toString().getBytes(StandardCharsets.UTF_8);
+    MessageBatch<byte[]> messageBatch = new MessageBatch<byte[]>() {
+      @Override
+      public int getMessageCount() {
+        return messages.length;
+      }
+
+      @Override
+      public byte[] getMessageAtIndex(int index) {
+        return payload;
+      }
+
+      @Override
+      public int getMessageOffsetAtIndex(int index) {
+        return offsets[index];
+      }
+
+      @Override
+      public int getMessageLengthAtIndex(int index) {
+        return lengths[index];
+      }
+
+      @Override
+      public long getNextStreamMessageOffsetAtIndex(int index) {
+        return index + 1;
+      }
+    };
+
+    GenericRow[] destinations = new GenericRow[]{new GenericRow(), new GenericRow(), new GenericRow()};
+    GenericRow[] decodedRows = decoder.decodeBatch(messageBatch, 0, messages.length, destinations);
+    Assert.assertEquals(decodedRows.length, 3);
+    Assert.assertSame(decodedRows[0], destinations[0]);
+    Assert.assertEquals(decodedRows[0].getValue("a"), 1);
+    Assert.assertEquals(decodedRows[0].getValue("b"), "x");
+    Assert.assertNull(decodedRows[1]);
+    Assert.assertEquals(decodedRows[2].getValue("a"), 2);
+    Assert.assertEquals(decodedRows[2].getValue("b"), "y");
+
+    // Decode a sub-range of the batch
+    decodedRows = decoder.decodeBatch(messageBatch, 2, 3, new GenericRow[]{new GenericRow()});
+    Assert.assertEquals(decodedRows.length, 1);
+    Assert.assertEquals(decodedRows[0].getValue("a"), 2);
+  }
+
   private void testJsonDecoder(Map<String, FieldSpec.DataType> sourceFields)
       throws Exception {
     try (BufferedReader reader = new BufferedReader(
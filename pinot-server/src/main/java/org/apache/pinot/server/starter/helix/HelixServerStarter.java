@@ -33,6 +33,11 @@ import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_INS
 import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_INSTANCE_ID;
 import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_INSTANCE_SEGMENT_TAR_DIR;
 import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_QUERY_EXECUTOR_TIMEOUT;
+import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_REALTIME_CONSUMPTION_NUM_THREADS;
+import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_REALTIME_MEMORY_BUDGET;
+import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_REALTIME_MEMORY_HIGH_WATERMARK_RATIO;
+import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_REALTIME_MEMORY_LOW_WATERMARK_RATIO;
+import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_REALTIME_TEXT_INDEX_RAM_BUDGET_MB;
 import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_SERVER_MIN_RESOURCE_PERCENT_FOR_START;
 import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_SHUTDOWN_ENABLE_QUERY_CHECK;
 import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_SHUTDOWN_ENABLE_RESOURCE_CHECK;
@@ -46,6 +51,11 @@ import static org.apache.pinot.common.utils.CommonConstants.Server.CONFIG_OF_STA
 import static org.apache.pinot.common.utils.CommonConstants.Server.DEFAULT_ACCESS_CONTROL_FACTORY_CLASS;
 import static org.apache.pinot.common.utils.CommonConstants.Server.DEFAULT_ADMIN_API_PORT;
 import static org.apache.pinot.common.utils.CommonConstants.Server.DEFAULT_QUERY_EXECUTOR_TIMEOUT_MS;
+import static org.apache.pinot.common.utils.CommonConstants.Server.DEFAULT_REALTIME_CONSUMPTION_NUM_THREADS;
+import static org.apache.pinot.common.utils.CommonConstants.Server.DEFAULT_REALTIME_MEMORY_BUDGET;
+import static org.apache.pinot.common.utils.CommonConstants.Server.DEFAULT_REALTIME_MEMORY_HIGH_WATERMARK_RATIO;
+import static org.apache.pinot.common.utils.CommonConstants.Server.DEFAULT_REALTIME_MEMORY_LOW_WATERMARK_RATIO;
+import static org.apache.pinot.common.utils.CommonConstants.Server.DEFAULT_REALTIME_TEXT_INDEX_RAM_BUDGET_MB;
 import static org.apache.pinot.common.utils.CommonConstants.Server.DEFAULT_SERVER_MIN_RESOURCE_PERCENT_FOR_START;
 import static org.apache.pinot.common.utils.CommonConstants.Server.DEFAULT_SHUTDOWN_ENABLE_QUERY_CHECK;
 import static org.apache.pinot.common.utils.CommonConstants.Server.DEFAULT_SHUTDOWN_ENABLE_RESOURCE_CHECK;
@@ -94,6 +104,8 @@ import org.apache.pinot.common.utils.ServiceStatus;
 import org.apache.pinot.common.utils.ServiceStatus.Status;
 import org.apache.pinot.common.utils.config.TagNameUtils;
 import org.apache.pinot.core.data.manager.InstanceDataManager;
+import org.apache.pinot.core.data.manager.realtime.RealtimeConsumptionScheduler;
+import org.apache.pinot.core.data.manager.realtime.RealtimeMemoryGovernor;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 import org.apache.pinot.server.api.access.AccessControlFactory;
@@ -106,6 +118,7 @@ import org.apache.pinot.spi.filesystem.PinotFSFactory;
 import org.apache.pinot.spi.plugin.PluginManager;
 import org.apache.pinot.spi.services.ServiceRole;
 import org.apache.pinot.spi.services.ServiceStartable;
+import org.apache.pinot.spi.utils.DataSizeUtils;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -370,6 +383,15 @@ public class HelixServerStarter implements ServiceStartable {
     _serverInstance = new ServerInstance(serverInstanceConfig, _helixManager);
     ServerMetrics serverMetrics = _serverInstance.getServerMetrics();
     InstanceDataManager instanceDataManager = _serverInstance.getInstanceDataManager();
+    // Initialize the realtime memory governor and consumption scheduler before the consuming segments are created
+    RealtimeMemoryGovernor.init(DataSizeUtils
+            .toBytes(_serverConf.getProperty(CONFIG_OF_REALTIME_MEMORY_BUDGET, DEFAULT_REALTIME_MEMORY_BUDGET)),
+        _serverConf.getProperty(CONFIG_OF_REALTIME_MEMORY_HIGH_WATERMARK_RATIO,
+            DEFAULT_REALTIME_MEMORY_HIGH_WATERMARK_RATIO),
+        _serverConf.getProperty(CONFIG_OF_REALTIME_MEMORY_LOW_WATERMARK_RATIO,
+            DEFAULT_REALTIME_MEMORY_LOW_WATERMARK_RATIO), serverMetrics);
+    RealtimeConsumptionScheduler.init(
+        _serverConf.getProperty(CONFIG_OF_REALTIME_CONSUMPTION_NUM_THREADS, DEFAULT_REALTIME_CONSUMPTION_NUM_THREADS));
     SegmentFetcherAndLoader fetcherAndLoader = new SegmentFetcherAndLoader(_serverConf, instanceDataManager, serverMetrics);
     StateModelFactory<?> stateModelFactory =
         new SegmentOnlineOfflineStateModelFactory(_instanceId, instanceDataManager, fetcherAndLoader);
@@ -431,7 +453,8 @@ public class HelixServerStarter implements ServiceStartable {
     serverMetrics.addCallbackGauge("memory.allocationFailureCount", PinotDataBuffer::getAllocationFailureCount);
 
     _realtimeLuceneIndexRefreshState = RealtimeLuceneIndexRefreshState.getInstance();
-    _realtimeLuceneIndexRefreshState.start();
+    _realtimeLuceneIndexRefreshState.start(serverMetrics, _serverConf
+        .getProperty(CONFIG_OF_REALTIME_TEXT_INDEX_RAM_BUDGET_MB, DEFAULT_REALTIME_TEXT_INDEX_RAM_BUDGET_MB));
   }
 
   @Override
@@ -458,6 +481,8 @@ public class HelixServerStarter implements ServiceStartable {
       shutdownResourceCheck(endTimeMs);
     }
     _realtimeLuceneIndexRefreshState.stop();
+    RealtimeMemoryGovernor.shutDown();
+    RealtimeConsumptionScheduler.shutDown();
     LOGGER.info("Deregistering service status handler");
     ServiceStatus.removeServiceStatusCallback(_instanceId);
     LOGGER.info("Finish shutting down Pinot server for {}", _instanceId);
@@ -38,11 +38,20 @@ public class FieldConfig extends BaseJsonConfig {
   public static String VAR_LENGTH_DICTIONARY_COLUMN_KEY = "useVarLengthDictionary";
   public static String DERIVE_NUM_DOCS_PER_CHUNK_RAW_INDEX_KEY = "deriveNumDocsPerChunkForRawIndex";
   public static String RAW_INDEX_WRITER_VERSION = "rawIndexWriterVersion";
+  // Encoding of the values in the raw forward index (see RawIndexEncoding), only applies to no-dictionary columns
+  public static String RAW_INDEX_ENCODING = "rawIndexEncoding";
 
   public static String TEXT_INDEX_REALTIME_READER_REFRESH_KEY = "textIndexRealtimeReaderRefreshThreshold";
   // Lucene creates a query result cache if this option is enabled
   // the cache improves performance of repeatable queries
   public static String TEXT_INDEX_ENABLE_QUERY_CACHE = "enableQueryCacheForTextIndex";
+  // Refresh policy of the text index reader for the consuming segment:
+  // - Min interval between the refreshes while new documents keep arriving
+  // - Max staleness of the reader, which bounds the interval between the checks for new documents when idle
+  // - Whether to refresh the reader on query if it lags behind the indexed documents
+  public static String TEXT_INDEX_REALTIME_MIN_REFRESH_INTERVAL_MS = "textIndexRealtimeMinRefreshIntervalMs";
+  public static String TEXT_INDEX_REALTIME_MAX_STALENESS_MS = "textIndexRealtimeMaxStalenessMs";
+  public static String TEXT_INDEX_REALTIME_REFRESH_ON_QUERY = "textIndexRealtimeRefreshOnQuery";
 
   @JsonCreator
   public FieldConfig(@JsonProperty(value = "name", required = true) String name,
@@ -61,9 +70,15 @@ public class FieldConfig extends BaseJsonConfig {
     RAW, DICTIONARY
   }
 
+  // Encodings of the raw forward index other than the default chunk compression
+  // FOR: frame-of-reference/delta bit-packing for single-value INT/LONG columns
+  public enum RawIndexEncoding {
+    FOR
+  }
+
   // If null, there won't be any index
   public enum IndexType {
-    INVERTED, SORTED, TEXT
+    INVERTED, SORTED, TEXT, FST, JSON
   }
 
   public String getName() {
@@ -45,6 +45,8 @@ public class IndexingConfig extends BaseJsonConfig {
   private SegmentPartitionConfig _segmentPartitionConfig;
   private boolean _aggregateMetrics;
   private boolean _nullHandlingEnabled;
+  // Whether to share the decompressed chunks of the raw forward indexes across the queries via the server chunk cache
+  private boolean _chunkCacheEnabled;
 
   /**
    * The list of columns for which the variable length dictionary needs to be enabled in offline
@@ -225,4 +227,12 @@ public class IndexingConfig extends BaseJsonConfig {
   public void setNullHandlingEnabled(boolean nullHandlingEnabled) {
     _nullHandlingEnabled = nullHandlingEnabled;
   }
+
+  public boolean isChunkCacheEnabled() {
+    return _chunkCacheEnabled;
+  }
+
+  public void setChunkCacheEnabled(boolean chunkCacheEnabled) {
+    _chunkCacheEnabled = chunkCacheEnabled;
+  }
 }
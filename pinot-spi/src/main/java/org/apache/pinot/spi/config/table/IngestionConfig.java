@@ -25,6 +25,7 @@ import java.util.List;
 import javax.annotation.Nullable;
 import org.apache.pinot.spi.config.BaseJsonConfig;
 import org.apache.pinot.spi.config.table.ingestion.FilterConfig;
+import org.apache.pinot.spi.config.table.ingestion.RollupConfig;
 import org.apache.pinot.spi.config.table.ingestion.TransformConfig;
 
 
@@ -41,11 +42,20 @@ public class IngestionConfig extends BaseJsonConfig {
   @JsonPropertyDescription("Configs related to record transformation functions applied during ingestion")
   private final List<TransformConfig> _transformConfigs;
 
+  @JsonPropertyDescription("Config related to the rollup of records during real-time ingestion")
+  private final RollupConfig _rollupConfig;
+
+  public IngestionConfig(@Nullable FilterConfig filterConfig, @Nullable List<TransformConfig> transformConfigs) {
+    this(filterConfig, transformConfigs, null);
+  }
+
   @JsonCreator
   public IngestionConfig(@JsonProperty("filterConfig") @Nullable FilterConfig filterConfig,
-      @JsonProperty("transformConfigs") @Nullable List<TransformConfig> transformConfigs) {
+      @JsonProperty("transformConfigs") @Nullable List<TransformConfig> transformConfigs,
+      @JsonProperty("rollupConfig") @Nullable RollupConfig rollupConfig) {
     _filterConfig = filterConfig;
     _transformConfigs = transformConfigs;
+    _rollupConfig = rollupConfig;
   }
 
   @Nullable
@@ -57,4 +67,9 @@ public class IngestionConfig extends BaseJsonConfig {
   public List<TransformConfig> getTransformConfigs() {
     return _transformConfigs;
   }
+
+  @Nullable
+  public RollupConfig getRollupConfig() {
+    return _rollupConfig;
+  }
 }
@@ -41,8 +41,8 @@ public class UpsertConfig extends BaseJsonConfig {
       @JsonProperty(value = "offsetColumn") String offsetColumn,
       @JsonProperty(value = "validFromColumn") String validFromColumn,
       @JsonProperty(value = "validUntilColumn") String validUntilColumn) {
-    Preconditions.checkArgument(primaryKeyColumns != null && primaryKeyColumns.size() == 1,
-        "'primaryKeyColumns' must be configured with exact one column");
+    Preconditions.checkArgument(primaryKeyColumns != null && !primaryKeyColumns.isEmpty(),
+        "'primaryKeyColumns' must be configured with at least one column");
     Preconditions.checkArgument(StringUtils.isNotEmpty(offsetColumn), "'offsetColumn' must be configured");
     Preconditions.checkArgument(StringUtils.isNotEmpty(validFromColumn), "'validFromColumn' must be configured");
     Preconditions.checkArgument(StringUtils.isNotEmpty(validUntilColumn), "'validUntilColumn' must be configured");
@@ -0,0 +1,58 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.config.table.ingestion;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.config.BaseJsonConfig;
+
+
+/**
+ * Configs related to the rollup of records during real-time ingestion (applied when metrics aggregation is enabled in
+ * the indexing config)
+ */
+public class RollupConfig extends BaseJsonConfig {
+
+  @JsonPropertyDescription("Map from metric column to the aggregation function applied when rolling up the records, "
+      + "one of SUM, MIN, MAX, DISTINCTCOUNTHLL, DISTINCTCOUNTTHETASKETCH (SUM if not specified)")
+  private final Map<String, String> _aggregationFunctions;
+
+  @JsonPropertyDescription("Granularity the time column is truncated to before rolling up the records, e.g. 1:MINUTES")
+  private final String _timeGranularity;
+
+  @JsonCreator
+  public RollupConfig(@JsonProperty("aggregationFunctions") @Nullable Map<String, String> aggregationFunctions,
+      @JsonProperty("timeGranularity") @Nullable String timeGranularity) {
+    _aggregationFunctions = aggregationFunctions;
+    _timeGranularity = timeGranularity;
+  }
+
+  @Nullable
+  public Map<String, String> getAggregationFunctions() {
+    return _aggregationFunctions;
+  }
+
+  @Nullable
+  public String getTimeGranularity() {
+    return _timeGranularity;
+  }
+}
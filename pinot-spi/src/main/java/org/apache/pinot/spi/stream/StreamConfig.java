@@ -48,6 +48,7 @@ public class StreamConfig {
   public static final long DEFAULT_FLUSH_THRESHOLD_TIME_MILLIS = TimeUnit.MILLISECONDS.convert(6, TimeUnit.HOURS);
   public static final long DEFAULT_FLUSH_SEGMENT_DESIRED_SIZE_BYTES = 200 * 1024 * 1024; // 200M
   public static final int DEFAULT_FLUSH_AUTOTUNE_INITIAL_ROWS = 100_000;
+  public static final int DEFAULT_CONSUMPTION_PIPELINE_NUM_THREADS = 0;
 
   public static final String DEFAULT_CONSUMER_FACTORY_CLASS_NAME_STRING =
       "org.apache.pinot.plugin.stream.kafka09.KafkaConsumerFactory";
@@ -74,6 +75,8 @@ public class StreamConfig {
   private final long _flushSegmentDesiredSizeBytes;
   private final int _flushAutotuneInitialRows; // initial num rows to use for SegmentSizeBasedFlushThresholdUpdater
 
+  private final int _consumptionPipelineNumThreads;
+
   private final String _groupId;
 
   private final Map<String, String> _streamConfigMap = new HashMap<>();
@@ -193,6 +196,20 @@ public class StreamConfig {
     }
     _flushAutotuneInitialRows = autotuneInitialRows > 0 ? autotuneInitialRows : DEFAULT_FLUSH_AUTOTUNE_INITIAL_ROWS;
 
+    int consumptionPipelineNumThreads = DEFAULT_CONSUMPTION_PIPELINE_NUM_THREADS;
+    String consumptionPipelineNumThreadsValue =
+        streamConfigMap.get(StreamConfigProperties.CONSUMPTION_PIPELINE_NUM_THREADS);
+    if (consumptionPipelineNumThreadsValue != null) {
+      try {
+        consumptionPipelineNumThreads = Integer.parseInt(consumptionPipelineNumThreadsValue);
+      } catch (Exception e) {
+        LOGGER.warn("Invalid config {}: {}, defaulting to: {}",
+            StreamConfigProperties.CONSUMPTION_PIPELINE_NUM_THREADS, consumptionPipelineNumThreadsValue,
+            DEFAULT_CONSUMPTION_PIPELINE_NUM_THREADS);
+      }
+    }
+    _consumptionPipelineNumThreads = Math.max(consumptionPipelineNumThreads, 0);
+
     String groupIdKey = StreamConfigProperties.constructStreamProperty(_type, StreamConfigProperties.GROUP_ID);
     _groupId = streamConfigMap.get(groupIdKey);
 
@@ -297,6 +314,14 @@ public class StreamConfig {
     return _flushAutotuneInitialRows;
   }
 
+  /**
+   * Returns the number of threads to decode and transform the stream messages, or 0 if the consumption is not
+   * pipelined.
+   */
+  public int getConsumptionPipelineNumThreads() {
+    return _consumptionPipelineNumThreads;
+  }
+
   public String getGroupId() {
     return _groupId;
   }
@@ -316,7 +341,8 @@ public class StreamConfig {
         + _offsetCriteria + '\'' + ", _connectionTimeoutMillis=" + _connectionTimeoutMillis + ", _fetchTimeoutMillis="
         + _fetchTimeoutMillis + ", _flushThresholdRows=" + _flushThresholdRows + ", _flushThresholdTimeMillis="
         + _flushThresholdTimeMillis + ", _flushSegmentDesiredSizeBytes=" + _flushSegmentDesiredSizeBytes
-        + ", _flushAutotuneInitialRows=" + _flushAutotuneInitialRows + ", _decoderClass='" + _decoderClass + '\''
+        + ", _flushAutotuneInitialRows=" + _flushAutotuneInitialRows + ", _consumptionPipelineNumThreads="
+        + _consumptionPipelineNumThreads + ", _decoderClass='" + _decoderClass + '\''
         + ", _decoderProperties=" + _decoderProperties + ", _groupId='" + _groupId + ", _tableNameWithType='"
         + _tableNameWithType + '}';
   }
@@ -338,7 +364,9 @@ public class StreamConfig {
         .isEqual(_flushThresholdRows, that._flushThresholdRows) && EqualityUtils
         .isEqual(_flushThresholdTimeMillis, that._flushThresholdTimeMillis) && EqualityUtils
         .isEqual(_flushSegmentDesiredSizeBytes, that._flushSegmentDesiredSizeBytes) && EqualityUtils
-        .isEqual(_flushAutotuneInitialRows, that._flushAutotuneInitialRows) && EqualityUtils.isEqual(_type, that._type)
+        .isEqual(_flushAutotuneInitialRows, that._flushAutotuneInitialRows) && EqualityUtils
+        .isEqual(_consumptionPipelineNumThreads, that._consumptionPipelineNumThreads) && EqualityUtils
+        .isEqual(_type, that._type)
         && EqualityUtils.isEqual(_topicName, that._topicName) && EqualityUtils
         .isEqual(_consumerTypes, that._consumerTypes) && EqualityUtils
         .isEqual(_consumerFactoryClassName, that._consumerFactoryClassName) && EqualityUtils
@@ -361,6 +389,7 @@ public class StreamConfig {
     result = EqualityUtils.hashCodeOf(result, _flushThresholdTimeMillis);
     result = EqualityUtils.hashCodeOf(result, _flushSegmentDesiredSizeBytes);
     result = EqualityUtils.hashCodeOf(result, _flushAutotuneInitialRows);
+    result = EqualityUtils.hashCodeOf(result, _consumptionPipelineNumThreads);
     result = EqualityUtils.hashCodeOf(result, _decoderClass);
     result = EqualityUtils.hashCodeOf(result, _decoderProperties);
     result = EqualityUtils.hashCodeOf(result, _groupId);
@@ -98,6 +98,16 @@ public class StreamConfigProperties {
   // Time threshold that controller will wait for the segment to be built by the server
   public static final String SEGMENT_COMMIT_TIMEOUT_SECONDS = "realtime.segment.commit.timeoutSeconds";
 
+  /**
+   * Number of threads to decode and transform the stream messages for the low level consumer. When set to a positive
+   * value, the consumption is pipelined: the next message batch is prefetched while the current one is being indexed,
+   * and the messages are decoded and transformed on the given number of threads (in order) while the consumer thread
+   * indexes the rows into the consuming segment. By default (0) all the stages run on the consumer thread.
+   * <p>NOTE: The pipelined consumption requires the message batches returned by the consumer to stay valid after the
+   * next fetch.
+   */
+  public static final String CONSUMPTION_PIPELINE_NUM_THREADS = "realtime.consumption.pipeline.numThreads";
+
   /**
    * Helper method to create a stream specific property
    */
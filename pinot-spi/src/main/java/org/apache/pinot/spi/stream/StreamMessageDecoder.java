@@ -64,4 +64,27 @@ public interface StreamMessageDecoder<T> {
    * @return A new row decoded from the buffer
    */
   GenericRow decode(T payload, int offset, int length, GenericRow destination);
+
+  /**
+   * Decodes the messages within the index range [startIndex, endIndex) of the message batch.
+   * <p>The message at index {@code startIndex + i} is decoded into {@code destinations[i]}. The default implementation
+   * decodes the messages one by one, and implementations can override it to amortize the per-message overhead (e.g.
+   * schema resolution, parser setup) across the batch.
+   *
+   * @param messageBatch The message batch to decode
+   * @param startIndex Index of the first message to decode (inclusive)
+   * @param endIndex Index of the last message to decode (exclusive)
+   * @param destinations The {@link GenericRow}s to write the decoded rows into, at least one per message
+   * @return The decoded rows, one per message, where the row is {@code null} if the message cannot be decoded
+   */
+  default GenericRow[] decodeBatch(MessageBatch<T> messageBatch, int startIndex, int endIndex,
+      GenericRow[] destinations) {
+    GenericRow[] decodedRows = new GenericRow[endIndex - startIndex];
+    for (int i = startIndex; i < endIndex; i++) {
+      decodedRows[i - startIndex] =
+          decode(messageBatch.getMessageAtIndex(i), messageBatch.getMessageOffsetAtIndex(i),
+              messageBatch.getMessageLengthAtIndex(i), destinations[i - startIndex]);
+    }
+    return decodedRows;
+  }
 }
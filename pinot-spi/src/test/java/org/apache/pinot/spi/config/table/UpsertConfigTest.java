@@ -37,6 +37,10 @@ public class UpsertConfigTest {
     assertEquals(upsertConfig.getValidFromColumn(), "validFrom");
     assertEquals(upsertConfig.getValidUntilColumn(), "validUntil");
 
+    // Test composite primary key
+    upsertConfig = new UpsertConfig(ImmutableList.of("pk1", "pk2"), "offset", "validFrom", "validUntil");
+    assertEquals(upsertConfig.getPrimaryKeyColumns(), ImmutableList.of("pk1", "pk2"));
+
     // Test illegal arguments
     try {
       new UpsertConfig(null, "offset", "validFrom", "validUntil");
@@ -45,7 +49,7 @@ public class UpsertConfigTest {
       // Expected
     }
     try {
-      new UpsertConfig(ImmutableList.of("pk1", "pk2"), "offset", "validFrom", "validUntil");
+      new UpsertConfig(Collections.emptyList(), "offset", "validFrom", "validUntil");
       fail();
     } catch (IllegalArgumentException e) {
       // Expected